@@ -75,8 +75,28 @@ public class PTSkimMatrices {
     private PTSkimMatrices() {
     }
 
+    /**
+     * Calculates the skim matrices from the connections found for departure times sampled every
+     * <code>stepSize_seconds</code> around the time window.
+     */
     public static <T> PTSkimMatrices.PtIndicators<T> calculateSkimMatrices(SwissRailRaptorData raptorData, Map<T, Coord[]> coordsPerZone, double minDepartureTime, double maxDepartureTime,
             double stepSize_seconds, RaptorParameters parameters, int numberOfThreads, BiPredicate<TransitLine, TransitRoute> trainDetector) {
+        return calculateSkimMatrices(raptorData, coordsPerZone, minDepartureTime, maxDepartureTime, stepSize_seconds, parameters, numberOfThreads, trainDetector, false);
+    }
+
+    /**
+     * Calculates the skim matrices from the connections of every departure around the time window instead of sampled
+     * departure times, with one profile tree per origin point, see {@link SwissRailRaptor#calcProfileTree}. This is
+     * usually faster and does not miss connections between the samples, so the results differ slightly from
+     * {@link #calculateSkimMatrices}.
+     */
+    public static <T> PTSkimMatrices.PtIndicators<T> calculateSkimMatricesForAllDepartures(SwissRailRaptorData raptorData, Map<T, Coord[]> coordsPerZone, double minDepartureTime,
+            double maxDepartureTime, RaptorParameters parameters, int numberOfThreads, BiPredicate<TransitLine, TransitRoute> trainDetector) {
+        return calculateSkimMatrices(raptorData, coordsPerZone, minDepartureTime, maxDepartureTime, 0, parameters, numberOfThreads, trainDetector, true);
+    }
+
+    private static <T> PTSkimMatrices.PtIndicators<T> calculateSkimMatrices(SwissRailRaptorData raptorData, Map<T, Coord[]> coordsPerZone, double minDepartureTime, double maxDepartureTime,
+            double stepSize_seconds, RaptorParameters parameters, int numberOfThreads, BiPredicate<TransitLine, TransitRoute> trainDetector, boolean allDepartures) {
         // prepare calculation
         Set<T> zoneIds = coordsPerZone.keySet();
         PtIndicators<T> pti = new PtIndicators<>(zoneIds);
@@ -89,7 +109,7 @@ public class PTSkimMatrices {
         Thread[] threads = new Thread[numberOfThreads];
         for (int i = 0; i < numberOfThreads; i++) {
             SwissRailRaptor raptor = new SwissRailRaptor.Builder(raptorData, config).build();
-            RowWorker<T> worker = new RowWorker<>(originZones, zoneIds, coordsPerZone, pti, raptor, parameters, minDepartureTime, maxDepartureTime, stepSize_seconds, counter, trainDetector);
+            RowWorker<T> worker = new RowWorker<>(originZones, zoneIds, coordsPerZone, pti, raptor, parameters, minDepartureTime, maxDepartureTime, stepSize_seconds, allDepartures, counter, trainDetector);
             threads[i] = new Thread(worker, "PT-FrequencyMatrix-" + Time.writeTime(minDepartureTime) + "-" + Time.writeTime(maxDepartureTime) + "-" + i);
             threads[i].start();
         }
@@ -146,11 +166,12 @@ public class PTSkimMatrices {
         private final double minDepartureTime;
         private final double maxDepartureTime;
         private final double stepSize;
+        private final boolean allDepartures;
         private final Counter counter;
         private final BiPredicate<TransitLine, TransitRoute> trainDetector;
 
         RowWorker(ConcurrentLinkedQueue<T> originZones, Set<T> destinationZones, Map<T, Coord[]> coordsPerZone, PtIndicators<T> pti, SwissRailRaptor raptor, RaptorParameters parameters,
-                double minDepartureTime, double maxDepartureTime, double stepSize, Counter counter, BiPredicate<TransitLine, TransitRoute> trainDetector) {
+                double minDepartureTime, double maxDepartureTime, double stepSize, boolean allDepartures, Counter counter, BiPredicate<TransitLine, TransitRoute> trainDetector) {
             this.originZones = originZones;
             this.destinationZones = destinationZones;
             this.coordsPerZone = coordsPerZone;
@@ -160,6 +181,7 @@ public class PTSkimMatrices {
             this.minDepartureTime = minDepartureTime;
             this.maxDepartureTime = maxDepartureTime;
             this.stepSize = stepSize;
+            this.allDepartures = allDepartures;
             this.counter = counter;
             this.trainDetector = trainDetector;
         }
@@ -203,26 +225,32 @@ public class PTSkimMatrices {
                 accessTimes.put(stop.getId(), accessTime);
             }
 
-            List<Map<Id<TransitStopFacility>, TravelInfo>> trees = new ArrayList<>();
-
             double timeWindow = this.maxDepartureTime - this.minDepartureTime;
             double endTime = this.maxDepartureTime + timeWindow;
-            for (double time = this.minDepartureTime - timeWindow; time < endTime; time += this.stepSize) {
-                Map<Id<TransitStopFacility>, TravelInfo> tree = this.raptor.calcTree(fromStops, time, this.parameters, null);
-                trees.add(tree);
+            // only one of them is used, depending on allDepartures
+            List<Map<Id<TransitStopFacility>, TravelInfo>> trees = new ArrayList<>();
+            Map<Id<TransitStopFacility>, List<TravelInfo>> profile = null;
+            if (this.allDepartures) {
+                profile = this.raptor.calcProfileTree(fromStops, this.minDepartureTime - timeWindow, endTime, this.parameters, null);
+            } else {
+                for (double time = this.minDepartureTime - timeWindow; time < endTime; time += this.stepSize) {
+                    Map<Id<TransitStopFacility>, TravelInfo> tree = this.raptor.calcTree(fromStops, time, this.parameters, null);
+                    trees.add(tree);
+                }
             }
 
             for (T toZoneId : this.destinationZones) {
                 Coord[] toCoords = this.coordsPerZone.get(toZoneId);
                 if (toCoords != null) {
                     for (Coord toCoord : toCoords) {
-                        calcForOD(fromZoneId, toZoneId, toCoord, accessTimes, trees);
+                        calcForOD(fromZoneId, toZoneId, toCoord, accessTimes, trees, profile);
                     }
                 }
             }
         }
 
-        private void calcForOD(T fromZoneId, T toZoneId, Coord toCoord, Map<Id<TransitStopFacility>, Double> accessTimes, List<Map<Id<TransitStopFacility>, TravelInfo>> trees) {
+        private void calcForOD(T fromZoneId, T toZoneId, Coord toCoord, Map<Id<TransitStopFacility>, Double> accessTimes, List<Map<Id<TransitStopFacility>, TravelInfo>> trees,
+                Map<Id<TransitStopFacility>, List<TravelInfo>> profile) {
             double walkSpeed = this.parameters.getBeelineWalkSpeed();
 
             Collection<TransitStopFacility> toStops = findStopCandidates(toCoord, this.raptor, this.parameters);
@@ -233,7 +261,7 @@ public class PTSkimMatrices {
                 egressTimes.put(stop.getId(), egressTime);
             }
 
-            List<ODConnection> connections = buildODConnections(trees, accessTimes, egressTimes);
+            List<ODConnection> connections = this.allDepartures ? buildODConnections(profile, accessTimes, egressTimes) : buildODConnections(trees, accessTimes, egressTimes);
             if (connections.isEmpty()) {
                 return;
             }
@@ -327,6 +355,26 @@ public class PTSkimMatrices {
 
             return connections;
         }
+
+        private List<ODConnection> buildODConnections(Map<Id<TransitStopFacility>, List<TravelInfo>> profile, Map<Id<TransitStopFacility>, Double> accessTimes,
+                Map<Id<TransitStopFacility>, Double> egressTimes) {
+            List<ODConnection> connections = new ArrayList<>();
+
+            for (Map.Entry<Id<TransitStopFacility>, Double> egressEntry : egressTimes.entrySet()) {
+                Id<TransitStopFacility> egressStopId = egressEntry.getKey();
+                Double egressTime = egressEntry.getValue();
+                List<TravelInfo> infos = profile.get(egressStopId);
+                if (infos != null) {
+                    for (TravelInfo info : infos) {
+                        Double accessTime = accessTimes.get(info.departureStop);
+                        ODConnection connection = new ODConnection(info.ptDepartureTime, info.ptTravelTime, accessTime, egressTime, info.transferCount, info);
+                        connections.add(connection);
+                    }
+                }
+            }
+
+            return connections;
+        }
     }
 
     public static class PtIndicators<T> {
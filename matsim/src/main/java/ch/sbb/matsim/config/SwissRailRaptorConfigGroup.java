@@ -58,6 +58,9 @@ public class SwissRailRaptorConfigGroup extends ReflectiveConfigGroup {
     private static final String PARAM_USE_CAPACITY_CONSTRAINTS = "useCapacityConstraints";
     private static final String PARAM_USE_CAPACITY_CONSTRAINTS_DESC = "If true, SwissRailRaptor tries to detect when agents cannot board a vehicle in the previous iteration because it is already full and tries to find an alternative route instead.";
 
+    private static final String PARAM_NUMBER_OF_THREADS_PER_QUERY = "numberOfThreadsPerQuery";
+    private static final String PARAM_NUMBER_OF_THREADS_PER_QUERY_DESC = "The number of threads used to explore the routes of a single route query in parallel. Only useful for very large schedules when few queries are calculated at the same time, e.g. in interactive applications. Default is 1, i.e. no parallelization within a query.";
+
     private static final String PARAM_TRANSFER_WALK_MARGIN = "transferWalkMargin";
     private static final String PARAM_TRANSFER_WALK_MARGIN_DESC = "time deducted from transfer walk leg during transfers between pt legs in order to avoid missing a vehicle by a few seconds due to delays.";
     private static final String PARAM_INTERMODAL_LEG_ONLYHANDLING = "intermodalLegOnlyHandling";
@@ -68,6 +71,7 @@ public class SwissRailRaptorConfigGroup extends ReflectiveConfigGroup {
     private IntermodalAccessEgressModeSelection intermodalAccessEgressModeSelection = IntermodalAccessEgressModeSelection.CalcLeastCostModePerStop;
     private boolean useModeMapping = false;
     private boolean useCapacityConstraints = false;
+    private int numberOfThreadsPerQuery = 1;
 
     private double transferPenaltyBaseCost = 0;
     private double transferPenaltyMinCost = Double.NEGATIVE_INFINITY;
@@ -193,6 +197,16 @@ public class SwissRailRaptorConfigGroup extends ReflectiveConfigGroup {
         this.useCapacityConstraints = useCapacityConstraints;
     }
 
+    @StringGetter(PARAM_NUMBER_OF_THREADS_PER_QUERY)
+    public int getNumberOfThreadsPerQuery() {
+        return this.numberOfThreadsPerQuery;
+    }
+
+    @StringSetter(PARAM_NUMBER_OF_THREADS_PER_QUERY)
+    public void setNumberOfThreadsPerQuery(int numberOfThreadsPerQuery) {
+        this.numberOfThreadsPerQuery = numberOfThreadsPerQuery;
+    }
+
     @StringGetter(PARAM_SCORING_PARAMETERS)
     public ScoringParameters getScoringParameters() {
         return this.scoringParameters;
@@ -668,6 +682,7 @@ public class SwissRailRaptorConfigGroup extends ReflectiveConfigGroup {
         comments.put(PARAM_INTERMODAL_ACCESS_EGRESS_MODE_SELECTION, PARAM_INTERMODAL_ACCESS_EGRESS_MODE_SELECTION_DESC);
         comments.put(PARAM_USE_CAPACITY_CONSTRAINTS, PARAM_USE_CAPACITY_CONSTRAINTS_DESC);
         comments.put(PARAM_TRANSFER_WALK_MARGIN, PARAM_TRANSFER_WALK_MARGIN_DESC);
+        comments.put(PARAM_NUMBER_OF_THREADS_PER_QUERY, PARAM_NUMBER_OF_THREADS_PER_QUERY_DESC);
         return comments;
     }
 
@@ -67,6 +67,16 @@ public class RaptorStaticConfig {
 
 	private SwissRailRaptorConfigGroup.IntermodalLegOnlyHandling intermodalLegOnlyHandling = SwissRailRaptorConfigGroup.IntermodalLegOnlyHandling.forbid;
 
+	/**
+	 * Directory where the calculated transfers are cached, <code>null</code> to not cache them.
+	 */
+	private String cacheDirectory = null;
+
+	/**
+	 * Number of threads exploring the routes of a single query, see {@link SwissRailRaptorCore}.
+	 */
+	private int numberOfThreadsPerQuery = 1;
+
     public double getBeelineWalkConnectionDistance() {
         return this.beelineWalkConnectionDistance;
     }
@@ -146,4 +156,20 @@ public class RaptorStaticConfig {
 	public void setIntermodalLegOnlyHandling(SwissRailRaptorConfigGroup.IntermodalLegOnlyHandling intermodalLegOnlyHandling) {
 		this.intermodalLegOnlyHandling = intermodalLegOnlyHandling;
 	}
+
+	public String getCacheDirectory() {
+		return cacheDirectory;
+	}
+
+	public void setCacheDirectory(String cacheDirectory) {
+		this.cacheDirectory = cacheDirectory;
+	}
+
+	public int getNumberOfThreadsPerQuery() {
+		return numberOfThreadsPerQuery;
+	}
+
+	public void setNumberOfThreadsPerQuery(int numberOfThreadsPerQuery) {
+		this.numberOfThreadsPerQuery = numberOfThreadsPerQuery;
+	}
 }
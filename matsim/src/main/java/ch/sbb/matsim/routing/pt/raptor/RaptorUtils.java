@@ -71,6 +71,8 @@ public final class RaptorUtils {
             }
         }
         staticConfig.setUseCapacityConstraints(srrConfig.isUseCapacityConstraints());
+        staticConfig.setCacheDirectory(config.global().getPreprocessingCacheDirectory());
+        staticConfig.setNumberOfThreadsPerQuery(srrConfig.getNumberOfThreadsPerQuery());
 
         return staticConfig;
     }
@@ -238,6 +238,29 @@ public class SwissRailRaptor implements TransitRouter {
         return this.calcLeastCostTree(accessStops, departureTime, parameters, person);
     }
 
+    /**
+     * Calculates the least cost connections to all stops for all departures between the earliest and the latest
+     * departure time at once, see {@link SwissRailRaptorCore#calcLeastCostProfileTree}. This is much faster than
+     * calculating a tree for each departure time.
+     */
+    public Map<Id<TransitStopFacility>, List<SwissRailRaptorCore.TravelInfo>> calcProfileTree(Collection<TransitStopFacility> fromStops, double earliestDepartureTime, double latestDepartureTime, RaptorParameters parameters, Person person) {
+        if (this.data.config.getOptimization() != RaptorStaticConfig.RaptorOptimization.OneToAllRouting && !this.treeWarningShown) {
+            log.warn("SwissRailRaptorData was not initialized with full support for tree calculations and may result in unexpected results. Use `RaptorStaticConfig.setOptimization(RaptorOptimization.OneToAllRouting)` to fix this issue.");
+            this.treeWarningShown = true;
+        }
+        List<InitialStop> accessStops = new ArrayList<>();
+        for (TransitStopFacility stop : fromStops) {
+            accessStops.add(new InitialStop(stop, 0, 0, 0, null));
+        }
+        return this.raptor.calcLeastCostProfileTree(earliestDepartureTime, latestDepartureTime, accessStops, parameters, person);
+    }
+
+    public Map<Id<TransitStopFacility>, List<SwissRailRaptorCore.TravelInfo>> calcProfileTree(Facility fromFacility, double earliestDepartureTime, double latestDepartureTime, Person person, Attributes routingAttributes) {
+        RaptorParameters parameters = this.parametersForPerson.getRaptorParameters(person);
+        List<InitialStop> accessStops = findAccessStops(fromFacility, fromFacility, person, earliestDepartureTime, routingAttributes, parameters);
+        return this.raptor.calcLeastCostProfileTree(earliestDepartureTime, latestDepartureTime, accessStops, parameters, person);
+    }
+
     private Map<Id<TransitStopFacility>, SwissRailRaptorCore.TravelInfo> calcLeastCostTree(Collection<InitialStop> accessStops, double departureTime, RaptorParameters parameters, Person person) {
         return this.raptor.calcLeastCostTree(departureTime, accessStops, parameters, person);
     }
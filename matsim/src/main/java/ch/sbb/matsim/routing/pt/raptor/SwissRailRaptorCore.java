@@ -40,17 +40,28 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * The actual RAPTOR implementation, based on Delling et al, Round-Based Public Transit Routing.
  *
  * This class is <b>NOT</b> thread-safe due to the use of internal state during the route calculation.
  *
+ * With {@link RaptorStaticConfig#getNumberOfThreadsPerQuery()} larger than 1, the routes marked in a round are
+ * explored by multiple threads. Every route is explored by one thread only, the improvements of the stops are
+ * collected per thread and applied in the original order of the routes after all threads are done, so the results
+ * are the same as without parallelization. The cost calculators must be thread-safe in this case.
+ *
  * @author mrieser / SBB
  */
 public class SwissRailRaptorCore {
@@ -71,7 +82,11 @@ public class SwissRailRaptorCore {
     private final boolean useCapacityConstraints;
     private final RaptorInVehicleCostCalculator inVehicleCostCalculator;
     private final RaptorTransferCostCalculator transferCostCalculator;
-    private final RouteSegmentIteratorImpl routeSegmentIterator;
+    private final int[] firstImprovedRouteStops;
+    private final RouteExplorer[] explorers;
+    private final ForkJoinPool pool;
+    /** the minimal number of routes one thread explores in a round, smaller rounds are not parallelized */
+    int minRoutesPerChunk = 64;
 
     private final static int TIME_UNDEFINED = Integer.MIN_VALUE;
 
@@ -91,7 +106,13 @@ public class SwissRailRaptorCore {
         this.useCapacityConstraints = this.data.config.isUseCapacityConstraints();
         this.inVehicleCostCalculator = inVehicleCostCalculator;
         this.transferCostCalculator = transferCostCalculator;
-        this.routeSegmentIterator = new RouteSegmentIteratorImpl(this.data);
+        this.firstImprovedRouteStops = new int[this.data.routes.length];
+        int threads = Math.max(1, this.data.config.getNumberOfThreadsPerQuery());
+        this.explorers = new RouteExplorer[threads];
+        for (int i = 0; i < threads; i++) {
+            this.explorers[i] = new RouteExplorer();
+        }
+        this.pool = threads > 1 ? new ForkJoinPool(threads) : null;
     }
 
     private void reset() {
@@ -550,6 +571,137 @@ public class SwissRailRaptorCore {
         return result;
     }
 
+    /**
+     * Calculates the least cost connections from the start stops to all stops for all departures in a time window,
+     * using the idea of rRAPTOR: the departure times at the start stops are handled from the latest to the earliest,
+     * and each departure starts with the labels of the later departures instead of an empty tree.
+     *
+     * As in {@link #calcRoutes}, the costs are made to behave like time: each departure gets an additional cost
+     * corresponding to the time it could wait for the later departures. This way, a connection found for a later
+     * departure is also a valid (but maybe not the best) connection for any earlier departure, and only improvements
+     * have to be propagated.
+     *
+     * @return for each reached stop, the distinct least cost connections that are found for some departure time
+     *   in the window, ordered by departure time. Connections that do not use any pt route are not included.
+     */
+    public Map<Id<TransitStopFacility>, List<TravelInfo>> calcLeastCostProfileTree(double earliestDepTime, double latestDepTime, Collection<InitialStop> startStops, RaptorParameters parameters, Person person) {
+        reset();
+        double waitingCostPerSecond = -parameters.getMarginalUtilityOfWaitingPt_utl_s();
+
+        // the departure times at which a pt vehicle can be reached from a start stop, directly or with a transfer
+        TreeSet<Double> depTimes = new TreeSet<>();
+        for (InitialStop stop : startStops) {
+            for (int routeStopIndex : this.data.routeStopsPerStopFacility.get(stop.stop)) {
+                RRouteStop routeStop = this.data.routeStops[routeStopIndex];
+                addDepartureTimes(routeStop, stop.accessTime, earliestDepTime, latestDepTime, depTimes);
+                for (int transferIndex = routeStop.indexFirstTransfer; transferIndex < routeStop.indexFirstTransfer + routeStop.countTransfers; transferIndex++) {
+                    RTransfer transfer = this.data.transfers[transferIndex];
+                    addDepartureTimes(this.data.routeStops[transfer.toRouteStop], stop.accessTime + transfer.transferTime, earliestDepTime, latestDepTime, depTimes);
+                }
+            }
+        }
+
+        PathElement[] lastPathPerStop = new PathElement[this.data.countStops];
+        TravelInfo[] lastInfoPerStop = new TravelInfo[this.data.countStops];
+        List<List<TravelInfo>> connectionsPerStop = new ArrayList<>(Collections.nCopies(this.data.countStops, null));
+        for (double depTime : depTimes.descendingSet()) {
+            double costOffset = (depTime - earliestDepTime) * waitingCostPerSecond;
+
+            this.improvedStops.clear();
+            this.improvedRouteStopIndices.clear();
+            BitSet initialRouteStopIndices = new BitSet();
+            BitSet initialStopIndices = new BitSet();
+            for (InitialStop stop : startStops) {
+                int[] routeStopIndices = this.data.routeStopsPerStopFacility.get(stop.stop);
+                for (int routeStopIndex : routeStopIndices) {
+                    int arrivalTime = (int) (depTime + stop.accessTime);
+                    double arrivalCost = stop.accessCost + costOffset;
+                    RRouteStop toRouteStop = this.data.routeStops[routeStopIndex];
+                    PathElement pe = new PathElement(null, toRouteStop, TIME_UNDEFINED, TIME_UNDEFINED, arrivalTime, arrivalCost, 0, stop.distance, 0, true, null, stop);
+                    this.arrivalPathPerRouteStop[routeStopIndex] = pe;
+                    this.arrivalPathPerStop[toRouteStop.stopFacilityIndex] = pe;
+                    this.leastArrivalCostAtRouteStop[routeStopIndex] = arrivalCost;
+                    this.leastArrivalCostAtStop[toRouteStop.stopFacilityIndex] = arrivalCost;
+                    this.improvedRouteStopIndices.set(routeStopIndex);
+                    initialRouteStopIndices.set(routeStopIndex);
+                    initialStopIndices.set(toRouteStop.stopFacilityIndex);
+                }
+            }
+
+            // the same main loop as in calcLeastCostTree
+            while (true) {
+                exploreRoutes(parameters, person);
+
+                if (this.improvedStops.isEmpty()) {
+                    break;
+                }
+
+                if (initialRouteStopIndices != null) {
+                    this.improvedRouteStopIndices.or(initialRouteStopIndices);
+                    this.improvedStops.or(initialStopIndices);
+                    initialRouteStopIndices = null;
+                    initialStopIndices = null;
+                }
+
+                handleTransfers(true, parameters);
+
+                if (this.improvedRouteStopIndices.isEmpty()) {
+                    break;
+                }
+            }
+
+            // collect the connections that changed with this departure
+            for (int stopIndex = 0; stopIndex < this.data.countStops; stopIndex++) {
+                PathElement pe = this.arrivalPathPerStop[stopIndex];
+                if (pe == null || pe == lastPathPerStop[stopIndex] || pe.firstDepartureTime == TIME_UNDEFINED) {
+                    continue;
+                }
+                lastPathPerStop[stopIndex] = pe;
+                TravelInfo info = getTravelInfo(pe, parameters);
+                TravelInfo lastInfo = lastInfoPerStop[stopIndex];
+                if (lastInfo != null && lastInfo.ptDepartureTime == info.ptDepartureTime && lastInfo.ptArrivalTime == info.ptArrivalTime
+                        && lastInfo.transferCount == info.transferCount && lastInfo.departureStop.equals(info.departureStop)) {
+                    // the same connection, just found again from an earlier start with additional waiting time
+                    continue;
+                }
+                lastInfoPerStop[stopIndex] = info;
+                List<TravelInfo> connections = connectionsPerStop.get(stopIndex);
+                if (connections == null) {
+                    connections = new ArrayList<>();
+                    connectionsPerStop.set(stopIndex, connections);
+                }
+                connections.add(info);
+            }
+        }
+
+        Map<Id<TransitStopFacility>, List<TravelInfo>> result = new HashMap<>();
+        for (Map.Entry<TransitStopFacility, Integer> e : this.data.stopFacilityIndices.entrySet()) {
+            List<TravelInfo> connections = connectionsPerStop.get(e.getValue());
+            if (connections != null) {
+                Collections.reverse(connections);
+                result.put(e.getKey().getId(), connections);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds the times at which one has to leave the start stop to catch the departures at the route stop in the time window.
+     */
+    private void addDepartureTimes(RRouteStop routeStop, double timeToRouteStop, double earliestDepTime, double latestDepTime, TreeSet<Double> depTimes) {
+        RRoute route = this.data.routes[routeStop.transitRouteIndex];
+        if (routeStop.index == route.indexFirstRouteStop + route.countRouteStops - 1) {
+            // this is the last stop of a route, doesn't make sense to start here
+            return;
+        }
+        for (int depIndex = route.indexFirstDeparture; depIndex < route.indexFirstDeparture + route.countDepartures; depIndex++) {
+            double depTime = this.data.departures[depIndex] + routeStop.departureOffset - timeToRouteStop;
+            if (depTime >= earliestDepTime && depTime <= latestDepTime) {
+                depTimes.add(depTime);
+            }
+        }
+    }
+
     private TravelInfo getTravelInfo(PathElement destination, RaptorParameters parameters) {
         PathElement firstStage = destination;
         PathElement secondStage = null;
@@ -585,30 +737,116 @@ public class SwissRailRaptorCore {
         this.improvedStops.clear();
         this.reachedRouteStopIndices.clear();
 
-        CachingTransferProvider transferProvider = this.data.new CachingTransferProvider();
+        // the first improved route stop of each route
+        int routesCount = 0;
+        for (int routeStopIndex = this.improvedRouteStopIndices.nextSetBit(0); routeStopIndex >= 0; routeStopIndex = this.improvedRouteStopIndices.nextSetBit(getLastRouteStopIndex(routeStopIndex) + 1)) {
+            this.firstImprovedRouteStops[routesCount++] = routeStopIndex;
+        }
 
-        double marginalUtilityOfWaitingPt_utl_s = parameters.getMarginalUtilityOfWaitingPt_utl_s();
+        int chunks = this.pool == null ? 1 : Math.min(this.explorers.length, routesCount / this.minRoutesPerChunk);
+        if (chunks < 2) {
+            RouteExplorer explorer = this.explorers[0];
+            explorer.init(parameters, person, true);
+            explorer.exploreRoutes(0, routesCount);
+            return;
+        }
 
-        int routeIndex = -1;
-        for (int firstRouteStopIndex = this.improvedRouteStopIndices.nextSetBit(0); firstRouteStopIndex >= 0; firstRouteStopIndex = this.improvedRouteStopIndices.nextSetBit(firstRouteStopIndex+1)) {
-            RRouteStop firstRouteStop = this.data.routeStops[firstRouteStopIndex];
-            if (firstRouteStop.transitRouteIndex == routeIndex) {
-                continue; // we've handled this route already
+        // explore the routes in parallel, but update the stops afterwards in the same order as without parallelization
+        List<Callable<Object>> tasks = new ArrayList<>(chunks);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            RouteExplorer explorer = this.explorers[chunk];
+            explorer.init(parameters, person, false);
+            int from = (int) ((long) routesCount * chunk / chunks);
+            int to = (int) ((long) routesCount * (chunk + 1) / chunks);
+            tasks.add(() -> {
+                explorer.exploreRoutes(from, to);
+                return null;
+            });
+        }
+        for (Future<Object> future : this.pool.invokeAll(tasks)) {
+            try {
+                future.get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new RuntimeException(e);
             }
-            int tmpRouteIndex = firstRouteStop.transitRouteIndex;
+        }
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            this.explorers[chunk].applyStopImprovements();
+        }
+    }
+
+    private int getLastRouteStopIndex(int routeStopIndex) {
+        RRoute route = this.data.routes[this.data.routeStops[routeStopIndex].transitRouteIndex];
+        return route.indexFirstRouteStop + route.countRouteStops - 1;
+    }
+
+    private void improveStop(RRouteStop toRouteStop, double totalArrivalCost, PathElement pe) {
+        if (totalArrivalCost <= this.leastArrivalCostAtStop[toRouteStop.stopFacilityIndex]) {
+            this.leastArrivalCostAtStop[toRouteStop.stopFacilityIndex] = totalArrivalCost;
+            this.arrivalPathPerStop[toRouteStop.stopFacilityIndex] = pe;
+            this.improvedStops.set(toRouteStop.stopFacilityIndex);
+            checkForBestArrival(toRouteStop.index, totalArrivalCost);
+        }
+    }
+
+    /**
+     * Explores routes in one round. Each route is only explored by one RouteExplorer, so the route stops can be
+     * updated directly. The stops are shared by many routes. If multiple RouteExplorers run in parallel, they only
+     * collect the possible improvements of the stops, which are applied after all of them are done.
+     */
+    private final class RouteExplorer {
+
+        private final RouteSegmentIteratorImpl routeSegmentIterator = new RouteSegmentIteratorImpl(data);
+        private final CachingTransferProvider transferProvider = data.new CachingTransferProvider();
+        private RaptorParameters parameters;
+        private Person person;
+        private double marginalUtilityOfWaitingPt_utl_s;
+        private boolean updateStopsDirectly;
+        private double bestArrivalCost;
+        private PathElement[] stopImprovements = new PathElement[16];
+        private double[] stopImprovementCosts = new double[16];
+        private int stopImprovementsCount;
+
+        void init(RaptorParameters parameters, Person person, boolean updateStopsDirectly) {
+            this.parameters = parameters;
+            this.person = person;
+            this.marginalUtilityOfWaitingPt_utl_s = parameters.getMarginalUtilityOfWaitingPt_utl_s();
+            this.updateStopsDirectly = updateStopsDirectly;
+            this.bestArrivalCost = SwissRailRaptorCore.this.bestArrivalCost;
+            this.stopImprovementsCount = 0;
+        }
+
+        void exploreRoutes(int fromRoute, int toRoute) {
+            for (int i = fromRoute; i < toRoute; i++) {
+                int firstRouteStopIndex = firstImprovedRouteStops[i];
+                int lastRouteStopIndex = getLastRouteStopIndex(firstRouteStopIndex);
+                // start at the first improved route stop where a departure can be boarded
+                for (int routeStopIndex = firstRouteStopIndex; routeStopIndex >= 0 && routeStopIndex <= lastRouteStopIndex; routeStopIndex = improvedRouteStopIndices.nextSetBit(routeStopIndex + 1)) {
+                    if (exploreRoute(routeStopIndex)) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return <code>true</code> if the route could be boarded at the route stop and was explored from there.
+         */
+        private boolean exploreRoute(int firstRouteStopIndex) {
+            RRouteStop firstRouteStop = data.routeStops[firstRouteStopIndex];
 
             // for each relevant route, step along route and look for new/improved connections
-            RRoute route = this.data.routes[tmpRouteIndex];
+            RRoute route = data.routes[firstRouteStop.transitRouteIndex];
 
             // firstRouteStop is the first RouteStop in the route we can board in this round
             // figure out which departure we can take
-            PathElement boardingPE = this.arrivalPathPerRouteStop[firstRouteStopIndex];
+            PathElement boardingPE = arrivalPathPerRouteStop[firstRouteStopIndex];
             int agentFirstArrivalTime = boardingPE.arrivalTime;
             int currentBoardingRouteStopIndex = firstRouteStopIndex;
             int currentDepartureIndex = findNextDepartureIndex(route, firstRouteStop, agentFirstArrivalTime);
             if (currentDepartureIndex >= 0) {
-                Vehicle currentVehicle = this.data.departureVehicles[currentDepartureIndex];
-                int currentDepartureTime = this.data.departures[currentDepartureIndex];
+                Vehicle currentVehicle = data.departureVehicles[currentDepartureIndex];
+                int currentDepartureTime = data.departures[currentDepartureIndex];
                 int currentAgentBoardingTime;
                 double currentTravelCostWhenBoarding;
                 double currentTransferCostWhenBoarding;
@@ -616,58 +854,52 @@ public class SwissRailRaptorCore {
                     int vehicleArrivalTime = currentDepartureTime + firstRouteStop.arrivalOffset;
                     currentAgentBoardingTime = Math.max(agentFirstArrivalTime, vehicleArrivalTime);
                     int waitingTime = currentAgentBoardingTime - agentFirstArrivalTime;
-                    double waitingCost = -marginalUtilityOfWaitingPt_utl_s * waitingTime;
+                    double waitingCost = -this.marginalUtilityOfWaitingPt_utl_s * waitingTime;
                     currentTravelCostWhenBoarding = boardingPE.arrivalTravelCost + waitingCost;
                     currentTransferCostWhenBoarding = boardingPE.arrivalTransferCost;
                 }
 
-                if ((currentTravelCostWhenBoarding + currentTransferCostWhenBoarding) > this.bestArrivalCost) {
-                    continue;
+                if ((currentTravelCostWhenBoarding + currentTransferCostWhenBoarding) > getBestArrivalCost()) {
+                    return false;
                 }
-                routeIndex = tmpRouteIndex;
                 int firstDepartureTime = (boardingPE.firstDepartureTime == TIME_UNDEFINED) ? currentAgentBoardingTime : boardingPE.firstDepartureTime;
 
-                double marginalUtilityOfTravelTime_utl_s = parameters.getMarginalUtilityOfTravelTime_utl_s(boardingPE.toRouteStop.mode);
-                transferProvider.reset(boardingPE.transfer);
+                double marginalUtilityOfTravelTime_utl_s = this.parameters.getMarginalUtilityOfTravelTime_utl_s(boardingPE.toRouteStop.mode);
+                this.transferProvider.reset(boardingPE.transfer);
 
                 for (int toRouteStopIndex = firstRouteStopIndex + 1; toRouteStopIndex < route.indexFirstRouteStop + route.countRouteStops; toRouteStopIndex++) {
-                    routeSegmentIterator.reset(currentDepartureIndex, currentAgentBoardingTime, currentBoardingRouteStopIndex, toRouteStopIndex);
-                    RRouteStop toRouteStop = this.data.routeStops[toRouteStopIndex];
+                    this.routeSegmentIterator.reset(currentDepartureIndex, currentAgentBoardingTime, currentBoardingRouteStopIndex, toRouteStopIndex);
+                    RRouteStop toRouteStop = data.routeStops[toRouteStopIndex];
                     int arrivalTime = currentDepartureTime + toRouteStop.arrivalOffset;
                     int inVehicleTime = arrivalTime - currentAgentBoardingTime;
-                    double inVehicleCost = this.inVehicleCostCalculator.getInVehicleCost(inVehicleTime, marginalUtilityOfTravelTime_utl_s, person, currentVehicle, parameters, routeSegmentIterator);
+                    double inVehicleCost = inVehicleCostCalculator.getInVehicleCost(inVehicleTime, marginalUtilityOfTravelTime_utl_s, this.person, currentVehicle, this.parameters, this.routeSegmentIterator);
                     double arrivalTravelCost = currentTravelCostWhenBoarding + inVehicleCost;
-                    double arrivalTransferCost = (boardingPE.firstDepartureTime != TIME_UNDEFINED) ? (currentTransferCostWhenBoarding + this.transferCostCalculator.calcTransferCost(transferProvider, parameters, arrivalTime - firstDepartureTime, boardingPE.transferCount, boardingPE.arrivalTransferCost, boardingPE.arrivalTime)) : 0;
-                    double previousArrivalCost = this.leastArrivalCostAtRouteStop[toRouteStopIndex];
+                    double arrivalTransferCost = (boardingPE.firstDepartureTime != TIME_UNDEFINED) ? (currentTransferCostWhenBoarding + transferCostCalculator.calcTransferCost(this.transferProvider, this.parameters, arrivalTime - firstDepartureTime, boardingPE.transferCount, boardingPE.arrivalTransferCost, boardingPE.arrivalTime)) : 0;
+                    double previousArrivalCost = leastArrivalCostAtRouteStop[toRouteStopIndex];
                     double totalArrivalCost = arrivalTravelCost + arrivalTransferCost;
                     if (totalArrivalCost <= previousArrivalCost) {
                         double distance = toRouteStop.distanceAlongRoute - boardingPE.toRouteStop.distanceAlongRoute;
                         PathElement pe = new PathElement(boardingPE, toRouteStop, firstDepartureTime, currentAgentBoardingTime, arrivalTime, arrivalTravelCost, arrivalTransferCost, distance, boardingPE.transferCount, false, null, null);
-                        this.arrivalPathPerRouteStop[toRouteStopIndex] = pe;
-                        this.leastArrivalCostAtRouteStop[toRouteStopIndex] = totalArrivalCost;
-                        if (totalArrivalCost <= this.leastArrivalCostAtStop[toRouteStop.stopFacilityIndex]) {
-                            this.leastArrivalCostAtStop[toRouteStop.stopFacilityIndex] = totalArrivalCost;
-                            this.arrivalPathPerStop[toRouteStop.stopFacilityIndex] = pe;
-                            this.improvedStops.set(toRouteStop.stopFacilityIndex);
-                            checkForBestArrival(toRouteStopIndex, totalArrivalCost);
-                        }
+                        arrivalPathPerRouteStop[toRouteStopIndex] = pe;
+                        leastArrivalCostAtRouteStop[toRouteStopIndex] = totalArrivalCost;
+                        improveStop(toRouteStop, totalArrivalCost, pe);
                     } else /*if (previousArrivalCost < arrivalCost)*/ {
                         // looks like we could reach this stop with better cost from somewhere else
                         // check if we can depart also with better cost, if yes, switch to this connection
-                        PathElement alternativeBoardingPE = this.arrivalPathPerRouteStop[toRouteStopIndex];
+                        PathElement alternativeBoardingPE = arrivalPathPerRouteStop[toRouteStopIndex];
                         int alternativeAgentFirstArrivalTime = alternativeBoardingPE.arrivalTime;
                         int alternativeDepartureIndex = findNextDepartureIndex(route, toRouteStop, alternativeAgentFirstArrivalTime);
                         if (alternativeDepartureIndex >= 0) {
-                            int alternativeDepartureTime = this.data.departures[alternativeDepartureIndex];
+                            int alternativeDepartureTime = data.departures[alternativeDepartureIndex];
                             int alternativeVehicleArrivalTime = alternativeDepartureTime + toRouteStop.arrivalOffset;
                             int alternativeAgentBoardingTime = Math.max(alternativeAgentFirstArrivalTime, alternativeVehicleArrivalTime);
                             int alternativeWaitingTime = alternativeAgentBoardingTime - alternativeAgentFirstArrivalTime;
-                            double alternativeWaitingCost = -marginalUtilityOfWaitingPt_utl_s * alternativeWaitingTime;
+                            double alternativeWaitingCost = -this.marginalUtilityOfWaitingPt_utl_s * alternativeWaitingTime;
                             double alternativeTravelCostWhenBoarding = alternativeBoardingPE.arrivalTravelCost + alternativeWaitingCost;
                             double alternativeTotalCostWhenBoarding = alternativeTravelCostWhenBoarding + alternativeBoardingPE.arrivalTransferCost;
                             if (alternativeTotalCostWhenBoarding < totalArrivalCost) {
                                 currentDepartureIndex = alternativeDepartureIndex;
-                                currentVehicle = this.data.departureVehicles[currentDepartureIndex];
+                                currentVehicle = data.departureVehicles[currentDepartureIndex];
                                 currentDepartureTime = alternativeDepartureTime;
                                 if (!alternativeBoardingPE.isTransfer) {
                                     // we improve to a line/route we entered at some earlier stop, do not create a new transfer for this,
@@ -678,7 +910,7 @@ public class SwissRailRaptorCore {
                                     alternativeAgentBoardingTime = Math.max(alternativeAgentFirstArrivalTime, alternativeVehicleArrivalTime);
 
                                     alternativeWaitingTime = alternativeAgentBoardingTime - alternativeAgentFirstArrivalTime;
-                                    alternativeWaitingCost = -marginalUtilityOfWaitingPt_utl_s * alternativeWaitingTime;
+                                    alternativeWaitingCost = -this.marginalUtilityOfWaitingPt_utl_s * alternativeWaitingTime;
                                     alternativeTravelCostWhenBoarding = alternativeBoardingPE.arrivalTravelCost + alternativeWaitingCost;
                                 }
                                 currentAgentBoardingTime = alternativeAgentBoardingTime;
@@ -690,9 +922,43 @@ public class SwissRailRaptorCore {
                             }
                         }
                     }
-                    firstRouteStopIndex = toRouteStopIndex; // we've handled this route stop, so we can skip it in the outer loop
                 }
+                return true;
+            }
+            return false;
+        }
+
+        private double getBestArrivalCost() {
+            return this.updateStopsDirectly ? SwissRailRaptorCore.this.bestArrivalCost : this.bestArrivalCost;
+        }
+
+        private void improveStop(RRouteStop toRouteStop, double totalArrivalCost, PathElement pe) {
+            if (this.updateStopsDirectly) {
+                SwissRailRaptorCore.this.improveStop(toRouteStop, totalArrivalCost, pe);
+                return;
+            }
+            // the costs at the stops do not change while the routes are explored, so this is only a first filter
+            if (totalArrivalCost <= leastArrivalCostAtStop[toRouteStop.stopFacilityIndex]) {
+                if (this.stopImprovementsCount == this.stopImprovements.length) {
+                    this.stopImprovements = Arrays.copyOf(this.stopImprovements, this.stopImprovementsCount * 2);
+                    this.stopImprovementCosts = Arrays.copyOf(this.stopImprovementCosts, this.stopImprovementsCount * 2);
+                }
+                this.stopImprovements[this.stopImprovementsCount] = pe;
+                this.stopImprovementCosts[this.stopImprovementsCount] = totalArrivalCost;
+                this.stopImprovementsCount++;
+                if (destinationRouteStopIndices.get(toRouteStop.index)) {
+                    this.bestArrivalCost = Math.min(this.bestArrivalCost, totalArrivalCost + egressCostsPerRouteStop[toRouteStop.index]);
+                }
+            }
+        }
+
+        void applyStopImprovements() {
+            for (int i = 0; i < this.stopImprovementsCount; i++) {
+                PathElement pe = this.stopImprovements[i];
+                SwissRailRaptorCore.this.improveStop(pe.toRouteStop, this.stopImprovementCosts[i], pe);
+                this.stopImprovements[i] = null;
             }
+            this.stopImprovementsCount = 0;
         }
     }
 
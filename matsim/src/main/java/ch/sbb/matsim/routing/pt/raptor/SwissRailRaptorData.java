@@ -30,6 +30,7 @@ import org.matsim.api.core.v01.network.Network;
 import org.matsim.core.population.routes.NetworkRoute;
 import org.matsim.core.utils.collections.QuadTree;
 import org.matsim.core.utils.geometry.CoordUtils;
+import org.matsim.core.utils.io.MappedFileCache;
 import org.matsim.pt.transitSchedule.TransitScheduleUtils;
 import org.matsim.pt.transitSchedule.api.Departure;
 import org.matsim.pt.transitSchedule.api.MinimalTransferTimes;
@@ -42,6 +43,9 @@ import org.matsim.vehicles.Vehicle;
 import org.matsim.vehicles.Vehicles;
 
 import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -61,6 +65,9 @@ public class SwissRailRaptorData {
 
     private static final Logger log = LogManager.getLogger(SwissRailRaptorData.class);
 
+    private static final String CACHE_NAME = "swissRailRaptorTransfers";
+    private static final int CACHE_VERSION = 1;
+
     final RaptorStaticConfig config;
     final int countStops;
     final int countRouteStops;
@@ -200,7 +207,59 @@ public class SwissRailRaptorData {
         QuadTree<TransitStopFacility> stopsQT = TransitScheduleUtils.createQuadTreeOfTransitStopFacilities(stops);
         int countStopFacilities = stops.size();
 
-        Map<Integer, RTransfer[]> allTransfers = calculateRouteStopTransfers(schedule, stopsQT, routeStopsPerStopFacility, routeStops, staticConfig);
+        RTransfer[] transfers;
+        String cacheDirectory = staticConfig.getCacheDirectory();
+        if (cacheDirectory == null) {
+            transfers = calculateTransfers(schedule, stopsQT, routeStopsPerStopFacility, routeStops, staticConfig);
+        } else {
+            long key = calcCacheKey(schedule, routes, routeStops, staticConfig);
+            Path file = MappedFileCache.getFile(cacheDirectory, CACHE_NAME, key);
+            ByteBuffer cached = MappedFileCache.read(file, CACHE_NAME, CACHE_VERSION, key);
+            if (cached != null) {
+                IntBuffer ints = cached.asIntBuffer();
+                transfers = new RTransfer[ints.get()];
+                for (int i = 0; i < transfers.length; i++) {
+                    transfers[i] = new RTransfer(ints.get(), ints.get(), ints.get(), ints.get());
+                }
+            } else {
+                transfers = calculateTransfers(schedule, stopsQT, routeStopsPerStopFacility, routeStops, staticConfig);
+                RTransfer[] calculatedTransfers = transfers;
+                MappedFileCache.write(file, CACHE_NAME, CACHE_VERSION, key, 4L + 16L * transfers.length, buffer -> {
+                    IntBuffer ints = buffer.asIntBuffer();
+                    ints.put(calculatedTransfers.length);
+                    for (RTransfer transfer : calculatedTransfers) {
+                        ints.put(transfer.fromRouteStop).put(transfer.toRouteStop).put(transfer.transferTime).put(transfer.transferDistance);
+                    }
+                    buffer.position(buffer.position() + 4 * ints.position());
+                });
+            }
+        }
+        // the transfers are sorted by fromRouteStop
+        for (int transferIndex = 0; transferIndex < transfers.length; transferIndex++) {
+            RRouteStop routeStop = routeStops[transfers[transferIndex].fromRouteStop];
+            if (routeStop.countTransfers == 0) {
+                routeStop.indexFirstTransfer = transferIndex;
+            }
+            routeStop.countTransfers++;
+        }
+
+        SwissRailRaptorData data = new SwissRailRaptorData(staticConfig, countStopFacilities, routes, departures, departureVehicles, departureIds, routeStops, transfers, stopFacilityIndices, routeStopsPerStopFacility, stopsQT, occupancyData);
+
+        long endMillis = System.currentTimeMillis();
+        log.info("SwissRailRaptor data preparation done. Took " + (endMillis - startMillis) / 1000 + " seconds.");
+        log.info("SwissRailRaptor statistics:  #routes = " + routes.length);
+        log.info("SwissRailRaptor statistics:  #departures = " + departures.length);
+        log.info("SwissRailRaptor statistics:  #routeStops = " + routeStops.length);
+        log.info("SwissRailRaptor statistics:  #stopFacilities = " + countStopFacilities);
+        log.info("SwissRailRaptor statistics:  #transfers (between routeStops) = " + transfers.length);
+        return data;
+    }
+
+    /**
+     * @return all possible transfers between TransitRouteStops, sorted by fromRouteStop.
+     */
+    private static RTransfer[] calculateTransfers(TransitSchedule schedule, QuadTree<TransitStopFacility> stopsQT, Map<TransitStopFacility, int[]> routeStopsPerStopFacility, RRouteStop[] routeStops, RaptorStaticConfig config) {
+        Map<Integer, RTransfer[]> allTransfers = calculateRouteStopTransfers(schedule, stopsQT, routeStopsPerStopFacility, routeStops, config);
         long countTransfers = 0;
         for (RTransfer[] transfers : allTransfers.values()) {
             countTransfers += transfers.length;
@@ -214,24 +273,54 @@ public class SwissRailRaptorData {
             RTransfer[] stopTransfers = allTransfers.get(routeStopIndex);
             int transferCount = stopTransfers == null ? 0 : stopTransfers.length;
             if (transferCount > 0) {
-                RRouteStop routeStop = routeStops[routeStopIndex];
-                routeStop.indexFirstTransfer = indexTransfer;
-                routeStop.countTransfers = transferCount;
                 System.arraycopy(stopTransfers, 0, transfers, indexTransfer, transferCount);
                 indexTransfer += transferCount;
             }
         }
+        return transfers;
+    }
 
-        SwissRailRaptorData data = new SwissRailRaptorData(staticConfig, countStopFacilities, routes, departures, departureVehicles, departureIds, routeStops, transfers, stopFacilityIndices, routeStopsPerStopFacility, stopsQT, occupancyData);
-
-        long endMillis = System.currentTimeMillis();
-        log.info("SwissRailRaptor data preparation done. Took " + (endMillis - startMillis) / 1000 + " seconds.");
-        log.info("SwissRailRaptor statistics:  #routes = " + routes.length);
-        log.info("SwissRailRaptor statistics:  #departures = " + departures.length);
-        log.info("SwissRailRaptor statistics:  #routeStops = " + routeStops.length);
-        log.info("SwissRailRaptor statistics:  #stopFacilities = " + countStopFacilities);
-        log.info("SwissRailRaptor statistics:  #transfers (between routeStops) = " + transfers.length);
-        return data;
+    /**
+     * The transfers depend on the route stops (including their order, as they are referenced by index), the departures
+     * of the routes, the minimal transfer times of the schedule and the transfer settings of the config.
+     */
+    private static long calcCacheKey(TransitSchedule schedule, RRoute[] routes, RRouteStop[] routeStops, RaptorStaticConfig config) {
+        MappedFileCache.KeyBuilder key = new MappedFileCache.KeyBuilder();
+        key.add(config.getBeelineWalkConnectionDistance())
+                .add(config.getBeelineWalkSpeed())
+                .add(config.getBeelineWalkDistanceFactor())
+                .add(config.getMinimalTransferTime())
+                .add(config.getOptimization().ordinal());
+        key.add(routes.length);
+        for (RRoute route : routes) {
+            key.add(route.countRouteStops).add(route.countDepartures);
+        }
+        key.add(routeStops.length);
+        for (RRouteStop routeStop : routeStops) {
+            Coord coord = routeStop.routeStop.getStopFacility().getCoord();
+            key.add(routeStop.line.getId().toString())
+                    .add(routeStop.route.getId().toString())
+                    .add(routeStop.routeStop.getStopFacility().getId().toString())
+                    .add(coord.getX())
+                    .add(coord.getY())
+                    .add(routeStop.arrivalOffset)
+                    .add(routeStop.departureOffset);
+            if (routeStop.index == routes[routeStop.transitRouteIndex].indexFirstRouteStop) {
+                // routes without departures have no earliest and latest departure
+                Departure earliestDep = getEarliestDeparture(routeStop.route);
+                Departure latestDep = getLatestDeparture(routeStop.route);
+                key.add(earliestDep == null ? Double.NaN : earliestDep.getDepartureTime())
+                        .add(latestDep == null ? Double.NaN : latestDep.getDepartureTime());
+            }
+        }
+        // the minimal transfer times are not ordered, so combine their hashes independent of the order
+        long minimalTransferTimesHash = 0;
+        MinimalTransferTimes.MinimalTransferTimesIterator iter = schedule.getMinimalTransferTimes().iterator();
+        while (iter.hasNext()) {
+            iter.next();
+            minimalTransferTimesHash += new MappedFileCache.KeyBuilder().add(iter.getFromStopId().toString()).add(iter.getToStopId().toString()).add(iter.getSeconds()).build();
+        }
+        return key.add(minimalTransferTimesHash).build();
     }
 
     // calculate possible transfers between TransitRouteStops
@@ -31,6 +31,7 @@ import org.matsim.api.core.v01.events.handler.VehicleEntersTrafficEventHandler;
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.network.Network;
 import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.handler.NonRetainingEventHandler;
 import org.matsim.vehicles.Vehicle;
 
 import jakarta.inject.Inject;
@@ -44,7 +45,7 @@ import java.util.TreeSet;
  *
  * @author mrieser
  */
-public class VolumesAnalyzer implements LinkLeaveEventHandler, VehicleEntersTrafficEventHandler {
+public class VolumesAnalyzer implements LinkLeaveEventHandler, VehicleEntersTrafficEventHandler, NonRetainingEventHandler {
 
 	private final static Logger log = LogManager.getLogger(VolumesAnalyzer.class);
 	private final int timeBinSize;
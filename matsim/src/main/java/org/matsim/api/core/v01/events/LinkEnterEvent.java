@@ -31,8 +31,8 @@ public class LinkEnterEvent extends Event implements HasLinkId, HasVehicleId {
 
 	public static final String EVENT_TYPE = "entered link";
 
-	private final Id<Link> linkId;
-	private final Id<Vehicle> vehicleId;
+	private Id<Link> linkId;
+	private Id<Vehicle> vehicleId;
 
 	final static String missingVehicleIdMessage = "vehicleId=null in LinkEnter/LeaveEvent; this would cause problems downstream thus we are not accepting it";
 
@@ -45,6 +45,19 @@ public class LinkEnterEvent extends Event implements HasLinkId, HasVehicleId {
 		this.vehicleId = vehicleId;
 	}
 
+	/**
+	 * Sets all values of this event again, for pooled instances that are reused by the mobsim, see
+	 * {@link org.matsim.core.events.PooledEvents}.
+	 */
+	protected void reset(final double time, final Id<Vehicle> vehicleId, final Id<Link> linkId) {
+		if ( vehicleId==null ) {
+			throw new RuntimeException( missingVehicleIdMessage ) ;
+		}
+		setTime(time);
+		this.linkId = linkId;
+		this.vehicleId = vehicleId;
+	}
+
 	@Override
 	public String getEventType() {
 		return EVENT_TYPE;
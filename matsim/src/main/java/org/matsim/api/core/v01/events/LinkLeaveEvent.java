@@ -32,8 +32,8 @@ public class LinkLeaveEvent extends Event implements HasLinkId, HasVehicleId {
 	public static final String EVENT_TYPE = "left link";
 	public static final String ATTRIBUTE_LINK = "link";
 
-	private final Id<Link> linkId;
-	private final Id<Vehicle> vehicleId;
+	private Id<Link> linkId;
+	private Id<Vehicle> vehicleId;
 
 	final static String missingDriverIdMessage = "driver (or person) ID does no longer exist in LinkEnter/LeaveEvent; use vehicle ID instead. "
 			+ "See Vehicle2DriverEventHandler for an approach to reconstruct the driver ID and/or EventsConverterXML to convert your old event file.";
@@ -47,6 +47,19 @@ public class LinkLeaveEvent extends Event implements HasLinkId, HasVehicleId {
 		this.vehicleId = vehicleId;
 	}
 
+	/**
+	 * Sets all values of this event again, for pooled instances that are reused by the mobsim, see
+	 * {@link org.matsim.core.events.PooledEvents}.
+	 */
+	protected void reset(final double time, final Id<Vehicle> vehicleId, final Id<Link> linkId) {
+		if ( vehicleId==null ) {
+			throw new RuntimeException( LinkEnterEvent.missingVehicleIdMessage ) ;
+		}
+		setTime(time);
+		this.linkId = linkId;
+		this.vehicleId = vehicleId;
+	}
+
 	@Override
 	public String getEventType() {
 		return EVENT_TYPE;
@@ -33,11 +33,11 @@ public class VehicleEntersTrafficEvent extends Event implements HasPersonId, Has
 	public static final String ATTRIBUTE_NETWORKMODE = "networkMode";
 	public static final String ATTRIBUTE_POSITION = "relativePosition";
 
-	private final Id<Person> driverId;
-	private final Id<Link> linkId;
-	private final Id<Vehicle> vehicleId;
-	private final String networkMode;
-	private final double relativePositionOnLink;
+	private Id<Person> driverId;
+	private Id<Link> linkId;
+	private Id<Vehicle> vehicleId;
+	private String networkMode;
+	private double relativePositionOnLink;
 
 
 	public VehicleEntersTrafficEvent(final double time, final Id<Person> driverId, final Id<Link> linkId, Id<Vehicle> vehicleId, String networkMode, double relativePositionOnLink) {
@@ -49,6 +49,19 @@ public class VehicleEntersTrafficEvent extends Event implements HasPersonId, Has
 		this.relativePositionOnLink = relativePositionOnLink;
 	}
 
+	/**
+	 * Sets all values of this event again, for pooled instances that are reused by the mobsim, see
+	 * {@link org.matsim.core.events.PooledEvents}.
+	 */
+	protected void reset(final double time, final Id<Person> driverId, final Id<Link> linkId, Id<Vehicle> vehicleId, String networkMode, double relativePositionOnLink) {
+		setTime(time);
+		this.driverId = driverId;
+		this.linkId = linkId;
+		this.vehicleId = vehicleId;
+		this.networkMode = networkMode;
+		this.relativePositionOnLink = relativePositionOnLink;
+	}
+
 	@Override
 	public Id<Person> getPersonId() {
 		return this.driverId;
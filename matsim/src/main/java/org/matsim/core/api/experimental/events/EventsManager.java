@@ -41,6 +41,15 @@ public interface EventsManager {
 		}
 	}
 
+	/**
+	 * Tells whether at least one registered handler would receive events of the given class. Producers may use this
+	 * to skip creating or submitting events nobody listens to. Implementations that cannot tell must return
+	 * <code>true</code>.
+	 */
+	default boolean isHandled(final Class<? extends Event> eventClass) {
+		return true;
+	}
+
 	public void addHandler(final EventHandler handler);
 	
 	public void removeHandler(final EventHandler handler);
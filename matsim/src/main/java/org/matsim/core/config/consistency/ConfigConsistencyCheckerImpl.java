@@ -158,6 +158,12 @@ public final class ConfigConsistencyCheckerImpl implements ConfigConsistencyChec
 			log.warn("We don't know if non-Dijkstra routing works together with LinkToLink routing.");
 		}
 
+		if ( config.controller().getRoutingAlgorithmType() == RoutingAlgorithmType.SpeedyCCH &&
+				config.routing().getRoutingRandomness() != 0. ) {
+			log.warn("SpeedyCCH chooses routes with the same costs for all persons, so the routingRandomness only affects the cost " +
+					"of a route, but not which route is chosen.");
+		}
+
 	}
 
 
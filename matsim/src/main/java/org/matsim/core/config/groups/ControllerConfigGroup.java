@@ -34,11 +34,11 @@ import java.util.*;
 public final class ControllerConfigGroup extends ReflectiveConfigGroup {
 	private static final Logger log = LogManager.getLogger( ControllerConfigGroup.class );
 
-	public enum RoutingAlgorithmType {Dijkstra, AStarLandmarks, SpeedyALT}
+	public enum RoutingAlgorithmType {Dijkstra, AStarLandmarks, SpeedyALT, SpeedyCCH}
 
 	public enum EventTypeToCreateScoringFunctions {IterationStarts, BeforeMobsim}
 
-	public enum EventsFileFormat {xml, pb, json}
+	public enum EventsFileFormat {xml, pb, json, bin}
 
 	public enum CompressionType {
 		none(""),
@@ -77,6 +77,7 @@ public final class ControllerConfigGroup extends ReflectiveConfigGroup {
 	private static final String DUMP_DATA_AT_END = "dumpDataAtEnd";
 	private static final String CLEAN_ITERS_AT_END = "cleanItersAtEnd";
 	private static final String COMPRESSION_TYPE = "compressionType";
+	private static final String COMPRESSION_THREADS = "compressionThreads";
 	private static final String EVENT_TYPE_TO_CREATE_SCORING_FUNCTIONS = "createScoringFunctionType";
 
 	/*package*/ static final String MOBSIM = "mobsim";
@@ -105,6 +106,7 @@ public final class ControllerConfigGroup extends ReflectiveConfigGroup {
 	private boolean dumpDataAtEnd = true;
 
 	private CompressionType compressionType = CompressionType.gzip;
+	private int compressionThreads = 0;
 	private OverwriteFileSetting overwriteFileSetting = OverwriteFileSetting.failIfDirectoryExists;
 
 	private CleanIterations cleanItersAtEnd = CleanIterations.keep;
@@ -140,6 +142,9 @@ public final class ControllerConfigGroup extends ReflectiveConfigGroup {
 			" but add a significant overhead in smaller runs or in test cases where the graphical output is not even requested." );
 
 		map.put(COMPRESSION_TYPE, "Compression algorithm to use when writing out data to files. Possible values: " + Arrays.toString(CompressionType.values()));
+		map.put(COMPRESSION_THREADS, "Default=0. Number of background threads compressing the gzip or zstd events and plans files in blocks. "
+				+ "Every block becomes a gzip member or zstd frame of its own, which MATSim and most other tools read like a single one. "
+				+ "0 compresses on the writing thread into a single member or frame.");
 		map.put(EVENT_TYPE_TO_CREATE_SCORING_FUNCTIONS, "Defines when the scoring functions for the population are created. Default=IterationStarts. Possible values: " + Arrays.toString(EventTypeToCreateScoringFunctions.values()));
 
 		map.put(MOBSIM, "Defines which mobility simulation will be used. Currently supported: " + Arrays.toString(MobsimType.values()) + IOUtils.NATIVE_NEWLINE + "\t\t" +
@@ -205,6 +210,16 @@ public final class ControllerConfigGroup extends ReflectiveConfigGroup {
 		this.compressionType = type;
 	}
 
+	@StringGetter( COMPRESSION_THREADS )
+	public int getCompressionThreads() {
+		return this.compressionThreads;
+	}
+
+	@StringSetter( COMPRESSION_THREADS )
+	public void setCompressionThreads(int compressionThreads) {
+		this.compressionThreads = compressionThreads;
+	}
+
 	@StringGetter( RUNID )
 	public String getRunId() {
 		return this.runId;
@@ -445,6 +460,9 @@ public final class ControllerConfigGroup extends ReflectiveConfigGroup {
 	}
 	@Override
 	protected void checkConsistency(Config config) {
+		if ( this.compressionThreads < 0 ) {
+			throw new RuntimeException( COMPRESSION_THREADS + " must not be negative, but is " + this.compressionThreads );
+		}
 		if ( config.controller().getOverwriteFileSetting() == OverwriteFileSetting.overwriteExistingFiles ) {
 			log.warn( "setting overwriting behavior to "+overwriteFileSetting );
 			log.warn( "this is not recommended, as it might result in a directory containing output from several model runs" );
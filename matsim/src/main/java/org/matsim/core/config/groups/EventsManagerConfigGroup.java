@@ -49,6 +49,9 @@ public final class EventsManagerConfigGroup extends ReflectiveConfigGroup {
 	private final static String EVENTS_QUEUE_SIZE_COMMENT = "Size of the events Queue. Increase for very large scenarios";
 	private int eventsQueueSize = 65536 * 2 ;
 
+	private final static String USE_RING_BUFFER = "useRingBuffer";
+	private boolean useRingBuffer = false;
+
 
 
 	private boolean locked = false;
@@ -67,6 +70,8 @@ public final class EventsManagerConfigGroup extends ReflectiveConfigGroup {
 		comments.put(ONE_THREAD_PER_HANDLER, "If enabled, each event handler is assigned to its own thread. Note that enabling this feature disabled the " + NUMBER_OF_THREADS + " option! "
 				+ "This feature is still experimental!");
 		comments.put(EVENTS_QUEUE_SIZE,EVENTS_QUEUE_SIZE_COMMENT);
+		comments.put(USE_RING_BUFFER, "If enabled, events are published into a preallocated ring buffer of size " + EVENTS_QUEUE_SIZE + ", which is read by "
+				+ NUMBER_OF_THREADS + " threads (1 if not set), or by one thread per handler if " + ONE_THREAD_PER_HANDLER + " is enabled.");
 		return comments;
 	}
 
@@ -144,6 +149,20 @@ public final class EventsManagerConfigGroup extends ReflectiveConfigGroup {
 		}
 	}
 
+	@StringGetter( USE_RING_BUFFER )
+	public boolean isUseRingBuffer() {
+		return this.useRingBuffer;
+	}
+
+	@StringSetter( USE_RING_BUFFER )
+	public void setUseRingBuffer(boolean useRingBuffer) {
+		if ( !this.locked ) {
+			this.useRingBuffer = useRingBuffer;
+		} else {
+			throw new RuntimeException("it is too late in the control flow to modify this parameter");
+		}
+	}
+
 	public void makeLocked() {
 		this.locked = true;
 	}
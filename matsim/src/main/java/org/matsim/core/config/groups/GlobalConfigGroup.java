@@ -39,6 +39,7 @@ public final class GlobalConfigGroup extends ReflectiveConfigGroup {
 	@Override public Map<String, String> getComments() {
 		Map<String,String> map = super.getComments();
 		map.put(NUMBER_OF_THREADS, NUMBER_OF_THREADS_CMT ) ;
+		map.put(PREPROCESSING_CACHE_DIRECTORY, PREPROCESSING_CACHE_DIRECTORY_CMT ) ;
 		return map ;
 	}
 
@@ -125,4 +126,19 @@ public final class GlobalConfigGroup extends ReflectiveConfigGroup {
     public void setDefaultDelimiter(String defaultDelimiter) {
         this.defaultDelimiter = defaultDelimiter;
     }
+
+	// ---
+	private String preprocessingCacheDirectory = null;
+	private static final String PREPROCESSING_CACHE_DIRECTORY = "preprocessingCacheDirectory";
+	private static final String PREPROCESSING_CACHE_DIRECTORY_CMT = "Directory where the results of expensive preprocessing steps of the routers "
+			+ "(e.g. SpeedyALT landmarks, SwissRailRaptor transfers) are stored and reused by later runs with the same network, schedule and settings. "
+			+ "Several runs may share the same directory. Not set by default, i.e. nothing is cached.";
+	@StringGetter( PREPROCESSING_CACHE_DIRECTORY )
+	public String getPreprocessingCacheDirectory() {
+		return this.preprocessingCacheDirectory;
+	}
+	@StringSetter( PREPROCESSING_CACHE_DIRECTORY )
+	public void setPreprocessingCacheDirectory(final String preprocessingCacheDirectory) {
+		this.preprocessingCacheDirectory = preprocessingCacheDirectory;
+	}
 }
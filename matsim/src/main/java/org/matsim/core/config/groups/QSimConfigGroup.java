@@ -171,6 +171,13 @@ public final class QSimConfigGroup extends ReflectiveConfigGroup {
 		map.put(NUMBER_OF_THREADS, "Number of threads used for the QSim.  "
 				+ "Note that this setting is independent from the \"global\" threads setting.  "
 				+ "In contrast to earlier versions, the non-parallel special version is no longer there.");
+		map.put(NETSIM_ENGINE_SCHEDULER, "How the nodes and links are distributed over the QSim threads. "
+				+ NetsimEngineScheduler.threadpool + ": each thread moves a fixed share of the network. "
+				+ NetsimEngineScheduler.workStealing + ": threads that are done with their share help moving the share of others. "
+				+ "Default is " + NetsimEngineScheduler.threadpool + ".");
+		map.put(SKIPPING_IDLE_TIME_STEPS, "If true, the qsim jumps to the next time step in which something happens (e.g. an activity ends) "
+				+ "when no vehicle is on the network.  Only works if all mobsim engines and sim step listeners tell when they have to be "
+				+ "called next, otherwise every time step is simulated.  Sim step listeners are not called for skipped time steps.  Default is false.");
 		map.put(REMOVE_STUCK_VEHICLES, REMOVE_STUCK_VEHICLES_STRING);
 		map.put(STUCK_TIME, STUCK_TIME_STRING);
 
@@ -210,6 +217,25 @@ public final class QSimConfigGroup extends ReflectiveConfigGroup {
 			}
 			map.put(LINK_DYNAMICS, "default: FIFO; options:" + stb);
 		}
+		map.put(VEHICLE_QUEUE, "Data structure holding the vehicles on a link if the link dynamics is FIFO. "
+				+ VehicleQueue.linkedList + ": a linked list of vehicles. "
+				+ VehicleQueue.ringBuffer + ": a ring buffer that also keeps the link exit times and sizes of the vehicles in primitive arrays, "
+				+ "which needs less memory and is faster on large networks. "
+				+ "PassingQ and SeepageQ always use a priority queue. Default is " + VehicleQueue.linkedList + ".");
+		map.put(REUSING_NETSIM_NETWORK, "If true, the links and nodes of the netsim network are reset in place after each iteration instead of being "
+				+ "created again, so that only agents and vehicles are rebuilt for the next mobsim. Only works with the default network "
+				+ "factory (no lanes); other networks are still rebuilt. Default is false.");
+		map.put(LAZY_AGENT_CREATION_HORIZON, "If > 0, agents of the population (and their vehicles) are only put into the mobsim this many seconds "
+				+ "before their first departure, and are created on a background thread ahead of that, so that not all agents are held in memory "
+				+ "from the start.  Agents whose first activity has a duration are still created before the first time step.  Should be at least "
+				+ "the time step size.  Default is 0, i.e. all agents are created before the first time step.");
+		map.put(PROFILING, "If true, the qsim measures the run time of every mobsim engine and netsim engine runner in every time step, and counts "
+				+ "events and active links and nodes per 15 minutes.  Written as qsimRunTimes.csv and qsimTimeBins.csv into the iteration "
+				+ "directories.  Default is false.");
+		map.put(USE_POOLED_EVENTS, "If true, the netsim engine reuses its link enter, link leave and vehicle enters traffic events instead of "
+				+ "creating new ones for every move.  The events manager only hands a pooled event back after it was dispatched if all handlers "
+				+ "of the event are marked as NonRetainingEventHandler, i.e. do not keep references to events beyond handleEvent(...).  "
+				+ "Parallel events managers copy pooled events.  Default is false.");
 		map.put(USE_PERSON_ID_FOR_MISSING_VEHICLE_ID, "If a route does not reference a vehicle, agents will use the vehicle with the same id as their own.");
 		map.put(FAST_CAPACITY_UPDATE, "If false, the qsim accumulates fractional flows up to one flow unit in every time step.  If true, "
 				+ "flows are updated only if an agent wants to enter the link or an agent is added to buffer. "
@@ -469,6 +495,114 @@ public final class QSimConfigGroup extends ReflectiveConfigGroup {
 		this.numberOfThreads = numberOfThreads;
 	}
 
+	// ---
+	private static final String SKIPPING_IDLE_TIME_STEPS = "skippingIdleTimeSteps";
+	private boolean skippingIdleTimeSteps = false;
+
+	@StringGetter(SKIPPING_IDLE_TIME_STEPS)
+	public boolean isSkippingIdleTimeSteps() {
+		return this.skippingIdleTimeSteps;
+	}
+
+	@StringSetter(SKIPPING_IDLE_TIME_STEPS)
+	public void setSkippingIdleTimeSteps(boolean skippingIdleTimeSteps) {
+		this.skippingIdleTimeSteps = skippingIdleTimeSteps;
+	}
+
+	// ---
+	private static final String NETSIM_ENGINE_SCHEDULER = "netsimEngineScheduler";
+
+	public enum NetsimEngineScheduler {threadpool, workStealing}
+
+	private NetsimEngineScheduler netsimEngineScheduler = NetsimEngineScheduler.threadpool;
+
+	@StringGetter(NETSIM_ENGINE_SCHEDULER)
+	public NetsimEngineScheduler getNetsimEngineScheduler() {
+		return this.netsimEngineScheduler;
+	}
+
+	@StringSetter(NETSIM_ENGINE_SCHEDULER)
+	public void setNetsimEngineScheduler(NetsimEngineScheduler netsimEngineScheduler) {
+		this.netsimEngineScheduler = netsimEngineScheduler;
+	}
+
+	// ---
+	private static final String VEHICLE_QUEUE = "vehicleQueue";
+
+	public enum VehicleQueue {linkedList, ringBuffer}
+
+	private VehicleQueue vehicleQueue = VehicleQueue.linkedList;
+
+	@StringGetter(VEHICLE_QUEUE)
+	public VehicleQueue getVehicleQueue() {
+		return this.vehicleQueue;
+	}
+
+	@StringSetter(VEHICLE_QUEUE)
+	public void setVehicleQueue(VehicleQueue vehicleQueue) {
+		this.vehicleQueue = vehicleQueue;
+	}
+
+	// ---
+	private static final String REUSING_NETSIM_NETWORK = "reusingNetsimNetwork";
+	private boolean reusingNetsimNetwork = false;
+
+	@StringGetter(REUSING_NETSIM_NETWORK)
+	public boolean isReusingNetsimNetwork() {
+		return this.reusingNetsimNetwork;
+	}
+
+	@StringSetter(REUSING_NETSIM_NETWORK)
+	public void setReusingNetsimNetwork(boolean reusingNetsimNetwork) {
+		this.reusingNetsimNetwork = reusingNetsimNetwork;
+	}
+
+	// ---
+	private static final String LAZY_AGENT_CREATION_HORIZON = "lazyAgentCreationHorizon";
+	private double lazyAgentCreationHorizon = 0;
+
+	@StringGetter(LAZY_AGENT_CREATION_HORIZON)
+	public double getLazyAgentCreationHorizon() {
+		return this.lazyAgentCreationHorizon;
+	}
+
+	@StringSetter(LAZY_AGENT_CREATION_HORIZON)
+	public void setLazyAgentCreationHorizon(double lazyAgentCreationHorizon) {
+		if ( lazyAgentCreationHorizon < 0 ) {
+			throw new IllegalArgumentException( "Lazy agent creation horizon must not be negative, got " + lazyAgentCreationHorizon );
+		}
+		this.lazyAgentCreationHorizon = lazyAgentCreationHorizon;
+	}
+
+	// ---
+	private static final String PROFILING = "profiling";
+	private boolean profiling = false;
+
+	@StringGetter(PROFILING)
+	public boolean isProfiling() {
+		return this.profiling;
+	}
+
+	@StringSetter(PROFILING)
+	public void setProfiling(boolean profiling) {
+		this.profiling = profiling;
+	}
+
+	// ---
+	private static final String USE_POOLED_EVENTS = "usePooledEvents";
+	private boolean usePooledEvents = false;
+
+	@StringGetter(USE_POOLED_EVENTS)
+	public boolean isUsePooledEvents() {
+		return this.usePooledEvents;
+	}
+
+	@StringSetter(USE_POOLED_EVENTS)
+	public void setUsePooledEvents(boolean usePooledEvents) {
+		this.usePooledEvents = usePooledEvents;
+	}
+
+	// ---
 	@StringGetter(SIM_STARTTIME_INTERPRETATION)
 	public StarttimeInterpretation getSimStarttimeInterpretation() {
 		return simStarttimeInterpretation;
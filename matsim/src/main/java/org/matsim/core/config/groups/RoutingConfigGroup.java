@@ -98,6 +98,15 @@ public final class RoutingConfigGroup extends ConfigGroup {
 	private static final String RANDOMNESS = "routingRandomness" ;
 	private double routingRandomness = 3. ;
 	// ---
+	private static final String NETWORK_ROUTE_CACHE_SIZE = "networkRouteCacheSize";
+	private static final String NETWORK_ROUTE_CACHE_SIZE_CMT = "The maximal number of network routes that are remembered and reused for other agents with the same origin, " +
+			"destination and departure time bin within an iteration. Only useful if the travel disutility does not depend on the person, i.e. with " + RANDOMNESS + "=0. " +
+			"Default is 0, i.e. no routes are reused.";
+	private int networkRouteCacheSize = 0;
+	private static final String NETWORK_ROUTE_CACHE_TIME_BIN_SIZE = "networkRouteCacheTimeBinSize";
+	private static final String NETWORK_ROUTE_CACHE_TIME_BIN_SIZE_CMT = "Agents departing within the same time bin of this size (in seconds) share the cached network routes. Default is 900.";
+	private double networkRouteCacheTimeBinSize = 900.;
+	// ---
 	private static final String CLEAR_MODE_ROUTING_PARAMS = "clearDefaultTeleportedModeParams";
 	private static final String CLEAR_MODE_ROUTING_PARAMS_CMT = "Some typical teleportation routing params are set by default, such as for walk and bike.  " +
 																		"Setting this switch to \"true\" will clear them.  Note that this will also clear " +
@@ -520,6 +529,12 @@ public final class RoutingConfigGroup extends ConfigGroup {
 		else if (ACCESSEGRESSTYPE.equals( key ) ) {
 			this.setAccessEgressType(AccessEgressType.valueOf(value));
 		}
+		else if (NETWORK_ROUTE_CACHE_SIZE.equals( key ) ) {
+			this.setNetworkRouteCacheSize( Integer.parseInt( value ) );
+		}
+		else if (NETWORK_ROUTE_CACHE_TIME_BIN_SIZE.equals( key ) ) {
+			this.setNetworkRouteCacheTimeBinSize( Double.parseDouble( value ) );
+		}
 		else {
 			throw new IllegalArgumentException(key);
 		}
@@ -532,6 +547,8 @@ public final class RoutingConfigGroup extends ConfigGroup {
 		map.put(  CLEAR_MODE_ROUTING_PARAMS, Boolean.toString( this.clearingDefaultModeRoutingParams ) ) ;
 		map.put(  RANDOMNESS, Double.toString( this.routingRandomness ) ) ;
 		map.put(  ACCESSEGRESSTYPE, getAccessEgressType().toString()) ;
+		map.put(  NETWORK_ROUTE_CACHE_SIZE, Integer.toString( this.networkRouteCacheSize ) ) ;
+		map.put(  NETWORK_ROUTE_CACHE_TIME_BIN_SIZE, Double.toString( this.networkRouteCacheTimeBinSize ) ) ;
 		return map;
 	}
 
@@ -547,6 +564,8 @@ public final class RoutingConfigGroup extends ConfigGroup {
 	          		+ "Technically the width parameter of a log-normal distribution. 3.0 seems to be a good value. " ) ;
 		map.put( CLEAR_MODE_ROUTING_PARAMS, CLEAR_MODE_ROUTING_PARAMS_CMT ) ;
 		map.put(ACCESSEGRESSTYPE, ACCESSEGRESSTYPE_CMT);
+		map.put(NETWORK_ROUTE_CACHE_SIZE, NETWORK_ROUTE_CACHE_SIZE_CMT);
+		map.put(NETWORK_ROUTE_CACHE_TIME_BIN_SIZE, NETWORK_ROUTE_CACHE_TIME_BIN_SIZE_CMT);
 		return map;
 	}
 
@@ -650,6 +669,24 @@ public final class RoutingConfigGroup extends ConfigGroup {
 		this.routingRandomness = routingRandomness;
 	}
 
+	@StringGetter(NETWORK_ROUTE_CACHE_SIZE)
+	public int getNetworkRouteCacheSize() {
+		return networkRouteCacheSize;
+	}
+	@StringSetter(NETWORK_ROUTE_CACHE_SIZE)
+	public void setNetworkRouteCacheSize(int networkRouteCacheSize) {
+		this.networkRouteCacheSize = networkRouteCacheSize;
+	}
+
+	@StringGetter(NETWORK_ROUTE_CACHE_TIME_BIN_SIZE)
+	public double getNetworkRouteCacheTimeBinSize() {
+		return networkRouteCacheTimeBinSize;
+	}
+	@StringSetter(NETWORK_ROUTE_CACHE_TIME_BIN_SIZE)
+	public void setNetworkRouteCacheTimeBinSize(double networkRouteCacheTimeBinSize) {
+		this.networkRouteCacheTimeBinSize = networkRouteCacheTimeBinSize;
+	}
+
 	@Override protected void checkConsistency(Config config) {
 		super.checkConsistency(config);
 		Set<String> modesRoutedAsTeleportation = this.getModeRoutingParams().keySet();
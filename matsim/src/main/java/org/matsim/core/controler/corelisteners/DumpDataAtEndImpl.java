@@ -156,6 +156,9 @@ final class DumpDataAtEndImpl implements DumpDataAtEnd, ShutdownListener {
 					case json:
 						file = Controler.DefaultFiles.eventsJson;
 						break;
+					case bin:
+						file = Controler.DefaultFiles.eventsBinary;
+						break;
 					default:
 						continue;
 				}
@@ -320,7 +323,8 @@ final class DumpDataAtEndImpl implements DumpDataAtEnd, ShutdownListener {
 
 		final PopulationWriter writer = new PopulationWriter(this.population, this.network);
 		writer.putAttributeConverters(this.attributeConverters);
-		writer.write(this.controlerIO.getOutputFilename(Controler.DefaultFiles.population));
+		writer.write(IOUtils.getOutputStream(IOUtils.getFileUrl(this.controlerIO.getOutputFilename(Controler.DefaultFiles.population)), false,
+				this.controllerConfigGroup.getCompressionThreads()));
 	}
 
 }
@@ -43,6 +43,7 @@ import org.matsim.core.controler.listener.BeforeMobsimListener;
 import org.matsim.core.controler.listener.IterationEndsListener;
 import org.matsim.core.controler.listener.ShutdownListener;
 import org.matsim.core.events.algorithms.EventWriter;
+import org.matsim.core.events.algorithms.EventWriterBinary;
 import org.matsim.core.events.algorithms.EventWriterJson;
 import org.matsim.core.events.algorithms.EventWriterXML;
 
@@ -66,6 +67,8 @@ final class EventsHandlingImpl implements EventsHandling, BeforeMobsimListener,
 
 	private int writeMoreUntilIteration;
 
+	private final int compressionThreads;
+
 	@Inject
 	EventsHandlingImpl(
 			final EventsManager eventsManager,
@@ -76,6 +79,7 @@ final class EventsHandlingImpl implements EventsHandling, BeforeMobsimListener,
 		this.eventsFileFormats = config.getEventsFileFormats();
 		this.controlerIO = controlerIO;
 		this.writeMoreUntilIteration = config.getWriteEventsUntilIteration() ;
+		this.compressionThreads = config.getCompressionThreads();
 	}
 
 	@Override
@@ -90,8 +94,7 @@ final class EventsHandlingImpl implements EventsHandling, BeforeMobsimListener,
 			for (EventsFileFormat format : eventsFileFormats) {
 				switch (format) {
 					case xml:
-						this.eventWriters.add(new EventWriterXML(controlerIO.getIterationFilename(event.getIteration(),
-								Controler.DefaultFiles.events)));
+						this.eventWriters.add(new EventWriterXML(getOutputStream(event.getIteration(), Controler.DefaultFiles.events)));
 						break;
 					case pb:
 						// The pb dependency is optional at the moment so we search it first
@@ -109,6 +112,9 @@ final class EventsHandlingImpl implements EventsHandling, BeforeMobsimListener,
 						this.eventWriters.add(new EventWriterJson(new File(controlerIO.getIterationFilename(event.getIteration(),
 								Controler.DefaultFiles.eventsJson))));
 						break;
+					case bin:
+						this.eventWriters.add(new EventWriterBinary(getOutputStream(event.getIteration(), Controler.DefaultFiles.eventsBinary)));
+						break;
 					default:
 						log.warn("Unknown events file format specified: " + format.toString() + ".");
 				}
@@ -139,4 +145,9 @@ final class EventsHandlingImpl implements EventsHandling, BeforeMobsimListener,
 		}
 	}
 
+	private OutputStream getOutputStream(int iteration, Controler.DefaultFiles file) {
+		URL url = IOUtils.getFileUrl(controlerIO.getIterationFilename(iteration, file));
+		return IOUtils.getOutputStream(url, false, this.compressionThreads);
+	}
+
 }
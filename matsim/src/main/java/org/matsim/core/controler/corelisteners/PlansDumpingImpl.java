@@ -20,6 +20,8 @@
 
 package org.matsim.core.controler.corelisteners;
 
+import java.io.OutputStream;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.matsim.analysis.IterationStopWatch;
@@ -37,6 +39,7 @@ import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import org.matsim.core.utils.geometry.CoordinateTransformation;
 import org.matsim.core.utils.geometry.transformations.TransformationFactory;
+import org.matsim.core.utils.io.IOUtils;
 
 /**
  * {@link org.matsim.core.controler.listener.ControlerListener} that dumps the
@@ -61,10 +64,13 @@ final class PlansDumpingImpl implements PlansDumping, BeforeMobsimListener {
 
 	private int writeMoreUntilIteration;
 
+	private final int compressionThreads;
+
 	@Inject
 	PlansDumpingImpl(ControllerConfigGroup config) {
 		this.writePlansInterval = config.getWritePlansInterval();
 		this.writeMoreUntilIteration = config.getWritePlansUntilIteration() ;
+		this.compressionThreads = config.getCompressionThreads();
 	}
 
 	@Override
@@ -79,7 +85,7 @@ final class PlansDumpingImpl implements PlansDumping, BeforeMobsimListener {
 			final String internalCRS = config.global().getCoordinateSystem();
 
 			if ( inputCRS == null ) {
-				new PopulationWriter(population, network).write(controlerIO.getIterationFilename(event.getIteration(), Controler.DefaultFiles.population));
+				new PopulationWriter(population, network).write(getOutputStream(event.getIteration()));
 			}
 			else {
 				log.info( "re-projecting population from "+internalCRS+" back to "+inputCRS+" for export" );
@@ -89,11 +95,16 @@ final class PlansDumpingImpl implements PlansDumping, BeforeMobsimListener {
 								internalCRS,
 								inputCRS );
 
-				new PopulationWriter(transformation, population, network).write(controlerIO.getIterationFilename(event.getIteration(), Controler.DefaultFiles.population));
+				new PopulationWriter(transformation, population, network).write(getOutputStream(event.getIteration()));
 			}
 			log.info("finished plans dump.");
 			stopwatch.endOperation("dump all plans");
 		}
 	}
 
+	private OutputStream getOutputStream(int iteration) {
+		String filename = controlerIO.getIterationFilename(iteration, Controler.DefaultFiles.population);
+		return IOUtils.getOutputStream(IOUtils.getFileUrl(filename), false, this.compressionThreads);
+	}
+
 }
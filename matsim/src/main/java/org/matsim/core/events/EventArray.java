@@ -16,9 +16,13 @@ public class EventArray {
 		this(32);
 	}
 
+	/**
+	 * Adds the element, or a copy of it if it is a pooled event, see {@link PooledEvents#detach(Event)}.
+	 */
 	public void add(Event element) {
+		element = PooledEvents.detach(element);
 		if (size == array.length) {
-			array = Arrays.copyOf(array, array.length + array.length/2);
+			array = Arrays.copyOf(array, array.length + array.length/2 + 1);
 		}
 		array[size] = element;
 		size++;
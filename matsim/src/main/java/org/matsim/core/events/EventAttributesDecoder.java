@@ -0,0 +1,97 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.events;
+
+import java.util.Map;
+
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.MatsimEventsReader.CustomEventMapper;
+import org.matsim.core.events.handler.EventHandler;
+import org.xml.sax.Attributes;
+
+/**
+ * Creates events from their xml attributes, using the same code as {@link EventsReaderXMLv1}, and collects them into
+ * an {@link EventArray}. Used by the readers that decode parts of a file in parallel; one instance per thread.
+ */
+final class EventAttributesDecoder implements EventsManager {
+
+	private final EventsManager target;
+	private final EventsReaderXMLv1 delegate;
+	private EventArray array = null;
+
+	/**
+	 * @param target the events manager the events are meant for, only used to skip events it does not handle.
+	 */
+	EventAttributesDecoder(EventsManager target, Map<String, CustomEventMapper> customEventMappers) {
+		this.target = target;
+		this.delegate = new EventsReaderXMLv1(this);
+		customEventMappers.forEach(this.delegate::addCustomEventMapper);
+	}
+
+	void startChunk(int expectedEvents) {
+		this.array = new EventArray(Math.max(1, expectedEvents));
+	}
+
+	void decode(Attributes attributes) {
+		this.delegate.startTag(EventsReaderXMLv1.EVENT, attributes, null);
+	}
+
+	EventArray finishChunk() {
+		EventArray result = this.array;
+		this.array = null;
+		return result;
+	}
+
+	@Override
+	public void processEvent(Event event) {
+		this.array.add(event);
+	}
+
+	@Override
+	public boolean isHandled(Class<? extends Event> eventClass) {
+		return this.target.isHandled(eventClass);
+	}
+
+	@Override
+	public void addHandler(EventHandler handler) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void removeHandler(EventHandler handler) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void resetHandlers(int iteration) {
+	}
+
+	@Override
+	public void initProcessing() {
+	}
+
+	@Override
+	public void afterSimStep(double time) {
+	}
+
+	@Override
+	public void finishProcessing() {
+	}
+}
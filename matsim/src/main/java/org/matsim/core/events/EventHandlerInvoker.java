@@ -0,0 +1,81 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.events;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.events.handler.EventHandler;
+
+/**
+ * Calls one <code>handleEvent</code> method of an event handler interface. Instances are generated with the
+ * {@link LambdaMetafactory}, so every handler interface and event class gets its own typed call site which the JIT can
+ * inline, in contrast to {@link Method#invoke(Object, Object...)}.
+ */
+@FunctionalInterface
+interface EventHandlerInvoker {
+
+	MethodType INVOKER_TYPE = MethodType.methodType(void.class, EventHandler.class, Event.class);
+
+	/**
+	 * Exceptions thrown by the handler are passed on unwrapped.
+	 */
+	void invoke(EventHandler handler, Event event) throws Throwable;
+
+	/**
+	 * Falls back to reflection if no call site can be generated, e.g. because the handler interface is not accessible
+	 * from this package or not visible from its class loader.
+	 */
+	static EventHandlerInvoker create(final Method method) {
+		try {
+			Class<?> handlerClass = method.getDeclaringClass();
+			Class<?> eventClass = method.getParameterTypes()[0];
+			if (isVisible(handlerClass) && isVisible(eventClass)) {
+				MethodHandles.Lookup lookup = MethodHandles.lookup();
+				MethodHandle target = lookup.unreflect(method);
+				CallSite site = LambdaMetafactory.metafactory(lookup, "invoke", MethodType.methodType(EventHandlerInvoker.class),
+						INVOKER_TYPE, target, target.type());
+				return (EventHandlerInvoker) site.getTarget().invokeExact();
+			}
+		} catch (Throwable e) {
+			// use reflection below
+		}
+		return (handler, event) -> {
+			try {
+				method.invoke(handler, event);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		};
+	}
+
+	private static boolean isVisible(final Class<?> klass) {
+		try {
+			return Class.forName(klass.getName(), false, EventHandlerInvoker.class.getClassLoader()) == klass;
+		} catch (ClassNotFoundException e) {
+			return false;
+		}
+	}
+}
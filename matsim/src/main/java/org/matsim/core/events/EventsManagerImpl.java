@@ -20,7 +20,6 @@
 
 package org.matsim.core.events;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -42,6 +41,7 @@ import org.matsim.core.api.experimental.events.handler.VehicleArrivesAtFacilityE
 import org.matsim.core.api.experimental.events.handler.VehicleDepartsAtFacilityEventHandler;
 import org.matsim.core.events.handler.BasicEventHandler;
 import org.matsim.core.events.handler.EventHandler;
+import org.matsim.core.events.handler.NonRetainingEventHandler;
 
 /**
  * EventHandling
@@ -66,11 +66,11 @@ public final class EventsManagerImpl implements EventsManager {
 
 		protected Class<? extends Event> eventClass;
 		protected ArrayList<EventHandler> handlerList = new ArrayList<EventHandler>(5);
-		protected Method method;
+		protected final EventHandlerInvoker invoker;
 
 		protected HandlerData(final Class<? extends Event> eventClass, final Method method) {
 			this.eventClass = eventClass;
-			this.method = method;
+			this.invoker = EventHandlerInvoker.create(method);
 		}
 
 		protected void removeHandler(final EventHandler handler) {
@@ -81,13 +81,13 @@ public final class EventsManagerImpl implements EventsManager {
 	static private class HandlerInfo {
 		protected final Class<? extends Event> eventClass;
 		protected final EventHandler eventHandler;
-		protected final Method method;
+		protected final EventHandlerInvoker invoker;
 
 		protected HandlerInfo(final Class<? extends Event> eventClass, final EventHandler eventHandler,
-				final Method method) {
+				final EventHandlerInvoker invoker) {
 			this.eventClass = eventClass;
 			this.eventHandler = eventHandler;
-			this.method = method;
+			this.invoker = invoker;
 		}
 	}
 
@@ -95,6 +95,9 @@ public final class EventsManagerImpl implements EventsManager {
 
 	private final Map<Class<? extends Event>, HandlerInfo[]> cacheHandlers = new ConcurrentHashMap<>(15);
 
+	// whether all handlers of an event class are NonRetainingEventHandlers, cleared together with cacheHandlers
+	private final Map<Class<? extends Event>, Boolean> cacheReleasable = new ConcurrentHashMap<>(15);
+
 	private long counter = 0;
 	private long nextCounterMsg = 1;
 
@@ -114,20 +117,38 @@ public final class EventsManagerImpl implements EventsManager {
 			this.nextCounterMsg *= 4;
 			log.info(" event # " + this.counter);
 		}
-		for (HandlerInfo info : getHandlersForClass( event.getClass() )) {
+		HandlerInfo[] handlers = getHandlersForClass( event.getClass() );
+		for (HandlerInfo info : handlers) {
 			synchronized(info.eventHandler) {
 				if (callHandlerFast(info.eventClass, event, info.eventHandler )) {
 					continue;
 				}
 				try {
-					info.method.invoke(info.eventHandler, event );
-				} catch (IllegalArgumentException | IllegalAccessException e) {
+					info.invoker.invoke(info.eventHandler, event );
+				} catch (Throwable e) {
 					throw new RuntimeException("problem invoking EventHandler " + info.eventHandler.getClass().getCanonicalName() + " for event-class " + info.eventClass.getCanonicalName(), e);
-				} catch (InvocationTargetException e) {
-					throw new RuntimeException("problem invoking EventHandler " + info.eventHandler.getClass().getCanonicalName() + " for event-class " + info.eventClass.getCanonicalName(), e.getCause());
 				}
 			}
 		}
+		// all handlers have seen the event, so a pooled one can be reused unless one of them may still reference it
+		if (PooledEvents.isPooled(event) && isReleasable(event.getClass(), handlers)) {
+			PooledEvents.release(event);
+		}
+	}
+
+	private boolean isReleasable(final Class<? extends Event> eventClass, final HandlerInfo[] handlers) {
+		Boolean releasable = this.cacheReleasable.get(eventClass);
+		if (releasable == null) {
+			releasable = true;
+			for (HandlerInfo info : handlers) {
+				if (!(info.eventHandler instanceof NonRetainingEventHandler)) {
+					releasable = false;
+					break;
+				}
+			}
+			this.cacheReleasable.put(eventClass, releasable);
+		}
+		return releasable;
 	}
 
 
@@ -151,6 +172,7 @@ public final class EventsManagerImpl implements EventsManager {
 		} while ((EventHandler.class.isAssignableFrom(test)));
 
 		this.cacheHandlers.clear();
+		this.cacheReleasable.clear();
 		log.info("");
 	}
 
@@ -161,6 +183,7 @@ public final class EventsManagerImpl implements EventsManager {
 			handlerList.removeHandler(handler);
 		}
 		this.cacheHandlers.clear();
+		this.cacheReleasable.clear();
 	}
 
 	@Override
@@ -214,6 +237,11 @@ public final class EventsManagerImpl implements EventsManager {
 		}
 	}
 
+	@Override
+	public boolean isHandled(final Class<? extends Event> eventClass) {
+		return getHandlersForClass(eventClass).length > 0;
+	}
+
 	private HandlerInfo[] getHandlersForClass(final Class<? extends Event> eventClass) {
 		HandlerInfo[] cache = this.cacheHandlers.get(eventClass);
 		if (cache != null) {
@@ -228,7 +256,7 @@ public final class EventsManagerImpl implements EventsManager {
 			HandlerData dat = findHandler(eventKlass);
 			if (dat != null) {
 				for (EventHandler handler : dat.handlerList) {
-					info.add(new HandlerInfo(eventKlass, handler, dat.method));
+					info.add(new HandlerInfo(eventKlass, handler, dat.invoker));
 				}
 			}
 			klass = klass.getSuperclass();
@@ -0,0 +1,409 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.events;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.ActivityEndEvent;
+import org.matsim.api.core.v01.events.ActivityStartEvent;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.PersonArrivalEvent;
+import org.matsim.api.core.v01.events.PersonDepartureEvent;
+import org.matsim.api.core.v01.events.PersonEntersVehicleEvent;
+import org.matsim.api.core.v01.events.PersonLeavesVehicleEvent;
+import org.matsim.api.core.v01.events.PersonStuckEvent;
+import org.matsim.api.core.v01.events.VehicleEntersTrafficEvent;
+import org.matsim.api.core.v01.events.VehicleLeavesTrafficEvent;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.api.experimental.events.TeleportationArrivalEvent;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.MatsimEventsReader.CustomEventMapper;
+import org.matsim.core.events.algorithms.EventWriterBinary;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.facilities.ActivityFacility;
+import org.matsim.vehicles.Vehicle;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * Reads events written by {@link EventWriterBinary}. The chunks of the file are read and decompressed by the calling
+ * thread, decoded into events by a pool of threads and handed to the events manager in the order of the file.
+ * <p></p>
+ * The core event types are created directly from their fixed layout, creating every id only once per chunk. All other
+ * events are created from their attributes by the same code as in the xml reader, so custom event mappers work the same
+ * way. Events of types the events manager does not handle are skipped without being created, like in the xml reader.
+ * Since chunks are decoded in parallel, ids that do not exist yet may get their {@link org.matsim.api.core.v01.Id#index()}
+ * in a different order than when reading the same events from xml.
+ */
+public final class EventsReaderBinary {
+
+	private final static Logger log = LogManager.getLogger(EventsReaderBinary.class);
+
+	private final EventsManager events;
+	private final Map<String, CustomEventMapper> customEventMappers = new HashMap<>();
+	private final int numberOfThreads;
+
+	public EventsReaderBinary(final EventsManager events) {
+		this(events, Math.min(4, Runtime.getRuntime().availableProcessors()));
+	}
+
+	public EventsReaderBinary(final EventsManager events, final int numberOfThreads) {
+		if (numberOfThreads < 1) {
+			throw new IllegalArgumentException("numberOfThreads must be positive, but is " + numberOfThreads);
+		}
+		this.events = events;
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	public void addCustomEventMapper(String eventType, CustomEventMapper cem) {
+		this.customEventMappers.put(eventType, cem);
+	}
+
+	public void readFile(final String filename) throws UncheckedIOException {
+		log.info("reading binary events from " + filename);
+		parse(IOUtils.getInputStream(IOUtils.getFileUrl(filename)));
+	}
+
+	public void readURL(final URL url) throws UncheckedIOException {
+		log.info("reading binary events from " + url);
+		parse(IOUtils.getInputStream(url));
+	}
+
+	public void parse(final InputStream stream) throws UncheckedIOException {
+		ExecutorService executor = Executors.newFixedThreadPool(this.numberOfThreads, runnable -> {
+			Thread thread = new Thread(runnable, "EventsReaderBinary");
+			thread.setDaemon(true);
+			return thread;
+		});
+		ThreadLocal<ChunkDecoder> decoders = ThreadLocal.withInitial(() -> new ChunkDecoder(this.events, this.customEventMappers));
+		// keeps the decoders busy while the events of the oldest chunk are processed
+		Queue<Future<EventArray>> chunks = new ArrayDeque<>();
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 1 << 16))) {
+			if (in.readLong() != EventWriterBinary.MAGIC) {
+				throw new IllegalArgumentException("not a binary events file");
+			}
+			int version = in.readInt();
+			if (version != EventWriterBinary.VERSION) {
+				throw new IllegalArgumentException("unsupported binary events version " + version);
+			}
+			while (true) {
+				int numberOfEvents = in.readInt();
+				if (numberOfEvents == 0) {
+					break;
+				}
+				byte[] bytes = new byte[in.readInt()];
+				in.readFully(bytes);
+				chunks.add(executor.submit(() -> decoders.get().decode(bytes, numberOfEvents)));
+				if (chunks.size() > 2 * this.numberOfThreads) {
+					processChunk(chunks.poll());
+				}
+			}
+			while (!chunks.isEmpty()) {
+				processChunk(chunks.poll());
+			}
+		} catch (EOFException e) {
+			throw new UncheckedIOException("binary events file ends unexpectedly", e);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void processChunk(final Future<EventArray> chunk) {
+		EventArray array;
+		try {
+			array = chunk.get();
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("could not decode binary events", e.getCause());
+		}
+		this.events.processEvents(array);
+	}
+
+	private static final class ChunkDecoder {
+
+		private final EventAttributesDecoder decoder;
+		private final AttributesImpl attributes = new AttributesImpl();
+		// whether the target events manager handles the type, by type code; null if not known yet
+		private final Boolean[] handled = new Boolean[EventWriterBinary.TYPE_PERSON_STUCK + 1];
+		// the dictionary of the current chunk, with the ids and interned strings created from its entries so far
+		private String[] dictionary = new String[1024];
+		private Id<?>[] ids = new Id<?>[1024];
+		private String[] internedStrings = new String[1024];
+		private int dictionarySize = 0;
+
+		ChunkDecoder(EventsManager events, Map<String, CustomEventMapper> customEventMappers) {
+			this.decoder = new EventAttributesDecoder(events, customEventMappers);
+		}
+
+		EventArray decode(byte[] bytes, int numberOfEvents) {
+			ByteBuffer buffer = ByteBuffer.wrap(bytes);
+			this.decoder.startChunk(numberOfEvents);
+			Arrays.fill(this.ids, 0, this.dictionarySize + 1, null);
+			Arrays.fill(this.internedStrings, 0, this.dictionarySize + 1, null);
+			this.dictionarySize = 0;
+			for (int i = 0; i < numberOfEvents; i++) {
+				int type = readVarInt(buffer);
+				switch (type) {
+					case EventWriterBinary.TYPE_ATTRIBUTES -> decodeAttributes(buffer);
+					case EventWriterBinary.TYPE_LINK_ENTER -> {
+						double time = buffer.getDouble();
+						int vehicle = readReference(buffer);
+						int link = readReference(buffer);
+						if (isHandled(type, LinkEnterEvent.class)) {
+							add(new LinkEnterEvent(time, id(vehicle, Vehicle.class), id(link, Link.class)));
+						}
+					}
+					case EventWriterBinary.TYPE_LINK_LEAVE -> {
+						double time = buffer.getDouble();
+						int vehicle = readReference(buffer);
+						int link = readReference(buffer);
+						if (isHandled(type, LinkLeaveEvent.class)) {
+							add(new LinkLeaveEvent(time, id(vehicle, Vehicle.class), id(link, Link.class)));
+						}
+					}
+					case EventWriterBinary.TYPE_VEHICLE_ENTERS_TRAFFIC -> {
+						double time = buffer.getDouble();
+						int person = readReference(buffer);
+						int link = readReference(buffer);
+						int vehicle = readReference(buffer);
+						int mode = readReference(buffer);
+						double position = buffer.getDouble();
+						if (isHandled(type, VehicleEntersTrafficEvent.class)) {
+							add(new VehicleEntersTrafficEvent(time, id(person, Person.class), id(link, Link.class), id(vehicle, Vehicle.class),
+									string(mode), position));
+						}
+					}
+					case EventWriterBinary.TYPE_VEHICLE_LEAVES_TRAFFIC -> {
+						double time = buffer.getDouble();
+						int person = readReference(buffer);
+						int link = readReference(buffer);
+						int vehicle = readReference(buffer);
+						int mode = readReference(buffer);
+						double position = buffer.getDouble();
+						if (isHandled(type, VehicleLeavesTrafficEvent.class)) {
+							add(new VehicleLeavesTrafficEvent(time, id(person, Person.class), id(link, Link.class), id(vehicle, Vehicle.class),
+									string(mode), position));
+						}
+					}
+					case EventWriterBinary.TYPE_PERSON_DEPARTURE -> {
+						double time = buffer.getDouble();
+						int person = readReference(buffer);
+						int link = readReference(buffer);
+						int legMode = readReference(buffer);
+						int routingMode = readReference(buffer);
+						if (isHandled(type, PersonDepartureEvent.class)) {
+							add(new PersonDepartureEvent(time, id(person, Person.class), id(link, Link.class), string(legMode), string(routingMode)));
+						}
+					}
+					case EventWriterBinary.TYPE_PERSON_ARRIVAL -> {
+						double time = buffer.getDouble();
+						int person = readReference(buffer);
+						int link = readReference(buffer);
+						int legMode = readReference(buffer);
+						if (isHandled(type, PersonArrivalEvent.class)) {
+							add(new PersonArrivalEvent(time, id(person, Person.class), id(link, Link.class), string(legMode)));
+						}
+					}
+					case EventWriterBinary.TYPE_ACTIVITY_START -> {
+						double time = buffer.getDouble();
+						int person = readReference(buffer);
+						int link = readReference(buffer);
+						int facility = readReference(buffer);
+						int actType = readReference(buffer);
+						Coord coord = readCoord(buffer);
+						if (isHandled(type, ActivityStartEvent.class)) {
+							add(new ActivityStartEvent(time, id(person, Person.class), id(link, Link.class), id(facility, ActivityFacility.class),
+									string(actType), coord));
+						}
+					}
+					case EventWriterBinary.TYPE_ACTIVITY_END -> {
+						double time = buffer.getDouble();
+						int person = readReference(buffer);
+						int link = readReference(buffer);
+						int facility = readReference(buffer);
+						int actType = readReference(buffer);
+						Coord coord = readCoord(buffer);
+						if (isHandled(type, ActivityEndEvent.class)) {
+							add(new ActivityEndEvent(time, id(person, Person.class), id(link, Link.class), id(facility, ActivityFacility.class),
+									string(actType), coord));
+						}
+					}
+					case EventWriterBinary.TYPE_PERSON_ENTERS_VEHICLE -> {
+						double time = buffer.getDouble();
+						int person = readReference(buffer);
+						int vehicle = readReference(buffer);
+						if (isHandled(type, PersonEntersVehicleEvent.class)) {
+							add(new PersonEntersVehicleEvent(time, id(person, Person.class), id(vehicle, Vehicle.class)));
+						}
+					}
+					case EventWriterBinary.TYPE_PERSON_LEAVES_VEHICLE -> {
+						double time = buffer.getDouble();
+						int person = readReference(buffer);
+						int vehicle = readReference(buffer);
+						if (isHandled(type, PersonLeavesVehicleEvent.class)) {
+							add(new PersonLeavesVehicleEvent(time, id(person, Person.class), id(vehicle, Vehicle.class)));
+						}
+					}
+					case EventWriterBinary.TYPE_TELEPORTATION_ARRIVAL -> {
+						double time = buffer.getDouble();
+						int person = readReference(buffer);
+						double distance = buffer.getDouble();
+						int mode = readReference(buffer);
+						if (isHandled(type, TeleportationArrivalEvent.class)) {
+							add(new TeleportationArrivalEvent(time, id(person, Person.class), distance, string(mode)));
+						}
+					}
+					case EventWriterBinary.TYPE_PERSON_STUCK -> {
+						double time = buffer.getDouble();
+						int person = readReference(buffer);
+						int link = readReference(buffer);
+						int legMode = readReference(buffer);
+						if (isHandled(type, PersonStuckEvent.class)) {
+							add(new PersonStuckEvent(time, id(person, Person.class), id(link, Link.class), string(legMode)));
+						}
+					}
+					default -> throw new IllegalStateException("unknown event type code " + type);
+				}
+			}
+			return this.decoder.finishChunk();
+		}
+
+		private void decodeAttributes(ByteBuffer buffer) {
+			this.attributes.clear();
+			int numberOfAttributes = readVarInt(buffer);
+			for (int a = 0; a < numberOfAttributes; a++) {
+				int key = readReference(buffer);
+				int value = readReference(buffer);
+				this.attributes.addAttribute("", this.dictionary[key], this.dictionary[key], "CDATA", this.dictionary[value]);
+			}
+			this.decoder.decode(this.attributes);
+		}
+
+		private boolean isHandled(int type, Class<? extends Event> eventClass) {
+			Boolean isHandled = this.handled[type];
+			if (isHandled == null) {
+				isHandled = this.decoder.isHandled(eventClass);
+				this.handled[type] = isHandled;
+			}
+			return isHandled;
+		}
+
+		private void add(Event event) {
+			this.decoder.processEvent(event);
+		}
+
+		private static Coord readCoord(ByteBuffer buffer) {
+			if (buffer.get() == 0) {
+				return null;
+			}
+			double x = buffer.getDouble();
+			double y = buffer.getDouble();
+			return new Coord(x, y);
+		}
+
+		/**
+		 * Reads a reference to the dictionary, adding the entry if it is new.
+		 *
+		 * @return the index of the entry in the dictionary, 0 for null.
+		 */
+		private int readReference(ByteBuffer buffer) {
+			int reference = readVarInt(buffer);
+			if (reference > this.dictionarySize) {
+				int length = readVarInt(buffer);
+				String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+				buffer.position(buffer.position() + length);
+				this.dictionarySize++;
+				if (this.dictionarySize == this.dictionary.length) {
+					this.dictionary = Arrays.copyOf(this.dictionary, 2 * this.dictionary.length);
+					this.ids = Arrays.copyOf(this.ids, 2 * this.ids.length);
+					this.internedStrings = Arrays.copyOf(this.internedStrings, 2 * this.internedStrings.length);
+				}
+				this.dictionary[this.dictionarySize] = value;
+			}
+			return reference;
+		}
+
+		/**
+		 * The writer creates a new entry for every id object, so all references to an entry are of the same type.
+		 */
+		@SuppressWarnings("unchecked")
+		private <T> Id<T> id(int reference, Class<T> type) {
+			if (reference == 0) {
+				return null;
+			}
+			Id<?> id = this.ids[reference];
+			if (id == null) {
+				id = Id.create(this.dictionary[reference], type);
+				this.ids[reference] = id;
+			}
+			return (Id<T>) id;
+		}
+
+		private String string(int reference) {
+			if (reference == 0) {
+				return null;
+			}
+			String value = this.internedStrings[reference];
+			if (value == null) {
+				// like the xml reader, which interns the modes
+				value = this.dictionary[reference].intern();
+				this.internedStrings[reference] = value;
+			}
+			return value;
+		}
+
+		private static int readVarInt(ByteBuffer buffer) {
+			int value = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = buffer.get();
+				value |= (b & 0x7f) << shift;
+				shift += 7;
+			} while ((b & 0x80) != 0);
+			return value;
+		}
+	}
+}
@@ -50,6 +50,7 @@ public final class MatsimEventsReader implements MatsimReader {
 	private final EventsManager events;
 
 	private final Map<String, CustomEventMapper> customEventMappers = new LinkedHashMap<>();
+	private boolean parallelXmlReading = false;
 
 	public interface CustomEventMapper {
 		Event apply(GenericEvent event);
@@ -68,6 +69,15 @@ public final class MatsimEventsReader implements MatsimReader {
 		this.events = events;
 	}
 
+	/**
+	 * If true, xml events files are read by {@link ParallelEventsReaderXML}, which only understands the events files
+	 * MATSim writes and fails on other valid xml, e.g. with comments. Default is false, i.e. xml events files are read
+	 * with a full xml parser.
+	 */
+	public void setParallelXmlReading(boolean parallelXmlReading) {
+		this.parallelXmlReading = parallelXmlReading;
+	}
+
 	/**
 	 * Parses the specified events file.
 	 *
@@ -77,11 +87,21 @@ public final class MatsimEventsReader implements MatsimReader {
 	public void readFile(final String filename) {
 		String lcFilename = filename.toLowerCase(Locale.ROOT);
 		if (lcFilename.endsWith(".xml") || lcFilename.endsWith(".xml.gz") || lcFilename.endsWith(".xml.zst") || lcFilename.endsWith(".xml.lz4")) {
-			new XmlEventsReader(this.events, this.customEventMappers).readFile(filename );
+			if (this.parallelXmlReading) {
+				ParallelEventsReaderXML reader = new ParallelEventsReaderXML(this.events);
+				customEventMappers.forEach(reader::addCustomEventMapper);
+				reader.readFile(filename);
+			} else {
+				new XmlEventsReader(this.events, this.customEventMappers).readFile(filename );
+			}
 		} else if (lcFilename.endsWith(".ndjson") || lcFilename.endsWith(".ndjson.gz") || lcFilename.endsWith(".ndjson.zst")) {
 			EventsReaderJson reader = new EventsReaderJson(this.events);
 			customEventMappers.forEach(reader::addCustomEventMapper);
 			reader.parse(filename);
+		} else if (lcFilename.endsWith(".bin") || lcFilename.endsWith(".bin.gz") || lcFilename.endsWith(".bin.zst") || lcFilename.endsWith(".bin.lz4")) {
+			EventsReaderBinary reader = new EventsReaderBinary(this.events);
+			customEventMappers.forEach(reader::addCustomEventMapper);
+			reader.readFile(filename);
 		} else if (lcFilename.endsWith(".txt") || lcFilename.endsWith(".txt.gz")) {
 			throw new RuntimeException("text events are no longer supported. Please use MATSim 0.6.1 or earlier to read text events.");
 		} else {
@@ -107,6 +127,11 @@ public final class MatsimEventsReader implements MatsimReader {
 				customEventMappers.forEach(reader::addCustomEventMapper);
 				reader.parse(stream);
 				break;
+			case bin:
+				EventsReaderBinary binaryReader = new EventsReaderBinary(this.events);
+				customEventMappers.forEach(binaryReader::addCustomEventMapper);
+				binaryReader.parse(stream);
+				break;
 		}
 	}
 
@@ -118,6 +143,10 @@ public final class MatsimEventsReader implements MatsimReader {
 			EventsReaderJson reader = new EventsReaderJson(this.events);
 			customEventMappers.forEach(reader::addCustomEventMapper);
 			reader.parse(url);
+		} else if (url.getFile().contains(".bin")) {
+			EventsReaderBinary reader = new EventsReaderBinary(this.events);
+			customEventMappers.forEach(reader::addCustomEventMapper);
+			reader.readURL(url);
 		}
 	}
 
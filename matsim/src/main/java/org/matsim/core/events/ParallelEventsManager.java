@@ -152,6 +152,8 @@ public final class ParallelEventsManager implements EventsManager {
 
 		EventArray array = new EventArray(1);
 		array.add(event);
+		// the array holds a copy of a pooled event
+		PooledEvents.release(event);
 		try {
 			this.eventQueue.put(array);
 		} catch (InterruptedException e) {
@@ -170,6 +172,18 @@ public final class ParallelEventsManager implements EventsManager {
 		}
 	}
 
+	@Override
+	public boolean isHandled(final Class<? extends Event> eventClass) {
+		// the events managers are only created in initProcessing()
+		if (!init) return true;
+		for (EventsManager eventsManager : this.eventsManagers) {
+			if (eventsManager.isHandled(eventClass)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	@Override
 	public void addHandler(final EventHandler handler) {
 		if (init)
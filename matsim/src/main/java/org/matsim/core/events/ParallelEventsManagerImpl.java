@@ -109,7 +109,10 @@ public final class ParallelEventsManagerImpl implements EventsManager {
 	}
 
 	@Override
-	public void processEvent(final Event event) {
+	public void processEvent(final Event pooledEvent) {
+		// several events managers see the event, so a pooled one is copied
+		Event event = PooledEvents.detach(pooledEvent);
+		PooledEvents.release(pooledEvent);
 		if (parallelMode) {
 			for (int i = 0; i < eventsProcessThread.length; i++) {
 				eventsProcessThread[i].processEvent(event);
@@ -121,6 +124,16 @@ public final class ParallelEventsManagerImpl implements EventsManager {
 		}
 	}
 
+	@Override
+	public boolean isHandled(final Class<? extends Event> eventClass) {
+		for (EventsManagerImpl eventsManager : events) {
+			if (eventsManager.isHandled(eventClass)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	@Override
 	public void addHandler(final EventHandler handler) {
 		synchronized (this) {
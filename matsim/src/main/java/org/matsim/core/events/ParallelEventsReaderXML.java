@@ -0,0 +1,346 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.events;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.MatsimEventsReader.CustomEventMapper;
+import org.matsim.core.utils.io.IOUtils;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * Reads xml events files (events_v1) with several threads. The calling thread decompresses the file and splits the
+ * text into blocks at <code>&lt;event</code> boundaries, the blocks are parsed in parallel and the events are handed to
+ * the events manager in the order of the file.
+ * <p></p>
+ * Instead of a full xml parser, a small scanner is used that only understands what {@link org.matsim.core.events.algorithms.EventWriterXML}
+ * writes: an <code>events</code> element containing empty <code>event</code> elements. Comments, CDATA sections and
+ * other elements are rejected with an {@link IllegalArgumentException}, possibly after the events of earlier blocks have
+ * already been handed to the events manager; use the sequential reader for such files. This is why
+ * {@link MatsimEventsReader} only uses this reader if asked to. Since blocks are parsed in parallel, ids that do not
+ * exist yet may get their {@link org.matsim.api.core.v01.Id#index()} in a different order than when reading sequentially.
+ */
+public final class ParallelEventsReaderXML {
+
+	private final static Logger log = LogManager.getLogger(ParallelEventsReaderXML.class);
+
+	private static final int BLOCK_SIZE = 1 << 20;
+	private static final char[] EVENT_START = "<event".toCharArray();
+	// longer than any entity or character reference
+	private static final int MAX_ENTITY_LENGTH = 10;
+
+	private final EventsManager events;
+	private final Map<String, CustomEventMapper> customEventMappers = new HashMap<>();
+	private final int numberOfThreads;
+
+	public ParallelEventsReaderXML(final EventsManager events) {
+		this(events, Math.min(4, Runtime.getRuntime().availableProcessors()));
+	}
+
+	public ParallelEventsReaderXML(final EventsManager events, final int numberOfThreads) {
+		if (numberOfThreads < 1) {
+			throw new IllegalArgumentException("numberOfThreads must be positive, but is " + numberOfThreads);
+		}
+		this.events = events;
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	public void addCustomEventMapper(String eventType, CustomEventMapper cem) {
+		this.customEventMappers.put(eventType, cem);
+	}
+
+	public void readFile(final String filename) throws UncheckedIOException {
+		log.info("reading xml events from " + filename + " with " + this.numberOfThreads + " threads");
+		parse(IOUtils.getBufferedReader(filename));
+	}
+
+	public void parse(final BufferedReader reader) throws UncheckedIOException {
+		ExecutorService executor = Executors.newFixedThreadPool(this.numberOfThreads, runnable -> {
+			Thread thread = new Thread(runnable, "ParallelEventsReaderXML");
+			thread.setDaemon(true);
+			return thread;
+		});
+		ThreadLocal<BlockParser> parsers = ThreadLocal.withInitial(() -> new BlockParser(this.events, this.customEventMappers));
+		Queue<Future<EventArray>> blocks = new ArrayDeque<>();
+		try (reader) {
+			char[] buffer = new char[BLOCK_SIZE];
+			int length = 0;
+			while (true) {
+				if (length == buffer.length) {
+					// a single event larger than the block
+					buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+				}
+				int read = reader.read(buffer, length, buffer.length - length);
+				if (read < 0) {
+					break;
+				}
+				length += read;
+				if (length < buffer.length) {
+					// readers may return less than requested, e.g. at the end of a gzip member
+					continue;
+				}
+				int cut = lastEventStart(buffer, length);
+				if (cut > 0) {
+					char[] block = Arrays.copyOf(buffer, cut);
+					blocks.add(executor.submit(() -> parsers.get().parse(block)));
+					char[] next = new char[Math.max(BLOCK_SIZE, length - cut)];
+					System.arraycopy(buffer, cut, next, 0, length - cut);
+					buffer = next;
+					length -= cut;
+				}
+				if (blocks.size() > 2 * this.numberOfThreads) {
+					processBlock(blocks.poll());
+				}
+			}
+			char[] block = Arrays.copyOf(buffer, length);
+			blocks.add(executor.submit(() -> parsers.get().parse(block)));
+			while (!blocks.isEmpty()) {
+				processBlock(blocks.poll());
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * @return the start of the last event element within the first <code>length</code> chars, or -1. Since attribute
+	 * values must not contain <code>&lt;</code>, every <code>&lt;event</code> starts an element.
+	 */
+	static int lastEventStart(final char[] buffer, final int length) {
+		for (int i = length - EVENT_START.length - 1; i >= 0; i--) {
+			if (buffer[i] == '<' && i + EVENT_START.length < length && startsWith(buffer, i, EVENT_START) && isSeparator(buffer[i + EVENT_START.length])) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static boolean startsWith(final char[] buffer, final int offset, final char[] prefix) {
+		if (offset + prefix.length > buffer.length) {
+			return false;
+		}
+		for (int i = 0; i < prefix.length; i++) {
+			if (buffer[offset + i] != prefix[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isSeparator(final char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '/' || c == '>';
+	}
+
+	private void processBlock(final Future<EventArray> block) {
+		EventArray array;
+		try {
+			array = block.get();
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("could not parse xml events", e.getCause());
+		}
+		this.events.processEvents(array);
+	}
+
+	private static final class BlockParser {
+
+		private final EventAttributesDecoder decoder;
+		private final AttributesImpl attributes = new AttributesImpl();
+		private final StringBuilder value = new StringBuilder();
+		private char[] chars;
+		private int pos;
+
+		BlockParser(EventsManager events, Map<String, CustomEventMapper> customEventMappers) {
+			this.decoder = new EventAttributesDecoder(events, customEventMappers);
+		}
+
+		EventArray parse(final char[] block) {
+			this.chars = block;
+			this.pos = 0;
+			this.decoder.startChunk(block.length / 100);
+			while (true) {
+				while (this.pos < this.chars.length && this.chars[this.pos] != '<') {
+					this.pos++;
+				}
+				if (this.pos == this.chars.length) {
+					break;
+				}
+				if (startsWith(this.chars, this.pos, EVENT_START) && isSeparator(charAt(this.pos + EVENT_START.length))) {
+					this.pos += EVENT_START.length;
+					parseEvent();
+				} else if (startsWith(this.chars, this.pos, "<?".toCharArray()) || startsWith(this.chars, this.pos, "<!DOCTYPE".toCharArray())
+						|| startsWith(this.chars, this.pos, "<events".toCharArray()) || startsWith(this.chars, this.pos, "</events".toCharArray())) {
+					skipTo('>');
+				} else {
+					int end = Math.min(this.chars.length, this.pos + 20);
+					throw new IllegalArgumentException("unexpected content in events file: " + new String(this.chars, this.pos, end - this.pos)
+							+ "... Use the sequential events reader for this file.");
+				}
+			}
+			this.chars = null;
+			return this.decoder.finishChunk();
+		}
+
+		private void parseEvent() {
+			this.attributes.clear();
+			while (true) {
+				skipWhitespace();
+				char c = charAt(this.pos);
+				if (c == '/') {
+					if (charAt(this.pos + 1) != '>') {
+						throw parseError("expected />");
+					}
+					this.pos += 2;
+					break;
+				}
+				if (c == '>') {
+					this.pos++;
+					skipWhitespace();
+					if (!startsWith(this.chars, this.pos, "</event>".toCharArray())) {
+						throw parseError("event elements must be empty");
+					}
+					this.pos += "</event>".length();
+					break;
+				}
+				int nameStart = this.pos;
+				while (charAt(this.pos) != '=' && !Character.isWhitespace(this.chars[this.pos])) {
+					this.pos++;
+				}
+				String name = new String(this.chars, nameStart, this.pos - nameStart);
+				skipWhitespace();
+				if (charAt(this.pos++) != '=') {
+					throw parseError("expected = after attribute " + name);
+				}
+				skipWhitespace();
+				char quote = charAt(this.pos++);
+				if (quote != '"' && quote != '\'') {
+					throw parseError("expected quoted value of attribute " + name);
+				}
+				this.attributes.addAttribute("", name, name, "CDATA", readValue(quote));
+			}
+			this.decoder.decode(this.attributes);
+		}
+
+		/**
+		 * Resolves entities and normalizes line breaks and tabs to spaces, as xml parsers do for attribute values.
+		 */
+		private String readValue(final char quote) {
+			int start = this.pos;
+			while (charAt(this.pos) != quote && this.chars[this.pos] != '&' && this.chars[this.pos] >= ' ') {
+				this.pos++;
+			}
+			if (this.chars[this.pos] == quote) {
+				return new String(this.chars, start, this.pos++ - start);
+			}
+			this.value.setLength(0);
+			this.value.append(this.chars, start, this.pos - start);
+			while (charAt(this.pos) != quote) {
+				char c = this.chars[this.pos++];
+				if (c == '&') {
+					int end = this.pos;
+					while (end < this.chars.length && end - this.pos <= MAX_ENTITY_LENGTH && this.chars[end] != ';') {
+						end++;
+					}
+					if (end == this.chars.length || this.chars[end] != ';') {
+						this.pos--;
+						throw parseError("unterminated entity reference");
+					}
+					this.value.append(resolveEntity(new String(this.chars, this.pos, end - this.pos)));
+					this.pos = end + 1;
+				} else if (c == '\r' && charAt(this.pos) == '\n') {
+					// the '\n' is appended as space next
+				} else if (c == '\t' || c == '\n' || c == '\r') {
+					this.value.append(' ');
+				} else {
+					this.value.append(c);
+				}
+			}
+			this.pos++;
+			return this.value.toString();
+		}
+
+		private static String resolveEntity(final String entity) {
+			switch (entity) {
+				case "amp": return "&";
+				case "lt": return "<";
+				case "gt": return ">";
+				case "quot": return "\"";
+				case "apos": return "'";
+				default:
+					try {
+						if (entity.startsWith("#x")) {
+							return new String(Character.toChars(Integer.parseInt(entity.substring(2), 16)));
+						}
+						if (entity.startsWith("#")) {
+							return new String(Character.toChars(Integer.parseInt(entity.substring(1))));
+						}
+					} catch (IllegalArgumentException e) {
+						// also NumberFormatException
+						throw new IllegalArgumentException("invalid character reference &" + entity + ";", e);
+					}
+					throw new IllegalArgumentException("unknown entity &" + entity + ";");
+			}
+		}
+
+		private void skipWhitespace() {
+			while (Character.isWhitespace(charAt(this.pos))) {
+				this.pos++;
+			}
+		}
+
+		/**
+		 * Events are never split between blocks, so the block only ends within an event if the file does.
+		 */
+		private char charAt(final int index) {
+			if (index >= this.chars.length) {
+				throw new IllegalArgumentException("the events file ends within an event element");
+			}
+			return this.chars[index];
+		}
+
+		private IllegalArgumentException parseError(final String message) {
+			int end = Math.min(this.chars.length, this.pos + 20);
+			return new IllegalArgumentException(message + " in events file at: " + new String(this.chars, this.pos, end - this.pos) + "...");
+		}
+
+		private void skipTo(final char c) {
+			while (this.pos < this.chars.length && this.chars[this.pos] != c) {
+				this.pos++;
+			}
+			this.pos++;
+		}
+	}
+}
@@ -0,0 +1,201 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.events;
+
+import java.util.ArrayDeque;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.VehicleEntersTrafficEvent;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.handler.NonRetainingEventHandler;
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * Per-thread pools of the events the mobsim creates most often, so that moving a vehicle does not create garbage.
+ * <p>
+ * A pooled event is borrowed by the mobsim, passed to {@link EventsManager#processEvent(Event)}, and returned to the
+ * pool by the events manager once all handlers have seen it (see {@link EventsManagerImpl}). Afterwards, the same
+ * instance is handed out again with different values. {@link EventsManagerImpl} thus only returns an event if all
+ * handlers of its class are marked as {@link NonRetainingEventHandler}; otherwise the event is left to the garbage
+ * collector like any other. Components that buffer events for later processing, like the parallel events managers,
+ * store {@link #detach(Event)} instead. Events managers that do not return pooled events to the pool are safe, the
+ * pool then creates new instances.
+ */
+public final class PooledEvents {
+
+	private static final int MAX_POOL_SIZE = 16;
+
+	private static final ThreadLocal<Pools> POOLS = ThreadLocal.withInitial(Pools::new);
+
+	private PooledEvents() {
+	}
+
+	public static LinkEnterEvent linkEnter(final double time, final Id<Vehicle> vehicleId, final Id<Link> linkId) {
+		PooledLinkEnterEvent event = POOLS.get().linkEnterEvents.poll();
+		if (event == null) {
+			return new PooledLinkEnterEvent(time, vehicleId, linkId);
+		}
+		event.borrow(time, vehicleId, linkId);
+		return event;
+	}
+
+	public static LinkLeaveEvent linkLeave(final double time, final Id<Vehicle> vehicleId, final Id<Link> linkId) {
+		PooledLinkLeaveEvent event = POOLS.get().linkLeaveEvents.poll();
+		if (event == null) {
+			return new PooledLinkLeaveEvent(time, vehicleId, linkId);
+		}
+		event.borrow(time, vehicleId, linkId);
+		return event;
+	}
+
+	public static VehicleEntersTrafficEvent vehicleEntersTraffic(final double time, final Id<Person> driverId, final Id<Link> linkId,
+			final Id<Vehicle> vehicleId, final String networkMode, final double relativePositionOnLink) {
+		PooledVehicleEntersTrafficEvent event = POOLS.get().vehicleEntersTrafficEvents.poll();
+		if (event == null) {
+			return new PooledVehicleEntersTrafficEvent(time, driverId, linkId, vehicleId, networkMode, relativePositionOnLink);
+		}
+		event.borrow(time, driverId, linkId, vehicleId, networkMode, relativePositionOnLink);
+		return event;
+	}
+
+	public static boolean isPooled(final Event event) {
+		return event instanceof PooledEvent;
+	}
+
+	/**
+	 * @return an ordinary copy of the event if it is pooled, the event itself otherwise.
+	 */
+	public static Event detach(final Event event) {
+		return event instanceof PooledEvent pooled ? pooled.copy() : event;
+	}
+
+	/**
+	 * Returns a pooled event to the pool of the current thread. Does nothing for other events, or if the event was
+	 * already returned.
+	 */
+	public static void release(final Event event) {
+		if (event instanceof PooledEvent pooled) {
+			pooled.release(POOLS.get());
+		}
+	}
+
+	private interface PooledEvent {
+		Event copy();
+
+		void release(Pools pools);
+	}
+
+	private static final class Pools {
+		private final ArrayDeque<PooledLinkEnterEvent> linkEnterEvents = new ArrayDeque<>();
+		private final ArrayDeque<PooledLinkLeaveEvent> linkLeaveEvents = new ArrayDeque<>();
+		private final ArrayDeque<PooledVehicleEntersTrafficEvent> vehicleEntersTrafficEvents = new ArrayDeque<>();
+
+		private static <T> void offer(ArrayDeque<T> pool, T event) {
+			if (pool.size() < MAX_POOL_SIZE) {
+				pool.push(event);
+			}
+		}
+	}
+
+	private static final class PooledLinkEnterEvent extends LinkEnterEvent implements PooledEvent {
+		private boolean borrowed = true;
+
+		PooledLinkEnterEvent(double time, Id<Vehicle> vehicleId, Id<Link> linkId) {
+			super(time, vehicleId, linkId);
+		}
+
+		void borrow(double time, Id<Vehicle> vehicleId, Id<Link> linkId) {
+			reset(time, vehicleId, linkId);
+			this.borrowed = true;
+		}
+
+		@Override
+		public Event copy() {
+			return new LinkEnterEvent(getTime(), getVehicleId(), getLinkId());
+		}
+
+		@Override
+		public void release(Pools pools) {
+			if (this.borrowed) {
+				this.borrowed = false;
+				Pools.offer(pools.linkEnterEvents, this);
+			}
+		}
+	}
+
+	private static final class PooledLinkLeaveEvent extends LinkLeaveEvent implements PooledEvent {
+		private boolean borrowed = true;
+
+		PooledLinkLeaveEvent(double time, Id<Vehicle> vehicleId, Id<Link> linkId) {
+			super(time, vehicleId, linkId);
+		}
+
+		void borrow(double time, Id<Vehicle> vehicleId, Id<Link> linkId) {
+			reset(time, vehicleId, linkId);
+			this.borrowed = true;
+		}
+
+		@Override
+		public Event copy() {
+			return new LinkLeaveEvent(getTime(), getVehicleId(), getLinkId());
+		}
+
+		@Override
+		public void release(Pools pools) {
+			if (this.borrowed) {
+				this.borrowed = false;
+				Pools.offer(pools.linkLeaveEvents, this);
+			}
+		}
+	}
+
+	private static final class PooledVehicleEntersTrafficEvent extends VehicleEntersTrafficEvent implements PooledEvent {
+		private boolean borrowed = true;
+
+		PooledVehicleEntersTrafficEvent(double time, Id<Person> driverId, Id<Link> linkId, Id<Vehicle> vehicleId, String networkMode,
+				double relativePositionOnLink) {
+			super(time, driverId, linkId, vehicleId, networkMode, relativePositionOnLink);
+		}
+
+		void borrow(double time, Id<Person> driverId, Id<Link> linkId, Id<Vehicle> vehicleId, String networkMode,
+				double relativePositionOnLink) {
+			reset(time, driverId, linkId, vehicleId, networkMode, relativePositionOnLink);
+			this.borrowed = true;
+		}
+
+		@Override
+		public Event copy() {
+			return new VehicleEntersTrafficEvent(getTime(), getPersonId(), getLinkId(), getVehicleId(), getNetworkMode(),
+					getRelativePositionOnLink());
+		}
+
+		@Override
+		public void release(Pools pools) {
+			if (this.borrowed) {
+				this.borrowed = false;
+				Pools.offer(pools.vehicleEntersTrafficEvents, this);
+			}
+		}
+	}
+}
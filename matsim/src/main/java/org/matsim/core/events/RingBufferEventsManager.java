@@ -0,0 +1,341 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.events;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import jakarta.inject.Inject;
+
+import org.apache.commons.lang3.BooleanUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.events.handler.EventHandler;
+
+/**
+ * An EventsManager that publishes all events into one preallocated ring buffer. The handlers are split into groups, each
+ * group reads the ring buffer on its own thread and keeps track of the last event it has processed (its sequence). The
+ * producer only overwrites a slot after all groups have passed it, so no memory is allocated per event and no locks are
+ * taken on the consumer side.
+ * <p></p>
+ * Producers publish under a lock, so events may still be created by several threads. Events created by handlers, i.e. on
+ * the threads of the groups, never wait for free slots, as the group would then wait for itself. They are put into an
+ * unbounded overflow queue instead, which the next producer or {@link #afterSimStep(double)} moves into the ring buffer.
+ * If synchronized on sim steps, {@link #afterSimStep(double)} waits until all groups have processed all events of the time
+ * step, including events that were created by handlers in the meantime.
+ */
+public final class RingBufferEventsManager implements EventsManager {
+
+	private final static Logger log = LogManager.getLogger(RingBufferEventsManager.class);
+
+	private final boolean syncOnTimeSteps;
+	private final int numberOfGroups;
+	private final int bufferSize;
+	private final int mask;
+
+	// knows all handlers; processes the events outside of initProcessing() and finishProcessing()
+	private final EventsManagerImpl delegate = new EventsManagerImpl();
+	private final List<EventHandler> eventHandlers = new ArrayList<>();
+
+	private Event[] buffer;
+	// sequence of the last published event
+	private final AtomicLong cursor = new AtomicLong(-1);
+	// not this, since handlers may create events while finishProcessing() waits for them
+	private final Object publishLock = new Object();
+	// events created by handlers, not yet published
+	private final ConcurrentLinkedQueue<Event> overflow = new ConcurrentLinkedQueue<>();
+	private Consumer[] consumers = new Consumer[0];
+	private final AtomicReference<Throwable> exception = new AtomicReference<>();
+	private volatile boolean running = false;
+
+	@Inject
+	RingBufferEventsManager(Config config) {
+		this(config.eventsManager().getSynchronizeOnSimSteps() == null || config.eventsManager().getSynchronizeOnSimSteps(),
+				BooleanUtils.isTrue(config.eventsManager().getOneThreadPerHandler()) ? -1
+						: config.eventsManager().getNumberOfThreads() != null ? config.eventsManager().getNumberOfThreads() : 1,
+				config.eventsManager().getEventsQueueSize());
+	}
+
+	/**
+	 * @param numberOfThreads number of handler groups, each processed by its own thread. -1 puts every handler into its own group.
+	 * @param bufferSize number of events the ring buffer can hold, rounded up to a power of 2.
+	 */
+	public RingBufferEventsManager(final boolean syncOnTimeSteps, final int numberOfThreads, final int bufferSize) {
+		if (numberOfThreads == 0 || numberOfThreads < -1) {
+			throw new IllegalArgumentException("numberOfThreads must be positive or -1, but is " + numberOfThreads);
+		}
+		if (bufferSize < 1 || bufferSize > (1 << 30)) {
+			throw new IllegalArgumentException("bufferSize must be between 1 and 2^30, but is " + bufferSize);
+		}
+		this.syncOnTimeSteps = syncOnTimeSteps;
+		this.numberOfGroups = numberOfThreads;
+		this.bufferSize = Integer.highestOneBit(bufferSize) == bufferSize ? bufferSize : Integer.highestOneBit(bufferSize) << 1;
+		this.mask = this.bufferSize - 1;
+	}
+
+	@Override
+	public void processEvent(final Event event) {
+		if (!this.running) {
+			this.delegate.processEvent(event);
+			return;
+		}
+		if (isOwnConsumer(Thread.currentThread())) {
+			this.overflow.add(PooledEvents.detach(event));
+		} else {
+			synchronized (this.publishLock) {
+				publishOverflow();
+				publish(PooledEvents.detach(event));
+			}
+		}
+		PooledEvents.release(event);
+	}
+
+	@Override
+	public void processEvents(final EventArray events) {
+		if (!this.running) {
+			this.delegate.processEvents(events);
+			return;
+		}
+		if (isOwnConsumer(Thread.currentThread())) {
+			for (int i = 0; i < events.size(); i++) {
+				this.overflow.add(events.get(i));
+			}
+			return;
+		}
+		synchronized (this.publishLock) {
+			publishOverflow();
+			for (int i = 0; i < events.size(); i++) {
+				publish(events.get(i));
+			}
+		}
+	}
+
+	private boolean isOwnConsumer(final Thread thread) {
+		return thread instanceof Consumer consumer && consumer.getEventsManager() == this;
+	}
+
+	/**
+	 * Must only be called while holding the publish lock, and never by a consumer.
+	 */
+	private void publish(final Event event) {
+		long sequence = this.cursor.get() + 1;
+		long wrapPoint = sequence - this.bufferSize;
+		int spins = 0;
+		while (minConsumerSequence() < wrapPoint) {
+			checkException();
+			idle(spins++);
+		}
+		this.buffer[(int) sequence & this.mask] = event;
+		this.cursor.lazySet(sequence);
+	}
+
+	/**
+	 * Must only be called while holding the publish lock, and never by a consumer.
+	 */
+	private void publishOverflow() {
+		Event event;
+		while ((event = this.overflow.poll()) != null) {
+			publish(event);
+		}
+	}
+
+	private long minConsumerSequence() {
+		long min = Long.MAX_VALUE;
+		for (Consumer consumer : this.consumers) {
+			min = Math.min(min, consumer.sequence);
+		}
+		return min;
+	}
+
+	private static void idle(final int spins) {
+		if (spins < 100) {
+			Thread.onSpinWait();
+		} else if (spins < 200) {
+			Thread.yield();
+		} else {
+			LockSupport.parkNanos(20_000);
+		}
+	}
+
+	@Override
+	public boolean isHandled(final Class<? extends Event> eventClass) {
+		return this.delegate.isHandled(eventClass);
+	}
+
+	@Override
+	public void addHandler(final EventHandler handler) {
+		if (this.running) {
+			throw new IllegalStateException("Handlers can not be added after .initProcessing() was called!");
+		}
+		this.delegate.addHandler(handler);
+		this.eventHandlers.add(handler);
+	}
+
+	@Override
+	public void removeHandler(final EventHandler handler) {
+		if (this.running) {
+			throw new IllegalStateException("Handlers can not be removed before .finishProcessing() was called!");
+		}
+		this.delegate.removeHandler(handler);
+		this.eventHandlers.remove(handler);
+	}
+
+	@Override
+	public void resetHandlers(final int iteration) {
+		this.delegate.resetHandlers(iteration);
+	}
+
+	@Override
+	public void initProcessing() {
+		this.delegate.initProcessing();
+		int groups = this.numberOfGroups == -1 ? this.eventHandlers.size() : Math.min(this.numberOfGroups, this.eventHandlers.size());
+		EventsManagerImpl[] eventsManagers = new EventsManagerImpl[groups];
+		for (int i = 0; i < groups; i++) {
+			eventsManagers[i] = new EventsManagerImpl();
+		}
+		for (int i = 0; i < this.eventHandlers.size(); i++) {
+			eventsManagers[i % groups].addHandler(this.eventHandlers.get(i));
+		}
+
+		this.buffer = new Event[this.bufferSize];
+		this.cursor.set(-1);
+		this.overflow.clear();
+		this.exception.set(null);
+		this.consumers = new Consumer[groups];
+		for (int i = 0; i < groups; i++) {
+			eventsManagers[i].initProcessing();
+			this.consumers[i] = new Consumer(eventsManagers[i]);
+			this.consumers[i].setName(this.numberOfGroups == -1 ? "RingBufferEventsManager: " + this.eventHandlers.get(i).getClass().getName()
+					: "RingBufferEventsManager-" + i);
+			this.consumers[i].setDaemon(true);
+		}
+		this.running = true;
+		for (Consumer consumer : this.consumers) {
+			consumer.start();
+		}
+	}
+
+	@Override
+	public void afterSimStep(final double time) {
+		if (this.syncOnTimeSteps && this.running) {
+			flush();
+		}
+		checkException();
+	}
+
+	/*
+	 * Events created after this method has been called are processed in the calling thread.
+	 */
+	@Override
+	public synchronized void finishProcessing() {
+		if (this.running) {
+			flush();
+			this.running = false;
+			for (Consumer consumer : this.consumers) {
+				try {
+					consumer.join();
+				} catch (InterruptedException e) {
+					throw new RuntimeException("Exception while waiting on join...", e);
+				}
+			}
+			for (Consumer consumer : this.consumers) {
+				consumer.eventsManager.finishProcessing();
+			}
+			this.consumers = new Consumer[0];
+			this.buffer = null;
+		}
+		this.delegate.finishProcessing();
+		checkException();
+	}
+
+	/**
+	 * Waits until every group has processed all published events. Handlers may create further events while doing so.
+	 */
+	private void flush() {
+		int spins = 0;
+		while (true) {
+			long published;
+			synchronized (this.publishLock) {
+				publishOverflow();
+				published = this.cursor.get();
+			}
+			while (minConsumerSequence() < published) {
+				checkException();
+				idle(spins++);
+			}
+			if (this.cursor.get() == published && this.overflow.isEmpty()) {
+				return;
+			}
+		}
+	}
+
+	private void checkException() {
+		if (this.exception.get() != null) {
+			throw new RuntimeException("Exception while processing events. Cannot guarantee that all events have been fully processed.", this.exception.get());
+		}
+	}
+
+	private class Consumer extends Thread {
+
+		private final EventsManager eventsManager;
+		// last processed event
+		private volatile long sequence = -1;
+
+		Consumer(EventsManager eventsManager) {
+			this.eventsManager = eventsManager;
+		}
+
+		RingBufferEventsManager getEventsManager() {
+			return RingBufferEventsManager.this;
+		}
+
+		@Override
+		public void run() {
+			try {
+				int spins = 0;
+				while (true) {
+					long available = cursor.get();
+					if (available > this.sequence) {
+						for (long next = this.sequence + 1; next <= available; next++) {
+							this.eventsManager.processEvent(buffer[(int) next & mask]);
+						}
+						this.sequence = available;
+						spins = 0;
+					} else if (running) {
+						idle(spins++);
+					} else {
+						return;
+					}
+				}
+			} catch (Throwable e) {
+				log.error("Thread " + getName() + " died with exception while handling events.", e);
+				exception.compareAndSet(null, e);
+				// do not block the producer
+				this.sequence = Long.MAX_VALUE;
+			}
+		}
+	}
+}
@@ -99,12 +99,19 @@ class SimStepParallelEventsManagerImpl implements EventsManager {
 
 		if (parallelMode) {
 			// pass it to the event queue of the first event processing thread, it will pass it further
-			runnables[0].processEvent(event);
+			runnables[0].processEvent(PooledEvents.detach(event));
+			PooledEvents.release(event);
 		} else {
 			delegate.processEvent(event);
 		}
 	}
 
+	@Override
+	public boolean isHandled(final Class<? extends Event> eventClass) {
+		// the delegate knows all handlers
+		return delegate.isHandled(eventClass);
+	}
+
 	@Override
 	public void addHandler(final EventHandler handler) {
 		delegate.addHandler(handler);
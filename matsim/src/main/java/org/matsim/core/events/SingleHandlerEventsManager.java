@@ -20,12 +20,11 @@
 
 package org.matsim.core.events;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -88,7 +87,8 @@ public final class SingleHandlerEventsManager implements EventsManager {
 	 * a) Class is handled the first time, therefore we have to check whether the Handler can handle it (no HandlerInfo object)
 	 * b) Class cannot be handled (HandlerInfo with empty Method field)
 	 */
-	private final Map<Class<?>, HandlerInfo> methodToHandle = new HashMap<Class<?>, HandlerInfo>();
+	// concurrent because isHandled() may be called from another thread than the one processing the events
+	private final Map<Class<?>, HandlerInfo> methodToHandle = new ConcurrentHashMap<>();
 
 	private final EventHandler eventHandler;
 	
@@ -160,9 +160,9 @@ public final class SingleHandlerEventsManager implements EventsManager {
 	}
 	
 	static private class HandlerInfo {
-		protected final Method method;
-		protected HandlerInfo(final Method method) {
-			this.method = method;
+		protected final EventHandlerInvoker invoker;
+		protected HandlerInfo(final EventHandlerInvoker invoker) {
+			this.invoker = invoker;
 		}
 	}
 
@@ -183,6 +183,11 @@ public final class SingleHandlerEventsManager implements EventsManager {
 		computeEvent(event);
 	}
 
+	@Override
+	public boolean isHandled(final Class<? extends Event> eventClass) {
+		return this.isBasicEventHandler || this.getHandlersForClass(eventClass) != null;
+	}
+
 	@Override
 	public void addHandler(final EventHandler handler) {
 		throw new UnsupportedOperationException("This implementation supports only a single EventHandler which "
@@ -228,50 +233,47 @@ public final class SingleHandlerEventsManager implements EventsManager {
 	
 	private void computeEvent(final Event event) {
 		if (callHandlerFast(event)) return;
+		EventHandlerInvoker invoker = this.getHandlersForClass(event.getClass());
+		if (invoker == null) return;
 		try {
-			Method method = this.getHandlersForClass(event.getClass());
-			if (method != null) method.invoke(this.eventHandler, event);
-		} catch(InvocationTargetException e) {
-			throw new RuntimeException("problem invoking EventHandler " + this.eventHandler.getClass().getCanonicalName() + " for event-class " + event.getClass().getCanonicalName(), e.getTargetException());
-		}
-		catch (IllegalArgumentException | IllegalAccessException e) {
+			invoker.invoke(this.eventHandler, event);
+		} catch (Throwable e) {
 			throw new RuntimeException("problem invoking EventHandler " + this.eventHandler.getClass().getCanonicalName() + " for event-class " + event.getClass().getCanonicalName(), e);
 		}
 	}
 	
-	private Method getHandlersForClass(final Class<?> eventClass) {
+	private EventHandlerInvoker getHandlersForClass(final Class<?> eventClass) {
 		Class<?> klass = eventClass;
 		
 		HandlerInfo info = this.methodToHandle.get(eventClass);
-		if (info != null) return info.method;
+		if (info != null) return info.invoker;
 
-		Method method = null;
+		EventHandlerInvoker invoker = null;
 		
 		// first search in class-hierarchy
 		while (klass != Object.class) {
 			info = this.methodToHandle.get(klass);
 			if (info != null) {
-				method = info.method;
+				invoker = info.invoker;
 				break;
 			}
 			klass = klass.getSuperclass();
 		}
 		
 		// second search in implemented interfaces if no method was found yet
-		if (method == null) {
+		if (invoker == null) {
 			for (Class<?> intfc : ClassUtils.getAllInterfaces(eventClass )) {
 				info = this.methodToHandle.get(intfc);
 				if (info != null) {
-					method = info.method;
+					invoker = info.invoker;
 					break;
 				}
 			}			
 		}
 
-		info = new HandlerInfo(method);
-		this.methodToHandle.put(eventClass, new HandlerInfo(info.method));
+		this.methodToHandle.put(eventClass, new HandlerInfo(invoker));
 		
-		return method;
+		return invoker;
 	}
 	
 	private void addHandlerInterfaces(final Class<?> handlerClass) {
@@ -283,7 +285,7 @@ public final class SingleHandlerEventsManager implements EventsManager {
 					Class<?> eventClass = params[0];
 					log.info("    > " + eventClass.getName());
 					if (!this.methodToHandle.containsKey(eventClass)) {
-						HandlerInfo info = new HandlerInfo(method);
+						HandlerInfo info = new HandlerInfo(EventHandlerInvoker.create(method));
 						this.methodToHandle.put(eventClass, info);
 					}
 				}
@@ -45,6 +45,11 @@ class SynchronizedEventsManagerImpl implements EventsManager {
 		this.delegate = eventsManager;
 	}
 
+	@Override
+	public boolean isHandled(Class<? extends Event> eventClass) {
+		return this.delegate.isHandled(eventClass);
+	}
+
 	@Override
 	public void addHandler(EventHandler handler) {
 		this.delegate.addHandler(handler);
@@ -0,0 +1,327 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.events.algorithms;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.ActivityEndEvent;
+import org.matsim.api.core.v01.events.ActivityStartEvent;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.PersonArrivalEvent;
+import org.matsim.api.core.v01.events.PersonDepartureEvent;
+import org.matsim.api.core.v01.events.PersonEntersVehicleEvent;
+import org.matsim.api.core.v01.events.PersonLeavesVehicleEvent;
+import org.matsim.api.core.v01.events.PersonStuckEvent;
+import org.matsim.api.core.v01.events.VehicleEntersTrafficEvent;
+import org.matsim.api.core.v01.events.VehicleLeavesTrafficEvent;
+import org.matsim.core.api.experimental.events.TeleportationArrivalEvent;
+import org.matsim.core.events.PooledEvents;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.events.handler.NonRetainingEventHandler;
+import org.matsim.core.utils.io.IOUtils;
+
+/**
+ * Writes events in the binary MATSim events format, see {@link org.matsim.core.events.EventsReaderBinary}.
+ * <p></p>
+ * The file starts with {@link #MAGIC} and {@link #VERSION}, followed by chunks of up to {@link #EVENTS_PER_CHUNK} events
+ * and an empty chunk marking the end of the file. A chunk is written as its number of events, its length in bytes and
+ * the encoded events. Chunks do not depend on each other, so they can be decoded in parallel.
+ * <p></p>
+ * Every event starts with its type code. The event types the mobsim creates most often have a fixed layout per type: the
+ * time as 8-byte double, followed by their ids, strings and numbers in a fixed order. Ids and strings are dictionary
+ * encoded within the chunk, see {@link #writeReference(Object)}, so every id is written in full only once per chunk.
+ * All other events, including subclasses of the core types and custom events, are written as the attributes of the xml
+ * format ({@link #TYPE_ATTRIBUTES}).
+ * <p></p>
+ * Use a file name ending with <code>.zst</code>, <code>.gz</code> or <code>.lz4</code> for compression.
+ */
+public class EventWriterBinary implements EventWriter, BasicEventHandler, NonRetainingEventHandler {
+
+	public static final long MAGIC = 0x4d4154534d455654L; // "MATSMEVT"
+	public static final int VERSION = 2;
+	public static final int EVENTS_PER_CHUNK = 16384;
+
+	// type codes, see EventsReaderBinary for the layout of each type
+	public static final int TYPE_ATTRIBUTES = 0;
+	public static final int TYPE_LINK_ENTER = 1;
+	public static final int TYPE_LINK_LEAVE = 2;
+	public static final int TYPE_VEHICLE_ENTERS_TRAFFIC = 3;
+	public static final int TYPE_VEHICLE_LEAVES_TRAFFIC = 4;
+	public static final int TYPE_PERSON_DEPARTURE = 5;
+	public static final int TYPE_PERSON_ARRIVAL = 6;
+	public static final int TYPE_ACTIVITY_START = 7;
+	public static final int TYPE_ACTIVITY_END = 8;
+	public static final int TYPE_PERSON_ENTERS_VEHICLE = 9;
+	public static final int TYPE_PERSON_LEAVES_VEHICLE = 10;
+	public static final int TYPE_TELEPORTATION_ARRIVAL = 11;
+	public static final int TYPE_PERSON_STUCK = 12;
+
+	private final DataOutputStream out;
+	private byte[] chunk = new byte[1 << 20];
+	private int position = 0;
+	// ids are compared by identity, since ids of different types with the same string are equal
+	private final Map<Id<?>, Integer> idDictionary = new IdentityHashMap<>();
+	private final Map<String, Integer> stringDictionary = new HashMap<>();
+	private int dictionarySize = 0;
+	private int eventsInChunk = 0;
+
+	public EventWriterBinary(final String filename) {
+		this(IOUtils.getOutputStream(IOUtils.getFileUrl(filename), false));
+	}
+
+	public EventWriterBinary(final OutputStream stream) {
+		this.out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+		try {
+			this.out.writeLong(MAGIC);
+			this.out.writeInt(VERSION);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void handleEvent(final Event event) {
+		// pooled events are subclasses of the core types without further attributes
+		Class<?> eventClass = PooledEvents.isPooled(event) ? event.getClass().getSuperclass() : event.getClass();
+		if (eventClass == LinkEnterEvent.class) {
+			LinkEnterEvent e = (LinkEnterEvent) event;
+			writeHeader(TYPE_LINK_ENTER, e);
+			writeReference(e.getVehicleId());
+			writeReference(e.getLinkId());
+		} else if (eventClass == LinkLeaveEvent.class) {
+			LinkLeaveEvent e = (LinkLeaveEvent) event;
+			writeHeader(TYPE_LINK_LEAVE, e);
+			writeReference(e.getVehicleId());
+			writeReference(e.getLinkId());
+		} else if (eventClass == VehicleEntersTrafficEvent.class) {
+			VehicleEntersTrafficEvent e = (VehicleEntersTrafficEvent) event;
+			writeHeader(TYPE_VEHICLE_ENTERS_TRAFFIC, e);
+			writeReference(e.getPersonId());
+			writeReference(e.getLinkId());
+			writeReference(e.getVehicleId());
+			writeReference(e.getNetworkMode());
+			writeDouble(e.getRelativePositionOnLink());
+		} else if (eventClass == VehicleLeavesTrafficEvent.class) {
+			VehicleLeavesTrafficEvent e = (VehicleLeavesTrafficEvent) event;
+			writeHeader(TYPE_VEHICLE_LEAVES_TRAFFIC, e);
+			writeReference(e.getPersonId());
+			writeReference(e.getLinkId());
+			writeReference(e.getVehicleId());
+			writeReference(e.getNetworkMode());
+			writeDouble(e.getRelativePositionOnLink());
+		} else if (eventClass == PersonDepartureEvent.class) {
+			PersonDepartureEvent e = (PersonDepartureEvent) event;
+			writeHeader(TYPE_PERSON_DEPARTURE, e);
+			writeReference(e.getPersonId());
+			writeReference(e.getLinkId());
+			writeReference(e.getLegMode());
+			writeReference(e.getRoutingMode());
+		} else if (eventClass == PersonArrivalEvent.class) {
+			PersonArrivalEvent e = (PersonArrivalEvent) event;
+			writeHeader(TYPE_PERSON_ARRIVAL, e);
+			writeReference(e.getPersonId());
+			writeReference(e.getLinkId());
+			writeReference(e.getLegMode());
+		} else if (eventClass == ActivityStartEvent.class) {
+			ActivityStartEvent e = (ActivityStartEvent) event;
+			writeHeader(TYPE_ACTIVITY_START, e);
+			writeReference(e.getPersonId());
+			writeReference(e.getLinkId());
+			writeReference(e.getFacilityId());
+			writeReference(e.getActType());
+			writeCoord(e.getCoord());
+		} else if (eventClass == ActivityEndEvent.class) {
+			ActivityEndEvent e = (ActivityEndEvent) event;
+			writeHeader(TYPE_ACTIVITY_END, e);
+			writeReference(e.getPersonId());
+			writeReference(e.getLinkId());
+			writeReference(e.getFacilityId());
+			writeReference(e.getActType());
+			writeCoord(e.getCoord());
+		} else if (eventClass == PersonEntersVehicleEvent.class) {
+			PersonEntersVehicleEvent e = (PersonEntersVehicleEvent) event;
+			writeHeader(TYPE_PERSON_ENTERS_VEHICLE, e);
+			writeReference(e.getPersonId());
+			writeReference(e.getVehicleId());
+		} else if (eventClass == PersonLeavesVehicleEvent.class) {
+			PersonLeavesVehicleEvent e = (PersonLeavesVehicleEvent) event;
+			writeHeader(TYPE_PERSON_LEAVES_VEHICLE, e);
+			writeReference(e.getPersonId());
+			writeReference(e.getVehicleId());
+		} else if (eventClass == TeleportationArrivalEvent.class) {
+			TeleportationArrivalEvent e = (TeleportationArrivalEvent) event;
+			writeHeader(TYPE_TELEPORTATION_ARRIVAL, e);
+			writeReference(e.getPersonId());
+			writeDouble(e.getDistance());
+			writeReference(e.getMode());
+		} else if (eventClass == PersonStuckEvent.class) {
+			PersonStuckEvent e = (PersonStuckEvent) event;
+			writeHeader(TYPE_PERSON_STUCK, e);
+			writeReference(e.getPersonId());
+			writeReference(e.getLinkId());
+			writeReference(e.getLegMode());
+		} else {
+			// the same attributes as in the xml format, so the events can be read by the same code
+			Map<String, String> attributes = event.getAttributes();
+			ensureCapacity(5);
+			writeVarInt(TYPE_ATTRIBUTES);
+			writeVarInt(attributes.size());
+			for (Map.Entry<String, String> entry : attributes.entrySet()) {
+				writeReference(entry.getKey());
+				writeReference(entry.getValue());
+			}
+		}
+		if (++this.eventsInChunk == EVENTS_PER_CHUNK) {
+			writeChunk();
+		}
+	}
+
+	private void writeHeader(final int type, final Event event) {
+		ensureCapacity(5);
+		writeVarInt(type);
+		writeDouble(event.getTime());
+	}
+
+	private void writeCoord(final Coord coord) {
+		ensureCapacity(1);
+		if (coord == null) {
+			this.chunk[this.position++] = 0;
+		} else {
+			this.chunk[this.position++] = 1;
+			writeDouble(coord.getX());
+			writeDouble(coord.getY());
+		}
+	}
+
+	/**
+	 * Writes 0 for null, index + 1 for an id or string already in the dictionary, or the new index + 1 followed by the
+	 * length and the UTF-8 bytes of the string.
+	 */
+	private void writeReference(final Id<?> id) {
+		if (id == null) {
+			ensureCapacity(1);
+			writeVarInt(0);
+			return;
+		}
+		Integer index = this.idDictionary.get(id);
+		if (index != null) {
+			ensureCapacity(5);
+			writeVarInt(index + 1);
+		} else {
+			this.idDictionary.put(id, this.dictionarySize);
+			writeNewEntry(id.toString());
+		}
+	}
+
+	private void writeReference(final String value) {
+		if (value == null) {
+			ensureCapacity(1);
+			writeVarInt(0);
+			return;
+		}
+		Integer index = this.stringDictionary.get(value);
+		if (index != null) {
+			ensureCapacity(5);
+			writeVarInt(index + 1);
+		} else {
+			this.stringDictionary.put(value, this.dictionarySize);
+			writeNewEntry(value);
+		}
+	}
+
+	private void writeNewEntry(final String value) {
+		this.dictionarySize++;
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		ensureCapacity(10 + bytes.length);
+		writeVarInt(this.dictionarySize);
+		writeVarInt(bytes.length);
+		System.arraycopy(bytes, 0, this.chunk, this.position, bytes.length);
+		this.position += bytes.length;
+	}
+
+	private void writeDouble(final double value) {
+		ensureCapacity(8);
+		long bits = Double.doubleToRawLongBits(value);
+		for (int shift = 56; shift >= 0; shift -= 8) {
+			this.chunk[this.position++] = (byte) (bits >>> shift);
+		}
+	}
+
+	/**
+	 * Requires capacity for 5 bytes.
+	 */
+	private void writeVarInt(int value) {
+		while ((value & ~0x7f) != 0) {
+			this.chunk[this.position++] = (byte) ((value & 0x7f) | 0x80);
+			value >>>= 7;
+		}
+		this.chunk[this.position++] = (byte) value;
+	}
+
+	private void ensureCapacity(final int bytes) {
+		if (this.position + bytes > this.chunk.length) {
+			this.chunk = Arrays.copyOf(this.chunk, Math.max(2 * this.chunk.length, this.position + bytes));
+		}
+	}
+
+	private void writeChunk() {
+		if (this.eventsInChunk > 0) {
+			try {
+				this.out.writeInt(this.eventsInChunk);
+				this.out.writeInt(this.position);
+				this.out.write(this.chunk, 0, this.position);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			this.position = 0;
+			this.idDictionary.clear();
+			this.stringDictionary.clear();
+			this.dictionarySize = 0;
+			this.eventsInChunk = 0;
+		}
+	}
+
+	@Override
+	public void closeFile() {
+		try {
+			writeChunk();
+			this.out.writeInt(0);
+			this.out.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void reset(final int iter) {
+	}
+}
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
 import org.matsim.api.core.v01.events.Event;
 import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.events.handler.NonRetainingEventHandler;
 import org.matsim.core.utils.io.IOUtils;
 
 import java.io.File;
@@ -17,7 +18,7 @@ import java.util.Map;
  * @author mrieser / Simunto GmbH
  * Code contributed by Data Foundry, LLC.
  */
-public class EventWriterJson implements EventWriter, BasicEventHandler {
+public class EventWriterJson implements EventWriter, BasicEventHandler, NonRetainingEventHandler {
 	private OutputStream out = null;
 	private JsonGenerator jsonGenerator = null;
 
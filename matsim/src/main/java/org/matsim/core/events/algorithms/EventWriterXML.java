@@ -24,6 +24,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.matsim.api.core.v01.events.Event;
 import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.events.handler.NonRetainingEventHandler;
 import org.matsim.core.utils.io.IOUtils;
 
 import java.io.BufferedWriter;
@@ -34,7 +35,7 @@ import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
-public class EventWriterXML implements EventWriter, BasicEventHandler {
+public class EventWriterXML implements EventWriter, BasicEventHandler, NonRetainingEventHandler {
 
 	private static final Logger LOG = LogManager.getLogger(EventWriterXML.class);
 	private final BufferedWriter out;
@@ -0,0 +1,29 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events.handler;
+
+/**
+ * Marks event handlers that do not keep references to the events they handle beyond <code>handleEvent(...)</code>.
+ * <p>
+ * The mobsim may reuse its events, see {@link org.matsim.core.events.PooledEvents}. The events manager only hands an
+ * event back for reuse if all handlers that have seen it are marked with this interface.
+ */
+public interface NonRetainingEventHandler extends EventHandler {
+}
@@ -30,12 +30,14 @@ import org.matsim.core.mobsim.external.ExternalMobsim;
 import org.matsim.core.mobsim.hermes.HermesProvider;
 import org.matsim.core.mobsim.jdeqsim.JDEQSimulation;
 import org.matsim.core.mobsim.qsim.QSimModule;
+import org.matsim.core.mobsim.qsim.QSimProfileModule;
 
 public class DefaultMobsimModule extends AbstractModule {
     @Override
     public void install() {
         if (getConfig().controller().getMobsim().equals(ControllerConfigGroup.MobsimType.qsim.toString())) {
             install(new QSimModule());
+            install(new QSimProfileModule());
 //            bind(  RelativePositionOfEntryExitOnLink.class ).toInstance( () -> 1. );
         } else if (getConfig().controller().getMobsim().equals(ControllerConfigGroup.MobsimType.JDEQSim.toString())) {
             bindMobsim().to(JDEQSimulation.class);
@@ -23,6 +23,8 @@ import java.util.Iterator;
 class HLink {
 
 	private float currentCapacity;
+	// Storage capacity, changes with network change events.
+	private int storageCapacity;
 	private final int initialCapacity;
 
 	// Id of the link.
@@ -141,15 +143,19 @@ class HLink {
     // Length of the link in meters.
     private final int length;
     // Max velocity within the link (meters per second).
-    private final int velocity;
+    private int velocity;
+    private final int initialVelocity;
     // Queues of agents on this link. Boundary links use both queues.
     private final AgentQueue queue;
     // Number of vehicles that can leave the link per time second.
-    private final float flowCapacityPerS;
+    private float flowCapacityPerS;
+    private final float initialFlowCapacityPerS;
     private float flowLeftInTimestep;
     private int lastUpdate;
     // When (which timestep) flow was updated the last time.
     private int nextFreeFlowSlot;
+    // Flow requested by the last vehicle that left the link at lastUpdate.
+    private float lastRequestedFlow;
 	private int lastPush;
 	private final int stuckTimePeriod;
 
@@ -157,12 +163,15 @@ class HLink {
         this.id = id;
         this.length = length;
         this.velocity = velocity;
+        this.initialVelocity = velocity;
         this.flowCapacityPerS = flowCapacityperSecond;
+        this.initialFlowCapacityPerS = flowCapacityperSecond;
         this.stuckTimePeriod = stuckTimePeriod;
         this.lastPush = 0;
         this.lastUpdate = 0;
         this.nextFreeFlowSlot = 0;
         this.initialCapacity = capacity;
+        this.storageCapacity = capacity;
         this.currentCapacity = capacity;
         this.flowLeftInTimestep = flowCapacityperSecond;
 
@@ -174,16 +183,33 @@ class HLink {
 	public void reset() {
 		queue.clear();
 		this.nextFreeFlowSlot = 0;
+		this.lastRequestedFlow = 0;
 		this.lastPush = 0;
 		this.lastUpdate = 0;
+		this.storageCapacity = initialCapacity;
 		this.currentCapacity = initialCapacity;
+		this.velocity = initialVelocity;
+		this.flowCapacityPerS = initialFlowCapacityPerS;
 		this.flowLeftInTimestep = flowCapacityPerS;
 
 	}
 
+	// Applies a network change event. The storage already used by the agents on the link stays used, so the link may
+	// be over its new capacity until enough agents left it.
+	public void update(int velocity, float flowCapacityPerSecond, int storageCapacity) {
+		this.velocity = velocity;
+		// a closed link lets one vehicle pass per simulated day, avoids dividing by zero in flow()
+		this.flowCapacityPerS = Math.max(flowCapacityPerSecond, 1f / HermesConfigGroup.SIM_STEPS);
+		this.flowLeftInTimestep = Math.min(flowLeftInTimestep, flowCapacityPerS);
+		// the next free slot depends on the capacity, otherwise a reopened link stays blocked for a day
+		this.nextFreeFlowSlot = lastUpdate + (int) Math.floor(lastRequestedFlow / flowCapacityPerS);
+		this.currentCapacity += storageCapacity - this.storageCapacity;
+		this.storageCapacity = storageCapacity;
+	}
+
 	public boolean push(Agent agent, int timestep, float storageCapacityPCU) {
 		//avoid long vehicles not being able to enter a short link
-		float effectiveStorageCapacity = Math.min(storageCapacityPCU, initialCapacity);
+		float effectiveStorageCapacity = Math.min(storageCapacityPCU, storageCapacity);
 		if (currentCapacity - effectiveStorageCapacity >= 0) {
 			if (queue.push(agent)) {
 				lastPush = timestep;
@@ -202,11 +228,38 @@ class HLink {
 		}
 	}
 
+	// Boundary links are filled by one realm and emptied by another one. The filling realm only reserves storage
+	// capacity, the agent is put into the queue by the emptying realm once the realms are synchronized.
+	public boolean reserve(int timestep, float storageCapacityPCU) {
+		float effectiveStorageCapacity = Math.min(storageCapacityPCU, storageCapacity);
+		if (currentCapacity - effectiveStorageCapacity >= 0
+				|| (stuckTimePeriod != Integer.MAX_VALUE && (lastPush + stuckTimePeriod) < timestep)) {
+			lastPush = timestep;
+			currentCapacity = currentCapacity - effectiveStorageCapacity;
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+	public void enqueue(Agent agent) {
+		queue.push(agent);
+	}
+
 	public void pop(float storageCapacityPCE) {
 		queue.pop();
 		currentCapacity += storageCapacityPCE;
 	}
 
+	// Counterpart of reserve: pops without giving back storage capacity, which is released later on.
+	public void popReserved() {
+		queue.pop();
+	}
+
+	public void release(float storageCapacityPCE) {
+		currentCapacity += storageCapacityPCE;
+	}
+
     public int nexttime () {
         if (queue.size() == 0) {
             return 0;
@@ -226,12 +279,14 @@ class HLink {
 				if (flowLeftInTimestep >= 0) {
 					flowLeftInTimestep-=requestedFlow;
 					nextFreeFlowSlot = timestep + (int) Math.floor( requestedFlow / flowCapacityPerS);
+					lastRequestedFlow = requestedFlow;
 					return true;
 				} else return false;
 			} else {
 				flowLeftInTimestep=flowLeftInTimestep+flowCapacityPerS-requestedFlow;
 				lastUpdate = timestep;
 				nextFreeFlowSlot = timestep + (int) Math.floor( requestedFlow / flowCapacityPerS);
+				lastRequestedFlow = requestedFlow;
 				return true;
 			}
 
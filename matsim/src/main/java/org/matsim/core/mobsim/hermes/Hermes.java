@@ -31,6 +31,7 @@ final class Hermes implements Mobsim {
 
 	final private static Logger log = LogManager.getLogger(Hermes.class);
 	private Realm realm;
+	private ParallelRealms parallelRealms;
 	private Agent[] agents;
 	private ScenarioImporter scenarioImporter;
 	private final Scenario scenario;
@@ -45,11 +46,19 @@ final class Hermes implements Mobsim {
 		scenarioImporter = ScenarioImporter.instance(scenario, eventsManager);
 		scenarioImporter.generate();
 		this.realm = scenarioImporter.realm;
+		this.parallelRealms = scenarioImporter.realms.length > 1 ?
+				new ParallelRealms(scenarioImporter, scenarioImporter.realms, eventsManager) : null;
 		this.agents = scenarioImporter.hermesAgents;
 	}
 
 	private void processEvents() {
-        eventsManager.processEvents(realm.getSortedEvents());
+		if (parallelRealms != null) {
+			parallelRealms.processEvents();
+		} else if (realm.getTrajectories() != null) {
+			scenarioImporter.trajectoryEventsAdapter.processEvents(realm.getTrajectories());
+		} else {
+			eventsManager.processEvents(realm.getSortedEvents());
+		}
 
 		for (Agent agent : agents) {
 			if (agent != null && !agent.finished() && !agent.isTransitVehicle()) {
@@ -72,7 +81,11 @@ final class Hermes implements Mobsim {
 			eventsManager.initProcessing();
 
 			time = System.currentTimeMillis();
-			realm.run();
+			if (parallelRealms == null) {
+				realm.run();
+			} else {
+				parallelRealms.run();
+			}
 			log.info(String.format(
 					"Hermes took %d ms", System.currentTimeMillis() - time));
 
@@ -64,6 +64,20 @@ public final class HermesConfigGroup extends ReflectiveConfigGroup {
 
     private static final String DETPTDESC = "treats PT as deterministic. PT vehicles will run with a steady speed. Should be used with separate network layers for PT and other network modes.";
     private boolean deterministicPt = false;
+
+    private static final String NUMBER_OF_REALMS = "numberOfRealms";
+    private static final String NUMBER_OF_REALMS_DESC = "Number of realms the network is partitioned into. Each realm is simulated on its own thread."
+            + " 1 runs the sequential Hermes. Scenarios with transit are always simulated in a single realm.";
+    private static final String REALM_PARTITIONING = "realmPartitioning";
+    private static final String REALM_PARTITIONING_DESC = "How nodes are assigned to realms if numberOfRealms > 1. stripes: equally loaded stripes along the longer"
+            + " extent of the network. bisection: recursive coordinate bisection, which produces fewer boundary links on large networks.";
+
+    public enum RealmPartitioning {stripes, bisection}
+
+    private static final String STORE_TRAJECTORIES = "storeTrajectories";
+    private static final String STORE_TRAJECTORIES_DESC = "If true, realms only record which pre-built event of which agent happened when"
+            + " in a compact columnar store. Events are only handed to the events manager if a handler listens to their type.";
+
     public static final boolean DEBUG_REALMS = false;
     public static final boolean DEBUG_EVENTS = false;
     public static final boolean CONCURRENT_EVENT_PROCESSING = true;
@@ -77,6 +91,12 @@ public final class HermesConfigGroup extends ReflectiveConfigGroup {
     @Positive
     private int stuckTime = 10;
 
+    @Positive
+    private int numberOfRealms = 1;
+    private boolean storeTrajectories = false;
+
+    private RealmPartitioning realmPartitioning = RealmPartitioning.bisection;
+
     public Set<String> getMainModes() {
         return mainModes;
     }
@@ -123,6 +143,36 @@ public final class HermesConfigGroup extends ReflectiveConfigGroup {
         this.stuckTime = stuckTime;
     }
 
+    @StringGetter(NUMBER_OF_REALMS)
+    public int getNumberOfRealms() {
+        return numberOfRealms;
+    }
+
+    @StringSetter(NUMBER_OF_REALMS)
+    public void setNumberOfRealms(int numberOfRealms) {
+        this.numberOfRealms = numberOfRealms;
+    }
+
+    @StringGetter(STORE_TRAJECTORIES)
+    public boolean isStoreTrajectories() {
+        return storeTrajectories;
+    }
+
+    @StringSetter(STORE_TRAJECTORIES)
+    public void setStoreTrajectories(boolean storeTrajectories) {
+        this.storeTrajectories = storeTrajectories;
+    }
+
+    @StringGetter(REALM_PARTITIONING)
+    public RealmPartitioning getRealmPartitioning() {
+        return realmPartitioning;
+    }
+
+    @StringSetter(REALM_PARTITIONING)
+    public void setRealmPartitioning(RealmPartitioning realmPartitioning) {
+        this.realmPartitioning = realmPartitioning;
+    }
+
     @StringSetter(FLOW_CAPACITY_FACTOR)
     public void setFlowCapacityFactor(double flowCapacityFactor) {
         this.flowCapacityFactor = flowCapacityFactor;
@@ -159,6 +209,9 @@ public final class HermesConfigGroup extends ReflectiveConfigGroup {
         comments.put(END_TIME, "Simulation End Time");
         comments.put(STUCKTIMEPARAM, STUCKTIMEPARAMDESC);
         comments.put(DETPT, DETPTDESC);
+        comments.put(NUMBER_OF_REALMS, NUMBER_OF_REALMS_DESC);
+        comments.put(REALM_PARTITIONING, REALM_PARTITIONING_DESC);
+        comments.put(STORE_TRAJECTORIES, STORE_TRAJECTORIES_DESC);
         return comments;
     }
 
@@ -0,0 +1,93 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.hermes;
+
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.core.network.NetworkChangeEvent;
+import org.matsim.core.network.TimeDependentNetwork;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Applies the network change events of a time variant network to the Hermes links. Free speed, flow capacity and
+ * storage capacity of a link are updated in place at the first tick at or after the start time of the change event.
+ * The new values are read from the links of the network, which already know their time variant attributes. Agents
+ * already on a changed link keep their link finish time.
+ */
+final class NetworkChanges {
+
+	private static final NetworkChanges NONE = new NetworkChanges(null, new int[0], new Link[0][]);
+
+	private final ScenarioImporter scenario;
+	// ticks at which links change and the changed links of each tick
+	private final int[] times;
+	private final Link[][] links;
+	private int next = 0;
+
+	private NetworkChanges(ScenarioImporter scenario, int[] times, Link[][] links) {
+		this.scenario = scenario;
+		this.times = times;
+		this.links = links;
+	}
+
+	static NetworkChanges create(ScenarioImporter scenario, Network network) {
+		if (!(network instanceof TimeDependentNetwork timeDependentNetwork)) {
+			return NONE;
+		}
+		Collection<NetworkChangeEvent> changeEvents = timeDependentNetwork.getNetworkChangeEvents();
+		if (changeEvents == null || changeEvents.isEmpty()) {
+			return NONE;
+		}
+		Map<Integer, List<Link>> linksByTime = new TreeMap<>();
+		for (NetworkChangeEvent changeEvent : changeEvents) {
+			int time = Math.max(0, (int) Math.ceil(changeEvent.getStartTime()));
+			linksByTime.computeIfAbsent(time, t -> new ArrayList<>()).addAll(changeEvent.getLinks());
+		}
+		int[] times = new int[linksByTime.size()];
+		Link[][] links = new Link[linksByTime.size()][];
+		int i = 0;
+		for (Map.Entry<Integer, List<Link>> entry : linksByTime.entrySet()) {
+			times[i] = entry.getKey();
+			links[i] = entry.getValue().toArray(new Link[0]);
+			i++;
+		}
+		return new NetworkChanges(scenario, times, links);
+	}
+
+	/**
+	 * Updates all links that change at or before the given tick and were not updated yet.
+	 */
+	void apply(int secs) {
+		while (next < times.length && times[next] <= secs) {
+			for (Link link : links[next]) {
+				HLink hlink = scenario.hermesLinks[link.getId().index()];
+				hlink.update(
+						ScenarioImporter.velocity(link.getFreespeed(secs)),
+						(float) link.getFlowCapacityPerSec(secs),
+						scenario.storageCapacity(link, link.getNumberOfLanes(secs)));
+			}
+			next++;
+		}
+	}
+}
@@ -0,0 +1,194 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.hermes;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.EventArray;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+
+/**
+ * Runs several realms, one thread each, in lockstep. After every tick all realms wait at a barrier while the barrier
+ * action delivers the messages of all mailboxes in realm order, so the result does not depend on thread scheduling.
+ * Events are merged by time, ties are broken by realm index.
+ */
+class ParallelRealms {
+
+	final private static Logger log = LogManager.getLogger(ParallelRealms.class);
+
+	private final Realm[] realms;
+	private final HLink[] links;
+	private final int[] linkPushRealm;
+	private final int[] linkPopRealm;
+	private final EventsManager eventsManager;
+	private final TrajectoryEventsAdapter trajectoryEventsAdapter;
+	private final NetworkChanges networkChanges;
+	private final CyclicBarrier barrier;
+	private Thread[] threads;
+	private volatile Throwable failure;
+
+	ParallelRealms(ScenarioImporter scenario, Realm[] realms, EventsManager eventsManager) {
+		this.realms = realms;
+		this.links = scenario.hermesLinks;
+		this.linkPushRealm = scenario.linkPushRealm;
+		this.linkPopRealm = scenario.linkPopRealm;
+		this.eventsManager = eventsManager;
+		this.trajectoryEventsAdapter = scenario.trajectoryEventsAdapter;
+		this.networkChanges = scenario.networkChanges;
+		this.barrier = new CyclicBarrier(realms.length, this::exchange);
+	}
+
+	public void run() throws Exception {
+		log.info(String.format("Hermes running %d realms in parallel", realms.length));
+		threads = new Thread[realms.length];
+		for (int i = 0; i < realms.length; i++) {
+			Realm realm = realms[i];
+			threads[i] = new Thread(() -> runRealm(realm), "HermesRealm-" + i);
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		if (failure != null) {
+			throw new RuntimeException("Hermes realm failed", failure);
+		}
+	}
+
+	private void runRealm(Realm realm) {
+		try {
+			while (realm.secs() != HermesConfigGroup.SIM_STEPS) {
+				realm.step();
+				barrier.await();
+			}
+		} catch (BrokenBarrierException | InterruptedException e) {
+			// another realm failed, its exception is reported
+		} catch (Throwable t) {
+			failure = t;
+			// wake up the realms waiting at (or heading for) the barrier
+			for (Thread thread : threads) {
+				if (thread != Thread.currentThread()) {
+					thread.interrupt();
+				}
+			}
+		}
+	}
+
+	// Executed by the last realm reaching the barrier while all other realms wait.
+	private void exchange() {
+		int secs = realms[0].secs();
+		for (Realm realm : realms) {
+			RealmMailbox mailbox = realm.mailbox();
+			for (int i = 0; i < mailbox.releasedSize(); i++) {
+				links[mailbox.releasedLink(i)].release(mailbox.releasedPCE(i));
+			}
+			for (int i = 0; i < mailbox.enteredSize(); i++) {
+				Agent agent = mailbox.enteredAgent(i);
+				HLink link = links[mailbox.enteredLink(i)];
+				link.enqueue(agent);
+				if (link.queue().peek() == agent) {
+					realms[linkPopRealm[link.id()]].addDelayedLink(link, Math.max(agent.linkFinishTime, secs + 1));
+				}
+			}
+			for (int i = 0; i < mailbox.delayedSize(); i++) {
+				Agent agent = mailbox.delayedAgent(i);
+				realms[realmOf(agent)].wakeupAgent(agent, Math.max(mailbox.delayedUntil(i), secs + 1));
+			}
+			mailbox.clear();
+		}
+		if (HermesConfigGroup.CONCURRENT_EVENT_PROCESSING && secs % 3600 == 0) {
+			processEvents();
+		}
+		networkChanges.apply(secs + 1);
+		for (Realm realm : realms) {
+			realm.advanceClock();
+		}
+	}
+
+	/**
+	 * Hands the events of all realms, merged by time, to the events manager.
+	 */
+	void processEvents() {
+		if (trajectoryEventsAdapter != null) {
+			TrajectoryStore[] stores = new TrajectoryStore[realms.length];
+			for (int i = 0; i < realms.length; i++) {
+				stores[i] = realms[i].getTrajectories();
+			}
+			trajectoryEventsAdapter.processEvents(stores);
+		} else {
+			EventArray events = mergeEvents();
+			if (events.size() > 0) {
+				eventsManager.processEvents(events);
+			}
+		}
+	}
+
+	// Same rule as in Realm: an agent is woken up by the realm filling the link it enters next.
+	private int realmOf(Agent agent) {
+		int index = agent.planIndex + 1;
+		if (index < agent.plan.size()) {
+			long planentry = agent.plan.get(index);
+			if (Agent.getPlanHeader(planentry) == Agent.LinkType) {
+				return linkPushRealm[Agent.getLinkPlanEntry(planentry)];
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Merges the events of all realms by time and resets the realms' event arrays.
+	 */
+	private EventArray mergeEvents() {
+		EventArray merged = new EventArray();
+		int[] next = new int[realms.length];
+		EventArray[] sources = new EventArray[realms.length];
+		for (int i = 0; i < realms.length; i++) {
+			sources[i] = realms[i].getSortedEvents();
+			realms[i].resetSortedEvents();
+		}
+		while (true) {
+			int best = -1;
+			double bestTime = Double.POSITIVE_INFINITY;
+			for (int i = 0; i < sources.length; i++) {
+				if (next[i] < sources[i].size()) {
+					double time = sources[i].get(next[i]).getTime();
+					if (time < bestTime) {
+						best = i;
+						bestTime = time;
+					}
+				}
+			}
+			if (best < 0) {
+				return merged;
+			}
+			// take all events of the same second from this realm at once
+			EventArray source = sources[best];
+			Event event;
+			while (next[best] < source.size() && (event = source.get(next[best])).getTime() == bestTime) {
+				merged.add(event);
+				next[best]++;
+			}
+		}
+	}
+}
@@ -57,14 +57,31 @@ class Realm {
     private final int[] line_of_route;
     // queue of sorted events by time
     private EventArray sortedEvents;
+    // compact record of the events by time, replaces sortedEvents if trajectories are stored
+    private final TrajectoryStore trajectories;
     // MATSim event manager.
     private final EventsManager eventsManager;
     // Current timestamp
     private int secs;
+    // Index of this realm, zero if the network is not partitioned.
+    private final int realmId;
+    // Realm that fills (pushes into) and realm that empties (pops from) each link. Null if there is only one realm.
+    private final int[] linkPushRealm;
+    private final int[] linkPopRealm;
+    // Messages to other realms, exchanged at the end of each tick.
+    private final RealmMailbox mailbox;
     Logger log = LogManager.getLogger(Realm.class);
 
     public Realm(ScenarioImporter scenario, EventsManager eventsManager) {
+        this(scenario, eventsManager, 0);
+    }
+
+    public Realm(ScenarioImporter scenario, EventsManager eventsManager, int realmId) {
         this.si = scenario;
+        this.realmId = realmId;
+        this.linkPushRealm = scenario.linkPushRealm;
+        this.linkPopRealm = scenario.linkPopRealm;
+        this.mailbox = linkPushRealm == null ? null : new RealmMailbox();
         this.links = scenario.hermesLinks;
         // The plus one is necessary because we peek into the next slot on each tick.
         this.delayedLinksByWakeupTime = new ArrayList<>();
@@ -73,6 +90,7 @@ class Realm {
         this.route_stops_by_route_no = scenario.routeStopsByRouteNo;
         this.line_of_route = scenario.lineOfRoute;
         this.sortedEvents = new EventArray();
+        this.trajectories = scenario.storeTrajectories ? new TrajectoryStore() : null;
         this.eventsManager = eventsManager;
 
         // the last position is to store events that will not happen...
@@ -90,10 +108,30 @@ class Realm {
 
     private void addDelayedAgent(Agent agent, int until) {
         if (HermesConfigGroup.DEBUG_REALMS) log(secs, String.format("agent %d delayed until %d", agent.id, until));
+        if (linkPushRealm != null && wakeupRealm(agent) != realmId) {
+            mailbox.addDelayedAgent(agent, until);
+        } else {
+            wakeupAgent(agent, until);
+        }
+    }
+
+    // The realm that has to wake up an agent is the one that fills the link the agent enters next.
+    private int wakeupRealm(Agent agent) {
+        int index = agent.planIndex + 1;
+        if (index < agent.plan.size()) {
+            long planentry = agent.plan.get(index);
+            if (Agent.getPlanHeader(planentry) == Agent.LinkType) {
+                return linkPushRealm[Agent.getLinkPlanEntry(planentry)];
+            }
+        }
+        return realmId;
+    }
+
+    void wakeupAgent(Agent agent, int until) {
         delayedAgentsByWakeupTime.get(Math.min(until, HermesConfigGroup.SIM_STEPS + 1)).add(agent);
     }
 
-    private void addDelayedLink(HLink link, int until) {
+    void addDelayedLink(HLink link, int until) {
         if (HermesConfigGroup.DEBUG_REALMS)
             log(secs, String.format("link %d delayed until %d size %d peek agent %d", link.id(), until, link.queue().size(), link.queue().peek().id));
         delayedLinksByWakeupTime.get(Math.min(until, HermesConfigGroup.SIM_STEPS + 1)).add(link);
@@ -128,6 +166,23 @@ class Realm {
         int traveltime = (HermesConfigGroup.LINK_ADVANCE_DELAY + (int) Math.round(Math.max(1, next.length() / Math.min(velocity, next.velocity()))));
         agent.linkFinishTime = secs + traveltime;
         float storageCapacityPCU = agent.getStorageCapacityPCUE();
+        if (linkPushRealm != null && linkPushRealm[linkid] != realmId) {
+            // Only happens if the agent re-enters the boundary link it is leaving (or for routes with gaps).
+            // The realm filling the link takes over in the next tick.
+            agent.linkFinishTime = prev_finishtime;
+            mailbox.addDelayedAgent(agent, secs + 1);
+            return true;
+        }
+        if (linkPopRealm != null && linkPopRealm[linkid] != realmId) {
+            if (next.reserve(secs, storageCapacityPCU)) {
+                advanceAgentandSetEventTime(agent);
+                mailbox.addEnteredAgent(agent, linkid);
+                return true;
+            } else {
+                agent.linkFinishTime = prev_finishtime;
+                return false;
+            }
+        }
         if (next.push(agent,secs,storageCapacityPCU)) {
             advanceAgentandSetEventTime(agent);
             // If the agent we just added is the head, add to delayed links
@@ -148,9 +203,10 @@ class Realm {
 
     protected boolean processAgentSleepUntil(Agent agent, long planentry) {
         int sleep = Agent.getSleepPlanEntry(planentry);
-        addDelayedAgent(agent, Math.max(sleep, secs + 1));
         updateCapacities(agent);
         advanceAgentandSetEventTime(agent);
+        // Delayed after advancing, so that the next plan entry tells which realm wakes the agent up.
+        addDelayedAgent(agent, Math.max(sleep, secs + 1));
         return true;
     }
 
@@ -298,7 +354,12 @@ class Realm {
             }
             if (finished || processAgent(agent, link.id())) {
                 float storageCapacityPCE = agent.getStorageCapacityPCUE();
-                link.pop(storageCapacityPCE);
+                if (linkPushRealm != null && linkPushRealm[link.id()] != realmId) {
+                    link.popReserved();
+                    mailbox.addReleasedCapacity(link.id(), storageCapacityPCE);
+                } else {
+                    link.pop(storageCapacityPCE);
+                }
                 routed += 1;
                 if ((agent = link.queue().peek()) == null) {
                     break;
@@ -316,49 +377,69 @@ class Realm {
     }
 
     public void run() throws Exception {
+        while (secs != HermesConfigGroup.SIM_STEPS) {
+            si.networkChanges.apply(secs);
+            step();
+            if (HermesConfigGroup.CONCURRENT_EVENT_PROCESSING && secs % 3600 == 0) {
+                if (trajectories != null) {
+                    si.trajectoryEventsAdapter.processEvents(trajectories);
+                } else if (sortedEvents.size() > 0) {
+                    eventsManager.processEvents(sortedEvents);
+                    sortedEvents = new EventArray();
+                }
+            }
+            secs += 1;
+        }
+    }
+
+    // Simulates the current tick. Does not advance the clock.
+    void step() {
         int routed = 0;
         Agent agent;
         HLink link;
 
-        while (secs != HermesConfigGroup.SIM_STEPS) {
-            if (secs % 3600 == 0) {
-                log.info("Hermes running at " + Time.writeTime(secs));
+        if (secs % 3600 == 0 && realmId == 0) {
+            log.info("Hermes running at " + Time.writeTime(secs));
+        }
+        while ((agent = delayedAgentsByWakeupTime.get(secs).poll()) != null) {
+            if (HermesConfigGroup.DEBUG_REALMS) {
+                log(secs, String.format("Processing agent %d", agent.id));
             }
-            while ((agent = delayedAgentsByWakeupTime.get(secs).poll()) != null) {
-                if (HermesConfigGroup.DEBUG_REALMS) {
-                    log(secs, String.format("Processing agent %d", agent.id));
-                }
-                routed += processAgentActivities(agent);
+            routed += processAgentActivities(agent);
 
-            }
-            delayedAgentsByWakeupTime.set(secs, null);
-            if (si.isDeterministicPt()) {
-                for (Event e : si.getDeterministicPtEvents().get(secs)) {
+        }
+        delayedAgentsByWakeupTime.set(secs, null);
+        if (si.isDeterministicPt()) {
+            for (Event e : si.getDeterministicPtEvents().get(secs)) {
+                if (trajectories != null) {
+                    trajectories.add(e, secs);
+                } else {
                     sortedEvents.add(e);
                 }
-                si.getDeterministicPtEvents().get(secs).clear();
             }
+            si.getDeterministicPtEvents().get(secs).clear();
+        }
 
-            while ((link = delayedLinksByWakeupTime.get(secs).poll()) != null) {
-                if (HermesConfigGroup.DEBUG_REALMS) {
-                    log(secs, String.format("Processing link %d", link.id()));
-                }
-                routed += processLinks(link);
+        while ((link = delayedLinksByWakeupTime.get(secs).poll()) != null) {
+            if (HermesConfigGroup.DEBUG_REALMS) {
+                log(secs, String.format("Processing link %d", link.id()));
             }
-            delayedLinksByWakeupTime.set(secs, null);
-            if (HermesConfigGroup.DEBUG_REALMS && routed > 0) {
-                log(secs, String.format("Processed %d agents", routed));
-            }
-            if (HermesConfigGroup.CONCURRENT_EVENT_PROCESSING && secs % 3600 == 0 && sortedEvents.size() > 0) {
-                eventsManager.processEvents(sortedEvents);
-                sortedEvents = new EventArray();
-            }
-
-            routed = 0;
-            secs += 1;
+            routed += processLinks(link);
+        }
+        delayedLinksByWakeupTime.set(secs, null);
+        if (HermesConfigGroup.DEBUG_REALMS && routed > 0) {
+            log(secs, String.format("Processed %d agents", routed));
         }
     }
 
+    int secs() {
+        return secs;
+    }
+
+    void advanceClock() {
+        secs += 1;
+    }
+
     public void setEventTime(Agent agent, int agentId, int time, boolean lastEvent) {
         if (agentId != 0) {
             EventArray agentEvents = agent.events();
@@ -368,7 +449,11 @@ class Realm {
                 agentEvents.get(agent.eventsIndex).setTime(time);
                 if (HermesConfigGroup.DEBUG_REALMS)
                     log(secs, String.format("agent %d setEventTime (eventsIndex=%d) %s", agent.id, agent.eventsIndex, agentEvents.get(agent.eventsIndex).toString()));
-                sortedEvents.add(agentEvents.get(agent.eventsIndex));
+                if (trajectories != null) {
+                    trajectories.add(agent.id, agent.eventsIndex, time);
+                } else {
+                    sortedEvents.add(agentEvents.get(agent.eventsIndex));
+                }
             }
 
             // Fix delay for PT events.
@@ -380,7 +465,11 @@ class Realm {
             }
             // This removes actend that is not issued by QSim.
             else if (lastEvent && event instanceof ActivityEndEvent) {
-                sortedEvents.removeLast();
+                if (trajectories != null) {
+                    trajectories.removeLast();
+                } else {
+                    sortedEvents.removeLast();
+                }
             }
         }
     }
@@ -409,4 +498,16 @@ class Realm {
     EventArray getSortedEvents() {
         return this.sortedEvents;
     }
+
+    TrajectoryStore getTrajectories() {
+        return this.trajectories;
+    }
+
+    void resetSortedEvents() {
+        this.sortedEvents = new EventArray();
+    }
+
+    RealmMailbox mailbox() {
+        return this.mailbox;
+    }
 }
@@ -0,0 +1,91 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.hermes;
+
+import java.util.Arrays;
+
+/**
+ * Messages a realm sends to other realms during one tick. The mailbox is only written by its realm while the realms
+ * are running and only read while all realms wait at the end of the tick, so no locking is required.
+ */
+class RealmMailbox {
+
+	// Agents that entered a boundary link: agent and link id.
+	private Agent[] enteredAgents = new Agent[16];
+	private int[] enteredLinks = new int[16];
+	private int entered;
+
+	// Agents that sleep in another realm: agent and wakeup time.
+	private Agent[] delayedAgents = new Agent[16];
+	private int[] delayedUntil = new int[16];
+	private int delayed;
+
+	// Storage capacity that left a boundary link: link id and PCE.
+	private int[] releasedLinks = new int[16];
+	private float[] releasedPCEs = new float[16];
+	private int released;
+
+	void addEnteredAgent(Agent agent, int linkId) {
+		if (entered == enteredAgents.length) {
+			enteredAgents = Arrays.copyOf(enteredAgents, entered * 2);
+			enteredLinks = Arrays.copyOf(enteredLinks, entered * 2);
+		}
+		enteredAgents[entered] = agent;
+		enteredLinks[entered] = linkId;
+		entered++;
+	}
+
+	void addDelayedAgent(Agent agent, int until) {
+		if (delayed == delayedAgents.length) {
+			delayedAgents = Arrays.copyOf(delayedAgents, delayed * 2);
+			delayedUntil = Arrays.copyOf(delayedUntil, delayed * 2);
+		}
+		delayedAgents[delayed] = agent;
+		delayedUntil[delayed] = until;
+		delayed++;
+	}
+
+	void addReleasedCapacity(int linkId, float storageCapacityPCE) {
+		if (released == releasedLinks.length) {
+			releasedLinks = Arrays.copyOf(releasedLinks, released * 2);
+			releasedPCEs = Arrays.copyOf(releasedPCEs, released * 2);
+		}
+		releasedLinks[released] = linkId;
+		releasedPCEs[released] = storageCapacityPCE;
+		released++;
+	}
+
+	int enteredSize() { return entered; }
+	Agent enteredAgent(int i) { return enteredAgents[i]; }
+	int enteredLink(int i) { return enteredLinks[i]; }
+
+	int delayedSize() { return delayed; }
+	Agent delayedAgent(int i) { return delayedAgents[i]; }
+	int delayedUntil(int i) { return delayedUntil[i]; }
+
+	int releasedSize() { return released; }
+	int releasedLink(int i) { return releasedLinks[i]; }
+	float releasedPCE(int i) { return releasedPCEs[i]; }
+
+	void clear() {
+		Arrays.fill(enteredAgents, 0, entered, null);
+		Arrays.fill(delayedAgents, 0, delayed, null);
+		entered = delayed = released = 0;
+	}
+}
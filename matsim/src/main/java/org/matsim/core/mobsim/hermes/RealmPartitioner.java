@@ -0,0 +1,108 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.hermes;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Assigns every node of the network to a realm. A link is filled by the realm of its from-node and emptied by the realm
+ * of its to-node, so only links between two realms need to be synchronized. Nodes are weighted by the number of links
+ * attached to them, which is a good proxy for the work a realm has to do.
+ */
+final class RealmPartitioner {
+
+	private RealmPartitioner() {
+	}
+
+	/**
+	 * @return the realm of each node, indexed by {@link Id#index()} of the node.
+	 */
+	static int[] partition(Network network, int numberOfRealms, HermesConfigGroup.RealmPartitioning partitioning) {
+		int[] nodeRealm = new int[Id.getNumberOfIds(Node.class)];
+		List<Node> nodes = new ArrayList<>(network.getNodes().values());
+		switch (partitioning) {
+			case stripes -> stripes(nodes, 0, numberOfRealms, nodeRealm);
+			case bisection -> bisect(nodes, 0, numberOfRealms, nodeRealm);
+			default -> throw new IllegalArgumentException("unknown realm partitioning " + partitioning);
+		}
+		return nodeRealm;
+	}
+
+	private static void stripes(List<Node> nodes, int firstRealm, int realms, int[] nodeRealm) {
+		sortAlongLongerExtent(nodes);
+		double totalWeight = totalWeight(nodes);
+		double weight = 0;
+		for (Node node : nodes) {
+			int realm = (int) Math.min(realms - 1, weight * realms / totalWeight);
+			nodeRealm[node.getId().index()] = firstRealm + realm;
+			weight += weight(node);
+		}
+	}
+
+	private static void bisect(List<Node> nodes, int firstRealm, int realms, int[] nodeRealm) {
+		if (realms <= 2) {
+			stripes(nodes, firstRealm, realms, nodeRealm);
+			return;
+		}
+		int leftRealms = realms / 2;
+		sortAlongLongerExtent(nodes);
+		double leftWeight = totalWeight(nodes) * leftRealms / realms;
+		double weight = 0;
+		int cut = 0;
+		while (cut < nodes.size() && weight < leftWeight) {
+			weight += weight(nodes.get(cut++));
+		}
+		bisect(nodes.subList(0, cut), firstRealm, leftRealms, nodeRealm);
+		bisect(nodes.subList(cut, nodes.size()), firstRealm + leftRealms, realms - leftRealms, nodeRealm);
+	}
+
+	private static void sortAlongLongerExtent(List<Node> nodes) {
+		double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+		for (Node node : nodes) {
+			minX = Math.min(minX, node.getCoord().getX());
+			maxX = Math.max(maxX, node.getCoord().getX());
+			minY = Math.min(minY, node.getCoord().getY());
+			maxY = Math.max(maxY, node.getCoord().getY());
+		}
+		if (maxX - minX >= maxY - minY) {
+			nodes.sort(Comparator.comparingDouble((Node n) -> n.getCoord().getX()).thenComparingInt(n -> n.getId().index()));
+		} else {
+			nodes.sort(Comparator.comparingDouble((Node n) -> n.getCoord().getY()).thenComparingInt(n -> n.getId().index()));
+		}
+	}
+
+	private static double totalWeight(List<Node> nodes) {
+		double totalWeight = 0;
+		for (Node node : nodes) {
+			totalWeight += weight(node);
+		}
+		return Math.max(1, totalWeight);
+	}
+
+	private static int weight(Node node) {
+		return 1 + node.getInLinks().size() + node.getOutLinks().size();
+	}
+}
@@ -76,8 +76,15 @@ class ScenarioImporter {
 	protected int[] routeOfRoute;
 	// Array of links that define the network.
 	protected HLink[] hermesLinks;
+	// Network change events that still have to be applied to the links.
+	protected NetworkChanges networkChanges;
 
 	protected Realm realm;
+	// All realms if the network is partitioned, otherwise only the single realm above.
+	protected Realm[] realms;
+	// Realm that fills and realm that empties each link, indexed by link id. Null if the network is not partitioned.
+	protected int[] linkPushRealm;
+	protected int[] linkPopRealm;
 	private final boolean deterministicPt;
 	// Agents waiting in pt stations. Should be used as follows:
 	// agent_stops.get(curr station id).get(line id) -> queue of agents
@@ -91,6 +98,9 @@ class ScenarioImporter {
 	protected final EventsManager eventsManager;
 	private final int numberOfThreads;
 	private final List<List<Event>> deterministicPtEvents;
+	// If set, realms record events in a TrajectoryStore which is replayed by this adapter.
+	protected final boolean storeTrajectories;
+	protected final TrajectoryEventsAdapter trajectoryEventsAdapter;
 
 	private ScenarioImporter(Scenario scenario, EventsManager eventsManager) {
 		numberOfThreads = Math.min(scenario.getConfig().global().getNumberOfThreads(), Runtime.getRuntime().availableProcessors());
@@ -105,8 +115,11 @@ class ScenarioImporter {
 		}
 		this.scenario = scenario;
 		this.eventsManager = eventsManager;
+		this.storeTrajectories = scenario.getConfig().hermes().isStoreTrajectories();
+		this.trajectoryEventsAdapter = storeTrajectories ? new TrajectoryEventsAdapter(this, eventsManager) : null;
 		generateVehicleCategories();
 		generateLinks();
+		partitionLinks();
 		generatePT();
 		generateAgents();
 
@@ -199,9 +212,8 @@ class ScenarioImporter {
 
 		for (org.matsim.api.core.v01.network.Link matsim_link : matsim_links) {
 			int length = Math.max(1, (int) Math.round(matsim_link.getLength()));
-			int speed = Math.max(1, (int) Math.round(matsim_link.getFreespeed()));
-			int lanes = (int) Math.round(matsim_link.getNumberOfLanes());
-			int storageCapacity = Math.max(1, (int) (Math.ceil(matsim_link.getLength() / network.getEffectiveCellSize() * lanes)));
+			int speed = velocity(matsim_link.getFreespeed());
+			int storageCapacity = storageCapacity(matsim_link, matsim_link.getNumberOfLanes());
 			int link_id = matsim_link.getId().index();
 			final float effectiveflowCapacityPerSec = (float) matsim_link.getFlowCapacityPerSec();
 
@@ -213,6 +225,40 @@ class ScenarioImporter {
 		}
 	}
 
+	static int velocity(double freespeed) {
+		return Math.max(1, (int) Math.round(freespeed));
+	}
+
+	int storageCapacity(Link link, double numberOfLanes) {
+		int lanes = (int) Math.round(numberOfLanes);
+		return Math.max(1, (int) (Math.ceil(link.getLength() / scenario.getNetwork().getEffectiveCellSize() * lanes)));
+	}
+
+	private void partitionLinks() {
+		int numberOfRealms = scenario.getConfig().hermes().getNumberOfRealms();
+		if (numberOfRealms <= 1) {
+			return;
+		}
+		if (deterministicPt || !scenario.getTransitSchedule().getTransitLines().isEmpty()) {
+			log.warn("Hermes does not support transit with more than one realm, running a single realm.");
+			return;
+		}
+		Network network = scenario.getNetwork();
+		int[] nodeRealm = RealmPartitioner.partition(network, numberOfRealms, scenario.getConfig().hermes().getRealmPartitioning());
+		linkPushRealm = new int[hermesLinks.length];
+		linkPopRealm = new int[hermesLinks.length];
+		int boundaryLinks = 0;
+		for (Link link : network.getLinks().values()) {
+			int linkId = link.getId().index();
+			linkPushRealm[linkId] = nodeRealm[link.getFromNode().getId().index()];
+			linkPopRealm[linkId] = nodeRealm[link.getToNode().getId().index()];
+			if (linkPushRealm[linkId] != linkPopRealm[linkId]) {
+				boundaryLinks++;
+			}
+		}
+		log.info(String.format("Hermes partitioned the network into %d realms with %d boundary links", numberOfRealms, boundaryLinks));
+	}
+
 	private void initRoutesStations() {
 		TransitSchedule ts = this.scenario.getTransitSchedule();
 
@@ -272,7 +318,20 @@ class ScenarioImporter {
 	}
 
 	private void generateRealms() {
-		realm = new Realm(this, eventsManager);
+		// change events are read anew in every iteration since they may be replaced between iterations
+		networkChanges = NetworkChanges.create(this, scenario.getNetwork());
+		networkChanges.apply(0);
+		if (linkPushRealm == null) {
+			realm = new Realm(this, eventsManager);
+			realms = new Realm[]{realm};
+		} else {
+			int numberOfRealms = scenario.getConfig().hermes().getNumberOfRealms();
+			realms = new Realm[numberOfRealms];
+			for (int i = 0; i < numberOfRealms; i++) {
+				realms[i] = new Realm(this, eventsManager, i);
+			}
+			realm = realms[0];
+		}
 
 		// Put agents in their initial location (link or activity center)
 		for (Agent agent : hermesAgents) {
@@ -294,7 +353,7 @@ class ScenarioImporter {
 				case Agent.SleepForType:
 				case Agent.SleepUntilType:
 					int sleep = Agent.getSleepPlanEntry(planentry);
-					realm.delayedAgents().get(Math.min(sleep, scenario.getConfig().hermes().getEndTime() + 1)).add(agent);
+					wakeupRealm(agent).delayedAgents().get(Math.min(sleep, scenario.getConfig().hermes().getEndTime() + 1)).add(agent);
 					break;
 				default:
 					LogManager.getLogger(getClass()).error(String.format("ERROR -> unknown plan element type %d", type));
@@ -305,12 +364,24 @@ class ScenarioImporter {
 			if (link != null) {
 				int nextwakeup = link.nexttime();
 				if (nextwakeup > 0) {
-					realm.delayedLinks().get(nextwakeup).add(link);
+					Realm linkRealm = linkPopRealm == null ? realm : realms[linkPopRealm[link.id()]];
+					linkRealm.delayedLinks().get(nextwakeup).add(link);
 				}
 			}
 		}
 	}
 
+	// Sleeping agents are woken up by the realm that fills the first link of their plan.
+	private Realm wakeupRealm(Agent agent) {
+		if (linkPushRealm != null && agent.plan.size() > 1) {
+			long planentry = agent.plan.get(1);
+			if (Agent.getPlanHeader(planentry) == Agent.LinkType) {
+				return realms[linkPushRealm[Agent.getLinkPlanEntry(planentry)]];
+			}
+		}
+		return realm;
+	}
+
 	private void processPlanActivity(
 			Id<Person> id,
 			PlanArray flatplan,
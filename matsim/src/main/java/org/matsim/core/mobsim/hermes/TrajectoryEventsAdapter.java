@@ -0,0 +1,95 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.hermes;
+
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.EventArray;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Turns the {@link TrajectoryStore}s of the realms back into events. Only events of classes a handler is registered
+ * for are passed to the events manager, all other records are skipped.
+ * Records of several realms are merged by time, ties are broken by realm index (as in {@link ParallelRealms}).
+ */
+class TrajectoryEventsAdapter {
+
+	private static final int BATCH_SIZE = 32768;
+
+	private final ScenarioImporter si;
+	private final EventsManager eventsManager;
+	private final Map<Class<? extends Event>, Boolean> handled = new IdentityHashMap<>();
+	private EventArray batch;
+
+	TrajectoryEventsAdapter(ScenarioImporter si, EventsManager eventsManager) {
+		this.si = si;
+		this.eventsManager = eventsManager;
+	}
+
+	/**
+	 * Processes and clears the given stores.
+	 */
+	void processEvents(TrajectoryStore... stores) {
+		// handlers might have changed since the last call (e.g. in a new iteration)
+		handled.clear();
+		batch = new EventArray(BATCH_SIZE);
+		int[] next = new int[stores.length];
+		while (true) {
+			int best = -1;
+			int bestTime = Integer.MAX_VALUE;
+			for (int i = 0; i < stores.length; i++) {
+				if (next[i] < stores[i].size() && stores[i].time(next[i]) < bestTime) {
+					best = i;
+					bestTime = stores[i].time(next[i]);
+				}
+			}
+			if (best < 0) {
+				break;
+			}
+			// take all records of the same second from this realm at once
+			TrajectoryStore store = stores[best];
+			while (next[best] < store.size() && store.time(next[best]) == bestTime) {
+				process(store, next[best]++);
+			}
+		}
+		if (batch.size() > 0) {
+			eventsManager.processEvents(batch);
+		}
+		batch = null;
+		for (TrajectoryStore store : stores) {
+			store.clear();
+		}
+	}
+
+	private void process(TrajectoryStore store, int record) {
+		int agent = store.agent(record);
+		Event event = agent == TrajectoryStore.NO_AGENT ?
+				store.otherEvent(record) : si.hermesAgents[agent].events().get(store.eventIndex(record));
+		if (handled.computeIfAbsent(event.getClass(), eventsManager::isHandled)) {
+			batch.add(event);
+			if (batch.size() == BATCH_SIZE) {
+				// parallel events managers keep the array, so it cannot be reused
+				eventsManager.processEvents(batch);
+				batch = new EventArray(BATCH_SIZE);
+			}
+		}
+	}
+}
@@ -0,0 +1,101 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.hermes;
+
+import org.matsim.api.core.v01.events.Event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact, columnar record of what happened in a realm: for every event the agent, the index of the pre-built event
+ * in the agent's event array and the time. The records are kept in fixed size blocks of primitive arrays which are
+ * reused after {@link #clear()}, so recording an event does not allocate. Events that do not belong to an agent
+ * (e.g. deterministic pt) are kept as objects and referenced with a negative agent id.
+ */
+class TrajectoryStore {
+
+	private static final int BLOCK_BITS = 16;
+	private static final int BLOCK_SIZE = 1 << BLOCK_BITS;
+	private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+	static final int NO_AGENT = -1;
+
+	private final List<int[]> agents = new ArrayList<>();
+	private final List<int[]> eventIndices = new ArrayList<>();
+	private final List<int[]> times = new ArrayList<>();
+	private final List<Event> otherEvents = new ArrayList<>();
+	private int size;
+
+	void add(int agent, int eventIndex, int time) {
+		int block = size >>> BLOCK_BITS;
+		if (block == agents.size()) {
+			agents.add(new int[BLOCK_SIZE]);
+			eventIndices.add(new int[BLOCK_SIZE]);
+			times.add(new int[BLOCK_SIZE]);
+		}
+		int offset = size & BLOCK_MASK;
+		agents.get(block)[offset] = agent;
+		eventIndices.get(block)[offset] = eventIndex;
+		times.get(block)[offset] = time;
+		size++;
+	}
+
+	void add(Event event, int time) {
+		add(NO_AGENT, otherEvents.size(), time);
+		otherEvents.add(event);
+	}
+
+	void removeLast() {
+		size--;
+		if (agent(size) == NO_AGENT) {
+			otherEvents.remove(otherEvents.size() - 1);
+		}
+	}
+
+	int size() {
+		return size;
+	}
+
+	int agent(int i) {
+		return agents.get(i >>> BLOCK_BITS)[i & BLOCK_MASK];
+	}
+
+	int eventIndex(int i) {
+		return eventIndices.get(i >>> BLOCK_BITS)[i & BLOCK_MASK];
+	}
+
+	int time(int i) {
+		return times.get(i >>> BLOCK_BITS)[i & BLOCK_MASK];
+	}
+
+	/**
+	 * @return the event of a record with {@link #NO_AGENT}.
+	 */
+	Event otherEvent(int i) {
+		return otherEvents.get(eventIndex(i));
+	}
+
+	/**
+	 * Forgets all records but keeps the blocks for reuse.
+	 */
+	void clear() {
+		size = 0;
+		otherEvents.clear();
+	}
+}
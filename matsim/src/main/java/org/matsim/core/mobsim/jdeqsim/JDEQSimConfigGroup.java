@@ -19,6 +19,8 @@
 
 package org.matsim.core.mobsim.jdeqsim;
 
+import java.util.Map;
+
 import org.matsim.core.config.ReflectiveConfigGroup;
 import org.matsim.core.utils.misc.OptionalTime;
 import org.matsim.core.utils.misc.Time;
@@ -58,6 +60,7 @@ public class JDEQSimConfigGroup extends ReflectiveConfigGroup {
 	public final static String CAR_SIZE = "carSize";
 	public final static String GAP_TRAVEL_SPEED = "gapTravelSpeed";
 	public final static String END_TIME = "endTime";
+	public final static String NUMBER_OF_THREADS = "numberOfThreads";
 
 	// INPUT
 	private OptionalTime simulationEndTime = OptionalTime.undefined();
@@ -72,6 +75,7 @@ public class JDEQSimConfigGroup extends ReflectiveConfigGroup {
 	 * 'stuckTime' for entering next road, it will enter the next. in seconds
 	 */
 	private double squeezeTime = 1800;
+	private int numberOfThreads = 1;
 
 	public JDEQSimConfigGroup() {
 		super(NAME);
@@ -162,4 +166,23 @@ public class JDEQSimConfigGroup extends ReflectiveConfigGroup {
 		this.squeezeTime = squeezeTime;
 	}
 
+	@StringGetter(NUMBER_OF_THREADS)
+	public int getNumberOfThreads() {
+		return numberOfThreads;
+	}
+
+	@StringSetter(NUMBER_OF_THREADS)
+	public void setNumberOfThreads(int numberOfThreads) {
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	@Override
+	public Map<String, String> getComments() {
+		Map<String, String> map = super.getComments();
+		map.put(NUMBER_OF_THREADS, "Number of threads the roads are simulated on. Each thread is a logical process with its own message queue,"
+				+ " owning the roads around a part of the network. 1 runs the sequential simulation. With more threads, the space left by a car"
+				+ " leaving a road is only available to the next car once the gap has travelled back to the start of the road.");
+		return map;
+	}
+
 }
@@ -66,13 +66,22 @@ public class JDEQSimulation implements Mobsim {
 		Timer t = new Timer();
 		t.startTimer();
 
-		Scheduler scheduler = new Scheduler(new MessageQueue(), config.getSimulationEndTime().orElse(Double.MAX_VALUE));
+		Scheduler scheduler;
+		if (config.getNumberOfThreads() > 1) {
+			scheduler = new PartitionedScheduler(this.scenario.getNetwork(), config, events);
+		} else {
+			scheduler = new Scheduler(new MessageQueue(), config.getSimulationEndTime().orElse(Double.MAX_VALUE));
+		}
 		Road.setAllRoads(new HashMap<Id<Link>, Road>());
 
 		// initialize network
 		Road road;
 		for (Link link : this.scenario.getNetwork().getLinks().values()) {
-			road = new Road(scheduler, link);
+			if (scheduler instanceof PartitionedScheduler partitionedScheduler) {
+				road = partitionedScheduler.createRoad(link);
+			} else {
+				road = new Road(scheduler, link);
+			}
 			Road.getAllRoads().put(link.getId(), road);
 		}
 
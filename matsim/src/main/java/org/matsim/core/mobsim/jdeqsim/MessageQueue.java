@@ -85,6 +85,17 @@ public class MessageQueue {
 		return m;
 	}
 
+	/**
+	 * get the time stamp of the first message in the queue without removing it. As dead messages are not skipped,
+	 * this may be earlier than the time stamp of the next message returned by {@link #getNextMessage()}.
+	 *
+	 * @return the time stamp or {@link Double#POSITIVE_INFINITY} if the queue is empty
+	 */
+	public double getNextMessageArrivalTime() {
+		Message m = queue1.peek();
+		return m == null ? Double.POSITIVE_INFINITY : m.getMessageArrivalTime();
+	}
+
 	public boolean isEmpty() {
 		return queue1.size() == 0;
 	}
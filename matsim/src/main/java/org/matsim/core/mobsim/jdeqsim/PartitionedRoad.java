@@ -0,0 +1,135 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.jdeqsim;
+
+import org.matsim.api.core.v01.network.Link;
+
+/**
+ * A road, which is simulated by two logical processes of the {@link PartitionedScheduler}: the logical process of the
+ * from-node decides, which cars may enter the road, the one of the to-node lets the cars leave the road. The two sides
+ * only communicate through messages, which arrive at least the free speed travel time or the gap travel time after
+ * they have been sent. This is the lookahead, which allows the logical processes to run in parallel.
+ *
+ * Compared to {@link Road}, the space left by a car leaving the road is only given to the next car, when the gap has
+ * travelled back to the start of the road, instead of being promised to it immediately.
+ */
+class PartitionedRoad extends Road {
+
+	// a car reaching the end of the road must be known before it could leave the road at the same time
+	private static final int PRIORITY_CAR_AT_END_OF_ROAD_MESSAGE = 300;
+	// a gap reaching the start of the road must be available to cars asking to enter at the same time
+	private static final int PRIORITY_GAP_MESSAGE = 250;
+
+	private final int entryProcess;
+	private final int exitProcess;
+
+	/**
+	 * the number of cars on the road as seen from the start of the road: cars
+	 * are counted from entering the road until their gap arrives back at the
+	 * start of the road
+	 */
+	private int numberOfCarsOnRoad = 0;
+
+	PartitionedRoad(PartitionedScheduler scheduler, Link link, int entryProcess, int exitProcess) {
+		super(scheduler, link);
+		this.entryProcess = entryProcess;
+		this.exitProcess = exitProcess;
+	}
+
+	/**
+	 * @return the logical process handling the message, which has been sent to this road.
+	 */
+	int getLogicalProcess(Message m) {
+		if (m instanceof EndRoadMessage || m instanceof LeaveRoadMessage || m instanceof CarAtEndOfRoadMessage) {
+			return this.exitProcess;
+		}
+		return this.entryProcess;
+	}
+
+	@Override
+	protected void addCarToRoad(Vehicle vehicle, double nextAvailableTimeForLeavingStreet) {
+		this.numberOfCarsOnRoad++;
+		sendMessage(new CarAtEndOfRoadMessage(this.scheduler, vehicle), this, nextAvailableTimeForLeavingStreet);
+	}
+
+	@Override
+	protected void gapArrivesAtBackOfRoad(double arrivalTimeOfGap) {
+		sendMessage(new GapMessage(), this, arrivalTimeOfGap);
+	}
+
+	@Override
+	protected int getNumberOfCarsOnRoad() {
+		return this.numberOfCarsOnRoad;
+	}
+
+	/**
+	 * Handled by the logical process of the to-node: the car is put into the
+	 * queue of the road once it could leave the road.
+	 */
+	private static class CarAtEndOfRoadMessage extends EventMessage {
+
+		CarAtEndOfRoadMessage(Scheduler scheduler, Vehicle vehicle) {
+			super(scheduler, vehicle);
+			this.priority = PRIORITY_CAR_AT_END_OF_ROAD_MESSAGE;
+		}
+
+		@Override
+		public void handleMessage() {
+			PartitionedRoad road = (PartitionedRoad) getReceivingUnit();
+			road.carArrivesAtEndOfRoad(this.vehicle, getMessageArrivalTime());
+		}
+
+		@Override
+		public void processEvent() {
+			// don't need to output any event
+		}
+	}
+
+	/**
+	 * Handled by the logical process of the from-node: the space left by a
+	 * car can be used by the next car.
+	 */
+	private static class GapMessage extends Message {
+
+		GapMessage() {
+			this.priority = PRIORITY_GAP_MESSAGE;
+		}
+
+		@Override
+		public void handleMessage() {
+			PartitionedRoad road = (PartitionedRoad) getReceivingUnit();
+			road.gapArrives(getMessageArrivalTime());
+		}
+
+		@Override
+		public void processEvent() {
+			// don't need to output any event
+		}
+	}
+
+	private void carArrivesAtEndOfRoad(Vehicle vehicle, double simTime) {
+		super.addCarToRoad(vehicle, simTime);
+	}
+
+	private void gapArrives(double simTime) {
+		this.numberOfCarsOnRoad--;
+		super.gapArrivesAtBackOfRoad(simTime);
+	}
+}
@@ -0,0 +1,374 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.jdeqsim;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.EventArray;
+import org.matsim.core.events.handler.EventHandler;
+import org.matsim.core.gbl.Gbl;
+
+/**
+ * A scheduler, which processes the messages in parallel. The nodes of the network are partitioned into logical
+ * processes, each with its own message queue and thread. A {@link PartitionedRoad} is entered in the logical process of
+ * its from-node and left in the one of its to-node.
+ *
+ * The logical processes are synchronized conservatively: a message sent to another logical process arrives at least
+ * the lookahead later, which is the smallest free speed or gap travel time of all links between two logical processes.
+ * So all logical processes can process their messages of the window [t, t + lookahead) in parallel, where t is the
+ * time of the earliest message. At the end of each window, the messages to other logical processes are delivered and
+ * the events are handed to the events manager, merged by time. Ties are broken by the index of the logical process, so
+ * the result does not depend on thread scheduling.
+ *
+ * If a message to another logical process arrives within the current window anyway (a teleported leg which is shorter
+ * than the lookahead or a link, which got faster by a network change event), it is delayed to the end of the window.
+ */
+class PartitionedScheduler extends Scheduler {
+
+	private static final Logger log = LogManager.getLogger(PartitionedScheduler.class);
+
+	/**
+	 * links, which are traversed faster than this, are never cut between two
+	 * logical processes
+	 */
+	static final double MINIMUM_LOOKAHEAD = 1.0;
+
+	private final LogicalProcess[] processes;
+	private final int[] nodeProcess;
+	private final double lookahead;
+	private final double simulationEndTime;
+	private final EventsManager events;
+	private final ThreadLocal<LogicalProcess> currentProcess = new ThreadLocal<>();
+	private final CyclicBarrier barrier;
+	private Thread[] threads;
+	private volatile Throwable failure;
+
+	// only written by the barrier action, while all logical processes wait
+	private double simTime = 0;
+	private double windowEnd = 0;
+	private boolean finished = false;
+	private double hourlyLogTime = 3600;
+	private final double simulationStartTime = System.currentTimeMillis();
+
+	PartitionedScheduler(Network network, JDEQSimConfigGroup config, EventsManager events) {
+		// the messages are kept in the queues of the logical processes
+		super(null, config.getSimulationEndTime().orElse(Double.MAX_VALUE));
+		this.simulationEndTime = config.getSimulationEndTime().orElse(Double.MAX_VALUE);
+		this.events = events;
+		this.processes = new LogicalProcess[config.getNumberOfThreads()];
+		for (int i = 0; i < this.processes.length; i++) {
+			this.processes[i] = new LogicalProcess();
+		}
+		this.nodeProcess = partition(network, this.processes.length, config.getGapTravelSpeed());
+
+		double minimumLookahead = Double.POSITIVE_INFINITY;
+		for (Link link : network.getLinks().values()) {
+			if (getProcess(link.getFromNode()) != getProcess(link.getToNode())) {
+				minimumLookahead = Math.min(minimumLookahead, getLookahead(link, config.getGapTravelSpeed()));
+			}
+		}
+		this.lookahead = minimumLookahead;
+		this.barrier = new CyclicBarrier(this.processes.length, this::nextWindow);
+	}
+
+	Road createRoad(Link link) {
+		return new PartitionedRoad(this, link, getProcess(link.getFromNode()), getProcess(link.getToNode()));
+	}
+
+	double getLookahead() {
+		return this.lookahead;
+	}
+
+	@Override
+	public void schedule(Message m) {
+		LogicalProcess target = getProcess(m);
+		LogicalProcess current = this.currentProcess.get();
+		if (current == null || current == target) {
+			target.queue.putMessage(m);
+		} else {
+			current.outbox.add(m);
+		}
+	}
+
+	@Override
+	public void unschedule(Message m) {
+		getProcess(m).queue.removeMessage(m);
+	}
+
+	@Override
+	public double getSimTime() {
+		LogicalProcess current = this.currentProcess.get();
+		return current == null ? this.simTime : current.simTime;
+	}
+
+	@Override
+	public void startSimulation() {
+		log.info(String.format("JDEQSim running %d logical processes in parallel, lookahead %.1f s", this.processes.length, this.lookahead));
+		EventsManager eventsRouter = new EventsRouter();
+		Message.setEventsManager(eventsRouter);
+		this.threads = new Thread[this.processes.length];
+		for (int i = 0; i < this.processes.length; i++) {
+			LogicalProcess process = this.processes[i];
+			this.threads[i] = new Thread(() -> runProcess(process), "JDEQSimProcess-" + i);
+		}
+		try {
+			for (Thread thread : this.threads) {
+				thread.start();
+			}
+			for (Thread thread : this.threads) {
+				thread.join();
+			}
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		} finally {
+			Message.setEventsManager(this.events);
+		}
+		if (this.failure != null) {
+			throw new RuntimeException("JDEQSim logical process failed", this.failure);
+		}
+	}
+
+	private void runProcess(LogicalProcess process) {
+		this.currentProcess.set(process);
+		try {
+			while (true) {
+				this.barrier.await();
+				if (this.finished) {
+					return;
+				}
+				process.processMessagesBefore(this.windowEnd);
+			}
+		} catch (BrokenBarrierException | InterruptedException e) {
+			// another logical process failed, its exception is reported
+		} catch (Throwable t) {
+			this.failure = t;
+			// wake up the logical processes waiting at (or heading for) the barrier
+			for (Thread thread : this.threads) {
+				if (thread != Thread.currentThread()) {
+					thread.interrupt();
+				}
+			}
+		}
+	}
+
+	// Executed by the last logical process reaching the barrier while all other logical processes wait.
+	private void nextWindow() {
+		for (LogicalProcess process : this.processes) {
+			for (Message m : process.outbox) {
+				if (m.getMessageArrivalTime() < this.windowEnd) {
+					m.setMessageArrivalTime(this.windowEnd);
+				}
+				getProcess(m).queue.putMessage(m);
+			}
+			process.outbox.clear();
+		}
+		processEvents();
+
+		double nextMessageTime = Double.POSITIVE_INFINITY;
+		for (LogicalProcess process : this.processes) {
+			nextMessageTime = Math.min(nextMessageTime, process.queue.getNextMessageArrivalTime());
+		}
+		if (nextMessageTime >= this.simulationEndTime || nextMessageTime == Double.POSITIVE_INFINITY) {
+			this.finished = true;
+			return;
+		}
+		this.simTime = nextMessageTime;
+		this.windowEnd = Math.min(nextMessageTime + this.lookahead, this.simulationEndTime);
+		printLog();
+	}
+
+	/**
+	 * Hands the events of all logical processes, merged by time, to the events manager.
+	 */
+	private void processEvents() {
+		int[] next = new int[this.processes.length];
+		while (true) {
+			int best = -1;
+			double bestTime = Double.POSITIVE_INFINITY;
+			for (int i = 0; i < this.processes.length; i++) {
+				EventArray source = this.processes[i].events;
+				if (next[i] < source.size() && source.get(next[i]).getTime() < bestTime) {
+					best = i;
+					bestTime = source.get(next[i]).getTime();
+				}
+			}
+			if (best < 0) {
+				break;
+			}
+			this.events.processEvent(this.processes[best].events.get(next[best]++));
+		}
+		for (LogicalProcess process : this.processes) {
+			process.events.clear();
+		}
+	}
+
+	private void printLog() {
+		// print output each hour
+		if (this.simTime / this.hourlyLogTime > 1) {
+			this.hourlyLogTime = this.simTime + 3600;
+			log.info("Simulation at " + this.simTime / 3600 + "[h]; s/r:" + this.simTime / (System.currentTimeMillis() - this.simulationStartTime) * 1000);
+			Gbl.printMemoryUsage();
+		}
+	}
+
+	private LogicalProcess getProcess(Message m) {
+		return this.processes[((PartitionedRoad) m.getReceivingUnit()).getLogicalProcess(m)];
+	}
+
+	private int getProcess(Node node) {
+		return this.nodeProcess[node.getId().index()];
+	}
+
+	/**
+	 * Assigns the nodes to equally loaded stripes along the longer extent of the network. Nodes are weighted by the
+	 * number of links attached to them. Afterwards, the nodes of links which are traversed faster than
+	 * {@link #MINIMUM_LOOKAHEAD} are moved into the same logical process.
+	 *
+	 * @return the logical process of each node, indexed by {@link Id#index()} of the node.
+	 */
+	static int[] partition(Network network, int numberOfProcesses, double gapTravelSpeed) {
+		int[] nodeProcess = new int[Id.getNumberOfIds(Node.class)];
+		List<Node> nodes = new ArrayList<>(network.getNodes().values());
+		double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+		double totalWeight = 0;
+		for (Node node : nodes) {
+			minX = Math.min(minX, node.getCoord().getX());
+			maxX = Math.max(maxX, node.getCoord().getX());
+			minY = Math.min(minY, node.getCoord().getY());
+			maxY = Math.max(maxY, node.getCoord().getY());
+			totalWeight += weight(node);
+		}
+		if (maxX - minX >= maxY - minY) {
+			nodes.sort(Comparator.comparingDouble((Node n) -> n.getCoord().getX()).thenComparingInt(n -> n.getId().index()));
+		} else {
+			nodes.sort(Comparator.comparingDouble((Node n) -> n.getCoord().getY()).thenComparingInt(n -> n.getId().index()));
+		}
+		double weight = 0;
+		for (Node node : nodes) {
+			nodeProcess[node.getId().index()] = (int) Math.min(numberOfProcesses - 1, weight * numberOfProcesses / totalWeight);
+			weight += weight(node);
+		}
+
+		// always move to the lower logical process, so this terminates
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (Link link : network.getLinks().values()) {
+				int from = nodeProcess[link.getFromNode().getId().index()];
+				int to = nodeProcess[link.getToNode().getId().index()];
+				if (from != to && getLookahead(link, gapTravelSpeed) < MINIMUM_LOOKAHEAD) {
+					nodeProcess[link.getFromNode().getId().index()] = Math.min(from, to);
+					nodeProcess[link.getToNode().getId().index()] = Math.min(from, to);
+					changed = true;
+				}
+			}
+		}
+		return nodeProcess;
+	}
+
+	private static int weight(Node node) {
+		return 1 + node.getInLinks().size() + node.getOutLinks().size();
+	}
+
+	// the minimum time between sending and receiving a message on both sides of the road
+	private static double getLookahead(Link link, double gapTravelSpeed) {
+		return Math.min(link.getLength() / link.getFreespeed(), link.getLength() / gapTravelSpeed);
+	}
+
+	private static final class LogicalProcess {
+
+		private final MessageQueue queue = new MessageQueue();
+		// messages to other logical processes, delivered at the end of the window
+		private final List<Message> outbox = new ArrayList<>();
+		private final EventArray events = new EventArray();
+		private double simTime = 0;
+
+		void processMessagesBefore(double windowEnd) {
+			while (this.queue.getNextMessageArrivalTime() < windowEnd) {
+				Message m = this.queue.getNextMessage();
+				if (m == null) {
+					return;
+				}
+				if (m.getMessageArrivalTime() >= windowEnd) {
+					// there were only dead messages before this one
+					this.queue.putMessage(m);
+					return;
+				}
+				this.simTime = m.getMessageArrivalTime();
+				m.processEvent();
+				m.handleMessage();
+			}
+		}
+	}
+
+	/**
+	 * Collects the events in the logical process of the calling thread.
+	 */
+	private final class EventsRouter implements EventsManager {
+
+		@Override
+		public void processEvent(Event event) {
+			currentProcess.get().events.add(event);
+		}
+
+		@Override
+		public void addHandler(EventHandler handler) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void removeHandler(EventHandler handler) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void resetHandlers(int iteration) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void initProcessing() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void afterSimStep(double time) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void finishProcessing() {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -146,6 +146,28 @@ public class Road extends SimUnit {
 		this.earliestDepartureTimeOfCar.removeFirst();
 		this.timeOfLastLeavingVehicle = simTime;
 
+		gapArrivesAtBackOfRoad(simTime + this.gapTravelTime);
+
+		/*
+		 * tell the car behind the fist car (which is the first car now), when
+		 * it reaches the end of the read
+		 */
+		if (this.carsOnTheRoad.size() > 0) {
+			Vehicle nextVehicle = this.carsOnTheRoad.getFirst();
+			double nextAvailableTimeForLeavingStreet = Math.max(this.earliestDepartureTimeOfCar.getFirst(),
+					this.timeOfLastLeavingVehicle + this.inverseOutFlowCapacity);
+			nextVehicle.scheduleEndRoadMessage(nextAvailableTimeForLeavingStreet, this);
+		}
+
+	}
+
+	/**
+	 * The gap left by a car leaving the road travels backwards and reaches the
+	 * back of the road at the given time. The next car waiting for entering
+	 * the road can use it, else it is remembered for the next car asking to
+	 * enter the road.
+	 */
+	protected void gapArrivesAtBackOfRoad(double arrivalTimeOfGap) {
 		/*
 		 * the next car waiting for entering the road should now be alloted a
 		 * time for entering the road
@@ -157,7 +179,7 @@ public class Road extends SimUnit {
 			this.scheduler.unschedule(m);
 
 			double nextAvailableTimeForEnteringStreet = Math.max(this.timeOfLastEnteringVehicle
-					+ this.inverseInFlowCapacity, simTime + this.gapTravelTime);
+					+ this.inverseInFlowCapacity, arrivalTimeOfGap);
 
 			this.noOfCarsPromisedToEnterRoad++;
 
@@ -169,30 +191,18 @@ public class Road extends SimUnit {
 				 * as long as the road is not full once, there is no need to
 				 * keep track of the gaps
 				 */
-				this.gap.add(simTime + this.gapTravelTime);
+				this.gap.add(arrivalTimeOfGap);
 
 				/*
 				 * if no one is interested in entering this road (precondition)
 				 * and there are no cars on the road, then reset gap (this is
 				 * required, for enterRequest to function properly)
 				 */
-				if (this.carsOnTheRoad.size() == 0) {
+				if (getNumberOfCarsOnRoad() == 0) {
 					this.gap = null;
 				}
 			}
 		}
-
-		/*
-		 * tell the car behind the fist car (which is the first car now), when
-		 * it reaches the end of the read
-		 */
-		if (this.carsOnTheRoad.size() > 0) {
-			Vehicle nextVehicle = this.carsOnTheRoad.getFirst();
-			double nextAvailableTimeForLeavingStreet = Math.max(this.earliestDepartureTimeOfCar.getFirst(),
-					this.timeOfLastLeavingVehicle + this.inverseOutFlowCapacity);
-			nextVehicle.scheduleEndRoadMessage(nextAvailableTimeForLeavingStreet, this);
-		}
-
 	}
 
 	public void enterRoad(Vehicle vehicle, double simTime) {
@@ -201,6 +211,14 @@ public class Road extends SimUnit {
 				/ this.link.getFreespeed(simTime);
 
 		this.noOfCarsPromisedToEnterRoad--;
+		addCarToRoad(vehicle, nextAvailableTimeForLeavingStreet);
+	}
+
+	/**
+	 * Puts the car into the queue of the road. It cannot leave the road
+	 * before the given time.
+	 */
+	protected void addCarToRoad(Vehicle vehicle, double nextAvailableTimeForLeavingStreet) {
 		this.carsOnTheRoad.add(vehicle);
 
 		/*
@@ -243,7 +261,7 @@ public class Road extends SimUnit {
 		 */
 
 		// is there any space on the road (including promised entries?)
-		if (this.carsOnTheRoad.size() + this.noOfCarsPromisedToEnterRoad < this.maxNumberOfCarsOnRoad) {
+		if (getNumberOfCarsOnRoad() + this.noOfCarsPromisedToEnterRoad < this.maxNumberOfCarsOnRoad) {
 			/*
 			 * - check, if the gap needs to be considered for entering the road -
 			 * we can find out, the time since when we have a free road for
@@ -308,6 +326,11 @@ public class Road extends SimUnit {
 		}
 	}
 
+	// the number of cars, which occupy space on the road
+	protected int getNumberOfCarsOnRoad() {
+		return this.carsOnTheRoad.size();
+	}
+
 	public void giveBackPromisedSpaceToRoad() {
 		this.noOfCarsPromisedToEnterRoad--;
 	}
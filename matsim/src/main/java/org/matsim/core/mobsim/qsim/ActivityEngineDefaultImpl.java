@@ -34,8 +34,9 @@ import org.matsim.api.core.v01.population.Person;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.mobsim.framework.MobsimAgent;
 import org.matsim.core.mobsim.framework.MobsimAgent.State;
+import org.matsim.core.mobsim.qsim.interfaces.HasNextInterestingTime;
 
-class ActivityEngineDefaultImpl implements ActivityEngine {
+class ActivityEngineDefaultImpl implements ActivityEngine, HasNextInterestingTime {
 	private static final Logger log = LogManager.getLogger( ActivityEngineDefaultImpl.class ) ;
 
 	private final EventsManager eventsManager;
@@ -113,6 +114,12 @@ class ActivityEngineDefaultImpl implements ActivityEngine {
 		}
 	}
 
+	@Override
+	public double getNextInterestingTime(double now) {
+		AgentEntry next = activityEndsList.peek();
+		return next == null ? Double.POSITIVE_INFINITY : next.activityEndTime;
+	}
+
 	@Override
 	public void afterSim() {
 		double now = this.internalInterface.getMobsim().getSimTimer().getTimeOfDay();
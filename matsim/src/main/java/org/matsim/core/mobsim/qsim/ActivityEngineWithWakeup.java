@@ -34,8 +34,9 @@ import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.api.core.v01.events.HasPersonId;
 import org.matsim.core.mobsim.framework.MobsimAgent;
 import org.matsim.core.mobsim.framework.PlanAgent;
+import org.matsim.core.mobsim.qsim.interfaces.HasNextInterestingTime;
 
-public final class ActivityEngineWithWakeup implements ActivityEngine {
+public final class ActivityEngineWithWakeup implements ActivityEngine, HasNextInterestingTime {
 	public static final String COMPONENT_NAME = "ActivityEngineWithWakeup";
 
 	private final EventsManager eventsManager;
@@ -68,6 +69,13 @@ public final class ActivityEngineWithWakeup implements ActivityEngine {
 		delegate.doSimStep(now);
 	}
 
+	@Override
+	public double getNextInterestingTime(double now) {
+		AgentEntry next = wakeUpList.peek();
+		return Math.min(next == null ? Double.POSITIVE_INFINITY : next.time,
+				((HasNextInterestingTime) delegate).getNextInterestingTime(now));
+	}
+
 	@Override
 	public void afterSim() {
 		delegate.afterSim();
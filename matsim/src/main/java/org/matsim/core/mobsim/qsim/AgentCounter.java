@@ -53,7 +53,8 @@ class AgentCounter implements org.matsim.core.mobsim.qsim.interfaces.AgentCounte
     @Override
     public final void incLost() {lost.incrementAndGet(); }
 
-    final void incLiving() {living.incrementAndGet();}
+    @Override
+    public final void incLiving() {living.incrementAndGet();}
 
     @Override
     public final void decLiving() {living.decrementAndGet();}
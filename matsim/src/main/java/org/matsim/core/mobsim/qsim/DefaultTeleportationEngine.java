@@ -40,6 +40,7 @@ import org.matsim.api.core.v01.population.Person;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.api.experimental.events.TeleportationArrivalEvent;
 import org.matsim.core.mobsim.framework.MobsimAgent;
+import org.matsim.core.mobsim.qsim.interfaces.HasNextInterestingTime;
 import org.matsim.core.network.NetworkUtils;
 import org.matsim.core.utils.collections.Tuple;
 import org.matsim.facilities.Facility;
@@ -50,7 +51,7 @@ import org.matsim.vis.snapshotwriters.TeleportationVisData;
  * Includes all agents that have transportation modes unknown to the
  * NetsimEngine (often all != "car") or have two activities on the same link
  */
-public final class DefaultTeleportationEngine implements TeleportationEngine {
+public final class DefaultTeleportationEngine implements TeleportationEngine, HasNextInterestingTime {
 	private static final Logger log = LogManager.getLogger( DefaultTeleportationEngine.class ) ;
 
 	private final Queue<Tuple<Double, MobsimAgent>> teleportationList = new PriorityQueue<>(
@@ -151,6 +152,12 @@ public final class DefaultTeleportationEngine implements TeleportationEngine {
 		}
 	}
 
+	@Override
+	public double getNextInterestingTime(double now) {
+		Tuple<Double, MobsimAgent> next = teleportationList.peek();
+		return next == null ? Double.POSITIVE_INFINITY : next.getFirst();
+	}
+
 	@Override
 	public void onPrepareSim() {
 	}
@@ -29,6 +29,7 @@ import org.matsim.core.mobsim.framework.events.MobsimBeforeCleanupEvent;
 import org.matsim.core.mobsim.framework.events.MobsimBeforeSimStepEvent;
 import org.matsim.core.mobsim.framework.events.MobsimInitializedEvent;
 import org.matsim.core.mobsim.framework.listeners.*;
+import org.matsim.core.mobsim.qsim.interfaces.HasNextInterestingTime;
 import org.matsim.core.utils.misc.ClassUtils;
 
 import javax.swing.event.EventListenerList;
@@ -100,6 +101,31 @@ class MobsimListenerManager implements MatsimManager {
         }
 	}
 
+	/**
+	 * @return the earliest time at which a sim step listener needs to be called, <code>now</code> if a sim step listener
+	 * cannot tell.
+	 *
+	 * @see HasNextInterestingTime
+	 */
+	public double getNextInterestingTime(double now) {
+		double next = Double.POSITIVE_INFINITY;
+		for (MobsimListener aListener : this.listenerList.getListeners(MobsimBeforeSimStepListener.class)) {
+			if (!(aListener instanceof HasNextInterestingTime)) return now;
+			next = Math.min(next, ((HasNextInterestingTime) aListener).getNextInterestingTime(now));
+		}
+		for (MobsimListener aListener : this.listenerList.getListeners(MobsimAfterSimStepListener.class)) {
+			if (!(aListener instanceof HasNextInterestingTime)) return now;
+			next = Math.min(next, ((HasNextInterestingTime) aListener).getNextInterestingTime(now));
+		}
+		return next;
+	}
+
+	public void fireQSimProfile(QSimProfile profile) {
+		for (QSimProfileListener aListener : this.listenerList.getListeners(QSimProfileListener.class)) {
+			aListener.notifyQSimProfile(profile);
+		}
+	}
+
 	public void fireQueueSimulationBeforeSimStepEvent(double time) {
 		MobsimBeforeSimStepEvent<Mobsim> event = new MobsimBeforeSimStepEvent<>(sim, time);
 		MobsimBeforeSimStepListener[] listener = this.listenerList.getListeners(MobsimBeforeSimStepListener.class);
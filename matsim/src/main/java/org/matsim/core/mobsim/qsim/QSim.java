@@ -142,6 +142,14 @@ public final class QSim implements VisMobsim, Netsim, ActivityEndRescheduler {
 		else this.mobsimEngineRunTimes = null;
 	}
 
+	// see QSimConfigGroup.isProfiling(); null if not profiling
+	private final QSimProfile profile;
+	private final Map<MobsimEngine, RunTimeHistogram> profiledEngineRunTimes = new IdentityHashMap<>();
+	private final RunTimeHistogram profiledSimSteps;
+	private final RunTimeHistogram profiledBeforeSimStepListeners;
+	private final RunTimeHistogram profiledAfterSimStep;
+	private double nextActiveElementsSample = Double.NEGATIVE_INFINITY;
+
 	/*package (for tests)*/ final InternalInterface internalInterface = new InternalInterface() {
 
 		// These methods must be synchronized, because they are called back
@@ -221,6 +229,17 @@ public final class QSim implements VisMobsim, Netsim, ActivityEndRescheduler {
 		this.listenerManager = new MobsimListenerManager( this );
 		this.agentCounter = new org.matsim.core.mobsim.qsim.AgentCounter();
 		this.simTimer = new MobsimTimer( sc.getConfig().qsim().getTimeStepSize());
+		if ( sc.getConfig().qsim().isProfiling() ) {
+			this.profile = new QSimProfile();
+			this.profiledSimSteps = this.profile.getRunTimes( "simStep" );
+			this.profiledBeforeSimStepListeners = this.profile.getRunTimes( "beforeSimStepListeners" );
+			this.profiledAfterSimStep = this.profile.getRunTimes( "afterSimStepEventsAndListeners" );
+		} else {
+			this.profile = null;
+			this.profiledSimSteps = null;
+			this.profiledBeforeSimStepListeners = null;
+			this.profiledAfterSimStep = null;
+		}
 
 		this.childInjector = childInjector ;
 //		this.qVehicleFactory = qVehicleFactory;
@@ -289,6 +308,9 @@ public final class QSim implements VisMobsim, Netsim, ActivityEndRescheduler {
 	 * Prepare the simulation and get all the settings from the configuration.
 	 */
 	/*package*/ void prepareSim() {
+		if (this.profile != null) {
+			this.events.addHandler(this.profile.getEventCounter());
+		}
 		events.initProcessing();
 
 		createAgents();
@@ -364,6 +386,11 @@ public final class QSim implements VisMobsim, Netsim, ActivityEndRescheduler {
 
 		if (gotException) throw new RuntimeException( "got exception while cleaning up the QSim. Please check the error messages above for details.");
 		events.finishProcessing();
+		if (this.profile != null) {
+			this.events.removeHandler(this.profile.getEventCounter());
+			this.profile.addCountedEvents();
+			this.listenerManager.fireQSimProfile(this.profile);
+		}
 		if (analyzeRunTimes) {
 			log.info("qsim internal cpu time (nanos): " + qSimInternalTime);
 			for (Entry<MobsimEngine, AtomicLong> entry : this.mobsimEngineRunTimes.entrySet()) {
@@ -387,7 +414,9 @@ public final class QSim implements VisMobsim, Netsim, ActivityEndRescheduler {
 
 		final double now = this.getSimTimer().getTimeOfDay();
 
+		final long profileStart = this.profile != null ? System.nanoTime() : 0;
 		this.listenerManager.fireQueueSimulationBeforeSimStepEvent(now);
+		if (this.profile != null) this.profiledBeforeSimStepListeners.add(System.nanoTime() - profileStart);
 
 		if (analyzeRunTimes) this.qSimInternalTime += System.nanoTime() - this.startClockTime;
 
@@ -397,7 +426,9 @@ public final class QSim implements VisMobsim, Netsim, ActivityEndRescheduler {
 		 */
 		if (this.withindayEngine != null) {
 			if (analyzeRunTimes) startClockTime = System.nanoTime();
+			long engineStart = this.profile != null ? System.nanoTime() : 0;
 			this.withindayEngine.doSimStep(now);
+			if (this.profile != null) this.profiledEngineRunTimes.get(this.withindayEngine).add(System.nanoTime() - engineStart);
 			if (analyzeRunTimes) this.mobsimEngineRunTimes.get(this.withindayEngine).addAndGet(System.nanoTime() - this.startClockTime);
 		}
 
@@ -408,7 +439,9 @@ public final class QSim implements VisMobsim, Netsim, ActivityEndRescheduler {
 			// withindayEngine.doSimStep(time) has already been called
 			if (mobsimEngine == this.withindayEngine) continue;
 
+			long engineStart = this.profile != null ? System.nanoTime() : 0;
 			mobsimEngine.doSimStep(now);
+			if (this.profile != null) this.profiledEngineRunTimes.get(mobsimEngine).add(System.nanoTime() - engineStart);
 
 			if (analyzeRunTimes)
 				this.mobsimEngineRunTimes.get(mobsimEngine).addAndGet(System.nanoTime() - this.startClockTime);
@@ -422,8 +455,20 @@ public final class QSim implements VisMobsim, Netsim, ActivityEndRescheduler {
 		// trigger the after sim step listeners before finishing the events processing of this sim step.
 		// this gives after sim step listeners like snapshot generator the opportunity to generate events
 		// for the current time step.
+		final long afterSimStepStart = this.profile != null ? System.nanoTime() : 0;
 		this.events.afterSimStep(now);
 		this.listenerManager.fireQueueSimulationAfterSimStepEvent(now);
+		if (this.profile != null) {
+			long end = System.nanoTime();
+			this.profiledAfterSimStep.add(end - afterSimStepStart);
+			this.profiledSimSteps.add(end - profileStart);
+			this.profile.addSimStep(now, end - profileStart);
+			if (now >= this.nextActiveElementsSample && this.netEngine instanceof QNetsimEngineI) {
+				QNetsimEngineI qNetsimEngine = (QNetsimEngineI) this.netEngine;
+				this.profile.addActiveElements(now, qNetsimEngine.getNumberOfSimulatedLinks(), qNetsimEngine.getNumberOfSimulatedNodes());
+				this.nextActiveElementsSample = now + QSimProfile.ACTIVE_ELEMENTS_SAMPLE_INTERVAL;
+			}
+		}
 
 
 		final QSimConfigGroup qsimConfigGroup = this.scenario.getConfig().qsim();
@@ -433,7 +478,11 @@ public final class QSim implements VisMobsim, Netsim, ActivityEndRescheduler {
 		}
 
 		if (doContinue) {
-			this.simTimer.incrementTime();
+			if (qsimConfigGroup.isSkippingIdleTimeSteps()) {
+				this.simTimer.setTime(getNextSimStepTime(now));
+			} else {
+				this.simTimer.incrementTime();
+			}
 		}
 
 		if (analyzeRunTimes) this.qSimInternalTime += System.nanoTime() - this.startClockTime;
@@ -441,6 +490,35 @@ public final class QSim implements VisMobsim, Netsim, ActivityEndRescheduler {
 		return doContinue;
 	}
 
+	/**
+	 * The next time step in which any engine or sim step listener has something to do, but at most the end time. Stays on the
+	 * grid of time steps.
+	 */
+	private double getNextSimStepTime(final double now) {
+		final double stepSize = this.simTimer.getSimTimestepSize();
+		double nextInterestingTime = Math.min(getNextInterestingTime(now), this.stopTime);
+		if (nextInterestingTime <= now + stepSize || nextInterestingTime == Double.POSITIVE_INFINITY) {
+			return now + stepSize;
+		}
+		return now + Math.ceil((nextInterestingTime - now) / stepSize) * stepSize;
+	}
+
+	private double getNextInterestingTime(final double now) {
+		final double nextStep = now + this.simTimer.getSimTimestepSize();
+		double nextInterestingTime = Double.POSITIVE_INFINITY;
+		for (MobsimEngine mobsimEngine : this.mobsimEngines) {
+			if (!(mobsimEngine instanceof HasNextInterestingTime)) {
+				return now;
+			}
+			nextInterestingTime = Math.min(nextInterestingTime, ((HasNextInterestingTime) mobsimEngine).getNextInterestingTime(now));
+			if (nextInterestingTime <= nextStep) {
+				// cannot skip anything, no need to ask the others
+				return nextInterestingTime;
+			}
+		}
+		return Math.min(nextInterestingTime, this.listenerManager.getNextInterestingTime(now));
+	}
+
 	public void insertAgentIntoMobsim(final MobsimAgent agent) {
 		if (this.agents.containsKey(agent.getId())) {
 			throw new RuntimeException("Agent with same Id (" + agent.getId().toString() + ") already in mobsim; aborting ... ") ;
@@ -637,6 +715,20 @@ public final class QSim implements VisMobsim, Netsim, ActivityEndRescheduler {
 		this.mobsimEngines.add(mobsimEngine);
 
 		if (analyzeRunTimes) this.mobsimEngineRunTimes.put(mobsimEngine, new AtomicLong());
+		if (this.profile != null) {
+			String name = mobsimEngine.getClass().getSimpleName().isEmpty() ? mobsimEngine.getClass().getName() : mobsimEngine.getClass().getSimpleName();
+			if (this.profile.getRunTimes().containsKey(name)) {
+				name = name + "#" + this.mobsimEngines.size();
+			}
+			this.profiledEngineRunTimes.put(mobsimEngine, this.profile.getRunTimes(name));
+		}
+	}
+
+	/**
+	 * @return the profile of this run if {@link QSimConfigGroup#isProfiling()} is set, otherwise null.
+	 */
+	public QSimProfile getProfile() {
+		return this.profile;
 	}
 
 	@Override
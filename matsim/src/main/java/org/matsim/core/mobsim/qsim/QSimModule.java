@@ -35,8 +35,10 @@ import org.matsim.core.mobsim.qsim.components.QSimComponentsModule;
 import org.matsim.core.mobsim.qsim.messagequeueengine.MessageQueueModule;
 import org.matsim.core.mobsim.qsim.pt.TransitEngineModule;
 import org.matsim.core.mobsim.qsim.qnetsimengine.QNetsimEngineModule;
+import org.matsim.core.mobsim.qsim.qnetsimengine.QNetworkHolder;
 
 import com.google.inject.Key;
+import com.google.inject.Singleton;
 import com.google.inject.TypeLiteral;
 import com.google.inject.name.Names;
 
@@ -98,6 +100,8 @@ public final class QSimModule extends AbstractModule {
 		// Set<AbstractQSimModule>.  Don't know why this is needed.  kai, jun'23
 
 		bind(Mobsim.class).toProvider(QSimProvider.class);
+		bind(QNetworkHolder.class).in(Singleton.class);
+		// lives longer than a single QSim, so the netsim network can be reused in the next iteration if configured.
 	}
 
 	static public Collection<AbstractQSimModule> getDefaultQSimModules() {
@@ -0,0 +1,212 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.qsim;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.config.groups.QSimConfigGroup;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.core.utils.misc.Time;
+
+/**
+ * Where the time of one {@link QSim} run went, collected if {@link QSimConfigGroup#isProfiling()} is set: run time
+ * histograms of every mobsim engine, of the sim step listeners and of every runner of the netsim engine, and per time bin
+ * the simulated time steps, their wall clock time, the number of events and the number of active links and nodes.
+ * <p>
+ * Handed to the {@link QSimProfileListener}s when the mobsim is finished.
+ */
+public final class QSimProfile {
+
+	public static final double TIME_BIN_SIZE = 900;
+	// counting the active nodes is not free, see AbstractQNetsimEngineRunner
+	static final double ACTIVE_ELEMENTS_SAMPLE_INTERVAL = 60;
+
+	private final Map<String, RunTimeHistogram> runTimes = new LinkedHashMap<>();
+	private final List<TimeBin> timeBins = new ArrayList<>();
+	private final EventCounter eventCounter = new EventCounter();
+
+	public static final class TimeBin {
+		private final double startTime;
+		private long simSteps = 0;
+		private long wallNanos = 0;
+		private long events = 0;
+		private int maxActiveLinks = 0;
+		private int maxActiveNodes = 0;
+
+		private TimeBin(double startTime) {
+			this.startTime = startTime;
+		}
+
+		public double getStartTime() {
+			return this.startTime;
+		}
+
+		public long getSimSteps() {
+			return this.simSteps;
+		}
+
+		public long getWallNanos() {
+			return this.wallNanos;
+		}
+
+		public long getEvents() {
+			return this.events;
+		}
+
+		/**
+		 * @return the maximum number of active links, sampled every {@value QSimProfile#ACTIVE_ELEMENTS_SAMPLE_INTERVAL} seconds.
+		 */
+		public int getMaxActiveLinks() {
+			return this.maxActiveLinks;
+		}
+
+		/**
+		 * @return the maximum number of active nodes, sampled every {@value QSimProfile#ACTIVE_ELEMENTS_SAMPLE_INTERVAL} seconds.
+		 */
+		public int getMaxActiveNodes() {
+			return this.maxActiveNodes;
+		}
+	}
+
+	QSimProfile() {
+	}
+
+	/**
+	 * @return the histogram of the given component, which is created if it does not exist yet.
+	 */
+	public RunTimeHistogram getRunTimes(String component) {
+		return this.runTimes.computeIfAbsent(component, c -> new RunTimeHistogram());
+	}
+
+	/**
+	 * @return the run time histograms by component, in the order in which the components were added.
+	 */
+	public Map<String, RunTimeHistogram> getRunTimes() {
+		return Collections.unmodifiableMap(this.runTimes);
+	}
+
+	/**
+	 * @return the time bins of {@value #TIME_BIN_SIZE} seconds, starting at midnight.  Bins before the start of the
+	 * simulation are empty.
+	 */
+	public List<TimeBin> getTimeBins() {
+		return Collections.unmodifiableList(this.timeBins);
+	}
+
+	private TimeBin getTimeBin(double time) {
+		int index = (int) Math.max(0, time / TIME_BIN_SIZE);
+		while (this.timeBins.size() <= index) {
+			this.timeBins.add(new TimeBin(this.timeBins.size() * TIME_BIN_SIZE));
+		}
+		return this.timeBins.get(index);
+	}
+
+	void addSimStep(double time, long wallNanos) {
+		TimeBin bin = getTimeBin(time);
+		bin.simSteps++;
+		bin.wallNanos += wallNanos;
+	}
+
+	void addActiveElements(double time, int activeLinks, int activeNodes) {
+		TimeBin bin = getTimeBin(time);
+		bin.maxActiveLinks = Math.max(bin.maxActiveLinks, activeLinks);
+		bin.maxActiveNodes = Math.max(bin.maxActiveNodes, activeNodes);
+	}
+
+	/**
+	 * Counts the events per time bin.  Only written by the thread handling the events; the counts are added to the time
+	 * bins once the events are processed.
+	 */
+	BasicEventHandler getEventCounter() {
+		return this.eventCounter;
+	}
+
+	void addCountedEvents() {
+		long[] counts = this.eventCounter.counts;
+		for (int i = 0; i < counts.length; i++) {
+			if (counts[i] > 0) {
+				getTimeBin(i * TIME_BIN_SIZE).events += counts[i];
+			}
+		}
+		this.eventCounter.counts = new long[0];
+	}
+
+	private static final class EventCounter implements BasicEventHandler {
+		private long[] counts = new long[0];
+
+		@Override
+		public void handleEvent(Event event) {
+			int index = (int) Math.max(0, event.getTime() / TIME_BIN_SIZE);
+			if (index >= this.counts.length) {
+				this.counts = Arrays.copyOf(this.counts, index + 1);
+			}
+			this.counts[index]++;
+		}
+	}
+
+	/**
+	 * Writes one line per component with the number of calls and the total, mean, maximum and percentiles of the run time.
+	 */
+	public void writeRunTimes(String filename, String delimiter) {
+		try (BufferedWriter writer = IOUtils.getBufferedWriter(filename)) {
+			writer.write(String.join(delimiter, "component", "calls", "totalNanos", "meanNanos", "p50Nanos", "p90Nanos", "p99Nanos", "maxNanos"));
+			writer.newLine();
+			for (Map.Entry<String, RunTimeHistogram> entry : this.runTimes.entrySet()) {
+				RunTimeHistogram histogram = entry.getValue();
+				writer.write(String.join(delimiter, entry.getKey(), Long.toString(histogram.getCount()),
+						Long.toString(histogram.getTotalNanos()), Long.toString(Math.round(histogram.getMeanNanos())),
+						Long.toString(histogram.getPercentileNanos(0.5)), Long.toString(histogram.getPercentileNanos(0.9)),
+						Long.toString(histogram.getPercentileNanos(0.99)), Long.toString(histogram.getMaxNanos())));
+				writer.newLine();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Writes one line per non-empty time bin.
+	 */
+	public void writeTimeBins(String filename, String delimiter) {
+		try (BufferedWriter writer = IOUtils.getBufferedWriter(filename)) {
+			writer.write(String.join(delimiter, "time", "simSteps", "wallNanos", "events", "maxActiveLinks", "maxActiveNodes"));
+			writer.newLine();
+			for (TimeBin bin : this.timeBins) {
+				if (bin.simSteps == 0 && bin.events == 0) {
+					continue;
+				}
+				writer.write(String.join(delimiter, Time.writeTime(bin.startTime), Long.toString(bin.simSteps), Long.toString(bin.wallNanos),
+						Long.toString(bin.events), Integer.toString(bin.maxActiveLinks), Integer.toString(bin.maxActiveNodes)));
+				writer.newLine();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
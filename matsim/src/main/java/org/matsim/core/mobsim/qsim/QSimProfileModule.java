@@ -0,0 +1,37 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.qsim;
+
+import com.google.inject.Singleton;
+import org.matsim.core.controler.AbstractModule;
+
+/**
+ * Writes the {@link QSimProfile} of every iteration if {@link org.matsim.core.config.groups.QSimConfigGroup#isProfiling()}
+ * is set. Not part of {@link QSimModule} since it needs the controler's output directory.
+ */
+public final class QSimProfileModule extends AbstractModule {
+	@Override
+	public void install() {
+		if (getConfig().qsim().isProfiling()) {
+			bind(QSimProfileWriter.class).in(Singleton.class);
+			addMobsimListenerBinding().to(QSimProfileWriter.class);
+			addControlerListenerBinding().to(QSimProfileWriter.class);
+		}
+	}
+}
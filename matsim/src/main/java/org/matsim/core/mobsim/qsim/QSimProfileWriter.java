@@ -0,0 +1,58 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.qsim;
+
+import jakarta.inject.Inject;
+import org.matsim.core.config.groups.GlobalConfigGroup;
+import org.matsim.core.controler.OutputDirectoryHierarchy;
+import org.matsim.core.controler.events.IterationEndsEvent;
+import org.matsim.core.controler.listener.IterationEndsListener;
+
+/**
+ * Writes the {@link QSimProfile} of every iteration into the iteration directory, as <code>qsimRunTimes.csv</code> (per
+ * component) and <code>qsimTimeBins.csv</code> (per time bin).
+ */
+final class QSimProfileWriter implements QSimProfileListener, IterationEndsListener {
+	static final String RUN_TIMES_FILE = "qsimRunTimes.csv";
+	static final String TIME_BINS_FILE = "qsimTimeBins.csv";
+
+	private final OutputDirectoryHierarchy controlerIO;
+	private final String delimiter;
+	private QSimProfile profile = null;
+
+	@Inject
+	QSimProfileWriter(OutputDirectoryHierarchy controlerIO, GlobalConfigGroup globalConfig) {
+		this.controlerIO = controlerIO;
+		this.delimiter = globalConfig.getDefaultDelimiter();
+	}
+
+	@Override
+	public void notifyQSimProfile(QSimProfile profile) {
+		this.profile = profile;
+	}
+
+	@Override
+	public void notifyIterationEnds(IterationEndsEvent event) {
+		if (this.profile != null) {
+			this.profile.writeRunTimes(this.controlerIO.getIterationFilename(event.getIteration(), RUN_TIMES_FILE), this.delimiter);
+			this.profile.writeTimeBins(this.controlerIO.getIterationFilename(event.getIteration(), TIME_BINS_FILE), this.delimiter);
+			this.profile = null;
+		}
+	}
+}
@@ -0,0 +1,81 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.qsim;
+
+/**
+ * Counts run times in buckets of powers of two nanoseconds, which is cheap enough to be done in every time step.  Percentiles
+ * are thus only known up to a factor of two.
+ * <p>
+ * Not thread-safe; every histogram is only written by one thread at a time.
+ *
+ * @see QSimProfile
+ */
+public final class RunTimeHistogram {
+
+	// bucket i counts the run times in [2^i, 2^(i+1)) nanoseconds; bucket 0 also counts 0
+	private final long[] buckets = new long[Long.SIZE];
+	private long count = 0;
+	private long totalNanos = 0;
+	private long maxNanos = 0;
+
+	public void add(long nanos) {
+		if (nanos < 0) {
+			nanos = 0;
+		}
+		this.buckets[Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos | 1)]++;
+		this.count++;
+		this.totalNanos += nanos;
+		this.maxNanos = Math.max(this.maxNanos, nanos);
+	}
+
+	public long getCount() {
+		return this.count;
+	}
+
+	public long getTotalNanos() {
+		return this.totalNanos;
+	}
+
+	public long getMaxNanos() {
+		return this.maxNanos;
+	}
+
+	public double getMeanNanos() {
+		return this.count == 0 ? 0 : (double) this.totalNanos / this.count;
+	}
+
+	/**
+	 * @return an upper bound of the given percentile (between 0 and 1), i.e. the end of the bucket containing it, or the
+	 * maximum if that is smaller.
+	 */
+	public long getPercentileNanos(double percentile) {
+		if (percentile < 0 || percentile > 1) {
+			throw new IllegalArgumentException("percentile must be between 0 and 1, got " + percentile);
+		}
+		long rank = (long) Math.ceil(percentile * this.count);
+		long seen = 0;
+		for (int i = 0; i < this.buckets.length; i++) {
+			seen += this.buckets[i];
+			if (seen >= rank && seen > 0) {
+				return Math.min(this.maxNanos, (1L << (i + 1)) - 1);
+			}
+		}
+		return this.maxNanos;
+	}
+}
@@ -24,12 +24,17 @@ import org.apache.logging.log4j.Logger;
 import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.population.*;
+import org.matsim.api.core.v01.events.PersonStuckEvent;
 import org.matsim.core.config.Config;
+import org.matsim.core.config.groups.PlansConfigGroup.ActivityDurationInterpretation;
 import org.matsim.core.config.groups.QSimConfigGroup;
 import org.matsim.core.gbl.Gbl;
 import org.matsim.core.mobsim.framework.AgentSource;
 import org.matsim.core.mobsim.framework.MobsimAgent;
+import org.matsim.core.mobsim.qsim.InternalInterface;
 import org.matsim.core.mobsim.qsim.QSim;
+import org.matsim.core.mobsim.qsim.interfaces.HasNextInterestingTime;
+import org.matsim.core.mobsim.qsim.interfaces.MobsimEngine;
 import org.matsim.core.mobsim.qsim.qnetsimengine.QVehicleFactory;
 import org.matsim.core.population.PopulationUtils;
 import org.matsim.core.population.routes.NetworkRoute;
@@ -39,11 +44,27 @@ import org.matsim.vehicles.Vehicle;
 import org.matsim.vehicles.VehicleUtils;
 
 import jakarta.inject.Inject;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
-public final class PopulationAgentSource implements AgentSource {
+/**
+ * Inserts the persons of the population as agents into the mobsim, and places their vehicles.
+ * <p>
+ * If {@link QSimConfigGroup#getLazyAgentCreationHorizon()} is set, agents whose first departure is known in advance are only
+ * inserted that many seconds before it, which is why this is also a {@link MobsimEngine}.  With the agent factories of the core,
+ * which are known to be thread-safe, they are created on a background thread, one horizon window at a time, ahead of the simulation.
+ * Other agent factories are only called on the mobsim thread, when the agent is inserted.
+ */
+public final class PopulationAgentSource implements AgentSource, MobsimEngine, HasNextInterestingTime {
 	private static final Logger log = LogManager.getLogger( PopulationAgentSource.class );
 
 	private final Population population;
@@ -54,6 +75,20 @@ public final class PopulationAgentSource implements AgentSource {
 	private Map<Id<Vehicle>,Id<Link>> seenVehicleIds = new HashMap<>() ;
     private int warnCnt = 0;
 
+	// lazy agent creation:
+	private static final int WINDOWS_CREATED_AHEAD = 2;
+	private final double lazyAgentCreationHorizon;
+	private final List<Person> lazyPersons = new ArrayList<>();
+	private double[] departureTimes;
+	private int nextPerson = 0;
+	private int nextWindowStart = 0;
+	private final ArrayDeque<Future<List<MobsimAgent>>> windowsAhead = new ArrayDeque<>();
+	private List<MobsimAgent> currentWindow = null;
+	private int currentWindowIndex = 0;
+	private ExecutorService creationExecutor = null;
+	private boolean holdingAgentCounter = false;
+	private InternalInterface internalInterface;
+
 	@Inject
 	PopulationAgentSource( Population population, AgentFactory agentFactory, QVehicleFactory qVehicleFactory, QSim qsim ) {
 		this.population = population;
@@ -61,17 +96,201 @@ public final class PopulationAgentSource implements AgentSource {
 		this.qVehicleFactory = qVehicleFactory;
 		this.qsim = qsim;
 		this.mainModes = qsim.getScenario().getConfig().qsim().getMainModes();
+		this.lazyAgentCreationHorizon = Math.max( qsim.getScenario().getConfig().qsim().getLazyAgentCreationHorizon(),
+				qsim.getScenario().getConfig().qsim().getTimeStepSize() );
 	}
 
 	@Override
 	public void insertAgentsIntoMobsim() {
+		if ( qsim.getScenario().getConfig().qsim().getLazyAgentCreationHorizon() <= 0 ) {
+			for (Person p : population.getPersons().values()) {
+				MobsimAgent agent = this.agentFactory.createMobsimAgentFromPerson(p);
+				qsim.insertAgentIntoMobsim(agent);
+			}
+			for (Person p : population.getPersons().values()) {
+				insertVehicles(p);
+			}
+			return;
+		}
+
+		List<Person> eagerPersons = new ArrayList<>();
 		for (Person p : population.getPersons().values()) {
+			if ( getKnownFirstDepartureTime( p ) < Double.POSITIVE_INFINITY ) {
+				lazyPersons.add( p );
+			} else {
+				eagerPersons.add( p );
+			}
+		}
+		// (stable, so that agents departing at the same time keep the order of the population)
+		lazyPersons.sort( Comparator.comparingDouble( this::getKnownFirstDepartureTime ) );
+		departureTimes = lazyPersons.stream().mapToDouble( this::getKnownFirstDepartureTime ).toArray();
+		log.info( "creating " + lazyPersons.size() + " of " + population.getPersons().size() + " agents lazily, "
+				+ lazyAgentCreationHorizon + " seconds before their first departure." );
+
+		double firstDepartureTime = Double.POSITIVE_INFINITY;
+		for (Person p : eagerPersons) {
 			MobsimAgent agent = this.agentFactory.createMobsimAgentFromPerson(p);
 			qsim.insertAgentIntoMobsim(agent);
+			firstDepartureTime = Math.min( firstDepartureTime, agent.getActivityEndTime() );
 		}
-		for (Person p : population.getPersons().values()) {
+		for (Person p : eagerPersons) {
 			insertVehicles(p);
 		}
+		if ( lazyPersons.isEmpty() ) {
+			return;
+		}
+
+		if ( isThreadSafe( this.agentFactory ) ) {
+			creationExecutor = Executors.newSingleThreadExecutor( runnable -> {
+				Thread thread = new Thread( runnable, "PopulationAgentSource" );
+				thread.setDaemon( true );
+				return thread;
+			} );
+			submitWindows();
+		} else {
+			log.info( "agent factory " + this.agentFactory.getClass().getName() + " is not known to be thread-safe, creating agents on the mobsim thread." );
+		}
+
+		// the agents departing in the first time steps are inserted now, like all others without lazy creation; the qsim
+		// arranges their first activity.  Same computation of the start time as in the qsim, which is not yet known here.
+		QSimConfigGroup qsimConfig = qsim.getScenario().getConfig().qsim();
+		double simStartTime = qsimConfig.getStartTime().orElse( 0 );
+		if ( qsimConfig.getSimStarttimeInterpretation() == QSimConfigGroup.StarttimeInterpretation.maxOfStarttimeAndEarliestActivityEnd ) {
+			simStartTime = Math.floor( Math.max( simStartTime, Math.min( firstDepartureTime, departureTimes[0] ) ) );
+		}
+		insertDueAgents( simStartTime, false );
+
+		if ( nextPerson < lazyPersons.size() ) {
+			// keeps the mobsim running while agents are still to come; given back once the last one is inserted.
+			qsim.getAgentCounter().incLiving();
+			holdingAgentCounter = true;
+		}
+	}
+
+	/**
+	 * @return the end time of the first activity if it does not depend on when the agent is created, infinity otherwise.
+	 */
+	private double getKnownFirstDepartureTime( Person person ) {
+		List<PlanElement> planElements = person.getSelectedPlan().getPlanElements();
+		if ( planElements.size() < 2 || !(planElements.get( 0 ) instanceof Activity firstActivity) || !(planElements.get( 1 ) instanceof Leg) ) {
+			return Double.POSITIVE_INFINITY;
+		}
+		if ( firstActivity.getEndTime().isUndefined() ) {
+			return Double.POSITIVE_INFINITY;
+		}
+		ActivityDurationInterpretation interpretation = qsim.getScenario().getConfig().plans().getActivityDurationInterpretation();
+		if ( interpretation == ActivityDurationInterpretation.minOfDurationAndEndTime && firstActivity.getMaximumDuration().isDefined() ) {
+			return Double.POSITIVE_INFINITY;
+		}
+		return firstActivity.getEndTime().seconds();
+	}
+
+	/**
+	 * Agent factories do not promise to be thread-safe, so only the ones of the core are called on a background thread.  Subclasses
+	 * may add state, hence the exact class.
+	 */
+	private static boolean isThreadSafe( AgentFactory agentFactory ) {
+		return agentFactory.getClass() == DefaultAgentFactory.class || agentFactory.getClass() == TransitAgentFactory.class;
+	}
+
+	private void submitWindows() {
+		while ( windowsAhead.size() < WINDOWS_CREATED_AHEAD && nextWindowStart < lazyPersons.size() ) {
+			int windowEnd = nextWindowStart + 1;
+			while ( windowEnd < lazyPersons.size()
+					&& departureTimes[windowEnd] < departureTimes[nextWindowStart] + lazyAgentCreationHorizon ) {
+				windowEnd++;
+			}
+			List<Person> persons = lazyPersons.subList( nextWindowStart, windowEnd );
+			windowsAhead.add( creationExecutor.submit( () -> {
+				List<MobsimAgent> agents = new ArrayList<>( persons.size() );
+				for (Person p : persons) {
+					agents.add( this.agentFactory.createMobsimAgentFromPerson( p ) );
+				}
+				return agents;
+			} ) );
+			nextWindowStart = windowEnd;
+		}
+	}
+
+	private MobsimAgent takeNextCreatedAgent() {
+		if ( creationExecutor == null ) {
+			return this.agentFactory.createMobsimAgentFromPerson( lazyPersons.get( nextPerson ) );
+		}
+		if ( currentWindow == null || currentWindowIndex == currentWindow.size() ) {
+			try {
+				currentWindow = windowsAhead.poll().get();
+			} catch ( InterruptedException | ExecutionException e ) {
+				throw new RuntimeException( "could not create agents", e );
+			}
+			currentWindowIndex = 0;
+			submitWindows();
+		}
+		return currentWindow.get( currentWindowIndex++ );
+	}
+
+	private void insertDueAgents( double now, boolean arrangeFirstActivity ) {
+		if ( nextPerson == lazyPersons.size() ) {
+			return;
+		}
+		while ( nextPerson < lazyPersons.size() && departureTimes[nextPerson] <= now + lazyAgentCreationHorizon ) {
+			MobsimAgent agent = takeNextCreatedAgent();
+			qsim.insertAgentIntoMobsim( agent );
+			insertVehicles( lazyPersons.get( nextPerson ) );
+			if ( arrangeFirstActivity ) {
+				internalInterface.arrangeNextAgentState( agent );
+			}
+			nextPerson++;
+		}
+		if ( nextPerson == lazyPersons.size() ) {
+			if ( creationExecutor != null ) {
+				creationExecutor.shutdown();
+			}
+			if ( holdingAgentCounter ) {
+				qsim.getAgentCounter().decLiving();
+				holdingAgentCounter = false;
+			}
+		}
+	}
+
+	@Override
+	public void onPrepareSim() {
+	}
+
+	@Override
+	public void doSimStep( double time ) {
+		insertDueAgents( time, true );
+	}
+
+	@Override
+	public double getNextInterestingTime( double now ) {
+		if ( departureTimes == null || nextPerson == departureTimes.length ) {
+			return Double.POSITIVE_INFINITY;
+		}
+		return departureTimes[nextPerson] - lazyAgentCreationHorizon;
+	}
+
+	@Override
+	public void afterSim() {
+		if ( creationExecutor != null ) {
+			creationExecutor.shutdownNow();
+		}
+		// the agents that have not been inserted would be stuck in their first activity, before their first leg:
+		double now = qsim.getSimTimer().getTimeOfDay();
+		for (int i = nextPerson; i < lazyPersons.size(); i++) {
+			Person person = lazyPersons.get( i );
+			Leg firstLeg = (Leg) person.getSelectedPlan().getPlanElements().get( 1 );
+			qsim.getEventsManager().processEvent( new PersonStuckEvent( now, person.getId(), findFirstActivityLink( person ), firstLeg.getMode() ) );
+		}
+	}
+
+	private Id<Link> findFirstActivityLink( Person person ) {
+		Activity firstActivity = (Activity) person.getSelectedPlan().getPlanElements().get( 0 );
+		return PopulationUtils.computeLinkIdFromActivity( firstActivity, qsim.getScenario().getActivityFacilities(), qsim.getScenario().getConfig() );
+	}
+
+	@Override
+	public void setInternalInterface( InternalInterface internalInterface ) {
+		this.internalInterface = internalInterface;
 	}
 	private static int cnt = 5 ;
 	private void insertVehicles(Person person) {
@@ -28,6 +28,7 @@ import org.matsim.api.core.v01.network.Network;
 import org.matsim.core.mobsim.jdeqsim.Message;
 import org.matsim.core.mobsim.jdeqsim.MessageQueue;
 import org.matsim.core.mobsim.qsim.InternalInterface;
+import org.matsim.core.mobsim.qsim.interfaces.HasNextInterestingTime;
 import org.matsim.core.mobsim.qsim.interfaces.NetsimLink;
 import org.matsim.core.mobsim.qsim.interfaces.TimeVariantLink;
 import org.matsim.core.network.NetworkChangeEvent;
@@ -36,7 +37,7 @@ import org.matsim.core.network.NetworkUtils;
 import jakarta.inject.Inject;
 import java.util.Queue;
 
-class NetworkChangeEventsEngine implements NetworkChangeEventsEngineI {
+class NetworkChangeEventsEngine implements NetworkChangeEventsEngineI, HasNextInterestingTime {
 	private static final Logger log = LogManager.getLogger( NetworkChangeEventsEngine.class ) ;
 
 	private final MessageQueue messageQueue;
@@ -123,4 +124,10 @@ class NetworkChangeEventsEngine implements NetworkChangeEventsEngineI {
 	public void doSimStep(double time) {
 
 	}
+
+	@Override
+	public double getNextInterestingTime(double now) {
+		// the change events are applied by the MessageQueueEngine
+		return Double.POSITIVE_INFINITY;
+	}
 }
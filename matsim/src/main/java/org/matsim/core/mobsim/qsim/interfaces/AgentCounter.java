@@ -33,4 +33,11 @@ public interface AgentCounter {
 
 	void decLiving();
 
+	/**
+	 * Agents are counted when they are inserted into the mobsim; only use this for agents that are known to be inserted later on.
+	 */
+	default void incLiving() {
+		throw new UnsupportedOperationException( getClass().getName() + " does not support counting agents that are inserted later on." );
+	}
+
 }
\ No newline at end of file
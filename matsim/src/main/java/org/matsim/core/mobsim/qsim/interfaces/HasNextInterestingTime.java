@@ -0,0 +1,46 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.interfaces;
+
+import org.matsim.core.config.groups.QSimConfigGroup;
+import org.matsim.core.mobsim.framework.listeners.MobsimAfterSimStepListener;
+import org.matsim.core.mobsim.framework.listeners.MobsimBeforeSimStepListener;
+
+/**
+ * Implemented by {@link MobsimEngine}s and sim step listeners ({@link MobsimBeforeSimStepListener},
+ * {@link MobsimAfterSimStepListener}) that know when they will have something to do next. If
+ * {@link QSimConfigGroup#isSkippingIdleTimeSteps()} is set and all engines and sim step listeners of the QSim
+ * implement this interface, the QSim jumps over the time steps in which none of them has anything to do.
+ * <p></p>
+ * Components that only react to other components (e.g. handle an agent that is handed over by another engine) do not
+ * need to be called for that, since the hand-over happens while the other component is called.
+ */
+public interface HasNextInterestingTime {
+
+	/**
+	 * Called after the time step <code>now</code> was simulated.
+	 *
+	 * @return the earliest time at which this component has to be called again. Anything up to the next time step
+	 * means that no time step may be skipped; {@link Double#POSITIVE_INFINITY} means that this component will not
+	 * do anything on its own.
+	 */
+	double getNextInterestingTime(double now);
+
+}
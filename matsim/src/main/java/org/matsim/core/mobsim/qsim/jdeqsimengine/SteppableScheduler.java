@@ -65,6 +65,15 @@ public class SteppableScheduler extends Scheduler implements Steppable {
 		finished = true; // queue has run dry.
 	}
 
+	/**
+	 * @return the arrival time of the next message, {@link Double#POSITIVE_INFINITY} if there is none.
+	 */
+	public double getNextMessageArrivalTime() {
+		double next = queue.getNextMessageArrivalTime();
+		if (lookahead != null) next = Math.min(next, lookahead.getMessageArrivalTime());
+		return next;
+	}
+
 	public boolean isFinished() {
 		return finished;
 	}
@@ -23,11 +23,12 @@
 
 import org.matsim.core.mobsim.framework.events.MobsimBeforeSimStepEvent;
 import org.matsim.core.mobsim.framework.listeners.MobsimBeforeSimStepListener;
+import org.matsim.core.mobsim.qsim.interfaces.HasNextInterestingTime;
 import org.matsim.core.mobsim.qsim.jdeqsimengine.SteppableScheduler;
 
 import jakarta.inject.Inject;
 
-class MessageQueueEngine implements MobsimBeforeSimStepListener {
+class MessageQueueEngine implements MobsimBeforeSimStepListener, HasNextInterestingTime {
 
 	private final SteppableScheduler scheduler;
 
@@ -41,4 +42,9 @@ class MessageQueueEngine implements MobsimBeforeSimStepListener {
 		scheduler.doSimStep(e.getSimulationTime());
 	}
 
+	@Override
+	public double getNextInterestingTime(double now) {
+		return scheduler.getNextMessageArrivalTime();
+	}
+
 }
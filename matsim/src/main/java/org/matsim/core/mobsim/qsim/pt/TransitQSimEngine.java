@@ -39,6 +39,7 @@ import org.matsim.core.mobsim.qsim.HasAgentTracker;
 import org.matsim.core.mobsim.qsim.InternalInterface;
 import org.matsim.core.mobsim.qsim.QSim;
 import org.matsim.core.mobsim.qsim.interfaces.DepartureHandler;
+import org.matsim.core.mobsim.qsim.interfaces.HasNextInterestingTime;
 import org.matsim.core.mobsim.qsim.interfaces.MobsimEngine;
 import org.matsim.pt.ReconstructingUmlaufBuilder;
 import org.matsim.pt.Umlauf;
@@ -54,7 +55,7 @@ import jakarta.inject.Inject;
  * @author mrieser
  * @author mzilske
  */
-public class TransitQSimEngine implements DepartureHandler, MobsimEngine, AgentSource, HasAgentTracker {
+public class TransitQSimEngine implements DepartureHandler, MobsimEngine, AgentSource, HasAgentTracker, HasNextInterestingTime {
 
 
 	private Collection<MobsimAgent> ptDrivers;
@@ -215,6 +216,12 @@ public class TransitQSimEngine implements DepartureHandler, MobsimEngine, AgentS
 		// Nothing to do here.
 	}
 
+	@Override
+	public double getNextInterestingTime(double now) {
+		// the transit drivers depart from the activity engine
+		return Double.POSITIVE_INFINITY;
+	}
+
 	@Override
 	public void insertAgentsIntoMobsim() {
 		ptDrivers = createVehiclesAndDriversWithUmlaeufe();
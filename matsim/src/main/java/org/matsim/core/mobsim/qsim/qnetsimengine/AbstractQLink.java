@@ -310,6 +310,17 @@ abstract class AbstractQLink implements QLinkI {
 		this.waitingList.clear();
 	}
 
+	/**
+	 * Brings the link back into the state it had after construction, so that it can be used by the mobsim of the next
+	 * iteration.  The vehicles need to be removed by {@link #clearVehicles()} before.
+	 */
+	void reset() {
+		this.active = false;
+		this.netElementActivationRegistry = null;
+		this.customAttributes.clear();
+		this.additionalAgentsOnLink.clear();
+	}
+
 	void makeVehicleAvailableToNextDriver(QVehicle veh) {
 
 		// this would (presumably) be the place where the "nature" of a vehicle could be changed (in the sense of PAVE), e.g. to
@@ -42,6 +42,8 @@ import org.matsim.core.mobsim.framework.MobsimAgent;
 import org.matsim.core.mobsim.framework.MobsimDriverAgent;
 import org.matsim.core.mobsim.qsim.InternalInterface;
 import org.matsim.core.mobsim.qsim.QSim;
+import org.matsim.core.mobsim.qsim.QSimProfile;
+import org.matsim.core.mobsim.qsim.interfaces.HasNextInterestingTime;
 import org.matsim.core.mobsim.qsim.interfaces.MobsimVehicle;
 import org.matsim.core.mobsim.qsim.interfaces.NetsimNetwork;
 import org.matsim.core.utils.misc.Time;
@@ -57,7 +59,7 @@ import org.matsim.vis.snapshotwriters.SnapshotLinkWidthCalculator;
  * @author dgrether
  * @author dstrippgen
  */
-abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> implements QNetsimEngineI {
+abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> implements QNetsimEngineI, HasNextInterestingTime {
 
 	private NetsimInternalInterface ii = new NetsimInternalInterface(){
 		@Override public QNetwork getNetsimNetwork() {
@@ -84,13 +86,15 @@ abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> impl
 //	private final Set<QLinkI> linksToActivateInitially = new HashSet<>();
 	protected final int numOfThreads;
 	protected final QNetwork qNetwork;
+	private final QNetworkHolder qNetworkHolder;
 
 	private double infoTime = 0;
 	private List<A> engines;
 	private InternalInterface internalInterface = null;
 
-	AbstractQNetsimEngine(final QSim sim, QNetworkFactory netsimNetworkFactory) {
+	AbstractQNetsimEngine(final QSim sim, QNetworkFactory netsimNetworkFactory, QNetworkHolder qNetworkHolder) {
 		this.qsim = sim;
+		this.qNetworkHolder = qNetworkHolder;
 
 		final Config config = sim.getScenario().getConfig();
 		final QSimConfigGroup qSimConfigGroup = config.qsim();
@@ -115,7 +119,8 @@ abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> impl
 		}
 
 		if (netsimNetworkFactory != null){
-			qNetwork = new QNetwork( sim.getScenario().getNetwork(), netsimNetworkFactory ) ;
+			qNetwork = qNetworkHolder.getQNetwork( sim.getScenario().getNetwork(), netsimNetworkFactory, qSimConfigGroup, this,
+					sim.getAgentCounter(), sim.getSimTimer() ) ;
 		} else {
 			throw new RuntimeException( "this execution path is no longer allowed; network factory needs to come from elsewhere (in general via injection).  kai, jun'23" );
 //			Scenario scenario = sim.getScenario();
@@ -126,7 +131,6 @@ abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> impl
 //			netsimNetworkFactory2.initializeFactory(agentCounter, mobsimTimer, ii );
 //			qNetwork = new QNetwork(sim.getScenario().getNetwork(), netsimNetworkFactory2 );
 		}
-		qNetwork.initialize(this, sim.getAgentCounter(), sim.getSimTimer() );
 
 		this.numOfThreads = sim.getScenario().getConfig().qsim().getNumberOfThreads();
 	}
@@ -162,6 +166,13 @@ abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> impl
 		 */
 
 		this.engines = initQSimEngineRunners();
+		QSimProfile profile = this.qsim.getProfile();
+		if (profile != null) {
+			for (int i = 0; i < this.engines.size(); i++) {
+				this.engines.get(i).setRunTimeHistograms(profile.getRunTimes("QNetsimEngineRunner_" + i + "_nodes"),
+						profile.getRunTimes("QNetsimEngineRunner_" + i + "_links"));
+			}
+		}
 		assignNetElementActivators();
 		initMultiThreading();
 	}
@@ -193,6 +204,7 @@ abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> impl
 		for (QLinkI link : qNetwork.getNetsimLinks().values()) {
 			link.clearVehicles();
 		}
+		qNetworkHolder.release(qNetwork);
 	}
 
 	/**
@@ -227,6 +239,17 @@ abstract class AbstractQNetsimEngine<A extends AbstractQNetsimEngineRunner> impl
 	}
 
 
+	/**
+	 * Vehicles on the network keep links or nodes active, so time steps can only be skipped if nothing is active.
+	 */
+	@Override
+	public final double getNextInterestingTime(double now) {
+		for (AbstractQNetsimEngineRunner engine : this.engines) {
+			if (!engine.isIdle()) return now;
+		}
+		return Double.POSITIVE_INFINITY;
+	}
+
 	@Override
 	public final void setInternalInterface( InternalInterface internalInterface) {
 		this.internalInterface = internalInterface;
@@ -28,6 +28,7 @@ import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.matsim.core.mobsim.qsim.QSim;
+import org.matsim.core.mobsim.qsim.RunTimeHistogram;
 
 /**
  * These are the "threads" of the {@link QNetsimEngineWithThreadpool}. The "run()" method is implicitly called by starting the thread.
@@ -117,13 +118,13 @@ abstract class AbstractQNetsimEngineRunner extends NetElementActivationRegistry
 	 * cdobler, sep'14
 	 */
 	@Override
-	protected final void registerLinkAsActive(QLinkI link) {
+	protected void registerLinkAsActive(QLinkI link) {
 		if (!lockLinks) linksList.add(link);
 		else throw new RuntimeException("Tried to activate a QLink at a time where this was not allowed. Aborting!");
 	}
 
 	@Override
-	public final int getNumberOfSimulatedLinks() {
+	public int getNumberOfSimulatedLinks() {
 		return this.linksList.size();
 	}
 
@@ -133,7 +134,7 @@ abstract class AbstractQNetsimEngineRunner extends NetElementActivationRegistry
 	 * cdobler, sep'14
 	 */
 	@Override
-	protected final void registerNodeAsActive(QNodeI node) {
+	protected void registerNodeAsActive(QNodeI node) {
 		if (!this.lockNodes) this.nodesQueue.add(node);
 		else throw new RuntimeException("Tried to activate a QNode at a time where this was not allowed. Aborting!");
 	}
@@ -145,10 +146,38 @@ abstract class AbstractQNetsimEngineRunner extends NetElementActivationRegistry
 	 * cdobler, sep'14
 	 */
 	@Override
-	public final int getNumberOfSimulatedNodes() {
+	public int getNumberOfSimulatedNodes() {
 		return this.nodesQueue.size();
 	}
 
+	/**
+	 * @return true if no node and no link of this runner is active.
+	 */
+	/*package*/ boolean isIdle() {
+		return this.nodesQueue.isEmpty() && this.linksList.isEmpty();
+	}
+
+	// see QSimConfigGroup.isProfiling(); null if not profiling
+	private RunTimeHistogram nodeRunTimes = null;
+	private RunTimeHistogram linkRunTimes = null;
+
+	/*package*/ final void setRunTimeHistograms(RunTimeHistogram nodeRunTimes, RunTimeHistogram linkRunTimes) {
+		this.nodeRunTimes = nodeRunTimes;
+		this.linkRunTimes = linkRunTimes;
+	}
+
+	/*package*/ final boolean isProfiling() {
+		return this.nodeRunTimes != null;
+	}
+
+	/**
+	 * Only called by one thread at a time, namely the one that moved the nodes or links of this runner.
+	 */
+	/*package*/ final void addRunTime(boolean movingNodes, long nanos) {
+		if (movingNodes) this.nodeRunTimes.add(nanos);
+		else this.linkRunTimes.add(nanos);
+	}
+
 	protected final void startMeasure() {
 		if (QSim.analyzeRunTimes) this.startTime = System.nanoTime();		
 	}
@@ -106,6 +106,16 @@ abstract class AbstractQNode implements QNodeI {
 		this.active.set(active);
 	}
 
+	/**
+	 * Brings the node back into the state it had after construction, so that it can be used by the mobsim of the next
+	 * iteration.
+	 */
+	void reset() {
+		this.active.set(false);
+		this.activator = null;
+		this.customAttributes.clear();
+	}
+
 	
 	@Override
 	public final Map<String, Object> getCustomAttributes() {
@@ -95,6 +95,13 @@ public final class DefaultQNetworkFactory implements QNetworkFactory {
 		this.netsimEngine1 = netsimEngine1;
 
 
+	}
+	/**
+	 * Hands the events manager (taken from the factory of the next mobsim), agent counter and timer of the next mobsim to the links and
+	 * nodes created by this factory, when the network is reused.
+	 */
+	void resetFactory( DefaultQNetworkFactory nextFactory, AgentCounter agentCounter, MobsimTimer mobsimTimer ) {
+		context.reset( nextFactory.events, agentCounter, mobsimTimer );
 	}
 	@Override public QLinkI createNetsimLink( final Link link, final QNodeI toQueueNode ) {
 		this.linkBuilder = new QLinkImpl.Builder( context, netsimEngine1 ) ;
@@ -21,19 +21,27 @@
 
  package org.matsim.core.mobsim.qsim.qnetsimengine;
 
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.VehicleEntersTrafficEvent;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Person;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.config.groups.QSimConfigGroup;
+import org.matsim.core.events.PooledEvents;
 import org.matsim.core.mobsim.framework.MobsimTimer;
 import org.matsim.core.mobsim.qsim.interfaces.AgentCounter;
+import org.matsim.vehicles.Vehicle;
 import org.matsim.vis.snapshotwriters.SnapshotLinkWidthCalculator;
 
 public class NetsimEngineContext {
-	private final EventsManager events;
+	private EventsManager events;
 	final  double effectiveCellSize;
-	private final AgentCounter agentCounter;
+	private AgentCounter agentCounter;
 	final AbstractAgentSnapshotInfoBuilder snapshotInfoBuilder;
 	final QSimConfigGroup qsimConfig;
-	private final MobsimTimer mobsimTimer;
+	private MobsimTimer mobsimTimer;
 	final SnapshotLinkWidthCalculator linkWidthCalculator;
 
 	public NetsimEngineContext(EventsManager events, double effectiveCellSize, AgentCounter agentCounter,
@@ -48,6 +56,15 @@ public class NetsimEngineContext {
 		this.linkWidthCalculator = linkWidthCalculator;
 	}
 
+	/**
+	 * Points the context to the events manager, agent counter and timer of the next mobsim, when the network is reused.
+	 */
+	void reset(EventsManager events, AgentCounter agentCounter, MobsimTimer mobsimTimer) {
+		this.events = events;
+		this.agentCounter = agentCounter;
+		this.mobsimTimer = mobsimTimer;
+	}
+
 	MobsimTimer getSimTimer() {
 		return mobsimTimer;
 	}
@@ -56,6 +73,24 @@ public class NetsimEngineContext {
 		return events;
 	}
 
+	// the events the netsim creates for every move, pooled if so configured
+
+	LinkEnterEvent createLinkEnterEvent(double now, Id<Vehicle> vehicleId, Id<Link> linkId) {
+		return qsimConfig.isUsePooledEvents() ? PooledEvents.linkEnter(now, vehicleId, linkId) : new LinkEnterEvent(now, vehicleId, linkId);
+	}
+
+	LinkLeaveEvent createLinkLeaveEvent(double now, Id<Vehicle> vehicleId, Id<Link> linkId) {
+		return qsimConfig.isUsePooledEvents() ? PooledEvents.linkLeave(now, vehicleId, linkId) : new LinkLeaveEvent(now, vehicleId, linkId);
+	}
+
+	VehicleEntersTrafficEvent createVehicleEntersTrafficEvent(double now, Id<Person> driverId, Id<Link> linkId, Id<Vehicle> vehicleId,
+			String networkMode, double relativePositionOnLink) {
+		if (qsimConfig.isUsePooledEvents()) {
+			return PooledEvents.vehicleEntersTraffic(now, driverId, linkId, vehicleId, networkMode, relativePositionOnLink);
+		}
+		return new VehicleEntersTrafficEvent(now, driverId, linkId, vehicleId, networkMode, relativePositionOnLink);
+	}
+
 	AgentCounter getAgentCounter() {
 		return agentCounter;
 	}
@@ -28,7 +28,6 @@ import java.util.Objects;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.matsim.api.core.v01.Id;
-import org.matsim.api.core.v01.events.VehicleEntersTrafficEvent;
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.core.mobsim.qsim.interfaces.MobsimVehicle;
 import org.matsim.core.mobsim.qsim.interfaces.SignalGroupState;
@@ -124,6 +123,20 @@ public final class QLinkImpl extends AbstractQLink implements SignalizeableItem
 		qlane.clearVehicles();
 	}
 
+	/**
+	 * @return true if the link only consists of parts, which can be reset for the next iteration.
+	 */
+	boolean isResettable() {
+		return qlane instanceof QueueWithBuffer;
+	}
+
+	@Override
+	void reset() {
+		super.reset();
+		((QueueWithBuffer) qlane).reset();
+		super.setTransitQLink( new TransitQLink(this.qlane) ) ;
+	}
+
 	@Override
 	public boolean doSimStep() {
 		double now = context.getSimTimer().getTimeOfDay() ;
@@ -160,7 +173,7 @@ public final class QLinkImpl extends AbstractQLink implements SignalizeableItem
 			
 			double now = context.getSimTimer().getTimeOfDay() ;
 			context.getEventsManager().processEvent(
-					new VehicleEntersTrafficEvent(now, veh.getDriver().getId(), this.getLink().getId(), veh.getId(), veh.getDriver().getMode(), 1.0));
+					context.createVehicleEntersTrafficEvent(now, veh.getDriver().getId(), this.getLink().getId(), veh.getId(), veh.getDriver().getMode(), 1.0));
 
 			if ( this.getTransitQLink().addTransitToStopQueue(now, veh, this.getLink().getId()) ) {
 				continue ;
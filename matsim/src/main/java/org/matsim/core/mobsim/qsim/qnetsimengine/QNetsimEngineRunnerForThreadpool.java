@@ -45,11 +45,13 @@ final class QNetsimEngineRunnerForThreadpool extends AbstractQNetsimEngineRunner
 			return false;
 		}
 
+		long start = isProfiling() ? System.nanoTime() : 0;
 		if (this.movingNodes) {
 			moveNodes();
 		} else {
 			moveLinks();
 		}
+		if (isProfiling()) addRunTime(this.movingNodes, System.nanoTime() - start);
 		return true ;
 	}
 
@@ -0,0 +1,207 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runner of the {@link QNetsimEngineWithWorkStealing}. Like the other runners it owns a share of the nodes and links,
+ * but its active nodes respectively links are cut into chunks at the beginning of each phase, and any thread may claim
+ * and move a chunk. The thread owning the runner starts with its own chunks, other threads only help once they are done
+ * with theirs.
+ * <p></p>
+ * As a node of this runner may be moved by another thread, the links it activates are registered concurrently, so
+ * newly activated nodes and links are collected in concurrent queues and only added to the active elements by the
+ * owning thread when the next phase is prepared.
+ */
+final class QNetsimEngineRunnerForWorkStealing extends AbstractQNetsimEngineRunner {
+
+	static final int CHUNK_SIZE = 64;
+
+	private final Queue<QNodeI> activatedNodes = new ConcurrentLinkedQueue<>();
+	private final Queue<QLinkI> activatedLinks = new ConcurrentLinkedQueue<>();
+
+	// Active elements. Elements that become inactive while being moved are set to null and removed when preparing the next phase.
+	private QNodeI[] nodes = new QNodeI[CHUNK_SIZE];
+	private int nodeCount = 0;
+	private QLinkI[] links = new QLinkI[CHUNK_SIZE];
+	private int linkCount = 0;
+
+	// State of the current phase. chunks is negative while the phase is prepared and written last, so reading it first
+	// makes the arrays visible to other threads.
+	private boolean movingNodes;
+	private volatile int chunks = -1;
+	private final AtomicInteger nextChunk = new AtomicInteger();
+
+	// Only allowed to be changed between the phases, see AbstractQNetsimEngineRunner.
+	private boolean lockNodes = false;
+	private boolean lockLinks = false;
+
+	// Statistics of the thread owning this runner, only written by that thread.
+	private long nodeNanos = 0;
+	private long linkNanos = 0;
+	private long ownChunks = 0;
+	private long stolenChunks = 0;
+
+	QNetsimEngineRunnerForWorkStealing() {
+	}
+
+	/*package*/ void startPhase(boolean movingNodes) {
+		this.chunks = -1;
+		this.movingNodes = movingNodes;
+		this.lockNodes = movingNodes;
+		this.lockLinks = !movingNodes;
+	}
+
+	/*package*/ void endPhase() {
+		this.lockNodes = false;
+		this.lockLinks = false;
+	}
+
+	/**
+	 * Called by the owning thread. Removes elements that became inactive, adds the newly activated ones and makes the
+	 * chunks available to other threads.
+	 */
+	/*package*/ void prepare() {
+		int size;
+		if (this.movingNodes) {
+			this.nodeCount = compact(this.nodes, this.nodeCount);
+			QNodeI node;
+			while ((node = this.activatedNodes.poll()) != null) {
+				if (this.nodeCount == this.nodes.length) this.nodes = Arrays.copyOf(this.nodes, this.nodeCount * 2);
+				this.nodes[this.nodeCount++] = node;
+			}
+			size = this.nodeCount;
+		} else {
+			this.linkCount = compact(this.links, this.linkCount);
+			QLinkI link;
+			while ((link = this.activatedLinks.poll()) != null) {
+				if (this.linkCount == this.links.length) this.links = Arrays.copyOf(this.links, this.linkCount * 2);
+				this.links[this.linkCount++] = link;
+			}
+			size = this.linkCount;
+		}
+		this.nextChunk.set(0);
+		this.chunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+	}
+
+	private static int compact(Object[] elements, int count) {
+		int kept = 0;
+		for (int i = 0; i < count; i++) {
+			if (elements[i] != null) elements[kept++] = elements[i];
+		}
+		Arrays.fill(elements, kept, count, null);
+		return kept;
+	}
+
+	/**
+	 * Moves chunks of this runner until all are claimed. Other threads may still be moving the chunks they claimed.
+	 *
+	 * @return the number of chunks moved by the calling thread
+	 */
+	/*package*/ int moveChunks(double time) {
+		int numberOfChunks = this.chunks;
+		if (numberOfChunks <= 0) return 0;
+		int moved = 0;
+		int chunk;
+		while ((chunk = this.nextChunk.getAndIncrement()) < numberOfChunks) {
+			int from = chunk * CHUNK_SIZE;
+			if (this.movingNodes) {
+				int to = Math.min(from + CHUNK_SIZE, this.nodeCount);
+				for (int i = from; i < to; i++) {
+					if (!this.nodes[i].doSimStep(time)) this.nodes[i] = null;
+				}
+			} else {
+				int to = Math.min(from + CHUNK_SIZE, this.linkCount);
+				for (int i = from; i < to; i++) {
+					if (!this.links[i].doSimStep()) this.links[i] = null;
+				}
+			}
+			moved++;
+		}
+		return moved;
+	}
+
+	/*package*/ void addStatistics(boolean movingNodes, long nanos, int ownChunks, int stolenChunks) {
+		if (movingNodes) this.nodeNanos += nanos;
+		else this.linkNanos += nanos;
+		this.ownChunks += ownChunks;
+		this.stolenChunks += stolenChunks;
+	}
+
+	/*package*/ String getStatistics() {
+		return String.format("moving nodes %.1f s, moving links %.1f s, own chunks %d, chunks taken over from other runners %d",
+				this.nodeNanos / 1e9, this.linkNanos / 1e9, this.ownChunks, this.stolenChunks);
+	}
+
+	@Override
+	public void afterSim() {
+		// the threads are stopped by the engine
+	}
+
+	@Override
+	protected void registerLinkAsActive(QLinkI link) {
+		if (!this.lockLinks) this.activatedLinks.add(link);
+		else throw new RuntimeException("Tried to activate a QLink at a time where this was not allowed. Aborting!");
+	}
+
+	@Override
+	protected void registerNodeAsActive(QNodeI node) {
+		if (!this.lockNodes) this.activatedNodes.add(node);
+		else throw new RuntimeException("Tried to activate a QNode at a time where this was not allowed. Aborting!");
+	}
+
+	@Override
+	/*package*/ boolean isIdle() {
+		return !containsNonNull(this.nodes, this.nodeCount) && !containsNonNull(this.links, this.linkCount)
+				&& this.activatedNodes.isEmpty() && this.activatedLinks.isEmpty();
+	}
+
+	private static boolean containsNonNull(Object[] elements, int count) {
+		for (int i = 0; i < count; i++) {
+			if (elements[i] != null) return true;
+		}
+		return false;
+	}
+
+	/*
+	 * Only called once every simulated hour for the log message.
+	 */
+	@Override
+	public int getNumberOfSimulatedLinks() {
+		return this.linkCount - countNull(this.links, this.linkCount) + this.activatedLinks.size();
+	}
+
+	@Override
+	public int getNumberOfSimulatedNodes() {
+		return this.nodeCount - countNull(this.nodes, this.nodeCount) + this.activatedNodes.size();
+	}
+
+	private static int countNull(Object[] elements, int count) {
+		int nulls = 0;
+		for (int i = 0; i < count; i++) {
+			if (elements[i] == null) nulls++;
+		}
+		return nulls;
+	}
+}
@@ -52,8 +52,8 @@ final class QNetsimEngineWithThreadpool extends AbstractQNetsimEngine<QNetsimEng
 //		this(sim, null);
 //	}
 
-	@Inject QNetsimEngineWithThreadpool(final QSim sim, QNetworkFactory netsimNetworkFactory) {
-		super(sim, netsimNetworkFactory);
+	@Inject QNetsimEngineWithThreadpool(final QSim sim, QNetworkFactory netsimNetworkFactory, QNetworkHolder qNetworkHolder) {
+		super(sim, netsimNetworkFactory, qNetworkHolder);
 		this.numOfRunners = this.numOfThreads;
 	}
 
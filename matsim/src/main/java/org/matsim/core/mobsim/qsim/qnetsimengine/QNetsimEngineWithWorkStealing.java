@@ -0,0 +1,183 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import jakarta.inject.Inject;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.core.mobsim.qsim.QSim;
+
+/**
+ * Alternative to the {@link QNetsimEngineWithThreadpool} for skewed load, e.g. when most of the traffic is in a few
+ * parts of the network during the peak hours. Nodes and links are still assigned to runners, one runner per thread,
+ * but a thread that is done with its own runner takes over chunks of the other runners (see
+ * {@link QNetsimEngineRunnerForWorkStealing}), so a time step is no longer as slow as the most loaded runner.
+ * <p></p>
+ * The thread calling {@link #doSimStep(double)} works on the first runner. The other threads are started once and
+ * wait for the next phase by spinning for a short time before they park, which is much cheaper than submitting
+ * tasks to an executor twice per time step.
+ */
+final class QNetsimEngineWithWorkStealing extends AbstractQNetsimEngine<QNetsimEngineRunnerForWorkStealing> {
+
+	private static final Logger log = LogManager.getLogger(QNetsimEngineWithWorkStealing.class);
+	private static final int SPINS_BEFORE_PARKING = 1 << 12;
+
+	private final int numOfRunners;
+	private List<QNetsimEngineRunnerForWorkStealing> runners;
+	private Thread[] threads;
+	private Thread mainThread;
+
+	private double time;
+	private volatile boolean movingNodes;
+	private volatile int phase = 0;
+	private volatile boolean simulationRunning = true;
+	// Threads that did not finish the current phase yet. A thread only finishes once all chunks of its own runner are
+	// claimed, so all chunks are moved when no thread is pending.
+	private final AtomicInteger pendingThreads = new AtomicInteger();
+	private volatile Throwable failure;
+
+	@Inject QNetsimEngineWithWorkStealing(final QSim sim, QNetworkFactory netsimNetworkFactory, QNetworkHolder qNetworkHolder) {
+		super(sim, netsimNetworkFactory, qNetworkHolder);
+		this.numOfRunners = this.numOfThreads;
+	}
+
+	@Override
+	protected List<QNetsimEngineRunnerForWorkStealing> initQSimEngineRunners() {
+		this.runners = new ArrayList<>();
+		for (int i = 0; i < numOfRunners; i++) {
+			this.runners.add(new QNetsimEngineRunnerForWorkStealing());
+		}
+		return this.runners;
+	}
+
+	@Override
+	protected void initMultiThreading() {
+		this.simulationRunning = true;
+		this.threads = new Thread[numOfRunners];
+		for (int i = 1; i < numOfRunners; i++) {
+			final int runner = i;
+			this.threads[i] = new Thread(() -> work(runner), "QNetsimEngine_WorkStealingThread_" + i);
+			this.threads[i].setDaemon(true);
+			this.threads[i].start();
+		}
+	}
+
+	@Override
+	protected void run(double time) {
+		for (AbstractQNetsimEngineRunner runner : this.runners) {
+			runner.setTime(time);
+		}
+		this.time = time;
+		this.mainThread = Thread.currentThread();
+		runPhase(true);
+		runPhase(false);
+	}
+
+	private void runPhase(boolean movingNodes) {
+		for (QNetsimEngineRunnerForWorkStealing runner : this.runners) {
+			runner.startPhase(movingNodes);
+		}
+		this.movingNodes = movingNodes;
+		this.pendingThreads.set(numOfRunners);
+		this.phase++;
+		for (int i = 1; i < numOfRunners; i++) {
+			LockSupport.unpark(this.threads[i]);
+		}
+
+		moveChunks(0);
+		this.pendingThreads.decrementAndGet();
+
+		int spins = 0;
+		while (this.pendingThreads.get() > 0 && this.failure == null) {
+			if (spins++ < SPINS_BEFORE_PARKING) {
+				Thread.onSpinWait();
+			} else {
+				LockSupport.park(this);
+			}
+		}
+		if (this.failure != null) {
+			throw new RuntimeException("Exception while moving nodes and links.", this.failure);
+		}
+		for (QNetsimEngineRunnerForWorkStealing runner : this.runners) {
+			runner.endPhase();
+		}
+	}
+
+	private void work(int runner) {
+		int lastPhase = 0;
+		try {
+			while (true) {
+				int spins = 0;
+				while (this.phase == lastPhase && this.simulationRunning) {
+					if (spins++ < SPINS_BEFORE_PARKING) {
+						Thread.onSpinWait();
+					} else {
+						LockSupport.park(this);
+					}
+				}
+				if (!this.simulationRunning) return;
+				lastPhase = this.phase;
+				moveChunks(runner);
+				if (this.pendingThreads.decrementAndGet() == 0) {
+					LockSupport.unpark(this.mainThread);
+				}
+			}
+		} catch (Throwable t) {
+			this.failure = t;
+			LockSupport.unpark(this.mainThread);
+		}
+	}
+
+	/**
+	 * Prepares and moves the own runner, then helps the others, starting with the next runner so that the threads do
+	 * not all compete for the same chunks.
+	 */
+	private void moveChunks(int ownRunner) {
+		long start = System.nanoTime();
+		boolean nodes = this.movingNodes;
+		QNetsimEngineRunnerForWorkStealing own = this.runners.get(ownRunner);
+		own.prepare();
+		int ownChunks = own.moveChunks(this.time);
+		int stolenChunks = 0;
+		for (int i = 1; i < numOfRunners; i++) {
+			stolenChunks += this.runners.get((ownRunner + i) % numOfRunners).moveChunks(this.time);
+		}
+		long nanos = System.nanoTime() - start;
+		own.addStatistics(nodes, nanos, ownChunks, stolenChunks);
+		if (own.isProfiling()) own.addRunTime(nodes, nanos);
+	}
+
+	@Override
+	public void finishMultiThreading() {
+		this.simulationRunning = false;
+		for (int i = 1; i < numOfRunners; i++) {
+			LockSupport.unpark(this.threads[i]);
+		}
+		for (int i = 0; i < numOfRunners; i++) {
+			log.info("QNetsimEngineRunner #" + i + ": " + this.runners.get(i).getStatistics());
+		}
+	}
+}
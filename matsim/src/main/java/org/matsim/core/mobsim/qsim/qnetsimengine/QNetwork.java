@@ -28,10 +28,12 @@ import org.matsim.api.core.v01.IdMap;
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.network.Network;
 import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.mobsim.framework.MobsimAgent;
 import org.matsim.core.mobsim.framework.MobsimTimer;
 import org.matsim.core.mobsim.qsim.interfaces.AgentCounter;
 import org.matsim.core.mobsim.qsim.interfaces.NetsimNetwork;
 import org.matsim.core.mobsim.qsim.interfaces.NetsimNode;
+import org.matsim.core.mobsim.qsim.qnetsimengine.QNetsimEngineI.NetsimInternalInterface;
 import org.matsim.vis.snapshotwriters.VisLink;
 
 /**
@@ -53,6 +55,27 @@ public class QNetwork implements NetsimNetwork {
 
 	QNetsimEngineI simEngine; // only for tests...
 
+	/*
+	 * Links and nodes reach the engine through this, so that they can be handed to the engine of the next iteration when
+	 * the network is reused.
+	 */
+	private final NetsimInternalInterface netsimInternalInterface = new NetsimInternalInterface() {
+		@Override
+		public QNetwork getNetsimNetwork() {
+			return QNetwork.this;
+		}
+
+		@Override
+		public void arrangeNextAgentState(MobsimAgent pp) {
+			simEngine.getNetsimInternalInterface().arrangeNextAgentState(pp);
+		}
+
+		@Override
+		public void letVehicleArrive(QVehicle veh) {
+			simEngine.getNetsimInternalInterface().letVehicleArrive(veh);
+		}
+	};
+
 	QNetwork(final Network network, final QNetworkFactory netsimNetworkFactory ) {
 		this.network = network;
 		this.queueNetworkFactory = netsimNetworkFactory;
@@ -62,7 +85,7 @@ public class QNetwork implements NetsimNetwork {
 
 	public void initialize(QNetsimEngineI simEngine, AgentCounter agentCounter, MobsimTimer simTimer) {
 		this.simEngine = simEngine;
-		this.queueNetworkFactory.initializeFactory( agentCounter, simTimer, simEngine.getNetsimInternalInterface());
+		this.queueNetworkFactory.initializeFactory( agentCounter, simTimer, this.netsimInternalInterface );
 		for (Node n : this.network.getNodes().values()) {
 			this.nodes.put(n.getId(), this.queueNetworkFactory.createNetsimNode(n));
 		}
@@ -75,6 +98,42 @@ public class QNetwork implements NetsimNetwork {
 		}
 	}
 	
+	/**
+	 * @return true if all links and nodes can be brought back into their initial state by {@link #reset}.
+	 */
+	boolean isResettable() {
+		if (!(this.queueNetworkFactory instanceof DefaultQNetworkFactory)) {
+			return false;
+		}
+		for (QLinkI link : this.links.values()) {
+			if (link.getClass() != QLinkImpl.class || !((QLinkImpl) link).isResettable()) {
+				return false;
+			}
+		}
+		for (QNodeI node : this.nodes.values()) {
+			if (node.getClass() != QNodeImpl.class) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Prepares the network, which has been used by the mobsim of the last iteration, for the given engine instead of
+	 * creating all links and nodes again.  The vehicles need to be removed from the links before.
+	 */
+	void reset(QNetsimEngineI simEngine, DefaultQNetworkFactory netsimNetworkFactory, AgentCounter agentCounter, MobsimTimer simTimer) {
+		this.simEngine = simEngine;
+		((DefaultQNetworkFactory) this.queueNetworkFactory).resetFactory(netsimNetworkFactory, agentCounter, simTimer);
+		for (Link l : this.network.getLinks().values()) {
+			((QLinkImpl) this.links.get(l.getId())).reset();
+		}
+		// same order as in initialize, as nodes may draw random number generators
+		for (Node n : this.network.getNodes().values()) {
+			((QNodeImpl) this.nodes.get(n.getId())).reset();
+		}
+	}
+
 	@Override
 	public Network getNetwork() {
 		return this.network;
@@ -0,0 +1,84 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import jakarta.inject.Inject;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.core.config.groups.QSimConfigGroup;
+import org.matsim.core.mobsim.framework.MobsimTimer;
+import org.matsim.core.mobsim.qsim.interfaces.AgentCounter;
+
+/**
+ * Keeps the {@link QNetwork} from one iteration to the next if {@link QSimConfigGroup#isReusingNetsimNetwork()} is set.
+ * The netsim engine is created for every mobsim, while this lives in the global injector (see
+ * {@link org.matsim.core.mobsim.qsim.QSimModule}).  The network is handed out again once the mobsim using it has
+ * finished, after links and nodes have been reset in place; only agents and vehicles are then created anew.
+ *
+ * @see QNetwork#reset
+ */
+public final class QNetworkHolder {
+	private static final Logger log = LogManager.getLogger( QNetworkHolder.class );
+
+	private QNetwork qNetwork = null;
+	private boolean inUse = false;
+
+	@Inject QNetworkHolder() {
+	}
+
+	synchronized QNetwork getQNetwork( Network network, QNetworkFactory netsimNetworkFactory, QSimConfigGroup qsimConfig,
+			QNetsimEngineI simEngine, AgentCounter agentCounter, MobsimTimer simTimer ) {
+		if ( qsimConfig.isReusingNetsimNetwork() && this.qNetwork != null && !this.inUse && isStillValid( network, netsimNetworkFactory ) ) {
+			log.info( "reusing the netsim network of the last iteration" );
+			this.qNetwork.reset( simEngine, (DefaultQNetworkFactory) netsimNetworkFactory, agentCounter, simTimer );
+			this.inUse = true;
+			return this.qNetwork;
+		}
+
+		QNetwork newQNetwork = new QNetwork( network, netsimNetworkFactory );
+		newQNetwork.initialize( simEngine, agentCounter, simTimer );
+		if ( qsimConfig.isReusingNetsimNetwork() && !this.inUse ) {
+			if ( newQNetwork.isResettable() ) {
+				this.qNetwork = newQNetwork;
+				this.inUse = true;
+			} else {
+				log.warn( "the netsim network cannot be reused, since it does not only consist of QLinkImpl and QNodeImpl. It is created for every iteration." );
+			}
+		}
+		return newQNetwork;
+	}
+
+	/**
+	 * Called once the mobsim has removed all vehicles from the network.
+	 */
+	synchronized void release( QNetwork qNetwork ) {
+		if ( qNetwork == this.qNetwork ) {
+			this.inUse = false;
+		}
+	}
+
+	private boolean isStillValid( Network network, QNetworkFactory netsimNetworkFactory ) {
+		return this.qNetwork.getNetwork() == network
+				&& netsimNetworkFactory instanceof DefaultQNetworkFactory
+				&& this.qNetwork.getNetsimLinks().size() == network.getLinks().size()
+				&& this.qNetwork.getNetsimNodes().size() == network.getNodes().size();
+	}
+}
@@ -23,8 +23,6 @@ package org.matsim.core.mobsim.qsim.qnetsimengine;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.matsim.api.core.v01.Id;
-import org.matsim.api.core.v01.events.LinkEnterEvent;
-import org.matsim.api.core.v01.events.LinkLeaveEvent;
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.network.Node;
 import org.matsim.core.config.groups.QSimConfigGroup;
@@ -68,7 +66,7 @@ final class QNodeImpl extends AbstractQNode {
 	private final QLinkI[] tempLinks;
 	private Double[] inLinkPriorities;
 	
-	private final Random random;
+	private Random random;
 	private final NetsimEngineContext context;
 	private final NetsimInternalInterface netsimEngine;
 	
@@ -146,6 +144,17 @@ final class QNodeImpl extends AbstractQNode {
 		});
 	}
 
+	@Override
+	void reset() {
+		super.reset();
+		this.inLinkPriorities = null;
+		this.atLeastOneOutgoingLaneIsJammed = false;
+		if (this.context.qsimConfig.getNumberOfThreads() > 1) {
+			// draw a new instance, as a newly created node would do
+			this.random = MatsimRandom.getLocalInstance();
+		}
+	}
+
 	/**
 	 * Moves vehicles from the inlinks' buffer to the outlinks where possible.<br>
 	 * The inLinks are randomly chosen, and for each link all vehicles in the
@@ -430,7 +439,7 @@ final class QNodeImpl extends AbstractQNode {
 	private void moveVehicleFromInlinkToAbort(final QVehicle veh, final QLaneI fromLane, final double now, Id<Link> currentLinkId) {
 		fromLane.popFirstVehicle();
 		// -->
-		this.context.getEventsManager().processEvent(new LinkLeaveEvent(now, veh.getId(), currentLinkId));
+		this.context.getEventsManager().processEvent(this.context.createLinkLeaveEvent(now, veh.getId(), currentLinkId));
 		// <--
 		
 		// first treat the passengers:
@@ -457,13 +466,13 @@ final class QNodeImpl extends AbstractQNode {
 		fromLane.popFirstVehicle();
 		// -->
 		//		network.simEngine.getMobsim().getEventsManager().processEvent(new LaneLeaveEvent(now, veh.getId(), currentLinkId, fromLane.getId()));
-		this.context.getEventsManager().processEvent(new LinkLeaveEvent(now, veh.getId(), currentLinkId));
+		this.context.getEventsManager().processEvent(this.context.createLinkLeaveEvent(now, veh.getId(), currentLinkId));
 		// <--
 		
 		veh.getDriver().notifyMoveOverNode( nextLinkId );
 		
 		// -->
-		this.context.getEventsManager().processEvent(new LinkEnterEvent(now, veh.getId(), nextLinkId));
+		this.context.getEventsManager().processEvent(this.context.createLinkEnterEvent(now, veh.getId(), nextLinkId));
 		// <--
 		nextQueueLane.addFromUpstream(veh);
 	}
@@ -53,6 +53,7 @@ import org.matsim.core.mobsim.qsim.qnetsimengine.flow_efficiency.FlowEfficiencyC
 import org.matsim.core.mobsim.qsim.qnetsimengine.linkspeedcalculator.LinkSpeedCalculator;
 import org.matsim.core.mobsim.qsim.qnetsimengine.vehicleq.FIFOVehicleQ;
 import org.matsim.core.mobsim.qsim.qnetsimengine.vehicleq.PassingVehicleQ;
+import org.matsim.core.mobsim.qsim.qnetsimengine.vehicleq.RingBufferVehicleQ;
 import org.matsim.core.mobsim.qsim.qnetsimengine.vehicleq.VehicleQ;
 import org.matsim.lanes.Lane;
 import org.matsim.vehicles.Vehicle;
@@ -170,6 +171,9 @@ final class QueueWithBuffer implements QLaneI, SignalizeableItem {
 	private final double length ;
 	private double unscaledFlowCapacity_s = Double.NaN ;
 	private double effectiveNumberOfLanes = Double.NaN ;
+	// the values before any network change event, needed when the lane is reset for the next iteration
+	private final double initialUnscaledFlowCapacity_s ;
+	private final double initialEffectiveNumberOfLanes ;
 
 	/**
 	 * Points to the latest vehicle that entered the buffer and the entry time.
@@ -209,6 +213,8 @@ final class QueueWithBuffer implements QLaneI, SignalizeableItem {
 		this.length = length;
 		this.unscaledFlowCapacity_s = flowCapacity_s ;
 		this.effectiveNumberOfLanes = effectiveNumberOfLanes;
+		this.initialUnscaledFlowCapacity_s = flowCapacity_s ;
+		this.initialEffectiveNumberOfLanes = effectiveNumberOfLanes;
 
 //		freespeedTravelTime = this.length / qlink.getLink().getFreespeed();
 //		if (Double.isNaN(freespeedTravelTime)) {
@@ -256,6 +262,11 @@ final class QueueWithBuffer implements QLaneI, SignalizeableItem {
     private void moveQueueToBuffer() {
         double now = context.getSimTimer().getTimeOfDay();
 
+        if (vehQueue instanceof RingBufferVehicleQ ringBuffer && ringBuffer.peekEarliestLinkExitTime() > now) {
+            // the first vehicle cannot leave yet, no need to look at the vehicle itself
+            return;
+        }
+
         QVehicle veh;
         while ((veh = peekFromVehQueue()) != null) {
             //we have an original QueueLink behaviour
@@ -648,6 +659,9 @@ final class QueueWithBuffer implements QLaneI, SignalizeableItem {
 		//		QVehicle veh = vehQueue.poll();
 		//		usedStorageCapacity -= veh.getSizeInEquivalents();
 
+		final double sizeInEquivalents = vehQueue instanceof RingBufferVehicleQ ringBuffer && ringBuffer.peek() == veh2Remove ?
+				ringBuffer.peekSizeInEquivalents() : veh2Remove.getSizeInEquivalents();
+
 		QVehicle veh = pollFromVehQueue(veh2Remove);
 
 		if(context.qsimConfig.getLinkDynamics()==LinkDynamics.SeepageQ
@@ -655,7 +669,7 @@ final class QueueWithBuffer implements QLaneI, SignalizeableItem {
 				&& context.qsimConfig.getSeepModes().contains(veh.getVehicle().getType().getId().toString()) ){
 			// do nothing
 		} else {
-			usedStorageCapacity -= veh.getSizeInEquivalents();
+			usedStorageCapacity -= sizeInEquivalents;
 		}
 
 		switch (context.qsimConfig.getTrafficDynamics()) {
@@ -681,7 +695,7 @@ final class QueueWithBuffer implements QLaneI, SignalizeableItem {
 				//			double ttimeOfHoles = 0.1 * this.storageCapacity/this.flowCapacityPerTimeStep/nLanes ;
 
 				hole.setEarliestLinkExitTime( now + 1.0*ttimeOfHoles + 0.0*MatsimRandom.getRandom().nextDouble()*ttimeOfHoles ) ;
-				hole.setSizeInEquivalents(veh2Remove.getSizeInEquivalents());
+				hole.setSizeInEquivalents(sizeInEquivalents);
 				holes.add( hole ) ;
 				break;
 			default: throw new RuntimeException("The traffic dynmics "+context.qsimConfig.getTrafficDynamics()+" is not implemented yet.");
@@ -878,6 +892,30 @@ final class QueueWithBuffer implements QLaneI, SignalizeableItem {
 		this.remainingHolesStorageCapacity = this.storageCapacity;
     }
 
+	/**
+	 * Brings the lane back into the state it had after construction, so that it can be used by the mobsim of the next
+	 * iteration.  The vehicles need to be removed by {@link #clearVehicles()} before.
+	 */
+	void reset() {
+		this.unscaledFlowCapacity_s = this.initialUnscaledFlowCapacity_s ;
+		this.effectiveNumberOfLanes = this.initialEffectiveNumberOfLanes ;
+		this.calculateFlowCapacity();
+		this.calculateStorageCapacity();
+		this.flowcap_accumulate.setTimeStep(0.);
+		this.flowcap_accumulate.setValue(flowCapacityPerTimeStep);
+
+		this.usedStorageCapacity = 0. ;
+		this.remainingHolesStorageCapacity = 0. ;
+		this.holes.clear();
+		this.bufferLastMovedTime = Double.NEGATIVE_INFINITY ;
+		this.lastBufferEntry = null ;
+		this.lastQueueEntry = null ;
+		this.accumulatedInflowCap = 1. ;
+		this.thisTimeStepGreen = true ;
+		this.qSignalizedItem = null ;
+		this.noOfSeepModeBringFwd = 0 ;
+	}
+
     private double getFlowCapacityConsumptionInEquivalents(QVehicle vehicle, QVehicle prevVehicle, Double timeDiff) {
         double flowEfficiency = flowEfficiencyCalculator.calculateFlowEfficiency(vehicle, prevVehicle, timeDiff, qLink.getLink(), id);
         return vehicle.getSizeInEquivalents() / flowEfficiency;
@@ -1078,6 +1116,8 @@ final class QueueWithBuffer implements QLaneI, SignalizeableItem {
             if (context.qsimConfig.getLinkDynamics() == QSimConfigGroup.LinkDynamics.PassingQ ||
                     context.qsimConfig.getLinkDynamics() == QSimConfigGroup.LinkDynamics.SeepageQ) {
                 this.vehicleQueue = new PassingVehicleQ();
+            } else if (context.qsimConfig.getVehicleQueue() == QSimConfigGroup.VehicleQueue.ringBuffer) {
+                this.vehicleQueue = new RingBufferVehicleQ();
             }
         }
 
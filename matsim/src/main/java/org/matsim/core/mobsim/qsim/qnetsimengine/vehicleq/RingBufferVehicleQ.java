@@ -0,0 +1,209 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.qsim.qnetsimengine.vehicleq;
+
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.matsim.core.mobsim.qsim.qnetsimengine.QVehicle;
+
+/**
+ * FIFO vehicle queue backed by a growing ring buffer. The earliest link exit time and the size in PCE of every vehicle
+ * are kept in parallel primitive arrays, so the link can check whether its first vehicle may leave without touching the
+ * vehicle object.  Compared to {@link FIFOVehicleQ} there is no list node per queued vehicle.
+ * <p>
+ * The cached exit time is taken when the vehicle is added.  The only place where the exit time of a queued vehicle is
+ * changed afterwards is a transit stop that blocks the lane, and it only ever delays the vehicle.  Thus
+ * {@link #peekEarliestLinkExitTime()} is a lower bound of the exit time of the first vehicle.
+ */
+public final class RingBufferVehicleQ extends AbstractQueue<QVehicle> implements VehicleQ<QVehicle> {
+
+	private static final int INITIAL_CAPACITY = 8;
+
+	private QVehicle[] vehicles = new QVehicle[INITIAL_CAPACITY];
+	private double[] earliestLinkExitTimes = new double[INITIAL_CAPACITY];
+	private double[] sizesInEquivalents = new double[INITIAL_CAPACITY];
+	// capacity is always a power of two
+	private int mask = INITIAL_CAPACITY - 1;
+	private int head = 0;
+	private int size = 0;
+	private int modCount = 0;
+
+	@Override
+	public boolean offer(QVehicle veh) {
+		ensureCapacity();
+		set((head + size) & mask, veh);
+		size++;
+		modCount++;
+		return true;
+	}
+
+	@Override
+	public void addFirst(QVehicle veh) {
+		ensureCapacity();
+		head = (head - 1) & mask;
+		set(head, veh);
+		size++;
+		modCount++;
+	}
+
+	@Override
+	public QVehicle peek() {
+		return size == 0 ? null : vehicles[head];
+	}
+
+	/**
+	 * @return the earliest link exit time of the first vehicle at the time it was added, or
+	 * {@link Double#POSITIVE_INFINITY} if the queue is empty.
+	 */
+	public double peekEarliestLinkExitTime() {
+		return size == 0 ? Double.POSITIVE_INFINITY : earliestLinkExitTimes[head];
+	}
+
+	/**
+	 * @return the size in PCE of the first vehicle, or 0 if the queue is empty.
+	 */
+	public double peekSizeInEquivalents() {
+		return size == 0 ? 0 : sizesInEquivalents[head];
+	}
+
+	@Override
+	public QVehicle poll() {
+		if (size == 0) {
+			return null;
+		}
+		QVehicle veh = vehicles[head];
+		vehicles[head] = null;
+		head = (head + 1) & mask;
+		size--;
+		modCount++;
+		return veh;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		for (int i = 0; i < size; i++) {
+			if (vehicles[(head + i) & mask] == o) {
+				removeAt(i);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(vehicles, null);
+		head = 0;
+		size = 0;
+		modCount++;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public Iterator<QVehicle> iterator() {
+		return new Iterator<>() {
+			private int next = 0;
+			private int last = -1;
+			private int expectedModCount = modCount;
+
+			@Override
+			public boolean hasNext() {
+				return next < size;
+			}
+
+			@Override
+			public QVehicle next() {
+				if (expectedModCount != modCount) {
+					throw new ConcurrentModificationException();
+				}
+				if (next >= size) {
+					throw new NoSuchElementException();
+				}
+				last = next++;
+				return vehicles[(head + last) & mask];
+			}
+
+			@Override
+			public void remove() {
+				if (last < 0) {
+					throw new IllegalStateException();
+				}
+				if (expectedModCount != modCount) {
+					throw new ConcurrentModificationException();
+				}
+				removeAt(last);
+				next = last;
+				last = -1;
+				expectedModCount = modCount;
+			}
+		};
+	}
+
+	private void set(int index, QVehicle veh) {
+		vehicles[index] = veh;
+		earliestLinkExitTimes[index] = veh.getEarliestLinkExitTime();
+		sizesInEquivalents[index] = veh.getSizeInEquivalents();
+	}
+
+	// removes the i-th vehicle of the queue by moving all vehicles behind it one position forward
+	private void removeAt(int i) {
+		for (int j = i; j < size - 1; j++) {
+			int to = (head + j) & mask;
+			int from = (head + j + 1) & mask;
+			vehicles[to] = vehicles[from];
+			earliestLinkExitTimes[to] = earliestLinkExitTimes[from];
+			sizesInEquivalents[to] = sizesInEquivalents[from];
+		}
+		vehicles[(head + size - 1) & mask] = null;
+		size--;
+		modCount++;
+	}
+
+	private void ensureCapacity() {
+		if (size < vehicles.length) {
+			return;
+		}
+		int capacity = vehicles.length * 2;
+		QVehicle[] newVehicles = new QVehicle[capacity];
+		double[] newExitTimes = new double[capacity];
+		double[] newSizes = new double[capacity];
+		// unwrap the ring so that the first vehicle ends up at index 0
+		int firstPart = vehicles.length - head;
+		System.arraycopy(vehicles, head, newVehicles, 0, firstPart);
+		System.arraycopy(vehicles, 0, newVehicles, firstPart, head);
+		System.arraycopy(earliestLinkExitTimes, head, newExitTimes, 0, firstPart);
+		System.arraycopy(earliestLinkExitTimes, 0, newExitTimes, firstPart, head);
+		System.arraycopy(sizesInEquivalents, head, newSizes, 0, firstPart);
+		System.arraycopy(sizesInEquivalents, 0, newSizes, firstPart, head);
+		vehicles = newVehicles;
+		earliestLinkExitTimes = newExitTimes;
+		sizesInEquivalents = newSizes;
+		mask = capacity - 1;
+		head = 0;
+	}
+
+}
@@ -0,0 +1,164 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.config.groups.RoutingConfigGroup;
+import org.matsim.core.controler.events.IterationStartsEvent;
+import org.matsim.core.controler.listener.IterationStartsListener;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.vehicles.Vehicle;
+import org.matsim.vehicles.VehicleType;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers the least cost paths of network routes, so that agents with the same origin node, destination node and
+ * departure time bin share one calculated path. This helps especially with synthetic populations, where many agents
+ * have the same origin and destination links and similar departure times.
+ *
+ * The cache is shared by all routing threads and evicts the least recently used paths when it is full. It is cleared
+ * at the start of each iteration, as the travel times change with every mobsim.
+ *
+ * The cached path does not depend on the person, so the cache must only be used if the travel disutility is the same
+ * for all persons, e.g. with {@link RoutingConfigGroup#getRoutingRandomness()} set to 0. Paths are cached per vehicle
+ * type, as the travel times may depend on the maximum velocity of the vehicle. Within a time bin, the path of the first
+ * request is also returned for later departures, so the travel time is only as accurate as the time bin size.
+ */
+@Singleton
+public final class NetworkRouteCache implements IterationStartsListener {
+
+	private static final Logger log = LogManager.getLogger(NetworkRouteCache.class);
+
+	private static final int SEGMENTS_COUNT = 16;
+
+	private final double timeBinSize;
+	private final Segment[] segments;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	@Inject
+	NetworkRouteCache(RoutingConfigGroup config) {
+		this(config.getNetworkRouteCacheSize(), config.getNetworkRouteCacheTimeBinSize());
+		if (isEnabled() && config.getRoutingRandomness() != 0) {
+			log.warn("The network route cache shares routes between persons, so the routing randomness of " + config.getRoutingRandomness()
+					+ " only applies to the person who requested a route first. Consider setting the routing randomness to 0.");
+		}
+	}
+
+	/**
+	 * @param maxSize the maximal number of cached paths, 0 to disable the cache.
+	 * @param timeBinSize departures within the same time bin of this size (in seconds) share the path.
+	 */
+	public NetworkRouteCache(int maxSize, double timeBinSize) {
+		this.timeBinSize = timeBinSize;
+		if (maxSize <= 0) {
+			this.segments = null;
+		} else {
+			int segmentSize = Math.max(1, maxSize / SEGMENTS_COUNT);
+			this.segments = new Segment[SEGMENTS_COUNT];
+			for (int i = 0; i < SEGMENTS_COUNT; i++) {
+				this.segments[i] = new Segment(segmentSize);
+			}
+		}
+	}
+
+	public boolean isEnabled() {
+		return this.segments != null;
+	}
+
+	/**
+	 * @param name identifies the network and the travel disutility of the calculator, typically the routing mode.
+	 * @return a calculator that returns cached paths where possible, and the given calculator if the cache is disabled.
+	 */
+	public LeastCostPathCalculator wrap(String name, LeastCostPathCalculator calculator) {
+		if (!isEnabled()) {
+			return calculator;
+		}
+		return (fromNode, toNode, starttime, person, vehicle) -> getPath(name, calculator, fromNode, toNode, starttime, person, vehicle);
+	}
+
+	private LeastCostPathCalculator.Path getPath(String name, LeastCostPathCalculator calculator, Node fromNode, Node toNode, double starttime, Person person, Vehicle vehicle) {
+		Id<VehicleType> vehicleTypeId = vehicle == null || vehicle.getType() == null ? null : vehicle.getType().getId();
+		Key key = new Key(name, fromNode.getId().index(), toNode.getId().index(), (int) Math.floor(starttime / this.timeBinSize), vehicleTypeId);
+		Segment segment = this.segments[Math.floorMod(key.hashCode(), SEGMENTS_COUNT)];
+		LeastCostPathCalculator.Path path;
+		synchronized (segment) {
+			path = segment.get(key);
+		}
+		if (path != null) {
+			this.hits.increment();
+			return path;
+		}
+		this.misses.increment();
+		// calculate outside of the lock, it does not matter if two threads calculate the same path at the same time
+		path = calculator.calcLeastCostPath(fromNode, toNode, starttime, person, vehicle);
+		if (path != null) {
+			synchronized (segment) {
+				segment.put(key, path);
+			}
+		}
+		return path;
+	}
+
+	public void clear() {
+		if (isEnabled()) {
+			for (Segment segment : this.segments) {
+				synchronized (segment) {
+					segment.clear();
+				}
+			}
+		}
+	}
+
+	@Override
+	public void notifyIterationStarts(IterationStartsEvent event) {
+		if (isEnabled()) {
+			log.info("network route cache: " + this.hits.sumThenReset() + " hits, " + this.misses.sumThenReset() + " misses.");
+			clear();
+		}
+	}
+
+	private record Key(String name, int fromNodeIndex, int toNodeIndex, int timeBin, Id<VehicleType> vehicleTypeId) {
+	}
+
+	private static final class Segment extends LinkedHashMap<Key, LeastCostPathCalculator.Path> {
+
+		private final int maxSize;
+
+		Segment(int maxSize) {
+			super(16, 0.75f, true);
+			this.maxSize = maxSize;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, LeastCostPathCalculator.Path> eldest) {
+			return size() > this.maxSize;
+		}
+	}
+}
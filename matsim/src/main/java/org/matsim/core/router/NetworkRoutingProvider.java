@@ -62,6 +62,7 @@ public class NetworkRoutingProvider implements Provider<RoutingModule>{
 	@Inject Scenario scenario ;
 	@Inject TimeInterpretation timeInterpretation;
 	@Inject MultimodalLinkChooser multimodalLinkChooser;
+	@Inject NetworkRouteCache networkRouteCache;
 	@Inject
 	@Named(TransportMode.walk)
 	private RoutingModule walkRouter;
@@ -126,8 +127,10 @@ public class NetworkRoutingProvider implements Provider<RoutingModule>{
 		LeastCostPathCalculator routeAlgo =
 				leastCostPathCalculatorFactory.createPathCalculator(
 						filteredNetwork,
-						travelDisutilityFactory.createTravelDisutility(travelTime),
+						travelDisutilityFactory,
 						travelTime);
+		// the cached paths depend on the network of the mode and the travel disutility of the routing mode:
+		routeAlgo = this.networkRouteCache.wrap(mode + "|" + routingMode, routeAlgo);
 
 		// the following again refers to the (transport)mode, since it will determine the mode of the leg on the network:
 		if ( !routingConfigGroup.getAccessEgressType().equals(RoutingConfigGroup.AccessEgressType.none) ) {
@@ -22,6 +22,7 @@
 
 package org.matsim.core.router;
 
+import com.google.inject.Singleton;
 import org.matsim.core.config.groups.RoutingConfigGroup;
 import org.matsim.core.controler.AbstractModule;
 import org.matsim.core.network.algorithms.NetworkTurnInfoBuilder;
@@ -47,6 +48,8 @@ public class TripRouterModule extends AbstractModule {
         install(new LeastCostPathCalculatorModule());
         install(new TransitRouterModule());
         bind(SingleModeNetworksCache.class).asEagerSingleton();
+        bind(NetworkRouteCache.class).in(Singleton.class);
+        addControlerListenerBinding().to(NetworkRouteCache.class);
         RoutingConfigGroup routeConfigGroup = getConfig().routing();
         for (String mode : routeConfigGroup.getTeleportedModeFreespeedFactors().keySet()) {
             if (getConfig().transit().isUseTransit() && getConfig().transit().getTransitModes().contains(mode)) {
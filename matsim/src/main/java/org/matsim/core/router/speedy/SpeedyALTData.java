@@ -6,7 +6,10 @@ import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.network.Node;
 import org.matsim.core.router.speedy.SpeedyGraph.LinkIterator;
 import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.utils.io.MappedFileCache;
 
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
@@ -18,6 +21,9 @@ import java.util.concurrent.Future;
 /**
  * Preprocessed data for the ALT algorithm, see {@link SpeedyALT}.
  *
+ * If a cache directory is given, the landmarks and dead-ends are stored there, and are loaded from there instead of
+ * being calculated again when the same network and minimal travel disutilities are used later on.
+ *
  * This class is thread-safe and can safely be used by multiple threads.
  *
  * @author mrieser / Simunto, sponsored by SBB Swiss Federal Railways
@@ -26,6 +32,9 @@ class SpeedyALTData {
 
 	private final static Logger LOG = LogManager.getLogger(SpeedyALTData.class);
 
+	private final static String CACHE_NAME = "speedyALT";
+	private final static int CACHE_VERSION = 1;
+
 	final SpeedyGraph graph;
 	private final int landmarksCount;
 	private final TravelDisutility travelCosts;
@@ -35,6 +44,10 @@ class SpeedyALTData {
 	private final double minTravelCostPerLength;
 
 	public SpeedyALTData(SpeedyGraph graph, int landmarksCount, TravelDisutility travelCosts) {
+		this(graph, landmarksCount, travelCosts, null);
+	}
+
+	public SpeedyALTData(SpeedyGraph graph, int landmarksCount, TravelDisutility travelCosts, String cacheDirectory) {
 		this.graph = graph;
 		this.landmarksCount = landmarksCount;
 		this.travelCosts = travelCosts;
@@ -42,11 +55,56 @@ class SpeedyALTData {
 		this.nodesData = new double[graph.nodeCount * (landmarksCount * 2)];
 		this.deadendData = new int[graph.nodeCount];
 
-		this.findDeadEnds();
-		this.calcLandmarks();
+		if (cacheDirectory == null) {
+			this.findDeadEnds();
+			this.calcLandmarks();
+		} else {
+			long key = this.calcCacheKey();
+			Path file = MappedFileCache.getFile(cacheDirectory, CACHE_NAME, key);
+			ByteBuffer cached = MappedFileCache.read(file, CACHE_NAME, CACHE_VERSION, key);
+			if (cached != null) {
+				cached.asIntBuffer().get(this.landmarksNodeIndices).get(this.deadendData);
+				cached.position(cached.position() + 4 * (this.landmarksNodeIndices.length + this.deadendData.length));
+				cached.asDoubleBuffer().get(this.nodesData);
+			} else {
+				this.findDeadEnds();
+				this.calcLandmarks();
+				long size = 4L * (this.landmarksNodeIndices.length + this.deadendData.length) + 8L * this.nodesData.length;
+				MappedFileCache.write(file, CACHE_NAME, CACHE_VERSION, key, size, buffer -> {
+					buffer.asIntBuffer().put(this.landmarksNodeIndices).put(this.deadendData);
+					buffer.position(buffer.position() + 4 * (this.landmarksNodeIndices.length + this.deadendData.length));
+					buffer.asDoubleBuffer().put(this.nodesData);
+					buffer.position(buffer.position() + 8 * this.nodesData.length);
+				});
+			}
+		}
 		this.minTravelCostPerLength = this.calcMinTravelCostPerLength();
 	}
 
+	/**
+	 * The data is stored by node index, so the key contains the ids of all nodes and links at their index.
+	 */
+	private long calcCacheKey() {
+		MappedFileCache.KeyBuilder key = new MappedFileCache.KeyBuilder();
+		key.add(this.landmarksCount).add(this.graph.nodeCount).add(this.graph.linkCount);
+		for (int nodeIdx = 0; nodeIdx < this.graph.nodeCount; nodeIdx++) {
+			Node node = this.graph.getNode(nodeIdx);
+			key.add(node == null ? null : node.getId().toString());
+		}
+		for (int linkIdx = 0; linkIdx < this.graph.linkCount; linkIdx++) {
+			Link link = this.graph.getLink(linkIdx);
+			if (link == null) {
+				key.add((String) null);
+			} else {
+				key.add(link.getId().toString())
+						.add(link.getFromNode().getId().index())
+						.add(link.getToNode().getId().index())
+						.add(this.travelCosts.getLinkMinimumTravelDisutility(link));
+			}
+		}
+		return key.build();
+	}
+
 	private void findDeadEnds() {
 		LOG.info("find dead ends...");
 
@@ -1,6 +1,8 @@
 package org.matsim.core.router.speedy;
 
+import jakarta.inject.Inject;
 import org.matsim.api.core.v01.network.Network;
+import org.matsim.core.config.Config;
 import org.matsim.core.router.util.LeastCostPathCalculator;
 import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
 import org.matsim.core.router.util.TravelDisutility;
@@ -16,6 +18,23 @@ public class SpeedyALTFactory implements LeastCostPathCalculatorFactory {
 
 	private final Map<Network, SpeedyGraph> graphs = new ConcurrentHashMap<>();
 	private final Map<SpeedyGraph, SpeedyALTData> landmarksData = new ConcurrentHashMap<>();
+	private final String cacheDirectory;
+
+	public SpeedyALTFactory() {
+		this((String) null);
+	}
+
+	@Inject
+	public SpeedyALTFactory(Config config) {
+		this(config.global().getPreprocessingCacheDirectory());
+	}
+
+	/**
+	 * @param cacheDirectory where the landmarks are cached, see {@link SpeedyALTData}. May be <code>null</code>.
+	 */
+	public SpeedyALTFactory(String cacheDirectory) {
+		this.cacheDirectory = cacheDirectory;
+	}
 
 	@Override
 	public LeastCostPathCalculator createPathCalculator(Network network, TravelDisutility travelCosts, TravelTime travelTimes) {
@@ -27,7 +46,7 @@ public class SpeedyALTFactory implements LeastCostPathCalculatorFactory {
 		SpeedyALTData landmarks = this.landmarksData.get(graph);
 		if (landmarks == null) {
 			int landmarksCount = Math.min(16, graph.nodeCount);
-			landmarks = new SpeedyALTData(graph, landmarksCount, travelCosts);
+			landmarks = new SpeedyALTData(graph, landmarksCount, travelCosts, this.cacheDirectory);
 			this.landmarksData.put(graph, landmarks);
 		}
 		return new SpeedyALT(landmarks, travelTimes, travelCosts);
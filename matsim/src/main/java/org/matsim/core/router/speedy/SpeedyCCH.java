@@ -0,0 +1,241 @@
+package org.matsim.core.router.speedy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.vehicles.Vehicle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A least cost path calculator based on Customizable Contraction Hierarchies (CCH).
+ *
+ * Based on "Customizable Contraction Hierarchies" by Julian Dibbelt, Ben Strasser and Dorothea Wagner, 2016.
+ *
+ * A query only relaxes the arcs of the nodes on the way from the start and the end node to the root of the elimination
+ * tree, using the weights customized for the time bucket of the departure time (see {@link SpeedyCCHMetric}). The
+ * resulting path is unpacked to links, and its travel time and cost are then calculated link by link with the actual
+ * travel time and disutility, the person and the vehicle. Thus, the route choice itself is only as time-dependent as
+ * the time buckets are, and does not depend on the person or the vehicle.
+ *
+ * This implementation is not thread-safe. In the case of multi-threading, every thread should use
+ * a separate instance. (But the used {@link SpeedyCCHData} and {@link SpeedyCCHMetric} are thread-safe and can be
+ * shared by multiple instances).
+ */
+public class SpeedyCCH implements LeastCostPathCalculator {
+
+	private final static Logger LOG = LogManager.getLogger(SpeedyCCH.class);
+
+	private final SpeedyGraph graph;
+	private final SpeedyCCHData data;
+	final SpeedyCCHMetric metric;
+	private final TravelTime tt;
+	private final TravelDisutility td;
+	private final float[] forwardCost;
+	private final float[] backwardCost;
+	private final int[] forwardArc;
+	private final int[] backwardArc;
+	private int currentIteration = Integer.MIN_VALUE;
+	private final int[] iterationIds;
+	private final int[] arcStack;
+	private final SpeedyGraph.LinkIterator outLI;
+
+	public SpeedyCCH(SpeedyCCHMetric metric, TravelTime tt, TravelDisutility td) {
+		this.data = metric.data;
+		this.graph = this.data.graph;
+		this.metric = metric;
+		this.tt = tt;
+		this.td = td;
+		this.forwardCost = new float[this.data.nodeCount];
+		this.backwardCost = new float[this.data.nodeCount];
+		this.forwardArc = new int[this.data.nodeCount];
+		this.backwardArc = new int[this.data.nodeCount];
+		this.iterationIds = new int[this.data.nodeCount];
+		this.arcStack = new int[2 * this.data.nodeCount];
+		this.outLI = this.graph.getOutLinkIterator();
+		Arrays.fill(this.iterationIds, this.currentIteration);
+	}
+
+	@Override
+	public Path calcLeastCostPath(Node startNode, Node endNode, double startTime, Person person, Vehicle vehicle) {
+		this.currentIteration++;
+		if (this.currentIteration == Integer.MAX_VALUE) {
+			// reset iteration as we overflow
+			Arrays.fill(this.iterationIds, this.currentIteration);
+			this.currentIteration = Integer.MIN_VALUE;
+		}
+		int source = getRank(startNode);
+		int target = getRank(endNode);
+		SpeedyCCHMetric.Weights weights = this.metric.getWeights(startTime);
+		float[] w = weights.weights;
+
+		// the forward search marks all ancestors of the source as visited in this iteration
+		for (int v = source; v >= 0; v = this.data.parent[v]) {
+			this.forwardCost[v] = Float.POSITIVE_INFINITY;
+			this.iterationIds[v] = this.currentIteration;
+		}
+		for (int v = target; v >= 0; v = this.data.parent[v]) {
+			this.backwardCost[v] = Float.POSITIVE_INFINITY;
+		}
+		this.forwardCost[source] = 0;
+		this.forwardArc[source] = -1;
+		this.backwardCost[target] = 0;
+		this.backwardArc[target] = -1;
+
+		for (int v = source; v >= 0; v = this.data.parent[v]) {
+			float cost = this.forwardCost[v];
+			if (cost == Float.POSITIVE_INFINITY) {
+				continue;
+			}
+			for (int arc = this.data.upStart[v], end = this.data.upStart[v + 1]; arc < end; arc++) {
+				int head = this.data.upHead[arc];
+				float newCost = cost + w[2 * arc];
+				if (newCost < this.forwardCost[head]) {
+					this.forwardCost[head] = newCost;
+					this.forwardArc[head] = arc;
+				}
+			}
+		}
+
+		int meeting = -1;
+		float best = Float.POSITIVE_INFINITY;
+		for (int v = target; v >= 0; v = this.data.parent[v]) {
+			float cost = this.backwardCost[v];
+			if (cost == Float.POSITIVE_INFINITY) {
+				continue;
+			}
+			if (this.iterationIds[v] == this.currentIteration && this.forwardCost[v] + cost < best) {
+				best = this.forwardCost[v] + cost;
+				meeting = v;
+			}
+			for (int arc = this.data.upStart[v], end = this.data.upStart[v + 1]; arc < end; arc++) {
+				int head = this.data.upHead[arc];
+				float newCost = cost + w[2 * arc + 1];
+				if (newCost < this.backwardCost[head]) {
+					this.backwardCost[head] = newCost;
+					this.backwardArc[head] = arc;
+				}
+			}
+		}
+
+		if (meeting >= 0) {
+			return constructPath(source, meeting, weights, startTime, person, vehicle);
+		}
+		LOG.warn("No route was found from node " + startNode.getId() + " to node " + endNode.getId() + ". Some possible reasons:");
+		LOG.warn("  * Network is not connected.  Run NetworkCleaner().") ;
+		LOG.warn("  * Network for considered mode does not even exist.  Modes need to be entered for each link in network.xml.");
+		LOG.warn("  * Network for considered mode is not connected to starting or ending point of route.  Setting insertingAccessEgressWalk to true may help.");
+		LOG.warn("This will now return null, but it may fail later with a NullPointerException.");
+		return null;
+	}
+
+	private int getRank(Node node) {
+		int nodeIndex = node.getId().index();
+		int rank = nodeIndex < this.data.nodeToRank.length ? this.data.nodeToRank[nodeIndex] : -1;
+		if (rank < 0) {
+			throw new IllegalArgumentException("Node " + node.getId() + " is not part of the network the CCH was built for.");
+		}
+		return rank;
+	}
+
+	private Path constructPath(int source, int meeting, SpeedyCCHMetric.Weights weights, double startTime, Person person, Vehicle vehicle) {
+		// collect the arcs from the source to the meeting node, and from there to the target, in the order of travel
+		// they are stored as weight indices, i.e. 2 * arc for upwards and 2 * arc + 1 for downwards
+		int size = 0;
+		for (int v = meeting; v != source; v = this.data.arcTail[this.forwardArc[v]]) {
+			this.arcStack[size++] = 2 * this.forwardArc[v];
+		}
+		reverse(this.arcStack, 0, size);
+		for (int v = meeting; this.backwardArc[v] >= 0; v = this.data.arcTail[this.backwardArc[v]]) {
+			this.arcStack[size++] = 2 * this.backwardArc[v] + 1;
+		}
+		// process the arcs with a stack, so the last arc of the path has to be at the bottom
+		reverse(this.arcStack, 0, size);
+
+		List<Node> nodes = new ArrayList<>();
+		List<Link> links = new ArrayList<>();
+		nodes.add(this.graph.getNode(this.data.rankToNode[source]));
+		float[] w = weights.weights;
+		double time = startTime;
+		double cost = 0;
+		while (size > 0) {
+			int index = this.arcStack[--size];
+			int arc = index >> 1;
+			boolean up = (index & 1) == 0;
+			int lower = this.data.arcTail[arc];
+			int higher = this.data.upHead[arc];
+			if (weights.isOriginal(index)) {
+				Link link = up ? findLink(lower, higher, time, person, vehicle) : findLink(higher, lower, time, person, vehicle);
+				cost += this.td.getLinkTravelDisutility(link, time, person, vehicle);
+				time += this.tt.getLinkTravelTime(link, time, person, vehicle);
+				links.add(link);
+				nodes.add(link.getToNode());
+			} else {
+				// a shortcut: find the lower triangle it was derived from and push its two arcs
+				int bestArcIL = -1;
+				int bestArcIH = -1;
+				float bestWeight = Float.POSITIVE_INFINITY;
+				for (int pos = this.data.downStart[lower], end = this.data.downStart[lower + 1]; pos < end; pos++) {
+					int arcIH = this.data.findArc(this.data.downTail[pos], higher);
+					if (arcIH < 0) {
+						continue;
+					}
+					int arcIL = this.data.downArc[pos];
+					float weight = up ? w[2 * arcIL + 1] + w[2 * arcIH] : w[2 * arcIH + 1] + w[2 * arcIL];
+					if (weight < bestWeight) {
+						bestWeight = weight;
+						bestArcIL = arcIL;
+						bestArcIH = arcIH;
+					}
+				}
+				if (up) {
+					// lower -> i -> higher
+					this.arcStack[size++] = 2 * bestArcIH;
+					this.arcStack[size++] = 2 * bestArcIL + 1;
+				} else {
+					// higher -> i -> lower
+					this.arcStack[size++] = 2 * bestArcIL;
+					this.arcStack[size++] = 2 * bestArcIH + 1;
+				}
+			}
+		}
+
+		return new Path(nodes, links, time - startTime, cost);
+	}
+
+	/**
+	 * @return the cheapest link between the two nodes, given by rank.
+	 */
+	private Link findLink(int fromRank, int toRank, double time, Person person, Vehicle vehicle) {
+		int toNodeIdx = this.data.rankToNode[toRank];
+		Link bestLink = null;
+		double bestCost = Double.POSITIVE_INFINITY;
+		this.outLI.reset(this.data.rankToNode[fromRank]);
+		while (this.outLI.next()) {
+			if (this.outLI.getToNodeIndex() == toNodeIdx) {
+				Link link = this.graph.getLink(this.outLI.getLinkIndex());
+				double cost = this.td.getLinkTravelDisutility(link, time, person, vehicle);
+				if (bestLink == null || cost < bestCost) {
+					bestLink = link;
+					bestCost = cost;
+				}
+			}
+		}
+		return bestLink;
+	}
+
+	private static void reverse(int[] values, int from, int to) {
+		for (int i = from, j = to - 1; i < j; i++, j--) {
+			int tmp = values[i];
+			values[i] = values[j];
+			values[j] = tmp;
+		}
+	}
+}
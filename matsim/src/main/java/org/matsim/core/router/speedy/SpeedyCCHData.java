@@ -0,0 +1,371 @@
+package org.matsim.core.router.speedy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Node;
+
+import java.util.Arrays;
+
+/**
+ * The metric-independent part of a Customizable Contraction Hierarchy (CCH) for a {@link SpeedyGraph}, see {@link SpeedyCCH}.
+ *
+ * Based on "Customizable Contraction Hierarchies" by Julian Dibbelt, Ben Strasser and Dorothea Wagner, 2016.
+ *
+ * The nodes are ordered by a nested dissection of the network: the network is recursively split in two halves along
+ * the longer extent of its coordinates, and the nodes separating the two halves get the higher ranks. The graph is
+ * then contracted in this order without looking at any travel costs, which results in a chordal supergraph of the
+ * (undirected) network. Every edge of this graph is stored as one arc at its lower ranked node, the arcs of a node
+ * are sorted by the rank of their head. Internally, nodes are identified by their rank.
+ *
+ * This class is thread-safe and can safely be used by multiple threads.
+ */
+class SpeedyCCHData {
+
+	private final static Logger LOG = LogManager.getLogger(SpeedyCCHData.class);
+
+	final SpeedyGraph graph;
+	final int nodeCount;
+	final int arcCount;
+	final int[] rankToNode;
+	final int[] nodeToRank;
+	/** the arcs of rank r are <code>upStart[r] ... upStart[r+1]-1</code> */
+	final int[] upStart;
+	final int[] upHead;
+	final int[] arcTail;
+	/** the lower neighbors of rank r and the arc connecting them are at <code>downStart[r] ... downStart[r+1]-1</code> */
+	final int[] downStart;
+	final int[] downTail;
+	final int[] downArc;
+	/** the parent of each rank in the elimination tree, i.e. the lowest ranked upper neighbor, or -1 */
+	final int[] parent;
+	/** for each link: <code>2 * arc</code> if the link leads upwards, <code>2 * arc + 1</code> if downwards, -1 if unused */
+	final int[] linkArc;
+
+	SpeedyCCHData(SpeedyGraph graph) {
+		this.graph = graph;
+
+		int count = 0;
+		for (int nodeIdx = 0; nodeIdx < graph.nodeCount; nodeIdx++) {
+			if (graph.getNode(nodeIdx) != null) {
+				count++;
+			}
+		}
+		this.nodeCount = count;
+
+		LOG.info("computing CCH node order for " + this.nodeCount + " nodes...");
+		int[][] adjacency = buildAdjacency();
+		this.rankToNode = new NestedDissection(adjacency).order();
+		this.nodeToRank = new int[graph.nodeCount];
+		Arrays.fill(this.nodeToRank, -1);
+		for (int rank = 0; rank < this.nodeCount; rank++) {
+			this.nodeToRank[this.rankToNode[rank]] = rank;
+		}
+
+		LOG.info("contracting CCH...");
+		int[][] up = contract(adjacency);
+		this.parent = new int[this.nodeCount];
+		this.upStart = new int[this.nodeCount + 1];
+		for (int rank = 0; rank < this.nodeCount; rank++) {
+			this.parent[rank] = up[rank].length > 0 ? up[rank][0] : -1;
+			this.upStart[rank + 1] = this.upStart[rank] + up[rank].length;
+		}
+		this.arcCount = this.upStart[this.nodeCount];
+		this.upHead = new int[this.arcCount];
+		this.arcTail = new int[this.arcCount];
+		for (int rank = 0; rank < this.nodeCount; rank++) {
+			System.arraycopy(up[rank], 0, this.upHead, this.upStart[rank], up[rank].length);
+			Arrays.fill(this.arcTail, this.upStart[rank], this.upStart[rank + 1], rank);
+		}
+
+		this.downStart = new int[this.nodeCount + 1];
+		for (int arc = 0; arc < this.arcCount; arc++) {
+			this.downStart[this.upHead[arc] + 1]++;
+		}
+		for (int rank = 0; rank < this.nodeCount; rank++) {
+			this.downStart[rank + 1] += this.downStart[rank];
+		}
+		this.downTail = new int[this.arcCount];
+		this.downArc = new int[this.arcCount];
+		int[] next = Arrays.copyOf(this.downStart, this.nodeCount);
+		for (int rank = 0; rank < this.nodeCount; rank++) {
+			for (int arc = this.upStart[rank]; arc < this.upStart[rank + 1]; arc++) {
+				int pos = next[this.upHead[arc]]++;
+				this.downTail[pos] = rank;
+				this.downArc[pos] = arc;
+			}
+		}
+
+		this.linkArc = new int[graph.linkCount];
+		Arrays.fill(this.linkArc, -1);
+		for (int linkIdx = 0; linkIdx < graph.linkCount; linkIdx++) {
+			Link link = graph.getLink(linkIdx);
+			if (link == null) {
+				continue;
+			}
+			int from = this.nodeToRank[link.getFromNode().getId().index()];
+			int to = this.nodeToRank[link.getToNode().getId().index()];
+			if (from != to) {
+				int arc = findArc(Math.min(from, to), Math.max(from, to));
+				this.linkArc[linkIdx] = 2 * arc + (from < to ? 0 : 1);
+			}
+		}
+		LOG.info("CCH has " + this.arcCount + " arcs for " + this.nodeCount + " nodes.");
+	}
+
+	/**
+	 * @return the arc from <code>lower</code> to <code>higher</code>, or -1 if there is none.
+	 */
+	int findArc(int lower, int higher) {
+		int arc = Arrays.binarySearch(this.upHead, this.upStart[lower], this.upStart[lower + 1], higher);
+		return arc >= 0 ? arc : -1;
+	}
+
+	private int[][] buildAdjacency() {
+		int[] degree = new int[this.graph.nodeCount];
+		SpeedyGraph.LinkIterator outLI = this.graph.getOutLinkIterator();
+		for (int nodeIdx = 0; nodeIdx < this.graph.nodeCount; nodeIdx++) {
+			outLI.reset(nodeIdx);
+			while (outLI.next()) {
+				if (outLI.getToNodeIndex() != nodeIdx) {
+					degree[nodeIdx]++;
+					degree[outLI.getToNodeIndex()]++;
+				}
+			}
+		}
+		int[][] adjacency = new int[this.graph.nodeCount][];
+		for (int nodeIdx = 0; nodeIdx < this.graph.nodeCount; nodeIdx++) {
+			adjacency[nodeIdx] = new int[degree[nodeIdx]];
+			degree[nodeIdx] = 0;
+		}
+		for (int nodeIdx = 0; nodeIdx < this.graph.nodeCount; nodeIdx++) {
+			outLI.reset(nodeIdx);
+			while (outLI.next()) {
+				int toNodeIdx = outLI.getToNodeIndex();
+				if (toNodeIdx != nodeIdx) {
+					adjacency[nodeIdx][degree[nodeIdx]++] = toNodeIdx;
+					adjacency[toNodeIdx][degree[toNodeIdx]++] = nodeIdx;
+				}
+			}
+		}
+		return adjacency;
+	}
+
+	/**
+	 * Contracts the nodes by rank. Instead of connecting all upper neighbors of a node with each other, they are only
+	 * added to the upper neighbors of the lowest one (the parent in the elimination tree), which results in the same
+	 * graph once the parent is contracted.
+	 */
+	private int[][] contract(int[][] adjacency) {
+		int[][] up = new int[this.nodeCount][];
+		for (int rank = 0; rank < this.nodeCount; rank++) {
+			int[] neighbors = adjacency[this.rankToNode[rank]];
+			int[] upper = new int[neighbors.length];
+			int n = 0;
+			for (int neighbor : neighbors) {
+				int neighborRank = this.nodeToRank[neighbor];
+				if (neighborRank > rank) {
+					upper[n++] = neighborRank;
+				}
+			}
+			up[rank] = sortedUnique(upper, n);
+		}
+		for (int rank = 0; rank < this.nodeCount; rank++) {
+			int[] upper = up[rank];
+			if (upper.length > 1) {
+				int p = upper[0];
+				up[p] = merge(up[p], upper, 1);
+			}
+		}
+		return up;
+	}
+
+	private static int[] sortedUnique(int[] values, int length) {
+		Arrays.sort(values, 0, length);
+		int n = 0;
+		for (int i = 0; i < length; i++) {
+			if (n == 0 || values[n - 1] != values[i]) {
+				values[n++] = values[i];
+			}
+		}
+		return Arrays.copyOf(values, n);
+	}
+
+	private static int[] merge(int[] a, int[] b, int bFrom) {
+		int[] merged = new int[a.length + b.length - bFrom];
+		int i = 0;
+		int j = bFrom;
+		int n = 0;
+		while (i < a.length || j < b.length) {
+			int value;
+			if (j == b.length || (i < a.length && a[i] < b[j])) {
+				value = a[i++];
+			} else if (i == a.length || b[j] < a[i]) {
+				value = b[j++];
+			} else {
+				value = a[i++];
+				j++;
+			}
+			merged[n++] = value;
+		}
+		return n == merged.length ? merged : Arrays.copyOf(merged, n);
+	}
+
+	/**
+	 * Orders the nodes by a geometric nested dissection. The separator of two halves are the nodes of the smaller
+	 * boundary, they are ranked above all nodes of both halves.
+	 */
+	private final class NestedDissection {
+
+		private static final byte NONE = 0;
+		private static final byte FIRST = 1;
+		private static final byte SECOND = 2;
+
+		private final int[][] adjacency;
+		private final double[] xs;
+		private final double[] ys;
+		private final byte[] side;
+		private final int[] order;
+		private int nextRank;
+
+		NestedDissection(int[][] adjacency) {
+			this.adjacency = adjacency;
+			this.xs = new double[graph.nodeCount];
+			this.ys = new double[graph.nodeCount];
+			this.side = new byte[graph.nodeCount];
+			this.order = new int[nodeCount];
+		}
+
+		int[] order() {
+			int[] nodes = new int[nodeCount];
+			int n = 0;
+			for (int nodeIdx = 0; nodeIdx < graph.nodeCount; nodeIdx++) {
+				Node node = graph.getNode(nodeIdx);
+				if (node != null) {
+					nodes[n++] = nodeIdx;
+					this.xs[nodeIdx] = node.getCoord().getX();
+					this.ys[nodeIdx] = node.getCoord().getY();
+				}
+			}
+			this.nextRank = nodeCount - 1;
+			dissect(nodes, 0, n);
+			return this.order;
+		}
+
+		private void dissect(int[] nodes, int from, int to) {
+			while (to - from > 2) {
+				double[] key = longerExtent(nodes, from, to);
+				int mid = from + (to - from) / 2;
+				select(nodes, from, to, mid, key);
+				for (int i = from; i < to; i++) {
+					this.side[nodes[i]] = i < mid ? FIRST : SECOND;
+				}
+				int firstRest = moveBoundaryToEnd(nodes, from, mid, SECOND);
+				int secondRest = moveBoundaryToEnd(nodes, mid, to, FIRST);
+				boolean separateFirst = mid - firstRest <= to - secondRest;
+				for (int i = from; i < to; i++) {
+					this.side[nodes[i]] = NONE;
+				}
+				int separatorFrom = separateFirst ? firstRest : secondRest;
+				int separatorTo = separateFirst ? mid : to;
+				for (int i = separatorTo - 1; i >= separatorFrom; i--) {
+					assign(nodes[i]);
+				}
+				if (separateFirst) {
+					dissect(nodes, from, firstRest);
+					from = mid;
+				} else {
+					dissect(nodes, from, mid);
+					from = mid;
+					to = secondRest;
+				}
+			}
+			for (int i = to - 1; i >= from; i--) {
+				assign(nodes[i]);
+			}
+		}
+
+		/**
+		 * Moves the nodes of <code>nodes[from, to)</code> that have a neighbor on the <code>other</code> side to the end.
+		 *
+		 * @return the start of the moved nodes.
+		 */
+		private int moveBoundaryToEnd(int[] nodes, int from, int to, byte other) {
+			int end = to;
+			int i = from;
+			while (i < end) {
+				if (hasNeighborOn(nodes[i], other)) {
+					end--;
+					int tmp = nodes[i];
+					nodes[i] = nodes[end];
+					nodes[end] = tmp;
+				} else {
+					i++;
+				}
+			}
+			return end;
+		}
+
+		private boolean hasNeighborOn(int nodeIdx, byte other) {
+			for (int neighbor : this.adjacency[nodeIdx]) {
+				if (this.side[neighbor] == other) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private void assign(int nodeIdx) {
+			this.order[this.nextRank--] = nodeIdx;
+		}
+
+		private double[] longerExtent(int[] nodes, int from, int to) {
+			double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+			double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+			for (int i = from; i < to; i++) {
+				int nodeIdx = nodes[i];
+				minX = Math.min(minX, this.xs[nodeIdx]);
+				maxX = Math.max(maxX, this.xs[nodeIdx]);
+				minY = Math.min(minY, this.ys[nodeIdx]);
+				maxY = Math.max(maxY, this.ys[nodeIdx]);
+			}
+			return maxX - minX >= maxY - minY ? this.xs : this.ys;
+		}
+
+		/**
+		 * Rearranges <code>nodes[from, to)</code> such that no node before <code>k</code> has a larger key than any node
+		 * from <code>k</code> on.
+		 */
+		private static void select(int[] nodes, int from, int to, int k, double[] key) {
+			int lo = from;
+			int hi = to - 1;
+			while (lo < hi) {
+				double pivot = key[nodes[(lo + hi) >>> 1]];
+				int i = lo;
+				int j = hi;
+				while (i <= j) {
+					while (key[nodes[i]] < pivot) {
+						i++;
+					}
+					while (key[nodes[j]] > pivot) {
+						j--;
+					}
+					if (i <= j) {
+						int tmp = nodes[i];
+						nodes[i] = nodes[j];
+						nodes[j] = tmp;
+						i++;
+						j--;
+					}
+				}
+				if (k <= j) {
+					hi = j;
+				} else if (k >= i) {
+					lo = i;
+				} else {
+					break;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,112 @@
+package org.matsim.core.router.speedy;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.core.config.Config;
+import org.matsim.core.controler.events.IterationStartsEvent;
+import org.matsim.core.controler.listener.IterationStartsListener;
+import org.matsim.core.router.costcalculators.TravelDisutilityFactory;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates {@link SpeedyCCH} instances. The node order and contraction is computed once per network, the customization
+ * once per network, travel time and travel disutility, and again after every call to {@link #updateMetrics()}. When
+ * used in a controler, this happens at the start of every iteration, so the routes use the travel times of the last
+ * iteration.
+ * <p>
+ * Travel times and disutilities are compared with <code>equals</code>, i.e. usually by identity. Path calculators
+ * created with the same instances share their customization, so it pays off to reuse the travel disutility. Path
+ * calculators created with the same {@link TravelDisutilityFactory} share their customization as well, even though
+ * each of them gets its own travel disutility. This is what the network routing modules do.
+ */
+@Singleton
+public class SpeedyCCHFactory implements LeastCostPathCalculatorFactory, IterationStartsListener {
+
+	private final Map<Network, SpeedyGraph> graphs = new ConcurrentHashMap<>();
+	private final Map<SpeedyGraph, SpeedyCCHData> cchData = new ConcurrentHashMap<>();
+	private final Map<SpeedyGraph, Map<MetricKey, SpeedyCCHMetric>> metrics = new ConcurrentHashMap<>();
+	private final double bucketSize;
+	private final double maxTime;
+	private final int threads;
+
+	public SpeedyCCHFactory() {
+		this(3600, 30 * 3600, 4);
+	}
+
+	@Inject
+	public SpeedyCCHFactory(Config config) {
+		this(3600, config.travelTimeCalculator().getMaxTime(), config.global().getNumberOfThreads());
+	}
+
+	/**
+	 * @param bucketSize the duration of a time bucket in seconds. Each time bucket has its own set of weights.
+	 * @param maxTime routes departing after this time use the weights of the last time bucket.
+	 * @param threads the number of threads used to customize the time buckets.
+	 */
+	public SpeedyCCHFactory(double bucketSize, double maxTime, int threads) {
+		this.bucketSize = bucketSize;
+		this.maxTime = maxTime;
+		this.threads = threads;
+	}
+
+	@Override
+	public LeastCostPathCalculator createPathCalculator(Network network, TravelDisutility travelCosts, TravelTime travelTimes) {
+		SpeedyCCHMetric metric = getMetric(network, travelTimes, travelCosts, travelCosts);
+		return new SpeedyCCH(metric, travelTimes, travelCosts);
+	}
+
+	@Override
+	public LeastCostPathCalculator createPathCalculator(Network network, TravelDisutilityFactory travelCostsFactory, TravelTime travelTimes) {
+		TravelDisutility travelCosts = travelCostsFactory.createTravelDisutility(travelTimes);
+		SpeedyCCHMetric metric = getMetric(network, travelTimes, travelCostsFactory, travelCosts);
+		return new SpeedyCCH(metric, travelTimes, travelCosts);
+	}
+
+	/**
+	 * Creates a calculator for travel time matrices on the given network, which reuses the contraction of the
+	 * network. Its travel times are evaluated per time bucket like the metrics of the path calculators, but are not
+	 * updated by {@link #updateMetrics()}, see {@link SpeedyManyToMany#updateTravelTimes()}.
+	 */
+	public SpeedyManyToMany createManyToMany(Network network, TravelTime travelTimes) {
+		SpeedyGraph graph = this.graphs.computeIfAbsent(network, SpeedyGraph::new);
+		SpeedyCCHData data = this.cchData.computeIfAbsent(graph, SpeedyCCHData::new);
+		return new SpeedyManyToMany(data, travelTimes, this.bucketSize, this.maxTime, this.threads);
+	}
+
+	private SpeedyCCHMetric getMetric(Network network, TravelTime travelTimes, Object travelCostsSource, TravelDisutility travelCosts) {
+		SpeedyGraph graph = this.graphs.computeIfAbsent(network, SpeedyGraph::new);
+		SpeedyCCHData data = this.cchData.computeIfAbsent(graph, SpeedyCCHData::new);
+		return this.metrics.computeIfAbsent(graph, g -> new ConcurrentHashMap<>())
+				.computeIfAbsent(new MetricKey(travelTimes, travelCostsSource), key -> new SpeedyCCHMetric(data, travelCosts, this.bucketSize, this.maxTime, this.threads));
+	}
+
+	/**
+	 * Lets all metrics be customized again on their next use, e.g. after the travel times changed. The metrics are
+	 * also forgotten, so that the metrics of travel disutilities that are no longer used do not pile up; path
+	 * calculators created before keep their own.
+	 */
+	public void updateMetrics() {
+		for (Map<MetricKey, SpeedyCCHMetric> graphMetrics : this.metrics.values()) {
+			for (SpeedyCCHMetric metric : graphMetrics.values()) {
+				metric.invalidate();
+			}
+			graphMetrics.clear();
+		}
+	}
+
+	@Override
+	public void notifyIterationStarts(IterationStartsEvent event) {
+		updateMetrics();
+	}
+
+	/** The travel disutility is either a {@link TravelDisutility} or the {@link TravelDisutilityFactory} creating it. */
+	private record MetricKey(TravelTime travelTime, Object travelDisutility) {
+	}
+}
@@ -0,0 +1,183 @@
+package org.matsim.core.router.speedy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.population.PopulationUtils;
+import org.matsim.core.router.util.TravelDisutility;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The customized arc weights of a {@link SpeedyCCHData}, one set of weights per time bucket.
+ *
+ * For every bucket, the travel disutility of all links is evaluated at the middle of the bucket, and the weights of
+ * all arcs are then reduced by enumerating the lower triangles of each arc in increasing rank. Afterwards, every
+ * weight is the cost of a shortest path that only uses lower ranked nodes, which is all a query needs.
+ *
+ * The weights are recomputed lazily on the first access after {@link #invalidate()} was called,
+ * e.g. because the travel times of a new iteration are available.
+ *
+ * This class is thread-safe and can safely be used by multiple threads.
+ */
+class SpeedyCCHMetric {
+
+	private final static Logger LOG = LogManager.getLogger(SpeedyCCHMetric.class);
+
+	/** {@link TravelDisutility}s might require a person, e.g. for randomization. The same one is used for all links. */
+	private final static Person CUSTOMIZATION_PERSON = PopulationUtils.getFactory().createPerson(Id.createPersonId("speedyCCH_customization"));
+
+	final SpeedyCCHData data;
+	private final double bucketSize;
+	private final int bucketCount;
+	private final int threads;
+	private final TravelDisutility td;
+	private volatile boolean valid = false;
+	private volatile Weights[] buckets;
+
+	SpeedyCCHMetric(SpeedyCCHData data, TravelDisutility td, double bucketSize, double maxTime, int threads) {
+		this.data = data;
+		this.td = td;
+		this.bucketSize = bucketSize;
+		this.bucketCount = Math.max(1, (int) Math.ceil(maxTime / bucketSize));
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * Marks the weights as outdated, they will be recomputed on the next access.
+	 */
+	synchronized void invalidate() {
+		this.valid = false;
+	}
+
+	/**
+	 * @return the weights of the time bucket containing the given time.
+	 */
+	Weights getWeights(double time) {
+		if (!this.valid) {
+			synchronized (this) {
+				if (!this.valid) {
+					this.buckets = customize();
+					this.valid = true;
+				}
+			}
+		}
+		int bucket = (int) (time / this.bucketSize);
+		return this.buckets[bucket < 0 ? 0 : Math.min(bucket, this.bucketCount - 1)];
+	}
+
+	private Weights[] customize() {
+		LOG.info("customizing CCH for " + this.bucketCount + " time buckets...");
+		int size = 2 * this.data.arcCount;
+		Weights[] newBuckets = new Weights[this.bucketCount];
+
+		// travel disutilities are not necessarily thread-safe, so this part runs sequentially
+		for (int bucket = 0; bucket < this.bucketCount; bucket++) {
+			float[] w = new float[size];
+			long[] orig = new long[(size + 63) >> 6];
+			Arrays.fill(w, Float.POSITIVE_INFINITY);
+			double time = bucket * this.bucketSize + this.bucketSize / 2;
+			for (int linkIdx = 0; linkIdx < this.data.linkArc.length; linkIdx++) {
+				int index = this.data.linkArc[linkIdx];
+				if (index < 0) {
+					continue;
+				}
+				Link link = this.data.graph.getLink(linkIdx);
+				float cost = (float) this.td.getLinkTravelDisutility(link, time, CUSTOMIZATION_PERSON, null);
+				if (cost < w[index]) {
+					w[index] = cost;
+					orig[index >> 6] |= 1L << index;
+				}
+			}
+			newBuckets[bucket] = new Weights(w, orig);
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(this.threads, this.bucketCount));
+		List<Future<?>> futures = new ArrayList<>();
+		for (Weights weights : newBuckets) {
+			futures.add(executor.submit(() -> relaxLowerTriangles(weights.weights, weights.original)));
+		}
+		executor.shutdown();
+		for (Future<?> future : futures) {
+			try {
+				future.get();
+			} catch (InterruptedException | ExecutionException e) {
+				throw new RuntimeException(e);
+			}
+		}
+		LOG.info("CCH customization done.");
+		return newBuckets;
+	}
+
+	/**
+	 * For every lower triangle (i, j, k) with rank i < j < k, the paths j-i-k and k-i-j might be cheaper than the
+	 * arcs j-k and k-j. Processing the arcs by increasing rank of their tail makes sure that the arcs i-j and i-k
+	 * are final when they are used.
+	 */
+	private void relaxLowerTriangles(float[] w, long[] orig) {
+		SpeedyCCHData d = this.data;
+		int[] arcOfHead = new int[d.nodeCount];
+		Arrays.fill(arcOfHead, -1);
+		for (int j = 0; j < d.nodeCount; j++) {
+			int upFrom = d.upStart[j];
+			int upTo = d.upStart[j + 1];
+			if (upFrom == upTo) {
+				continue;
+			}
+			for (int arc = upFrom; arc < upTo; arc++) {
+				arcOfHead[d.upHead[arc]] = arc;
+			}
+			for (int pos = d.downStart[j]; pos < d.downStart[j + 1]; pos++) {
+				int i = d.downTail[pos];
+				int arcIJ = d.downArc[pos];
+				float downJI = w[2 * arcIJ + 1];
+				float upIJ = w[2 * arcIJ];
+				// the arcs of i are sorted by head, the ones above j follow the arc i-j
+				for (int arcIK = arcIJ + 1, end = d.upStart[i + 1]; arcIK < end; arcIK++) {
+					int arcJK = arcOfHead[d.upHead[arcIK]];
+					float up = downJI + w[2 * arcIK];
+					if (up < w[2 * arcJK]) {
+						w[2 * arcJK] = up;
+						clear(orig, 2 * arcJK);
+					}
+					float down = w[2 * arcIK + 1] + upIJ;
+					if (down < w[2 * arcJK + 1]) {
+						w[2 * arcJK + 1] = down;
+						clear(orig, 2 * arcJK + 1);
+					}
+				}
+			}
+			for (int arc = upFrom; arc < upTo; arc++) {
+				arcOfHead[d.upHead[arc]] = -1;
+			}
+		}
+	}
+
+	private static void clear(long[] bits, int index) {
+		bits[index >> 6] &= ~(1L << index);
+	}
+
+	static final class Weights {
+		/** 2 weights per arc, upwards at <code>2 * arc</code>, downwards at <code>2 * arc + 1</code> */
+		final float[] weights;
+		/** marks the weights that are the cost of a single link, at the same index as the weight */
+		private final long[] original;
+
+		private Weights(float[] weights, long[] original) {
+			this.weights = weights;
+			this.original = original;
+		}
+
+		boolean isOriginal(int index) {
+			return (this.original[index >> 6] & (1L << index)) != 0;
+		}
+	}
+}
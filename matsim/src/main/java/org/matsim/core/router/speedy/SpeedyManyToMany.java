@@ -0,0 +1,252 @@
+package org.matsim.core.router.speedy;
+
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.vehicles.Vehicle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Calculates matrices of the fastest travel times between many origin and destination nodes, e.g. for zone-to-zone
+ * skims, using the {@link SpeedyCCHData} of the network. Instances are created by
+ * {@link SpeedyCCHFactory#createManyToMany(org.matsim.api.core.v01.network.Network, TravelTime)}, which shares the
+ * contraction of a network with the path calculators it creates.
+ *
+ * Based on "Faster Batched Shortest Paths in Road Networks" by Daniel Delling, Andrew V. Goldberg and Renato F. Werneck
+ * (RPHAST), 2011, applied to Customizable Contraction Hierarchies.
+ *
+ * For a matrix, only the nodes above any destination in the elimination tree are relevant. They are copied into a
+ * compact graph, ordered by decreasing rank. For each origin, the travel times to all its ancestors in the elimination
+ * tree are calculated, and then one linear sweep over the compact graph propagates them down to all destinations.
+ * {@link #LANES} origins share one sweep, their labels are stored next to each other for every node.
+ *
+ * The link travel times are evaluated once per time bin, at the middle of the bin, and are used for the whole trip.
+ * So the matrix of a departure time is the matrix of its time bin.
+ *
+ * This class is thread-safe and can safely be used by multiple threads. The origins of a matrix are distributed
+ * over the threads of a thread pool, which only lives as long as the calculation of the matrix.
+ */
+public class SpeedyManyToMany {
+
+	/** the number of origins calculated in one sweep */
+	static final int LANES = 8;
+
+	final SpeedyCCHData data;
+	private final SpeedyCCHMetric metric;
+	private final int threads;
+
+	/**
+	 * @param timeBinSize the duration of a time bin in seconds. Each time bin has its own link travel times.
+	 * @param maxTime departures after this time use the travel times of the last time bin.
+	 * @param threads the number of threads used to calculate a matrix.
+	 */
+	SpeedyManyToMany(SpeedyCCHData data, TravelTime travelTime, double timeBinSize, double maxTime, int threads) {
+		this.data = data;
+		this.threads = Math.max(1, threads);
+		this.metric = new SpeedyCCHMetric(data, new TravelTimeAsDisutility(travelTime), timeBinSize, maxTime, this.threads);
+	}
+
+	/**
+	 * Lets the travel times be evaluated again on the next calculation, e.g. because they changed.
+	 */
+	public void updateTravelTimes() {
+		this.metric.invalidate();
+	}
+
+	/**
+	 * @return the travel times in seconds, row by row: the travel time from <code>fromNodes[i]</code> to
+	 *   <code>toNodes[j]</code> is at index <code>i * toNodes.length + j</code>.
+	 *   {@link Float#POSITIVE_INFINITY} if there is no route.
+	 */
+	public float[] calcTravelTimes(Node[] fromNodes, Node[] toNodes, double departureTime) {
+		float[] w = this.metric.getWeights(departureTime).weights;
+		int[] sources = getRanks(fromNodes);
+		int[] targets = getRanks(toNodes);
+		CompactGraph compact = new CompactGraph(targets, w);
+		float[] matrix = new float[sources.length * targets.length];
+
+		int batches = (sources.length + LANES - 1) / LANES;
+		AtomicInteger nextBatch = new AtomicInteger();
+		List<Callable<Object>> workers = new ArrayList<>();
+		for (int i = 0, n = Math.min(this.threads, batches); i < n; i++) {
+			workers.add(() -> {
+				Sweep sweep = new Sweep(compact, w);
+				int batch;
+				while ((batch = nextBatch.getAndIncrement()) < batches) {
+					sweep.calculate(sources, batch * LANES, targets, matrix);
+				}
+				return null;
+			});
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(workers.size());
+		try {
+			for (Future<Object> future : executor.invokeAll(workers)) {
+				future.get();
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			throw new RuntimeException(e);
+		} finally {
+			executor.shutdown();
+		}
+		return matrix;
+	}
+
+	private int[] getRanks(Node[] nodes) {
+		int[] ranks = new int[nodes.length];
+		for (int i = 0; i < nodes.length; i++) {
+			int nodeIndex = nodes[i].getId().index();
+			int rank = nodeIndex < this.data.nodeToRank.length ? this.data.nodeToRank[nodeIndex] : -1;
+			if (rank < 0) {
+				throw new IllegalArgumentException("Node " + nodes[i].getId() + " is not part of the network.");
+			}
+			ranks[i] = rank;
+		}
+		return ranks;
+	}
+
+	/**
+	 * All ancestors of the targets, ordered by decreasing rank. Every node only has arcs from higher nodes.
+	 */
+	private final class CompactGraph {
+
+		final int nodeCount;
+		/** for each rank: the index in the compact graph, or -1 */
+		final int[] rankToCompact;
+		final int[] arcStart;
+		final int[] arcTail;
+		final float[] arcWeight;
+
+		CompactGraph(int[] targets, float[] w) {
+			SpeedyCCHData d = SpeedyManyToMany.this.data;
+			this.rankToCompact = new int[d.nodeCount];
+			Arrays.fill(this.rankToCompact, -1);
+			int[] selected = new int[d.nodeCount];
+			int count = 0;
+			for (int target : targets) {
+				for (int v = target; v >= 0 && this.rankToCompact[v] < 0; v = d.parent[v]) {
+					this.rankToCompact[v] = 0;
+					selected[count++] = v;
+				}
+			}
+			Arrays.sort(selected, 0, count);
+			this.nodeCount = count;
+			this.arcStart = new int[count + 1];
+			for (int c = 0; c < count; c++) {
+				int v = selected[count - 1 - c];
+				this.rankToCompact[v] = c;
+				this.arcStart[c + 1] = this.arcStart[c] + d.upStart[v + 1] - d.upStart[v];
+			}
+			this.arcTail = new int[this.arcStart[count]];
+			this.arcWeight = new float[this.arcStart[count]];
+			for (int c = 0; c < count; c++) {
+				int v = selected[count - 1 - c];
+				for (int arc = d.upStart[v], pos = this.arcStart[c]; arc < d.upStart[v + 1]; arc++, pos++) {
+					// all upper neighbors of v are ancestors of v, so they are part of the compact graph
+					this.arcTail[pos] = this.rankToCompact[d.upHead[arc]];
+					this.arcWeight[pos] = w[2 * arc + 1];
+				}
+			}
+		}
+	}
+
+	/**
+	 * The memory of one thread to calculate {@link #LANES} origins at once.
+	 */
+	private final class Sweep {
+
+		private final CompactGraph compact;
+		private final float[] w;
+		private final float[] upTime;
+		private final float[] labels;
+
+		Sweep(CompactGraph compact, float[] w) {
+			this.compact = compact;
+			this.w = w;
+			this.upTime = new float[SpeedyManyToMany.this.data.nodeCount];
+			Arrays.fill(this.upTime, Float.POSITIVE_INFINITY);
+			this.labels = new float[compact.nodeCount * LANES];
+		}
+
+		void calculate(int[] sources, int from, int[] targets, float[] matrix) {
+			SpeedyCCHData d = SpeedyManyToMany.this.data;
+			int lanes = Math.min(LANES, sources.length - from);
+			float[] labels = this.labels;
+			Arrays.fill(labels, Float.POSITIVE_INFINITY);
+
+			for (int lane = 0; lane < lanes; lane++) {
+				int source = sources[from + lane];
+				this.upTime[source] = 0;
+				for (int v = source; v >= 0; v = d.parent[v]) {
+					float time = this.upTime[v];
+					if (time != Float.POSITIVE_INFINITY) {
+						for (int arc = d.upStart[v], end = d.upStart[v + 1]; arc < end; arc++) {
+							int head = d.upHead[arc];
+							float newTime = time + this.w[2 * arc];
+							if (newTime < this.upTime[head]) {
+								this.upTime[head] = newTime;
+							}
+						}
+					}
+				}
+				for (int v = source; v >= 0; v = d.parent[v]) {
+					int c = this.compact.rankToCompact[v];
+					if (c >= 0) {
+						labels[c * LANES + lane] = this.upTime[v];
+					}
+					this.upTime[v] = Float.POSITIVE_INFINITY;
+				}
+			}
+
+			int[] arcStart = this.compact.arcStart;
+			int[] arcTail = this.compact.arcTail;
+			float[] arcWeight = this.compact.arcWeight;
+			for (int c = 0, n = this.compact.nodeCount; c < n; c++) {
+				int base = c * LANES;
+				for (int pos = arcStart[c], end = arcStart[c + 1]; pos < end; pos++) {
+					int tailBase = arcTail[pos] * LANES;
+					float weight = arcWeight[pos];
+					for (int lane = 0; lane < LANES; lane++) {
+						labels[base + lane] = Math.min(labels[base + lane], labels[tailBase + lane] + weight);
+					}
+				}
+			}
+
+			for (int lane = 0; lane < lanes; lane++) {
+				int row = (from + lane) * targets.length;
+				for (int j = 0; j < targets.length; j++) {
+					matrix[row + j] = labels[this.compact.rankToCompact[targets[j]] * LANES + lane];
+				}
+			}
+		}
+	}
+
+	private static final class TravelTimeAsDisutility implements TravelDisutility {
+
+		private final TravelTime travelTime;
+
+		TravelTimeAsDisutility(TravelTime travelTime) {
+			this.travelTime = travelTime;
+		}
+
+		@Override
+		public double getLinkTravelDisutility(Link link, double time, Person person, Vehicle vehicle) {
+			return this.travelTime.getLinkTravelTime(link, time, person, vehicle);
+		}
+
+		@Override
+		public double getLinkMinimumTravelDisutility(Link link) {
+			return link.getLength() / link.getFreespeed();
+		}
+	}
+}
@@ -23,6 +23,7 @@ package org.matsim.core.router.util;
 import org.matsim.api.core.v01.network.Network;
 import org.matsim.core.api.internal.MatsimExtensionPoint;
 import org.matsim.core.api.internal.MatsimFactory;
+import org.matsim.core.router.costcalculators.TravelDisutilityFactory;
 
 /**
  * Example(s):<ul>
@@ -38,4 +39,12 @@ public interface LeastCostPathCalculatorFactory extends MatsimFactory, MatsimExt
 	
 	public LeastCostPathCalculator createPathCalculator(final Network network, final TravelDisutility travelCosts, final TravelTime travelTimes);
 
+	/**
+	 * Same as above, but lets factories that preprocess the travel disutility share the preprocessing among all path
+	 * calculators created with the same travel disutility factory and travel time.
+	 */
+	default LeastCostPathCalculator createPathCalculator(final Network network, final TravelDisutilityFactory travelCostsFactory, final TravelTime travelTimes) {
+		return createPathCalculator(network, travelCostsFactory.createTravelDisutility(travelTimes), travelTimes);
+	}
+
 }
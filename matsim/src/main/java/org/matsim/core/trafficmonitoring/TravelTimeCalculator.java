@@ -23,7 +23,6 @@ import com.google.inject.Inject;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.matsim.api.core.v01.Id;
-import org.matsim.api.core.v01.IdMap;
 import org.matsim.api.core.v01.events.LinkEnterEvent;
 import org.matsim.api.core.v01.events.LinkLeaveEvent;
 import org.matsim.api.core.v01.events.VehicleAbortsEvent;
@@ -42,6 +41,7 @@ import org.matsim.core.api.experimental.events.VehicleArrivesAtFacilityEvent;
 import org.matsim.core.api.experimental.events.handler.VehicleArrivesAtFacilityEventHandler;
 import org.matsim.core.config.groups.QSimConfigGroup;
 import org.matsim.core.config.groups.TravelTimeCalculatorConfigGroup;
+import org.matsim.core.events.handler.NonRetainingEventHandler;
 import org.matsim.core.gbl.Gbl;
 import org.matsim.core.router.util.LinkToLinkTravelTime;
 import org.matsim.core.router.util.TravelTime;
@@ -50,7 +50,7 @@ import org.matsim.core.utils.collections.Tuple;
 import org.matsim.vehicles.Vehicle;
 import org.matsim.vehicles.VehicleType;
 
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -62,13 +62,18 @@ import java.util.concurrent.ConcurrentHashMap;
  * <br>
  * Travel times on links are collected and averaged in bins/slots with a specified size
  * (<code>binSize</code>, in seconds, default 900 seconds = 15 minutes).
+ * <br>
+ * The events can be handled by multiple threads concurrently, e.g. by a parallel events manager or directly by the
+ * threads of the mobsim, as long as the events of each vehicle arrive in order. The state of the vehicles is kept in
+ * primitive arrays indexed by the vehicle id index (see {@link VehicleLinkEnterTimes}), and the travel times are added
+ * to the time bins of the links with a compare-and-set, so handling events does not need any locks.
  *
  * @author dgrether
  * @author mrieser
  */
 public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLeaveEventHandler,
 									     VehicleEntersTrafficEventHandler, VehicleLeavesTrafficEventHandler, VehicleArrivesAtFacilityEventHandler,
-									     VehicleAbortsEventHandler {
+									     VehicleAbortsEventHandler, NonRetainingEventHandler {
 	private static final Logger log = LogManager.getLogger(TravelTimeCalculator.class);
 
 	private static final String ERROR_STUCK_AND_LINKTOLINK = "Using the stuck feature with turning move travel times is not available. As the next link of a stucked" +
@@ -79,13 +84,13 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 	TimeSlotComputation aggregator;
 
 	private final Network network;
-	private IdMap<Link, TravelTimeDataArray> linkData;
+	/** indexed by the link's id index, grows when needed. Entries are only added while holding the lock of this array. */
+	private volatile TravelTimeDataArray[] linkData;
 
 	private Map<Tuple<Id<Link>, Id<Link>>, TravelTimeDataArray> linkToLinkData;
 
-	private final Map<Id<Vehicle>, LinkEnterEvent> linkEnterEvents;
+	private final VehicleLinkEnterTimes linkEnterTimes;
 
-	private final Set<Id<Vehicle>> vehiclesToIgnore;
 	private final Set<String> analyzedModes;
 
 	private final boolean filterAnalyzedModes;
@@ -96,6 +101,8 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 
 	@Inject private QSimConfigGroup qsimConfig ;
 	TravelTimeGetter travelTimeGetter ;
+	/** the snapshot of the current link travel times, <code>null</code> if the travel times changed since it was created */
+	private volatile TravelTimeSnapshot snapshot = null;
 
 	@Deprecated // use builder instead.  kai, feb'19
 	public static TravelTimeCalculator create(Network network, TravelTimeCalculatorConfigGroup group) {
@@ -216,17 +223,15 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 		this.aggregator = new TimeSlotComputation(this.numSlots, this.timeSlice);
 		this.travelTimeGetter = new AveragingTravelTimeGetter( this.aggregator ) ;
 		if (this.calculateLinkTravelTimes) {
-			this.linkData = new IdMap<>(Link.class);
+			this.linkData = new TravelTimeDataArray[Id.getNumberOfIds(Link.class)];
 		}
 		if (this.calculateLinkToLinkTravelTimes){
 			// assume that every link has 2 outgoing links as default
 			this.linkToLinkData = new ConcurrentHashMap<>((int) (network.getLinks().size() * 1.4 * 2));
 		}
-		this.linkEnterEvents = new ConcurrentHashMap<>();
-
 		// if we just look at one mode, we need to ignore all vehicles with a different mode. However, the info re the mode is only in
 		// the vehicleEntersTraffic event.  So we need to memorize the ignored vehicles from there ...
-		this.vehiclesToIgnore = new HashSet<>();
+		this.linkEnterTimes = new VehicleLinkEnterTimes();
 
 		this.reset(0);
 	}
@@ -235,13 +240,15 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 	public void handleEvent(final LinkEnterEvent e) {
 		/* if only some modes are analyzed, we check whether the vehicles
 		 * performs a trip with one of those modes. if not, we skip the event. */
-		if (filterAnalyzedModes && vehiclesToIgnore.contains(e.getVehicleId())) return;
-
-		LinkEnterEvent oldEvent = this.linkEnterEvents.put(e.getVehicleId(), e);
-		if ((oldEvent != null) && this.calculateLinkToLinkTravelTimes) {
-			Tuple<Id<Link>, Id<Link>> fromToLink = new Tuple<>(oldEvent.getLinkId(), e.getLinkId());
+		int vehicleIndex = e.getVehicleId().index();
+		if (filterAnalyzedModes && this.linkEnterTimes.isIgnored(vehicleIndex)) return;
+
+		int oldLinkIndex = this.linkEnterTimes.getLinkIndex(vehicleIndex);
+		double enterTime = oldLinkIndex < 0 ? 0 : this.linkEnterTimes.getEnterTime(vehicleIndex);
+		this.linkEnterTimes.enterLink(vehicleIndex, e.getLinkId().index(), e.getTime());
+		if ((oldLinkIndex >= 0) && this.calculateLinkToLinkTravelTimes) {
+			Tuple<Id<Link>, Id<Link>> fromToLink = new Tuple<>(Id.get(oldLinkIndex, Link.class), e.getLinkId());
 			TravelTimeData data = getLinkToLinkTravelTimeData(fromToLink );
-			double enterTime = oldEvent.getTime();
 
 			final int timeSlot = this.aggregator.getTimeSlotIndex(enterTime );
 			data.addTravelTime(timeSlot, e.getTime() - enterTime );
@@ -252,25 +259,33 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 	@Override
 	public void handleEvent(final LinkLeaveEvent e) {
 		if (this.calculateLinkTravelTimes) {
-			LinkEnterEvent oldEvent = this.linkEnterEvents.get(e.getVehicleId());
-			if (oldEvent != null) {
+			int vehicleIndex = e.getVehicleId().index();
+			if (this.linkEnterTimes.getLinkIndex(vehicleIndex) >= 0) {
 				TravelTimeData data = this.getTravelTimeData(e.getLinkId(), true);
-				double enterTime = oldEvent.getTime();
+				double enterTime = this.linkEnterTimes.getEnterTime(vehicleIndex);
 
 				final int timeSlot = this.aggregator.getTimeSlotIndex(enterTime );
 				data.addTravelTime(timeSlot, e.getTime() - enterTime );
 				data.setNeedsConsolidation( true );
+				invalidateSnapshot();
 			}
 		}
 	}
 
+	private void invalidateSnapshot() {
+		// a volatile read is much cheaper than a volatile write, which would be needed for every event otherwise
+		if (this.snapshot != null) {
+			this.snapshot = null;
+		}
+	}
+
 	@Override
 	public void handleEvent(VehicleEntersTrafficEvent event) {
 		/* if filtering transport modes is enabled and the vehicles
 		 * starts a leg on a non analyzed transport mode, add the vehicle
 		 * to the filtered vehicles set. */
 		if (filterAnalyzedModes && !analyzedModes.contains(event.getNetworkMode())) {
-			this.vehiclesToIgnore.add(event.getVehicleId());
+			this.linkEnterTimes.setIgnored(event.getVehicleId().index(), true);
 		}
 	}
 
@@ -279,10 +294,10 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 		/* remove EnterEvents from list when a vehicle arrives.
 		 * otherwise, the activity duration would be counted as travel time, when the
 		 * vehicle departs again and leaves the link! */
-		this.linkEnterEvents.remove(event.getVehicleId());
+		this.linkEnterTimes.remove(event.getVehicleId().index());
 
 		// try to remove vehicles from set with filtered vehicles
-		if (filterAnalyzedModes) this.vehiclesToIgnore.remove(event.getVehicleId());
+		if (filterAnalyzedModes) this.linkEnterTimes.setIgnored(event.getVehicleId().index(), false);
 	}
 
 	@Override
@@ -290,15 +305,18 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 		/* remove EnterEvents from list when a bus stops on a link.
 		 * otherwise, the stop time would be counted as travel time, when the
 		 * bus departs again and leaves the link! */
-		this.linkEnterEvents.remove(event.getVehicleId());
+		this.linkEnterTimes.remove(event.getVehicleId().index());
 	}
 
 	@Override
 	public void handleEvent(VehicleAbortsEvent event) {
-		LinkEnterEvent e = this.linkEnterEvents.remove(event.getVehicleId());
-		if (e != null) {
-			TravelTimeData data = this.getTravelTimeData(e.getLinkId(), true);
+		int vehicleIndex = event.getVehicleId().index();
+		int linkIndex = this.linkEnterTimes.getLinkIndex(vehicleIndex);
+		this.linkEnterTimes.remove(vehicleIndex);
+		if (linkIndex >= 0) {
+			TravelTimeData data = this.getTravelTimeData(Id.get(linkIndex, Link.class), true);
 			data.setNeedsConsolidation( true );
+			invalidateSnapshot();
 
 			//			this.aggregator.addStuckEventTravelTime(data, e.getTime(), event.getTime());
 			// this functionality is no longer there.
@@ -313,14 +331,26 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 		}
 
 		// try to remove vehicle from set with filtered vehicles
-		if (filterAnalyzedModes) this.vehiclesToIgnore.remove(event.getVehicleId());
+		if (filterAnalyzedModes) this.linkEnterTimes.setIgnored(vehicleIndex, false);
 	}
 
 	private TravelTimeDataArray getTravelTimeData(final Id<Link> linkId, final boolean createIfMissing) {
-		TravelTimeDataArray data = this.linkData.get(linkId);
+		int linkIndex = linkId.index();
+		TravelTimeDataArray[] linkData = this.linkData;
+		TravelTimeDataArray data = linkIndex < linkData.length ? linkData[linkIndex] : null;
 		if ((null == data) && createIfMissing) {
-			data = this.createTravelTimeData(linkId);
-			this.linkData.put(linkId, data);
+			synchronized (this) {
+				linkData = this.linkData;
+				if (linkIndex >= linkData.length) {
+					linkData = Arrays.copyOf(linkData, Math.max(linkIndex + 1, linkData.length * 2));
+				}
+				data = linkData[linkIndex];
+				if (data == null) {
+					data = this.createTravelTimeData(linkId);
+					linkData[linkIndex] = data;
+				}
+				this.linkData = linkData;
+			}
 		}
 		return data;
 	}
@@ -328,8 +358,7 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 	private TravelTimeDataArray getLinkToLinkTravelTimeData( Tuple<Id<Link>, Id<Link>> fromLinkToLink ) {
 		TravelTimeDataArray data = this.linkToLinkData.get(fromLinkToLink);
 		if ( null == data ) {
-			data = this.createTravelTimeData(fromLinkToLink.getFirst()) ;
-			this.linkToLinkData.put(fromLinkToLink, data);
+			data = this.linkToLinkData.computeIfAbsent(fromLinkToLink, key -> this.createTravelTimeData(key.getFirst()));
 		}
 		return data;
 	}
@@ -366,9 +395,11 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 	@Override
 	public void reset(int iteration) {
 		if (this.calculateLinkTravelTimes) {
-			for (TravelTimeData data : this.linkData.values()){
-				data.resetTravelTimes();
-				data.setNeedsConsolidation( false );
+			for (TravelTimeData data : this.linkData){
+				if (data != null) {
+					data.resetTravelTimes();
+					data.setNeedsConsolidation( false );
+				}
 			}
 		}
 		if (this.calculateLinkToLinkTravelTimes){
@@ -377,8 +408,8 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 				data.setNeedsConsolidation( false );
 			}
 		}
-		this.linkEnterEvents.clear();
-		this.vehiclesToIgnore.clear();
+		this.linkEnterTimes.clear();
+		this.snapshot = null;
 	}
 
 	/**
@@ -467,6 +498,62 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 
 	}
 
+	/**
+	 * Returns an immutable copy of the current link travel times. It is created on the first call after the travel
+	 * times changed, e.g. after the mobsim, and then reused, so it is cheap to hand it to many routing threads. In
+	 * contrast to {@link #getLinkTravelTimes()}, it does not see travel times observed after it was created, so it
+	 * should not be used while the mobsim is running.
+	 */
+	public TravelTimeSnapshot getLinkTravelTimesSnapshot() {
+		if (!this.calculateLinkTravelTimes) {
+			throw new IllegalStateException("No link travel time is available " +
+									    "if calculation is switched off by config option!");
+		}
+		TravelTimeSnapshot snapshot = this.snapshot;
+		if (snapshot == null) {
+			synchronized (this) {
+				snapshot = this.snapshot;
+				if (snapshot == null) {
+					snapshot = createSnapshot();
+					this.snapshot = snapshot;
+				}
+			}
+		}
+		return snapshot;
+	}
+
+	private TravelTimeSnapshot createSnapshot() {
+		int maxLinkIndex = -1;
+		int observedLinksCount = 0;
+		for (Link link : this.network.getLinks().values()) {
+			maxLinkIndex = Math.max(maxLinkIndex, link.getId().index());
+			if (getTravelTimeData(link.getId(), false) != null) {
+				observedLinksCount++;
+			}
+		}
+		Link[] links = new Link[maxLinkIndex + 1];
+		int[] offsets = new int[maxLinkIndex + 1];
+		Arrays.fill(offsets, -1);
+		float[] travelTimes = new float[observedLinksCount * this.numSlots];
+		int offset = 0;
+		for (Link link : this.network.getLinks().values()) {
+			int linkIndex = link.getId().index();
+			links[linkIndex] = link;
+			TravelTimeData data = getTravelTimeData(link.getId(), false);
+			if (data != null) {
+				if (data.isNeedingConsolidation()) {
+					consolidateData(data);
+				}
+				offsets[linkIndex] = offset;
+				for (int i = 0; i < this.numSlots; i++) {
+					travelTimes[offset + i] = (float) data.getTravelTime(i, i * this.timeSlice);
+				}
+				offset += this.numSlots;
+			}
+		}
+		return new TravelTimeSnapshot(this.timeSlice, this.numSlots, this.travelTimeGetter instanceof LinearInterpolatingTravelTimeGetter, links, offsets, travelTimes);
+	}
+
 	public LinkToLinkTravelTime getLinkToLinkTravelTimes() {
 		return new LinkToLinkTravelTime() {
 
@@ -22,6 +22,8 @@ package org.matsim.core.trafficmonitoring;
 
 import org.matsim.api.core.v01.network.Link;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.Arrays;
 
 /**
@@ -55,7 +57,13 @@ class TravelTimeDataArray extends TravelTimeData {
 	 * implementation like SpeedyALT.
 	 *
 	 * -mrieser, april 2021
+	 *
+	 * As the count and the travel time are in the same long-value, a travel
+	 * time can be added atomically with a compare-and-set. So multiple threads
+	 * can add travel times concurrently without any locks.
 	 */
+	private static final VarHandle DATA = MethodHandles.arrayElementVarHandle(long[].class);
+
 	private final long[] data;
 	private final Link link;
 
@@ -94,26 +102,31 @@ class TravelTimeDataArray extends TravelTimeData {
 
 	@Override
 	public void addTravelTime(final int timeSlot, final double traveltime) {
-		long val = this.data[timeSlot];
-		int cnt = count(val);
-		double tt = traveltime(val);
-		double sum = tt * cnt;
-
-		sum += traveltime;
-		cnt++;
-
-		this.data[timeSlot] = encode(cnt, sum / cnt);
+		long val;
+		long newVal;
+		do {
+			val = (long) DATA.getVolatile(this.data, timeSlot);
+			int cnt = count(val);
+			double tt = traveltime(val);
+			double sum = tt * cnt;
+
+			sum += traveltime;
+			cnt++;
+
+			newVal = encode(cnt, sum / cnt);
+		} while (!DATA.compareAndSet(this.data, timeSlot, val, newVal));
 	}
 
 	@Override
 	public double getTravelTime(final int timeSlot, final double now) {
-		long val = this.data[timeSlot];
+		long val = (long) DATA.getVolatile(this.data, timeSlot);
 		double ttime = traveltime(val);
 		if (ttime >= 0.0) return ttime; // negative values are invalid.
 
 		// ttime can only be <0 if it never accumulated anything, i.e. if cnt == 0, so just use freespeed
 		double freespeed = this.link.getLength() / this.link.getFreespeed(now);
-		this.data[timeSlot] = encode(0, freespeed);
+		// only cache it if no travel time was added in the meantime
+		DATA.compareAndSet(this.data, timeSlot, val, encode(0, freespeed));
 		return freespeed;
 	}
 
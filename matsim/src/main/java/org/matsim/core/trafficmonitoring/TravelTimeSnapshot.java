@@ -0,0 +1,112 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.trafficmonitoring;
+
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.vehicles.Vehicle;
+import org.matsim.vehicles.VehicleType;
+
+/**
+ * An immutable copy of the link travel times observed by a {@link TravelTimeCalculator}, see
+ * {@link TravelTimeCalculator#getLinkTravelTimesSnapshot()}.
+ *
+ * The travel times of all time bins are stored as floats in one array, indexed by the link's id index. Links without
+ * observed travel times take no space in the array, their free speed travel time is returned. As nothing changes
+ * after the snapshot is created, it can be used by any number of threads without synchronization, and the travel
+ * times can be looked up by the link index only, see {@link #getLinkTravelTime(int, double)}. Links are matched by
+ * their id, so the snapshot also works with the links of a copy of the network, e.g. one filtered by mode.
+ */
+public final class TravelTimeSnapshot implements TravelTime {
+
+	private final double timeBinSize;
+	private final int timeBinCount;
+	private final boolean interpolate;
+	private final Link[] links;
+	/** for each link index: the index of the first time bin in travelTimes, or -1 if there are no observed travel times */
+	private final int[] offsets;
+	private final float[] travelTimes;
+
+	TravelTimeSnapshot(double timeBinSize, int timeBinCount, boolean interpolate, Link[] links, int[] offsets, float[] travelTimes) {
+		this.timeBinSize = timeBinSize;
+		this.timeBinCount = timeBinCount;
+		this.interpolate = interpolate;
+		this.links = links;
+		this.offsets = offsets;
+		this.travelTimes = travelTimes;
+	}
+
+	@Override
+	public double getLinkTravelTime(Link link, double time, Person person, Vehicle vehicle) {
+		int linkIndex = link.getId().index();
+		int offset = linkIndex < this.offsets.length ? this.offsets[linkIndex] : -1;
+		double travelTime = offset < 0
+				? link.getLength() / link.getFreespeed(time)
+				: getObservedTravelTime(offset, time);
+		if (vehicle != null) {
+			// like TravelTimeCalculator, do not route with speeds the vehicle cannot drive
+			VehicleType vehicleType = vehicle.getType();
+			if (vehicleType != null) {
+				travelTime = Math.max(travelTime, link.getLength() / vehicleType.getMaximumVelocity());
+			}
+		}
+		return travelTime;
+	}
+
+	/**
+	 * @param linkIndex the index of the id of a link of the network the snapshot was created for.
+	 * @return the observed travel time on the link when entering it at the given time, without considering any
+	 *   vehicle.
+	 */
+	public double getLinkTravelTime(int linkIndex, double time) {
+		int offset = this.offsets[linkIndex];
+		if (offset < 0) {
+			Link link = this.links[linkIndex];
+			return link.getLength() / link.getFreespeed(time);
+		}
+		return getObservedTravelTime(offset, time);
+	}
+
+	private double getObservedTravelTime(int offset, double time) {
+		int timeBin = TimeBinUtils.getTimeBinIndex(time, this.timeBinSize, this.timeBinCount);
+		if (!this.interpolate) {
+			return this.travelTimes[offset + timeBin];
+		}
+
+		// same as LinearInterpolatingTravelTimeGetter: interpolate between the middles of the time bins
+		double halfBinSize = this.timeBinSize / 2;
+		if (time <= halfBinSize || time >= this.timeBinCount * this.timeBinSize - halfBinSize) {
+			return this.travelTimes[offset + timeBin];
+		}
+		int firstBin = (timeBin * this.timeBinSize + halfBinSize > time) ? timeBin - 1 : timeBin;
+		double firstTravelTime = this.travelTimes[offset + firstBin];
+		double secondTravelTime = this.travelTimes[offset + firstBin + 1];
+		double dx = time - (firstBin * this.timeBinSize + halfBinSize);
+		return firstTravelTime + (secondTravelTime - firstTravelTime) * dx / this.timeBinSize;
+	}
+
+	/**
+	 * @return the number of links the snapshot has observed travel times for.
+	 */
+	public int getObservedLinksCount() {
+		return this.travelTimes.length / this.timeBinCount;
+	}
+}
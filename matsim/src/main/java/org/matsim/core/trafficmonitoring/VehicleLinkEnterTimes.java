@@ -0,0 +1,127 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.trafficmonitoring;
+
+import java.util.Arrays;
+
+/**
+ * Remembers for each vehicle which link it entered last and when, and whether its events are ignored. The vehicles
+ * are addressed by the index of their id.
+ *
+ * The data is stored in chunks of primitive arrays. New vehicles only add chunks and never move the existing ones, so
+ * different threads can update different vehicles without any locks. The events of one vehicle must be handled in
+ * order, which is the case for all events managers and for the mobsim.
+ */
+final class VehicleLinkEnterTimes {
+
+	private static final int CHUNK_BITS = 10;
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	private volatile Chunk[] chunks = new Chunk[0];
+
+	/**
+	 * @return the index of the link the vehicle entered, or -1 if the vehicle is not on a link.
+	 */
+	int getLinkIndex(int vehicleIndex) {
+		Chunk chunk = getChunk(vehicleIndex, false);
+		return chunk == null ? -1 : chunk.linkIndices[vehicleIndex & CHUNK_MASK];
+	}
+
+	/**
+	 * Only valid if the vehicle is on a link, see {@link #getLinkIndex(int)}.
+	 */
+	double getEnterTime(int vehicleIndex) {
+		return getChunk(vehicleIndex, false).enterTimes[vehicleIndex & CHUNK_MASK];
+	}
+
+	void enterLink(int vehicleIndex, int linkIndex, double time) {
+		Chunk chunk = getChunk(vehicleIndex, true);
+		chunk.linkIndices[vehicleIndex & CHUNK_MASK] = linkIndex;
+		chunk.enterTimes[vehicleIndex & CHUNK_MASK] = time;
+	}
+
+	void remove(int vehicleIndex) {
+		Chunk chunk = getChunk(vehicleIndex, false);
+		if (chunk != null) {
+			chunk.linkIndices[vehicleIndex & CHUNK_MASK] = -1;
+		}
+	}
+
+	boolean isIgnored(int vehicleIndex) {
+		Chunk chunk = getChunk(vehicleIndex, false);
+		return chunk != null && chunk.ignored[vehicleIndex & CHUNK_MASK];
+	}
+
+	void setIgnored(int vehicleIndex, boolean ignored) {
+		Chunk chunk = getChunk(vehicleIndex, ignored);
+		if (chunk != null) {
+			chunk.ignored[vehicleIndex & CHUNK_MASK] = ignored;
+		}
+	}
+
+	void clear() {
+		for (Chunk chunk : this.chunks) {
+			if (chunk != null) {
+				chunk.clear();
+			}
+		}
+	}
+
+	private Chunk getChunk(int vehicleIndex, boolean createIfMissing) {
+		int chunkIndex = vehicleIndex >>> CHUNK_BITS;
+		Chunk[] chunks = this.chunks;
+		Chunk chunk = chunkIndex < chunks.length ? chunks[chunkIndex] : null;
+		if (chunk == null && createIfMissing) {
+			chunk = createChunk(chunkIndex);
+		}
+		return chunk;
+	}
+
+	private synchronized Chunk createChunk(int chunkIndex) {
+		Chunk[] chunks = this.chunks;
+		if (chunkIndex >= chunks.length) {
+			chunks = Arrays.copyOf(chunks, Math.max(chunkIndex + 1, chunks.length * 2));
+		}
+		Chunk chunk = chunks[chunkIndex];
+		if (chunk == null) {
+			chunk = new Chunk();
+			chunks[chunkIndex] = chunk;
+		}
+		// always publish the array again, so other threads see the new chunk
+		this.chunks = chunks;
+		return chunk;
+	}
+
+	private static final class Chunk {
+		final int[] linkIndices = new int[CHUNK_SIZE];
+		final double[] enterTimes = new double[CHUNK_SIZE];
+		final boolean[] ignored = new boolean[CHUNK_SIZE];
+
+		Chunk() {
+			clear();
+		}
+
+		void clear() {
+			Arrays.fill(this.linkIndices, -1);
+			Arrays.fill(this.ignored, false);
+		}
+	}
+}
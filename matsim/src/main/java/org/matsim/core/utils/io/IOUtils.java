@@ -116,6 +116,8 @@ import java.util.zip.GZIPOutputStream;
  * <li><code>*.zst</code>: ZStandard compression</li>
  * </ul>
  *
+ * Gzip and ZStandard output can be compressed on background threads, see {@link #getOutputStream(URL, boolean, int)}.
+ *
  * <h2>Encryption</h2>
  *
  * Files ending with {@code .enc} are assumed to be encrypted and will be handled with {@link CipherUtils}.
@@ -342,6 +344,18 @@ PR ist hier: https://github.com/matsim-org/matsim/pull/646
 	 * @throws UncheckedIOException
 	 */
 	public static OutputStream getOutputStream(URL url, boolean append) throws UncheckedIOException {
+		return getOutputStream(url, append, 0);
+	}
+
+	/**
+	 * Like {@link #getOutputStream(URL, boolean)}, but gzip and zstd output is compressed in blocks by the given number
+	 * of background threads, see {@link ParallelCompressionOutputStream}. Every block becomes a gzip member or zstd
+	 * frame of its own, which the readers in this class read like a single one. With 0 threads, the output is
+	 * compressed on the writing thread into a single member or frame.
+	 *
+	 * @throws UncheckedIOException
+	 */
+	public static OutputStream getOutputStream(URL url, boolean append, int compressionThreads) throws UncheckedIOException {
 		try {
 			if (!url.getProtocol().equals("file")) {
 				throw new UncheckedIOException(new IOException("Can only write to file:// protocol URLs"));
@@ -359,7 +373,11 @@ PR ist hier: https://github.com/matsim-org/matsim/pull/646
 			if (compression != null) {
 				switch (compression) {
 					case GZIP:
-						outputStream = new GZIPOutputStream(outputStream);
+						if (compressionThreads > 0) {
+							outputStream = new ParallelCompressionOutputStream(outputStream, ParallelCompressionOutputStream::gzip, compressionThreads);
+						} else {
+							outputStream = new GZIPOutputStream(outputStream);
+						}
 						break;
 					case LZ4:
 						outputStream = new LZ4FrameOutputStream(outputStream);
@@ -368,7 +386,11 @@ PR ist hier: https://github.com/matsim-org/matsim/pull/646
 						outputStream = new CompressorStreamFactory().createCompressorOutputStream(CompressorStreamFactory.BZIP2, outputStream);
 						break;
 					case ZSTD:
-						outputStream = new ZstdOutputStream(outputStream, zstdCompressionLevel);
+						if (compressionThreads > 0) {
+							outputStream = new ParallelCompressionOutputStream(outputStream, ParallelCompressionOutputStream.zstd(zstdCompressionLevel), compressionThreads);
+						} else {
+							outputStream = new ZstdOutputStream(outputStream, zstdCompressionLevel);
+						}
 						break;
 				}
 			}
@@ -0,0 +1,194 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.utils.io;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Stores the results of expensive preprocessing steps, e.g. of routers, in binary files, so they can be reused by
+ * later runs or by other processes working on the same data.
+ *
+ * A cache file is identified by a name and a 64 bit key, which must be a hash of everything the result depends on
+ * (see {@link KeyBuilder}). The file starts with a header containing the name, a format version and the key, a file
+ * with a different header is treated like a missing one. Files are memory-mapped, so processes reading the same file
+ * share the pages of the operating system's file cache. New files are written to a temporary file first and then
+ * moved in place, so no process ever reads an incomplete file.
+ *
+ * Failing to read or write a cache file is never an error, the data is just calculated again.
+ */
+public final class MappedFileCache {
+
+	private static final Logger log = LogManager.getLogger(MappedFileCache.class);
+
+	private static final int MAGIC = 0x4d43_4631; // "MCF1"
+	private static final int HEADER_SIZE = 4 + 8 + 4 + 8 + 8;
+
+	private MappedFileCache() {
+	}
+
+	/**
+	 * @return the cache file for the given name and key in the directory.
+	 */
+	public static Path getFile(String directory, String name, long key) {
+		return Path.of(directory, name + "-" + Long.toHexString(key) + ".bin");
+	}
+
+	/**
+	 * @return the data of the cache file, positioned after the header, or <code>null</code> if there is no valid
+	 *   cache file for the name, version and key.
+	 */
+	public static ByteBuffer read(Path file, String name, int version, long key) {
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+				log.warn("Ignoring cache file " + file + " with unexpected size " + size);
+				return null;
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			if (buffer.getInt() != MAGIC || buffer.getLong() != hashName(name) || buffer.getInt() != version || buffer.getLong() != key
+					|| buffer.getLong() != size - HEADER_SIZE) {
+				log.warn("Ignoring cache file " + file + ", it does not match the current data.");
+				return null;
+			}
+			log.info("Reading cached data from " + file);
+			return buffer;
+		} catch (IOException e) {
+			log.warn("Could not read cache file " + file, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Writes a new cache file. Files that would be larger than 2 GB are not written.
+	 *
+	 * @param size the number of bytes the writer will put into the buffer.
+	 */
+	public static void write(Path file, String name, int version, long key, long size, Consumer<ByteBuffer> writer) {
+		if (size + HEADER_SIZE > Integer.MAX_VALUE) {
+			log.warn("Not writing cache file " + file + ", the data is too large: " + size + " bytes.");
+			return;
+		}
+		Path tmpFile = null;
+		try {
+			Files.createDirectories(file.toAbsolutePath().getParent());
+			tmpFile = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+			try (FileChannel channel = FileChannel.open(tmpFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size + HEADER_SIZE);
+				buffer.putInt(MAGIC);
+				buffer.putLong(hashName(name));
+				buffer.putInt(version);
+				buffer.putLong(key);
+				buffer.putLong(size);
+				writer.accept(buffer);
+				if (buffer.position() != size + HEADER_SIZE) {
+					throw new IllegalStateException("Expected " + size + " bytes of data for cache file " + file + ", but got " + (buffer.position() - HEADER_SIZE));
+				}
+				buffer.force();
+			}
+			Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			log.info("Wrote cache file " + file);
+		} catch (IOException e) {
+			log.warn("Could not write cache file " + file, e);
+			if (tmpFile != null) {
+				try {
+					Files.deleteIfExists(tmpFile);
+				} catch (IOException ignored) {
+				}
+			}
+		}
+	}
+
+	private static long hashName(String name) {
+		return new KeyBuilder().add(name).build();
+	}
+
+	/**
+	 * Calculates a 64 bit hash of a sequence of values.
+	 */
+	public static final class KeyBuilder {
+
+		private long hash = 0x6a09e667f3bcc909L;
+		private long count = 0;
+
+		public KeyBuilder add(long value) {
+			this.count++;
+			this.hash = mix(this.hash ^ mix(value + this.count * 0x9e3779b97f4a7c15L));
+			return this;
+		}
+
+		public KeyBuilder add(int value) {
+			return add((long) value);
+		}
+
+		public KeyBuilder add(double value) {
+			return add(Double.doubleToLongBits(value));
+		}
+
+		public KeyBuilder add(boolean value) {
+			return add(value ? 1L : 0L);
+		}
+
+		/**
+		 * Adds the characters of the string, <code>null</code> is different from all strings.
+		 */
+		public KeyBuilder add(String value) {
+			if (value == null) {
+				return add(-1L);
+			}
+			add((long) value.length());
+			long chars = 0;
+			for (int i = 0; i < value.length(); i++) {
+				chars = (chars << 16) | value.charAt(i);
+				if ((i & 3) == 3) {
+					add(chars);
+					chars = 0;
+				}
+			}
+			return add(chars);
+		}
+
+		public long build() {
+			return mix(this.hash ^ this.count);
+		}
+
+		/** the finalizer of MurmurHash3 */
+		private static long mix(long h) {
+			h ^= h >>> 33;
+			h *= 0xff51afd7ed558ccdL;
+			h ^= h >>> 33;
+			h *= 0xc4ceb9fe1a85ec53L;
+			h ^= h >>> 33;
+			return h;
+		}
+	}
+}
@@ -0,0 +1,243 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.utils.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.zip.GZIPOutputStream;
+
+import com.github.luben.zstd.ZstdOutputStream;
+
+/**
+ * Compresses the data written to it in blocks on several threads, and writes the compressed blocks in order on a
+ * background thread. Every block is compressed independently, i.e. becomes a gzip member or a zstd frame of its own.
+ * Decompressing streams read such concatenated members or frames like a single one, so the result can be read
+ * as usual.
+ * <p>
+ * The thread writing to this stream only copies bytes, unless the data does not even fill one block, in which case
+ * it is compressed on that thread when the stream is closed. {@link #flush()} ends the current block early and waits
+ * until all data written so far has reached the underlying stream.
+ */
+final class ParallelCompressionOutputStream extends OutputStream {
+
+	static final int BLOCK_SIZE = 1 << 20;
+
+	@FunctionalInterface
+	interface BlockCompressor {
+		byte[] compress(byte[] data, int length) throws IOException;
+	}
+
+	private static final Future<byte[]> END = CompletableFuture.completedFuture(null);
+	private static final Future<byte[]> FLUSH = CompletableFuture.completedFuture(null);
+
+	private final OutputStream out;
+	private final BlockCompressor compressor;
+	private final int numberOfThreads;
+	private ExecutorService executor = null;
+	private BlockingQueue<Future<byte[]>> compressedBlocks = null;
+	private BlockingQueue<byte[]> freeBlocks = null;
+	private Thread writer = null;
+	private final Semaphore flushed = new Semaphore(0);
+	private volatile Throwable failure = null;
+	private byte[] block = new byte[BLOCK_SIZE];
+	private int length = 0;
+	private boolean closed = false;
+
+	ParallelCompressionOutputStream(OutputStream out, BlockCompressor compressor, int numberOfThreads) {
+		this.out = out;
+		this.compressor = compressor;
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	static byte[] gzip(byte[] data, int length) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(length / 4 + 64);
+		try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+			gzip.write(data, 0, length);
+		}
+		return bytes.toByteArray();
+	}
+
+	static BlockCompressor zstd(int level) {
+		return (data, length) -> {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(length / 4 + 64);
+			try (ZstdOutputStream zstd = new ZstdOutputStream(bytes, level)) {
+				zstd.write(data, 0, length);
+			}
+			return bytes.toByteArray();
+		};
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		if (this.length == this.block.length) {
+			submitBlock();
+		}
+		this.block[this.length++] = (byte) b;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		while (len > 0) {
+			if (this.length == this.block.length) {
+				submitBlock();
+			}
+			int n = Math.min(len, this.block.length - this.length);
+			System.arraycopy(b, off, this.block, this.length, n);
+			this.length += n;
+			off += n;
+			len -= n;
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		checkFailure();
+		if (this.executor == null) {
+			// nothing was handed to the background threads yet
+			if (this.length > 0) {
+				this.out.write(this.compressor.compress(this.block, this.length));
+				this.length = 0;
+			}
+			this.out.flush();
+			return;
+		}
+		if (this.length > 0) {
+			submitBlock();
+		}
+		try {
+			this.compressedBlocks.put(FLUSH);
+			this.flushed.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while compressing");
+		}
+		checkFailure();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (this.closed) {
+			return;
+		}
+		this.closed = true;
+		try {
+			if (this.executor == null) {
+				// everything fits into one block, so there is nothing to parallelize
+				this.out.write(this.compressor.compress(this.block, this.length));
+			} else {
+				if (this.length > 0) {
+					submitBlock();
+				}
+				this.compressedBlocks.put(END);
+				this.writer.join();
+				checkFailure();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while compressing");
+		} finally {
+			if (this.executor != null) {
+				this.executor.shutdownNow();
+			}
+			this.out.close();
+		}
+	}
+
+	private void submitBlock() throws IOException {
+		checkFailure();
+		if (this.executor == null) {
+			start();
+		}
+		byte[] data = this.block;
+		int dataLength = this.length;
+		try {
+			this.compressedBlocks.put(this.executor.submit(() -> {
+				byte[] compressed = this.compressor.compress(data, dataLength);
+				this.freeBlocks.offer(data);
+				return compressed;
+			}));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while compressing");
+		}
+		byte[] free = this.freeBlocks.poll();
+		this.block = free == null ? new byte[BLOCK_SIZE] : free;
+		this.length = 0;
+	}
+
+	private void start() {
+		this.executor = Executors.newFixedThreadPool(this.numberOfThreads, r -> {
+			Thread thread = new Thread(r, "ParallelCompression");
+			thread.setDaemon(true);
+			return thread;
+		});
+		// limits the memory used if compressing or writing is slower than producing the data
+		this.compressedBlocks = new ArrayBlockingQueue<>(2 * this.numberOfThreads);
+		this.freeBlocks = new ArrayBlockingQueue<>(2 * this.numberOfThreads + 2);
+		this.writer = new Thread(this::writeBlocks, "ParallelCompressionWriter");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	private void writeBlocks() {
+		try {
+			Future<byte[]> next;
+			while ((next = this.compressedBlocks.take()) != END) {
+				if (next == FLUSH) {
+					if (this.failure == null) {
+						try {
+							this.out.flush();
+						} catch (IOException | RuntimeException e) {
+							this.failure = e;
+						}
+					}
+					this.flushed.release();
+				} else if (this.failure == null) {
+					try {
+						this.out.write(next.get());
+					} catch (ExecutionException e) {
+						this.failure = e.getCause();
+					} catch (IOException | RuntimeException e) {
+						this.failure = e;
+					}
+				}
+				// after a failure, the remaining blocks are only taken, so that the producer is not blocked
+			}
+		} catch (InterruptedException e) {
+			this.failure = e;
+		}
+	}
+
+	private void checkFailure() throws IOException {
+		Throwable t = this.failure;
+		if (t != null) {
+			throw t instanceof IOException ioe ? ioe : new IOException("compressing the output failed", t);
+		}
+	}
+}
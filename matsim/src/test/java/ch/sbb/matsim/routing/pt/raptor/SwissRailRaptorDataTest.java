@@ -21,14 +21,24 @@ package ch.sbb.matsim.routing.pt.raptor;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.matsim.api.core.v01.Id;
+import org.matsim.pt.transitSchedule.api.TransitLine;
+import org.matsim.pt.transitSchedule.api.TransitRoute;
+import org.matsim.pt.transitSchedule.api.TransitScheduleFactory;
 import org.matsim.pt.transitSchedule.api.TransitStopFacility;
 
+import java.io.File;
+import java.util.Objects;
+
 /**
  * @author mrieser / SBB
  */
 public class SwissRailRaptorDataTest {
 
+	@TempDir
+	public File tempFolder;
+
 	@Test
 	void testTransfersFromSchedule() {
         Fixture f = new Fixture();
@@ -97,4 +107,60 @@ public class SwissRailRaptorDataTest {
         Assertions.assertEquals(data2.transfers.length, data4.transfers.length, "number of transfers should have stayed the same.");
     }
 
+	@Test
+	void testCachedTransfers() {
+		Fixture f = new Fixture();
+		f.init();
+
+		RaptorStaticConfig raptorConfig = RaptorUtils.createStaticConfig(f.config);
+		SwissRailRaptorData expected = SwissRailRaptorData.create(f.schedule, null, raptorConfig, f.network, null);
+
+		raptorConfig.setCacheDirectory(this.tempFolder.getAbsolutePath());
+		SwissRailRaptorData calculated = SwissRailRaptorData.create(f.schedule, null, raptorConfig, f.network, null);
+		Assertions.assertEquals(1, Objects.requireNonNull(this.tempFolder.listFiles()).length, "the transfers should be written to the cache");
+		SwissRailRaptorData cached = SwissRailRaptorData.create(f.schedule, null, raptorConfig, f.network, null);
+		Assertions.assertEquals(1, Objects.requireNonNull(this.tempFolder.listFiles()).length, "the cached transfers should be reused");
+		assertSameTransfers(expected, calculated);
+		assertSameTransfers(expected, cached);
+
+		// changed minimal transfer times need other transfers
+		f.schedule.getMinimalTransferTimes().set(Id.create(5, TransitStopFacility.class), Id.create(18, TransitStopFacility.class), 456);
+		SwissRailRaptorData changed = SwissRailRaptorData.create(f.schedule, null, raptorConfig, f.network, null);
+		Assertions.assertEquals(2, Objects.requireNonNull(this.tempFolder.listFiles()).length, "changed minimal transfer times should not use the cache");
+		Assertions.assertEquals(expected.transfers.length, changed.transfers.length);
+	}
+
+	@Test
+	void testCachedTransfersWithRouteWithoutDepartures() {
+		Fixture f = new Fixture();
+		f.init();
+		TransitScheduleFactory builder = f.schedule.getFactory();
+		TransitRoute redRoute = f.redLine.getRoutes().get(Id.create("red C > G", TransitRoute.class));
+		TransitLine line = builder.createTransitLine(Id.create("unused", TransitLine.class));
+		line.addRoute(builder.createTransitRoute(Id.create("unused", TransitRoute.class), redRoute.getRoute(), redRoute.getStops(), "train"));
+		f.schedule.addTransitLine(line);
+
+		RaptorStaticConfig raptorConfig = RaptorUtils.createStaticConfig(f.config);
+		SwissRailRaptorData expected = SwissRailRaptorData.create(f.schedule, null, raptorConfig, f.network, null);
+		raptorConfig.setCacheDirectory(this.tempFolder.getAbsolutePath());
+		SwissRailRaptorData calculated = SwissRailRaptorData.create(f.schedule, null, raptorConfig, f.network, null);
+		SwissRailRaptorData cached = SwissRailRaptorData.create(f.schedule, null, raptorConfig, f.network, null);
+		Assertions.assertEquals(1, Objects.requireNonNull(this.tempFolder.listFiles()).length, "the cached transfers should be reused");
+		assertSameTransfers(expected, calculated);
+		assertSameTransfers(expected, cached);
+	}
+
+	private static void assertSameTransfers(SwissRailRaptorData expected, SwissRailRaptorData actual) {
+		Assertions.assertEquals(expected.transfers.length, actual.transfers.length, "wrong number of transfers.");
+		for (int i = 0; i < expected.transfers.length; i++) {
+			Assertions.assertEquals(expected.transfers[i].fromRouteStop, actual.transfers[i].fromRouteStop);
+			Assertions.assertEquals(expected.transfers[i].toRouteStop, actual.transfers[i].toRouteStop);
+			Assertions.assertEquals(expected.transfers[i].transferTime, actual.transfers[i].transferTime);
+			Assertions.assertEquals(expected.transfers[i].transferDistance, actual.transfers[i].transferDistance);
+		}
+		for (int i = 0; i < expected.routeStops.length; i++) {
+			Assertions.assertEquals(expected.routeStops[i].indexFirstTransfer, actual.routeStops[i].indexFirstTransfer);
+			Assertions.assertEquals(expected.routeStops[i].countTransfers, actual.routeStops[i].countTransfers);
+		}
+	}
 }
@@ -400,6 +400,110 @@ public class SwissRailRaptorTreeTest {
         Assertions.assertNull(stage5.line); // egress_walk
     }
 
+    @Test
+    void testProfileTree_sameConnectionsAsTrees() {
+        Fixture f = new Fixture();
+        f.init();
+
+        RaptorStaticConfig config = RaptorUtils.createStaticConfig(f.config);
+        config.setOptimization(RaptorStaticConfig.RaptorOptimization.OneToAllRouting);
+        SwissRailRaptorData data = SwissRailRaptorData.create(f.scenario.getTransitSchedule(), null, config, f.scenario.getNetwork(), null);
+        SwissRailRaptor raptor = new SwissRailRaptor.Builder(data, f.scenario.getConfig()).build();
+
+        RaptorParameters raptorParams = RaptorUtils.createParameters(f.config);
+
+        // start at B and H
+        List<TransitStopFacility> fromStops = new ArrayList<>();
+        fromStops.add(f.schedule.getFacilities().get(Id.create(2, TransitStopFacility.class)));
+        fromStops.add(f.schedule.getFacilities().get(Id.create(15, TransitStopFacility.class)));
+        double earliestDepTime = 7*3600;
+        double latestDepTime = 8*3600 + 30*60;
+        Map<Id<TransitStopFacility>, List<TravelInfo>> profile = raptor.calcProfileTree(fromStops, earliestDepTime, latestDepTime, raptorParams, null);
+
+        for (List<TravelInfo> connections : profile.values()) {
+            for (int i = 1; i < connections.size(); i++) {
+                Assertions.assertTrue(connections.get(i - 1).ptDepartureTime <= connections.get(i).ptDepartureTime, "connections are not sorted by departure time.");
+            }
+        }
+
+        // every connection found by a tree for a single departure time must be part of the profile
+        int treeConnectionsCount = 0;
+        for (double depTime = earliestDepTime; depTime <= latestDepTime; depTime += 60) {
+            Map<Id<TransitStopFacility>, TravelInfo> tree = raptor.calcTree(fromStops, depTime, raptorParams, null);
+            for (Map.Entry<Id<TransitStopFacility>, TravelInfo> e : tree.entrySet()) {
+                TravelInfo expected = e.getValue();
+                if (expected.isWalkOnly() || expected.ptDepartureTime > latestDepTime) {
+                    continue;
+                }
+                treeConnectionsCount++;
+                boolean found = false;
+                for (TravelInfo actual : profile.get(e.getKey())) {
+                    if (actual.ptDepartureTime == expected.ptDepartureTime && actual.ptArrivalTime == expected.ptArrivalTime
+                            && actual.transferCount == expected.transferCount && actual.departureStop.equals(expected.departureStop)) {
+                        Assertions.assertEquals(expected.travelCost, actual.travelCost, 1e-7, "wrong travel cost to stop " + e.getKey());
+                        found = true;
+                    }
+                }
+                Assertions.assertTrue(found, "connection to stop " + e.getKey() + " departing at " + Time.writeTime(expected.ptDepartureTime) + " is missing in the profile.");
+            }
+        }
+        Assertions.assertTrue(treeConnectionsCount > 0);
+
+        // from B, stop 6 is directly reachable with the blue line, which departs every 20 minutes
+        List<TravelInfo> connectionsTo6 = profile.get(Id.create(6, TransitStopFacility.class));
+        Assertions.assertTrue(connectionsTo6.size() >= 4, "expected a connection for each departure of the blue line, found " + connectionsTo6.size());
+    }
+
+    @Test
+    void testParallelRouteExploration_sameResults() {
+        Fixture f = new Fixture();
+        f.init();
+
+        RaptorStaticConfig sequentialConfig = RaptorUtils.createStaticConfig(f.config);
+        sequentialConfig.setOptimization(RaptorStaticConfig.RaptorOptimization.OneToAllRouting);
+        RaptorStaticConfig parallelConfig = RaptorUtils.createStaticConfig(f.config);
+        parallelConfig.setOptimization(RaptorStaticConfig.RaptorOptimization.OneToAllRouting);
+        parallelConfig.setNumberOfThreadsPerQuery(3);
+        SwissRailRaptorCore sequential = new SwissRailRaptorCore(SwissRailRaptorData.create(f.schedule, null, sequentialConfig, f.network, null),
+                new DefaultRaptorInVehicleCostCalculator(), new DefaultRaptorTransferCostCalculator());
+        SwissRailRaptorCore parallel = new SwissRailRaptorCore(SwissRailRaptorData.create(f.schedule, null, parallelConfig, f.network, null),
+                new DefaultRaptorInVehicleCostCalculator(), new DefaultRaptorTransferCostCalculator());
+        parallel.minRoutesPerChunk = 1; // the fixture only has a few routes
+
+        RaptorParameters raptorParams = RaptorUtils.createParameters(f.config);
+        List<TransitStopFacility> stops = new ArrayList<>(f.schedule.getFacilities().values());
+        for (double depTime = 7*3600; depTime <= 8*3600; depTime += 17*60) {
+            for (TransitStopFacility fromStop : stops) {
+                List<InitialStop> accessStops = List.of(new InitialStop(fromStop, 0, 0, 0, TransportMode.walk));
+                Map<Id<TransitStopFacility>, TravelInfo> expectedTree = sequential.calcLeastCostTree(depTime, accessStops, raptorParams, null);
+                Map<Id<TransitStopFacility>, TravelInfo> actualTree = parallel.calcLeastCostTree(depTime, accessStops, raptorParams, null);
+                Assertions.assertEquals(expectedTree.keySet(), actualTree.keySet());
+                for (Map.Entry<Id<TransitStopFacility>, TravelInfo> e : expectedTree.entrySet()) {
+                    TravelInfo expected = e.getValue();
+                    TravelInfo actual = actualTree.get(e.getKey());
+                    Assertions.assertEquals(expected.travelCost, actual.travelCost, 0.0, "wrong travel cost to stop " + e.getKey());
+                    Assertions.assertEquals(expected.ptArrivalTime, actual.ptArrivalTime, 0.0, "wrong arrival time at stop " + e.getKey());
+                    Assertions.assertEquals(expected.transferCount, actual.transferCount, "wrong number of transfers to stop " + e.getKey());
+                }
+
+                for (TransitStopFacility toStop : stops) {
+                    List<InitialStop> egressStops = List.of(new InitialStop(toStop, 0, 0, 0, TransportMode.walk));
+                    FakeFacility fromFacility = new FakeFacility(fromStop.getCoord());
+                    FakeFacility toFacility = new FakeFacility(toStop.getCoord());
+                    RaptorRoute expected = sequential.calcLeastCostRoute(depTime, fromFacility, toFacility, accessStops, egressStops, raptorParams, null);
+                    RaptorRoute actual = parallel.calcLeastCostRoute(depTime, fromFacility, toFacility, accessStops, egressStops, raptorParams, null);
+                    if (expected == null) {
+                        Assertions.assertNull(actual);
+                        continue;
+                    }
+                    Assertions.assertEquals(expected.getTotalCosts(), actual.getTotalCosts(), 0.0, "wrong costs from " + fromStop.getId() + " to " + toStop.getId());
+                    Assertions.assertEquals(expected.getTravelTime(), actual.getTravelTime(), 0.0, "wrong travel time from " + fromStop.getId() + " to " + toStop.getId());
+                    Assertions.assertEquals(expected.getNumberOfTransfers(), actual.getNumberOfTransfers(), "wrong number of transfers from " + fromStop.getId() + " to " + toStop.getId());
+                }
+            }
+        }
+    }
+
     private void assertTravelInfo(Map<Id<TransitStopFacility>, TravelInfo> map, int stopId, String expectedDepartureStop, int expectedTransfers, String expectedDepartureTime, String expectedArrivalTime) {
         TravelInfo info = map.get(Id.create(stopId, TransitStopFacility.class));
         Assertions.assertNotNull(info, "Stop " + stopId + " is not reachable.");
@@ -0,0 +1,60 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.events;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.EventsManagerImplTest.CountingMyEventHandler;
+import org.matsim.core.events.EventsManagerImplTest.CrashingMyEventHandler;
+import org.matsim.core.events.EventsManagerImplTest.MyEvent;
+import org.matsim.core.events.EventsManagerImplTest.MyEventHandler;
+
+public class EventHandlerInvokerTest {
+
+	@Test
+	void testInvoke() throws Throwable {
+		CountingMyEventHandler handler = new CountingMyEventHandler();
+		EventHandlerInvoker invoker = EventHandlerInvoker.create(MyEventHandler.class.getMethod("handleEvent", MyEvent.class));
+		invoker.invoke(handler, new MyEvent(1.0));
+		invoker.invoke(handler, new MyEvent(2.0));
+		Assertions.assertEquals(2, handler.counter);
+	}
+
+	@Test
+	void testExceptionIsNotWrapped() throws Exception {
+		CrashingMyEventHandler handler = new CrashingMyEventHandler();
+		EventHandlerInvoker invoker = EventHandlerInvoker.create(MyEventHandler.class.getMethod("handleEvent", MyEvent.class));
+		Assertions.assertThrows(ArithmeticException.class, () -> invoker.invoke(handler, new MyEvent(1.0)));
+		Assertions.assertEquals(1, handler.counter);
+	}
+
+	@Test
+	void testEventsManagersWrapExceptions() {
+		for (EventsManager manager : new EventsManager[] {EventsUtils.createEventsManager(), new SingleHandlerEventsManager(new CrashingMyEventHandler())}) {
+			if (manager instanceof EventsManagerImpl) {
+				manager.addHandler(new CrashingMyEventHandler());
+			}
+			manager.initProcessing();
+			RuntimeException e = Assertions.assertThrows(RuntimeException.class, () -> manager.processEvent(new MyEvent(1.0)));
+			Assertions.assertTrue(e.getCause() instanceof ArithmeticException, manager.getClass().getName());
+			Assertions.assertTrue(e.getMessage().startsWith("problem invoking EventHandler"));
+		}
+	}
+}
@@ -0,0 +1,201 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.events;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.ActivityEndEvent;
+import org.matsim.api.core.v01.events.ActivityStartEvent;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.GenericEvent;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.PersonArrivalEvent;
+import org.matsim.api.core.v01.events.PersonDepartureEvent;
+import org.matsim.api.core.v01.events.PersonEntersVehicleEvent;
+import org.matsim.api.core.v01.events.PersonLeavesVehicleEvent;
+import org.matsim.api.core.v01.events.PersonMoneyEvent;
+import org.matsim.api.core.v01.events.PersonStuckEvent;
+import org.matsim.api.core.v01.events.VehicleAbortsEvent;
+import org.matsim.api.core.v01.events.VehicleEntersTrafficEvent;
+import org.matsim.api.core.v01.events.VehicleLeavesTrafficEvent;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.api.experimental.events.TeleportationArrivalEvent;
+import org.matsim.core.config.groups.ControllerConfigGroup;
+import org.matsim.core.events.algorithms.EventWriterBinary;
+import org.matsim.core.events.algorithms.EventWriterXML;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.api.core.v01.events.handler.LinkLeaveEventHandler;
+import org.matsim.api.core.v01.events.handler.PersonStuckEventHandler;
+import org.matsim.facilities.ActivityFacility;
+import org.matsim.testcases.MatsimTestUtils;
+import org.matsim.vehicles.Vehicle;
+
+public class EventsReaderBinaryTest {
+
+	@RegisterExtension
+	private MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	void testSameEventsAsXml() {
+		List<Event> events = createEvents(3 * EventWriterBinary.EVENTS_PER_CHUNK + 17);
+		for (String extension : new String[] {".bin", ".bin.gz", ".bin.zst"}) {
+			String xmlFile = utils.getOutputDirectory() + "events.xml.gz";
+			String binaryFile = utils.getOutputDirectory() + "events" + extension;
+			EventWriterXML xmlWriter = new EventWriterXML(xmlFile);
+			EventWriterBinary binaryWriter = new EventWriterBinary(binaryFile);
+			events.forEach(xmlWriter::handleEvent);
+			events.forEach(binaryWriter::handleEvent);
+			xmlWriter.closeFile();
+			binaryWriter.closeFile();
+
+			List<String> fromXml = read(xmlFile);
+			List<String> fromBinary = read(binaryFile);
+			Assertions.assertEquals(events.size(), fromBinary.size());
+			Assertions.assertEquals(fromXml, fromBinary, extension);
+		}
+	}
+
+	@Test
+	void testParallelDecodingKeepsOrder() {
+		List<Event> events = createEvents(10 * EventWriterBinary.EVENTS_PER_CHUNK);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		EventWriterBinary writer = new EventWriterBinary(bytes);
+		events.forEach(writer::handleEvent);
+		writer.closeFile();
+
+		for (int threads : new int[] {1, 3}) {
+			List<String> read = new ArrayList<>();
+			EventsManager manager = EventsUtils.createEventsManager();
+			manager.addHandler((BasicEventHandler) event -> read.add(event.toString()));
+			new EventsReaderBinary(manager, threads).parse(new ByteArrayInputStream(bytes.toByteArray()));
+			Assertions.assertEquals(events.stream().map(Event::toString).toList(), read, "threads: " + threads);
+		}
+	}
+
+	@Test
+	void testOnlyHandledEventsAreCreated() {
+		List<Event> events = createEvents(2 * EventWriterBinary.EVENTS_PER_CHUNK);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		EventWriterBinary writer = new EventWriterBinary(bytes);
+		events.forEach(writer::handleEvent);
+		// pooled events are written like ordinary ones
+		writer.handleEvent(PooledEvents.linkLeave(1e6, Id.createVehicleId("pooled"), Id.createLinkId("pooled")));
+		writer.closeFile();
+
+		List<Event> read = new ArrayList<>();
+		EventsManager manager = EventsUtils.createEventsManager();
+		manager.addHandler((LinkLeaveEventHandler) read::add);
+		manager.addHandler((PersonStuckEventHandler) read::add);
+		new EventsReaderBinary(manager, 2).parse(new ByteArrayInputStream(bytes.toByteArray()));
+
+		List<Event> expected = new ArrayList<>(events.stream().filter(e -> e instanceof LinkLeaveEvent || e instanceof PersonStuckEvent).toList());
+		expected.add(new LinkLeaveEvent(1e6, Id.createVehicleId("pooled"), Id.createLinkId("pooled")));
+		Assertions.assertEquals(expected.stream().map(Event::toString).toList(), read.stream().map(Event::toString).toList());
+	}
+
+	@Test
+	void testCustomEventMapper() {
+		String file = utils.getOutputDirectory() + "events.bin";
+		EventWriterBinary writer = new EventWriterBinary(file);
+		GenericEvent custom = new GenericEvent("custom", 10.0);
+		custom.getAttributes().put("value", "42");
+		writer.handleEvent(custom);
+		writer.closeFile();
+
+		List<Event> read = new ArrayList<>();
+		EventsManager manager = EventsUtils.createEventsManager();
+		manager.addHandler((BasicEventHandler) read::add);
+		MatsimEventsReader reader = new MatsimEventsReader(manager);
+		reader.addCustomEventMapper("custom", event -> new PersonMoneyEvent(event.getTime(), Id.createPersonId("p"),
+				Double.parseDouble(event.getAttributes().get("value")), "custom", null, null));
+		reader.readFile(file);
+		Assertions.assertEquals(1, read.size());
+		Assertions.assertEquals(42.0, ((PersonMoneyEvent) read.get(0)).getAmount(), 0.0);
+	}
+
+	@Test
+	void testReadStream() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		EventWriterBinary writer = new EventWriterBinary(bytes);
+		writer.handleEvent(new LinkEnterEvent(5.0, Id.createVehicleId("v"), Id.createLinkId("l")));
+		writer.closeFile();
+
+		List<Event> read = new ArrayList<>();
+		EventsManager manager = EventsUtils.createEventsManager();
+		manager.addHandler((BasicEventHandler) read::add);
+		new MatsimEventsReader(manager).readStream(new ByteArrayInputStream(bytes.toByteArray()), ControllerConfigGroup.EventsFileFormat.bin);
+		Assertions.assertEquals(List.of(new LinkEnterEvent(5.0, Id.createVehicleId("v"), Id.createLinkId("l"))), read);
+	}
+
+	private static List<Event> createEvents(int count) {
+		List<Event> events = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			double time = i * 0.5;
+			Id<Person> personId = Id.createPersonId(i % 89);
+			Id<Vehicle> vehicleId = Id.createVehicleId("veh" + (i % 97));
+			Id<Link> linkId = Id.createLinkId(i % 1013);
+			switch (i % 16) {
+				case 0 -> events.add(new LinkEnterEvent(time, vehicleId, linkId));
+				case 1 -> events.add(new ActivityEndEvent(time, personId, Id.createLinkId("l" + i % 7), null, "work",
+						new Coord(i * 1.25, -i * 3.0)));
+				case 2 -> events.add(new PersonMoneyEvent(time, personId, 0.1 * i, "toll", "operator \"" + i + "\"", null));
+				case 3 -> {
+					GenericEvent event = new GenericEvent("generic", time);
+					event.getAttributes().put("text", "äöü & <" + (i % 5) + ">");
+					event.getAttributes().put("number", "1e3");
+					events.add(event);
+				}
+				case 4 -> events.add(new LinkLeaveEvent(time, vehicleId, linkId));
+				case 5 -> events.add(new VehicleEntersTrafficEvent(time, personId, linkId, vehicleId, "car", 1.0 - 0.001 * (i % 100)));
+				case 6 -> events.add(new VehicleLeavesTrafficEvent(time, personId, linkId, vehicleId, "car", 1.0));
+				case 7 -> events.add(new PersonDepartureEvent(time, personId, linkId, "walk", i % 3 == 0 ? null : "pt"));
+				case 8 -> events.add(new PersonArrivalEvent(time, personId, linkId, "walk"));
+				case 9 -> events.add(new ActivityStartEvent(time, personId, linkId, Id.create("f" + i % 11, ActivityFacility.class), "home",
+						null));
+				case 10 -> events.add(new PersonEntersVehicleEvent(time, personId, vehicleId));
+				case 11 -> events.add(new PersonLeavesVehicleEvent(time, personId, vehicleId));
+				case 12 -> events.add(new TeleportationArrivalEvent(time, personId, 123.4 * i, "bike"));
+				case 13 -> events.add(new PersonStuckEvent(time, personId, i % 2 == 0 ? null : linkId, i % 2 == 0 ? null : "car"));
+				// the person and vehicle ids are equal as strings, but of different types
+				case 14 -> events.add(new PersonEntersVehicleEvent(time, personId, Id.createVehicleId(personId.toString())));
+				default -> events.add(new VehicleAbortsEvent(time, vehicleId, linkId));
+			}
+		}
+		return events;
+	}
+
+	private static List<String> read(String filename) {
+		List<String> events = new ArrayList<>();
+		EventsManager manager = EventsUtils.createEventsManager();
+		manager.addHandler((BasicEventHandler) event -> events.add(event.toString()));
+		EventsUtils.readEvents(manager, filename);
+		return events;
+	}
+}
@@ -0,0 +1,157 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.events;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.ActivityStartEvent;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.GenericEvent;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.PersonMoneyEvent;
+import org.matsim.api.core.v01.events.handler.GenericEventHandler;
+import org.matsim.api.core.v01.events.handler.LinkEnterEventHandler;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.algorithms.EventWriterBinary;
+import org.matsim.core.events.algorithms.EventWriterXML;
+import org.matsim.core.events.handler.EventHandler;
+import org.matsim.testcases.MatsimTestUtils;
+
+public class EventsReaderFilteringTest {
+
+	@RegisterExtension
+	private MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	void testOnlyHandledEventsAreCreated() {
+		String xmlFile = utils.getOutputDirectory() + "events.xml.gz";
+		String binaryFile = utils.getOutputDirectory() + "events.bin";
+		EventWriterXML xmlWriter = new EventWriterXML(xmlFile);
+		EventWriterBinary binaryWriter = new EventWriterBinary(binaryFile);
+		for (int i = 0; i < 1000; i++) {
+			for (Event event : createEvents(i)) {
+				xmlWriter.handleEvent(event);
+				binaryWriter.handleEvent(event);
+			}
+		}
+		xmlWriter.closeFile();
+		binaryWriter.closeFile();
+
+		for (String file : new String[] {xmlFile, binaryFile}) {
+			for (boolean parallel : new boolean[] {false, true}) {
+				RecordingEventsManager events = new RecordingEventsManager();
+				events.addHandler((LinkEnterEventHandler) event -> {});
+				MatsimEventsReader reader = new MatsimEventsReader(events);
+				reader.setParallelXmlReading(parallel);
+				reader.readFile(file);
+				Assertions.assertEquals(Map.of(LinkEnterEvent.EVENT_TYPE, 1000), events.counts, file);
+			}
+		}
+	}
+
+	@Test
+	void testCustomAndGenericEvents() {
+		String file = utils.getOutputDirectory() + "events.xml";
+		EventWriterXML writer = new EventWriterXML(file);
+		for (int i = 0; i < 10; i++) {
+			createEvents(i).forEach(writer::handleEvent);
+		}
+		writer.closeFile();
+
+		// the class of custom events is only known after mapping, so they are always created
+		RecordingEventsManager events = new RecordingEventsManager();
+		events.addHandler((LinkEnterEventHandler) event -> {});
+		MatsimEventsReader reader = new MatsimEventsReader(events);
+		reader.addCustomEventMapper("custom", event -> event);
+		reader.readFile(file);
+		Assertions.assertEquals(Map.of(LinkEnterEvent.EVENT_TYPE, 10, "custom", 10), events.counts);
+
+		// unknown types become generic events
+		events = new RecordingEventsManager();
+		events.addHandler((GenericEventHandler) event -> {});
+		new MatsimEventsReader(events).readFile(file);
+		Assertions.assertEquals(Map.of("custom", 10), events.counts);
+	}
+
+	private static List<Event> createEvents(int i) {
+		List<Event> events = new ArrayList<>();
+		events.add(new LinkEnterEvent(i, Id.createVehicleId(i % 7), Id.createLinkId(i % 13)));
+		events.add(new ActivityStartEvent(i, Id.createPersonId(i % 5), Id.createLinkId(i % 13), null, "home", null));
+		events.add(new PersonMoneyEvent(i, Id.createPersonId(i % 5), -1.5, "toll", null, null));
+		events.add(new GenericEvent("custom", i));
+		return events;
+	}
+
+	/**
+	 * Counts the events it receives by type, no matter whether they are handled.
+	 */
+	private static class RecordingEventsManager implements EventsManager {
+
+		private final EventsManager delegate = EventsUtils.createEventsManager();
+		private final Map<String, Integer> counts = new TreeMap<>();
+
+		@Override
+		public synchronized void processEvent(Event event) {
+			this.counts.merge(event.getEventType(), 1, Integer::sum);
+			this.delegate.processEvent(event);
+		}
+
+		@Override
+		public boolean isHandled(Class<? extends Event> eventClass) {
+			return this.delegate.isHandled(eventClass);
+		}
+
+		@Override
+		public void addHandler(EventHandler handler) {
+			this.delegate.addHandler(handler);
+		}
+
+		@Override
+		public void removeHandler(EventHandler handler) {
+			this.delegate.removeHandler(handler);
+		}
+
+		@Override
+		public void resetHandlers(int iteration) {
+			this.delegate.resetHandlers(iteration);
+		}
+
+		@Override
+		public void initProcessing() {
+			this.delegate.initProcessing();
+		}
+
+		@Override
+		public void afterSimStep(double time) {
+			this.delegate.afterSimStep(time);
+		}
+
+		@Override
+		public void finishProcessing() {
+			this.delegate.finishProcessing();
+		}
+	}
+}
@@ -0,0 +1,188 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.events;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.ActivityEndEvent;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.GenericEvent;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.algorithms.EventWriterXML;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.testcases.MatsimTestUtils;
+
+public class ParallelEventsReaderXMLTest {
+
+	@RegisterExtension
+	private MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	void testSameEventsAsSequentialReader() {
+		String file = utils.getOutputDirectory() + "events.xml.gz";
+		EventWriterXML writer = new EventWriterXML(file);
+		for (int i = 0; i < 60000; i++) {
+			double time = i * 0.5;
+			switch (i % 3) {
+				case 0 -> writer.handleEvent(new LinkEnterEvent(time, Id.createVehicleId("veh" + (i % 97)), Id.createLinkId(i % 1013)));
+				case 1 -> writer.handleEvent(new ActivityEndEvent(time, Id.createPersonId(i % 89), Id.createLinkId("l" + i % 7), null,
+						"work", new Coord(i * 1.25, -i * 3.0)));
+				default -> {
+					GenericEvent event = new GenericEvent("generic", time);
+					event.getAttributes().put("text", "äöü & <" + (i % 5) + "> \"quoted\"");
+					writer.handleEvent(event);
+				}
+			}
+		}
+		writer.closeFile();
+
+		List<String> expected = read(file, false, 1);
+		Assertions.assertEquals(60000, expected.size());
+		for (int threads : new int[] {1, 3}) {
+			Assertions.assertEquals(expected, read(file, true, threads), "threads: " + threads);
+		}
+	}
+
+	@Test
+	void testExistingEventsFile() {
+		String file = utils.getPackageInputDirectory() + "EventsReadersTest/events.xml";
+		Assertions.assertEquals(read(file, false, 1), read(file, true, 2));
+	}
+
+	@Test
+	void testShortReads() {
+		StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n<events version=\"1.0\">\n");
+		for (int i = 0; i < 1000; i++) {
+			xml.append("\t<event time=\"").append(i).append(".0\" type=\"generic\" />\n");
+		}
+		xml.append("</events>");
+		// returns at most 100 chars per read, like a reader at the end of every gzip member
+		Reader shortReads = new FilterReader(new StringReader(xml.toString())) {
+			@Override
+			public int read(char[] buffer, int offset, int length) throws IOException {
+				return super.read(buffer, offset, Math.min(100, length));
+			}
+		};
+		List<Event> events = new ArrayList<>();
+		EventsManager manager = EventsUtils.createEventsManager();
+		manager.addHandler((BasicEventHandler) events::add);
+		new ParallelEventsReaderXML(manager, 2).parse(new BufferedReader(shortReads));
+		Assertions.assertEquals(1000, events.size());
+		for (int i = 0; i < 1000; i++) {
+			Assertions.assertEquals(i, events.get(i).getTime(), 0.0);
+		}
+	}
+
+	@Test
+	void testAttributeValueNormalization() {
+		String xml = "<?xml version=\"1.0\" encoding=\"utf-8\"?>\n<events version=\"1.0\">\n"
+				+ "\t<event time='1.0' type=\"generic\" text=\"a\tb\r\nc&#65;&#x42;&apos;\"/>\n"
+				+ "\t<event\n time=\"2.0\" type=\"generic\"></event>\n"
+				+ "</events>";
+		List<Event> events = new ArrayList<>();
+		EventsManager manager = EventsUtils.createEventsManager();
+		manager.addHandler((BasicEventHandler) events::add);
+		new ParallelEventsReaderXML(manager, 1).parse(new BufferedReader(new StringReader(xml)));
+		Assertions.assertEquals(2, events.size());
+		Assertions.assertEquals("a b cAB'", events.get(0).getAttributes().get("text"));
+		Assertions.assertEquals(2.0, events.get(1).getTime(), 0.0);
+	}
+
+	@Test
+	void testUnsupportedContent() {
+		String xml = "<events version=\"1.0\">\n<!-- a comment -->\n<event time=\"1.0\" type=\"generic\" />\n</events>";
+		ParallelEventsReaderXML reader = new ParallelEventsReaderXML(EventsUtils.createEventsManager(), 1);
+		RuntimeException e = Assertions.assertThrows(RuntimeException.class, () -> reader.parse(new BufferedReader(new StringReader(xml))));
+		Assertions.assertTrue(e.getCause() instanceof IllegalArgumentException);
+	}
+
+	@Test
+	void testBrokenContent() {
+		String[] events = {
+				"<event time=\"1.0\" type=\"generic\" text=\"a &amp b\" />",
+				"<event time=\"1.0\" type=\"generic\" text=\"a &amp",
+				"<event time=\"1.0\" type=\"generic\" text=\"a &#xzz; b\" />",
+				"<event time=\"1.0\" type=\"generic\" text=\"a b",
+				"<event time=\"1.0\" type=\"generic\" text",
+				"<event time=\"1.0\" type=\"generic\" />\n<event",
+				"<event"};
+		for (String event : events) {
+			String xml = "<events version=\"1.0\">\n" + event;
+			ParallelEventsReaderXML reader = new ParallelEventsReaderXML(EventsUtils.createEventsManager(), 1);
+			RuntimeException e = Assertions.assertTimeoutPreemptively(Duration.ofSeconds(10),
+					() -> Assertions.assertThrows(RuntimeException.class, () -> reader.parse(new BufferedReader(new StringReader(xml)))));
+			Assertions.assertTrue(e.getCause() instanceof IllegalArgumentException, event);
+		}
+	}
+
+	@Test
+	void testSequentialByDefault() throws IOException {
+		String xml = "<events version=\"1.0\">\n<!-- a comment -->\n<event time=\"1.0\" type=\"generic\" />\n</events>";
+		String filename = this.utils.getOutputDirectory() + "comment.xml";
+		try (BufferedWriter writer = IOUtils.getBufferedWriter(filename)) {
+			writer.write(xml);
+		}
+		List<Event> events = new ArrayList<>();
+		EventsManager manager = EventsUtils.createEventsManager();
+		manager.addHandler((BasicEventHandler) events::add);
+		manager.initProcessing();
+		new MatsimEventsReader(manager).readFile(filename);
+		manager.finishProcessing();
+		Assertions.assertEquals(1, events.size());
+	}
+
+	@Test
+	void testLastEventStart() {
+		char[] chars = "<events>\n<event a=\"1\" />\n<event a=\"2\" />\n</events>".toCharArray();
+		Assertions.assertEquals(25, ParallelEventsReaderXML.lastEventStart(chars, chars.length));
+		Assertions.assertEquals(9, ParallelEventsReaderXML.lastEventStart(chars, 25));
+		Assertions.assertEquals(-1, ParallelEventsReaderXML.lastEventStart(chars, 9));
+		// the block ends right after <event
+		Assertions.assertEquals(9, ParallelEventsReaderXML.lastEventStart(chars, 31));
+	}
+
+	private static List<String> read(String filename, boolean parallel, int threads) {
+		List<String> events = new ArrayList<>();
+		EventsManager manager = EventsUtils.createEventsManager();
+		manager.addHandler((BasicEventHandler) event -> events.add(event.toString()));
+		if (parallel) {
+			new ParallelEventsReaderXML(manager, threads).readFile(filename);
+		} else {
+			MatsimEventsReader reader = new MatsimEventsReader(manager);
+			reader.setParallelXmlReading(false);
+			reader.readFile(filename);
+		}
+		return events;
+	}
+}
@@ -0,0 +1,186 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.events;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.VehicleEntersTrafficEvent;
+import org.matsim.api.core.v01.events.handler.LinkEnterEventHandler;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.events.handler.NonRetainingEventHandler;
+import org.matsim.core.mobsim.qsim.QSimBuilder;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.core.trafficmonitoring.TravelTimeCalculator;
+import org.matsim.testcases.MatsimTestUtils;
+
+public class PooledEventsTest {
+
+	@RegisterExtension
+	private MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	void testReleasedEventsAreReused() {
+		LinkEnterEvent first = PooledEvents.linkEnter(1.0, Id.createVehicleId("v1"), Id.createLinkId("l1"));
+		Assertions.assertTrue(PooledEvents.isPooled(first));
+		LinkEnterEvent second = PooledEvents.linkEnter(2.0, Id.createVehicleId("v2"), Id.createLinkId("l2"));
+		Assertions.assertNotSame(first, second);
+
+		PooledEvents.release(first);
+		PooledEvents.release(first);
+		LinkEnterEvent third = PooledEvents.linkEnter(3.0, Id.createVehicleId("v3"), Id.createLinkId("l3"));
+		Assertions.assertSame(first, third);
+		Assertions.assertEquals(3.0, third.getTime(), 0.0);
+		Assertions.assertEquals(Id.createVehicleId("v3"), third.getVehicleId());
+		Assertions.assertEquals(Id.createLinkId("l3"), third.getLinkId());
+		// released twice, but only handed out once
+		Assertions.assertNotSame(third, PooledEvents.linkEnter(4.0, Id.createVehicleId("v4"), Id.createLinkId("l4")));
+	}
+
+	@Test
+	void testDetach() {
+		VehicleEntersTrafficEvent pooled = PooledEvents.vehicleEntersTraffic(1.0, Id.createPersonId("p"), Id.createLinkId("l"),
+				Id.createVehicleId("v"), "car", 0.5);
+		Event copy = PooledEvents.detach(pooled);
+		Assertions.assertEquals(VehicleEntersTrafficEvent.class, copy.getClass());
+		Assertions.assertEquals(pooled.getAttributes(), copy.getAttributes());
+
+		Event event = new LinkEnterEvent(1.0, Id.createVehicleId("v"), Id.createLinkId("l"));
+		Assertions.assertSame(event, PooledEvents.detach(event));
+
+		EventArray array = new EventArray();
+		array.add(pooled);
+		Assertions.assertFalse(PooledEvents.isPooled(array.get(0)));
+	}
+
+	@Test
+	void testEventsManagerReleasesEvent() {
+		List<LinkEnterEvent> handled = new ArrayList<>();
+		EventsManager events = EventsUtils.createEventsManager();
+		events.addHandler(new CountingHandler());
+		LinkEnterEvent event = PooledEvents.linkEnter(1.0, Id.createVehicleId("v"), Id.createLinkId("l"));
+		events.processEvent(event);
+		Assertions.assertSame(event, PooledEvents.linkEnter(2.0, Id.createVehicleId("v"), Id.createLinkId("l")));
+
+		// a handler that is not marked as non-retaining may keep the event, so it must not be reused
+		events.addHandler((LinkEnterEventHandler) handled::add);
+		event = PooledEvents.linkEnter(3.0, Id.createVehicleId("v"), Id.createLinkId("l"));
+		events.processEvent(event);
+		Assertions.assertEquals(List.of(event), handled);
+		Assertions.assertNotSame(event, PooledEvents.linkEnter(4.0, Id.createVehicleId("v"), Id.createLinkId("l")));
+		Assertions.assertEquals(3.0, handled.get(0).getTime(), 0.0);
+	}
+
+	@Test
+	void testTravelTimeCalculator() {
+		Config config = utils.loadConfig("test/scenarios/equil/config.xml");
+		config.plans().setInputFile("plans100.xml");
+		Scenario scenario = ScenarioUtils.loadScenario(config);
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+
+		TravelTime expected = runQSimWithTravelTimeCalculator(scenario, false).getLinkTravelTimes();
+		TravelTimeCalculator calculator = runQSimWithTravelTimeCalculator(scenario, true);
+		for (Link link : scenario.getNetwork().getLinks().values()) {
+			for (double time = 6 * 3600; time < 10 * 3600; time += 300) {
+				Assertions.assertEquals(expected.getLinkTravelTime(link, time, null, null),
+						calculator.getLinkTravelTimes().getLinkTravelTime(link, time, null, null), 1e-9, link.getId() + " at " + time);
+			}
+		}
+	}
+
+	private TravelTimeCalculator runQSimWithTravelTimeCalculator(Scenario scenario, boolean usePooledEvents) {
+		scenario.getConfig().qsim().setUsePooledEvents(usePooledEvents);
+		TravelTimeCalculator.Builder builder = new TravelTimeCalculator.Builder(scenario.getNetwork());
+		builder.configure(scenario.getConfig().travelTimeCalculator());
+		TravelTimeCalculator calculator = builder.build();
+		CountingHandler counter = new CountingHandler();
+
+		EventsManager events = EventsUtils.createEventsManager();
+		events.addHandler(calculator);
+		events.addHandler(counter);
+		new QSimBuilder(scenario.getConfig()).useDefaults().build(scenario, events).run();
+
+		if (usePooledEvents) {
+			// all handlers are non-retaining, so the pooled events were reused
+			Assertions.assertTrue(counter.instances.size() < counter.pooled, counter.instances.size() + " instances for " + counter.pooled + " events");
+		} else {
+			Assertions.assertEquals(0, counter.pooled);
+		}
+		return calculator;
+	}
+
+	private static class CountingHandler implements BasicEventHandler, NonRetainingEventHandler {
+		// identity hash codes only, so no references to the events are kept
+		final Set<Integer> instances = new HashSet<>();
+		int pooled = 0;
+
+		@Override
+		public void handleEvent(Event event) {
+			if (PooledEvents.isPooled(event)) {
+				this.pooled++;
+				this.instances.add(System.identityHashCode(event));
+			}
+		}
+	}
+
+	@Test
+	void testSameEventsInQSim() {
+		List<String> expected = runQSim(false, EventsUtils.createEventsManager());
+		List<String> pooled = runQSim(true, EventsUtils.createEventsManager());
+		Assertions.assertEquals(expected, pooled);
+
+		// a parallel events manager buffers the events, so it must see copies
+		Assertions.assertEquals(expected, runQSim(true, new ParallelEventsManager(false)));
+	}
+
+	private List<String> runQSim(boolean usePooledEvents, EventsManager events) {
+		Config config = utils.loadConfig("test/scenarios/equil/config.xml");
+		config.plans().setInputFile("plans100.xml");
+		config.qsim().setUsePooledEvents(usePooledEvents);
+		Scenario scenario = ScenarioUtils.loadScenario(config);
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+
+		List<String> result = new ArrayList<>();
+		int[] pooled = new int[1];
+		events.addHandler((BasicEventHandler) event -> {
+			result.add(event.toString());
+			if (PooledEvents.isPooled(event)) {
+				pooled[0]++;
+			}
+		});
+		new QSimBuilder(config).useDefaults().build(scenario, events).run();
+
+		Assertions.assertEquals(usePooledEvents && !(events instanceof ParallelEventsManager), pooled[0] > 0);
+		return result;
+	}
+}
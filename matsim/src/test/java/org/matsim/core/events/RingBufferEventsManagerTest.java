@@ -0,0 +1,157 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.events;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.EventsManagerImplTest.CountingMyEventHandler;
+import org.matsim.core.events.EventsManagerImplTest.CrashingMyEventHandler;
+import org.matsim.core.events.EventsManagerImplTest.MyEvent;
+import org.matsim.core.events.EventsManagerImplTest.MyEventHandler;
+import org.matsim.core.events.handler.BasicEventHandler;
+
+public class RingBufferEventsManagerTest {
+
+	@Test
+	void testAllHandlersGetAllEventsInOrder() {
+		for (int threads : new int[] {-1, 1, 2}) {
+			EventsManager manager = new RingBufferEventsManager(false, threads, 8);
+			List<List<Double>> times = new ArrayList<>();
+			for (int h = 0; h < 3; h++) {
+				List<Double> handled = new ArrayList<>();
+				times.add(handled);
+				manager.addHandler((BasicEventHandler) event -> handled.add(event.getTime()));
+			}
+			manager.initProcessing();
+			EventArray array = new EventArray();
+			for (int i = 0; i < 1000; i++) {
+				manager.processEvent(new MyEvent(2 * i));
+				array.add(new MyEvent(2 * i + 1));
+			}
+			manager.processEvents(array);
+			manager.finishProcessing();
+
+			List<Double> expected = new ArrayList<>();
+			for (int i = 0; i < 1000; i++) {
+				expected.add(2.0 * i);
+			}
+			for (int i = 0; i < 1000; i++) {
+				expected.add(2.0 * i + 1);
+			}
+			for (List<Double> handled : times) {
+				Assertions.assertEquals(expected, handled, "threads: " + threads);
+			}
+		}
+	}
+
+	@Test
+	void testAfterSimStepWaitsForEventsCreatedByHandlers() {
+		EventsManager manager = new RingBufferEventsManager(true, -1, 16);
+		CountingMyEventHandler counter = new CountingMyEventHandler();
+		manager.addHandler(counter);
+		// creates a chain of further events
+		manager.addHandler((MyEventHandler) event -> {
+			if (event.getTime() < 5) {
+				manager.processEvent(new MyEvent(event.getTime() + 1));
+			}
+		});
+		manager.initProcessing();
+		manager.processEvent(new MyEvent(0));
+		manager.afterSimStep(0);
+		Assertions.assertEquals(6, counter.counter);
+		manager.processEvent(new MyEvent(10));
+		manager.afterSimStep(10);
+		Assertions.assertEquals(7, counter.counter);
+		manager.finishProcessing();
+
+		// after finishProcessing() events are processed in the calling thread
+		manager.processEvent(new MyEvent(20));
+		Assertions.assertEquals(8, counter.counter);
+	}
+
+	@Test
+	void testHandlersCreateEventsIntoFullBuffer() {
+		for (int threads : new int[] {-1, 1}) {
+			for (boolean syncOnTimeSteps : new boolean[] {true, false}) {
+				EventsManager manager = new RingBufferEventsManager(syncOnTimeSteps, threads, 4);
+				CountingMyEventHandler counter = new CountingMyEventHandler();
+				manager.addHandler(counter);
+				// every event of the producer is answered by far more events than fit into the buffer
+				manager.addHandler((MyEventHandler) event -> {
+					if (event.getTime() < 1000) {
+						for (int i = 0; i < 10; i++) {
+							manager.processEvent(new MyEvent(event.getTime() + 1000));
+						}
+					}
+				});
+				manager.initProcessing();
+				Assertions.assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+					for (int i = 0; i < 100; i++) {
+						manager.processEvent(new MyEvent(i));
+						manager.afterSimStep(i);
+					}
+					manager.finishProcessing();
+				}, "threads: " + threads + ", sync: " + syncOnTimeSteps);
+				Assertions.assertEquals(100 * 11, counter.counter, "threads: " + threads + ", sync: " + syncOnTimeSteps);
+			}
+		}
+	}
+
+	@Test
+	void testExceptionInHandler() {
+		EventsManager manager = new RingBufferEventsManager(true, -1, 4);
+		CrashingMyEventHandler handler = new CrashingMyEventHandler();
+		manager.addHandler(handler);
+		manager.addHandler(new CountingMyEventHandler());
+		manager.initProcessing();
+		RuntimeException e = Assertions.assertThrows(RuntimeException.class, () -> {
+			for (int i = 0; i < 100; i++) {
+				manager.processEvent(new MyEvent(i));
+				manager.afterSimStep(i);
+			}
+		});
+		// the events manager of the handler group wraps the exception of the handler
+		Assertions.assertTrue(e.getCause().getCause() instanceof ArithmeticException);
+		Assertions.assertEquals(1, handler.counter);
+		Assertions.assertThrows(RuntimeException.class, manager::finishProcessing);
+	}
+
+	@Test
+	void testLateHandler() {
+		EventsManager manager = new RingBufferEventsManager(true, 1, 16);
+		manager.initProcessing();
+		Assertions.assertThrows(IllegalStateException.class, () -> manager.addHandler(new CountingMyEventHandler()));
+		manager.finishProcessing();
+	}
+
+	@Test
+	void testIsHandled() {
+		EventsManager manager = new RingBufferEventsManager(true, 1, 16);
+		Assertions.assertFalse(manager.isHandled(MyEvent.class));
+		manager.addHandler(new CountingMyEventHandler());
+		Assertions.assertTrue(manager.isHandled(MyEvent.class));
+		Assertions.assertFalse(manager.isHandled(Event.class));
+	}
+}
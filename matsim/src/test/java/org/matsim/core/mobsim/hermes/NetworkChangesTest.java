@@ -0,0 +1,208 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.hermes;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.matsim.analysis.VolumesAnalyzer;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.handler.LinkEnterEventHandler;
+import org.matsim.api.core.v01.events.handler.LinkLeaveEventHandler;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.network.NetworkChangeEvent;
+import org.matsim.core.network.NetworkChangeEvent.ChangeType;
+import org.matsim.core.network.NetworkChangeEvent.ChangeValue;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.population.PersonUtils;
+import org.matsim.core.population.PopulationUtils;
+import org.matsim.core.population.routes.NetworkRoute;
+import org.matsim.core.router.TripStructureUtils;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.core.utils.misc.Time;
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * Tests that Hermes applies the network change events of a time variant network.
+ */
+public class NetworkChangesTest {
+
+	@BeforeEach
+	public void prepareTest() {
+		Id.resetCaches();
+		ScenarioImporter.flush();
+		HermesConfigGroup.SIM_STEPS = 30 * 60 * 60;
+	}
+
+	@Test
+	void testFreespeedChange() {
+		Scenario scenario = createScenario();
+		Link link2 = scenario.getNetwork().getLinks().get(Id.createLinkId("2"));
+		addPerson(scenario, 1, 6 * 3600);
+		addPerson(scenario, 2, 8 * 3600);
+		NetworkChangeEvent change = new NetworkChangeEvent(7 * 3600);
+		change.addLink(link2);
+		change.setFreespeedChange(new ChangeValue(ChangeType.ABSOLUTE_IN_SI_UNITS, 10));
+		NetworkUtils.addNetworkChangeEvent(scenario.getNetwork(), change);
+
+		Map<Id<Vehicle>, Double> travelTimes = new HashMap<>();
+		EventsManager events = EventsUtils.createEventsManager();
+		events.addHandler((LinkEnterEventHandler) event -> {
+			if (event.getLinkId().equals(link2.getId())) travelTimes.put(event.getVehicleId(), -event.getTime());
+		});
+		events.addHandler((LinkLeaveEventHandler) event -> {
+			if (event.getLinkId().equals(link2.getId())) travelTimes.merge(event.getVehicleId(), event.getTime(), Double::sum);
+		});
+		HermesTest.createHermes(scenario, events).run();
+
+		// 1000m with 100m/s before and 10m/s after the change, plus one second to move into the buffer
+		Assertions.assertEquals(11.0, travelTimes.get(Id.create(1, Vehicle.class)), 0.0);
+		Assertions.assertEquals(101.0, travelTimes.get(Id.create(2, Vehicle.class)), 0.0);
+	}
+
+	@Test
+	void testFlowCapacityChange() {
+		Scenario scenario = createScenario();
+		Link link2 = scenario.getNetwork().getLinks().get(Id.createLinkId("2"));
+		// enough agents to use the maximum flow for more than one hour, the first one leaves link 2 at 7:00
+		for (int i = 1; i <= 9000; i++) {
+			addPerson(scenario, i, 7 * 3600 - 12);
+		}
+		NetworkChangeEvent change = new NetworkChangeEvent(6 * 3600);
+		change.addLink(link2);
+		change.setFlowCapacityChange(new ChangeValue(ChangeType.FACTOR, 0.5));
+		NetworkUtils.addNetworkChangeEvent(scenario.getNetwork(), change);
+
+		EventsManager events = EventsUtils.createEventsManager();
+		VolumesAnalyzer volumes = new VolumesAnalyzer(3600, 9 * 3600, scenario.getNetwork());
+		events.addHandler(volumes);
+		HermesTest.createHermes(scenario, events).run();
+
+		int[] volume = volumes.getVolumesForLink(link2.getId());
+		Assertions.assertEquals(6000, volume[7], 1);
+		Assertions.assertEquals(2996, volume[8], 1); // all the rest, the last ones leave after 9:00 as in FlowCapacityTest
+	}
+
+	@Test
+	void testCloseAndReopenLink() {
+		Scenario scenario = createScenario();
+		Link link2 = scenario.getNetwork().getLinks().get(Id.createLinkId("2"));
+		// the first agent leaves link 2 before the link is closed, the others wait at its end until it is reopened
+		addPerson(scenario, 1, 6 * 3600);
+		addPerson(scenario, 2, 7 * 3600);
+		addPerson(scenario, 3, 7 * 3600 + 1);
+		NetworkChangeEvent close = new NetworkChangeEvent(6 * 3600 + 1800);
+		close.addLink(link2);
+		close.setFlowCapacityChange(new ChangeValue(ChangeType.ABSOLUTE_IN_SI_UNITS, 0));
+		NetworkUtils.addNetworkChangeEvent(scenario.getNetwork(), close);
+		NetworkChangeEvent reopen = new NetworkChangeEvent(8 * 3600);
+		reopen.addLink(link2);
+		reopen.setFlowCapacityChange(new ChangeValue(ChangeType.ABSOLUTE_IN_SI_UNITS, 12000.0 / 3600));
+		NetworkUtils.addNetworkChangeEvent(scenario.getNetwork(), reopen);
+
+		Map<Id<Vehicle>, Double> leaveTimes = new HashMap<>();
+		EventsManager events = EventsUtils.createEventsManager();
+		events.addHandler((LinkLeaveEventHandler) event -> {
+			if (event.getLinkId().equals(link2.getId())) leaveTimes.put(event.getVehicleId(), event.getTime());
+		});
+		HermesTest.createHermes(scenario, events).run();
+
+		Assertions.assertEquals(6 * 3600 + 11, leaveTimes.get(Id.create(1, Vehicle.class)), 0.0);
+		for (int id = 2; id <= 3; id++) {
+			double leaveTime = leaveTimes.get(Id.create(id, Vehicle.class));
+			Assertions.assertTrue(leaveTime >= 8 * 3600 && leaveTime <= 8 * 3600 + 5, "left link 2 at " + Time.writeTime(leaveTime));
+		}
+	}
+
+	@Test
+	void testLinksAreResetBetweenIterations() {
+		Scenario scenario = createScenario();
+		Link link2 = scenario.getNetwork().getLinks().get(Id.createLinkId("2"));
+		for (int i = 1; i <= 100; i++) {
+			addPerson(scenario, i, 6 * 3600 + 30 * i);
+		}
+		NetworkChangeEvent change = new NetworkChangeEvent(6 * 3600 + 1800);
+		change.addLink(link2);
+		change.setFreespeedChange(new ChangeValue(ChangeType.ABSOLUTE_IN_SI_UNITS, 5));
+		change.setLanesChange(new ChangeValue(ChangeType.ABSOLUTE_IN_SI_UNITS, 1));
+		NetworkUtils.addNetworkChangeEvent(scenario.getNetwork(), change);
+
+		List<List<String>> iterations = new ArrayList<>();
+		EventsManager events = EventsUtils.createEventsManager();
+		events.addHandler((BasicEventHandler) event -> iterations.get(iterations.size() - 1).add(event.toString()));
+		iterations.add(new ArrayList<>());
+		HermesTest.createHermes(scenario, events).run();
+		// the scenario importer is reused, so the links have to be back to their original state
+		iterations.add(new ArrayList<>());
+		HermesTest.createHermes(scenario, events).run();
+		Assertions.assertEquals(iterations.get(0), iterations.get(1));
+	}
+
+	private static Scenario createScenario() {
+		Config config = ConfigUtils.createConfig();
+		config.network().setTimeVariantNetwork(true);
+		Scenario scenario = ScenarioUtils.createScenario(config);
+		Network network = scenario.getNetwork();
+		network.setCapacityPeriod(Time.parseTime("1:00:00"));
+		Node node1 = NetworkUtils.createAndAddNode(network, Id.create("1", Node.class), new Coord(0, 0));
+		Node node2 = NetworkUtils.createAndAddNode(network, Id.create("2", Node.class), new Coord(100, 0));
+		Node node3 = NetworkUtils.createAndAddNode(network, Id.create("3", Node.class), new Coord(1100, 0));
+		Node node4 = NetworkUtils.createAndAddNode(network, Id.create("4", Node.class), new Coord(1200, 0));
+		NetworkUtils.createAndAddLink(network, Id.create("1", Link.class), node1, node2, 100, 100, 60000, 9);
+		NetworkUtils.createAndAddLink(network, Id.create("2", Link.class), node2, node3, 1000, 100, 12000, 2);
+		NetworkUtils.createAndAddLink(network, Id.create("3", Link.class), node3, node4, 100, 100, 60000, 9);
+		return scenario;
+	}
+
+	private static void addPerson(Scenario scenario, int id, double departureTime) {
+		Person person = PopulationUtils.getFactory().createPerson(Id.create(id, Person.class));
+		Plan plan = PersonUtils.createAndAddPlan(person, true);
+		Activity home = PopulationUtils.createAndAddActivityFromLinkId(plan, "h", Id.createLinkId("1"));
+		home.setEndTime(departureTime);
+		Leg leg = PopulationUtils.createAndAddLeg(plan, TransportMode.car);
+		TripStructureUtils.setRoutingMode(leg, TransportMode.car);
+		NetworkRoute route = scenario.getPopulation().getFactory().getRouteFactories()
+				.createRoute(NetworkRoute.class, Id.createLinkId("1"), Id.createLinkId("3"));
+		route.setLinkIds(Id.createLinkId("1"), List.of(Id.createLinkId("2")), Id.createLinkId("3"));
+		leg.setRoute(route);
+		PopulationUtils.createAndAddActivityFromLinkId(plan, "w", Id.createLinkId("3"));
+		scenario.getPopulation().addPerson(person);
+	}
+}
@@ -0,0 +1,114 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.hermes;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.PersonStuckEvent;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.scenario.ScenarioUtils;
+
+public class ParallelRealmsTest {
+
+	@BeforeEach
+	public void prepareTest() {
+		Id.resetCaches();
+		ScenarioImporter.flush();
+		HermesConfigGroup.SIM_STEPS = 30 * 60 * 60;
+	}
+
+	@Test
+	void testPartitioningCoversAllRealms() {
+		Scenario scenario = loadEquil(1);
+		for (HermesConfigGroup.RealmPartitioning partitioning : HermesConfigGroup.RealmPartitioning.values()) {
+			int[] nodeRealm = RealmPartitioner.partition(scenario.getNetwork(), 4, partitioning);
+			int[] nodesPerRealm = new int[4];
+			scenario.getNetwork().getNodes().values().forEach(node -> nodesPerRealm[nodeRealm[node.getId().index()]]++);
+			for (int realm = 0; realm < 4; realm++) {
+				Assertions.assertTrue(nodesPerRealm[realm] > 0, "realm " + realm + " is empty with " + partitioning);
+			}
+		}
+	}
+
+	@Test
+	void testSameTrafficAsSingleRealm() {
+		List<Event> sequential = run(loadEquil(1));
+		Assertions.assertTrue(sequential.stream().noneMatch(event -> event instanceof PersonStuckEvent));
+		List<String> expected = sortPerTimeStep(sequential);
+
+		for (HermesConfigGroup.RealmPartitioning partitioning : HermesConfigGroup.RealmPartitioning.values()) {
+			prepareTest();
+			Scenario scenario = loadEquil(3);
+			scenario.getConfig().hermes().setRealmPartitioning(partitioning);
+			List<Event> parallel = run(scenario);
+			for (int i = 1; i < parallel.size(); i++) {
+				Assertions.assertTrue(parallel.get(i - 1).getTime() <= parallel.get(i).getTime(), "events out of order with " + partitioning + ": " + parallel.get(i));
+			}
+			Assertions.assertEquals(expected, sortPerTimeStep(parallel), "different events with " + partitioning);
+		}
+	}
+
+	@Test
+	void testDeterministic() {
+		List<String> first = run(loadEquil(4)).stream().map(Event::toString).toList();
+		prepareTest();
+		List<String> second = run(loadEquil(4)).stream().map(Event::toString).toList();
+		Assertions.assertEquals(first, second);
+	}
+
+	private static Scenario loadEquil(int numberOfRealms) {
+		Config config = ConfigUtils.loadConfig("test/scenarios/equil/config.xml");
+		config.plans().setInputFile("plans100.xml");
+		config.hermes().setNumberOfRealms(numberOfRealms);
+		return ScenarioUtils.loadScenario(config);
+	}
+
+	private static List<Event> run(Scenario scenario) {
+		List<Event> events = new ArrayList<>();
+		EventsManager eventsManager = EventsUtils.createEventsManager();
+		eventsManager.addHandler((BasicEventHandler) events::add);
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+		new HermesBuilder().build(scenario, eventsManager).run();
+		return events;
+	}
+
+	/**
+	 * The realms may hand their events of a time step to the events manager in a different order, so only the time
+	 * steps and the events within each time step are compared.
+	 */
+	private static List<String> sortPerTimeStep(List<Event> events) {
+		return events.stream()
+				.sorted(Comparator.comparingDouble(Event::getTime).thenComparing(Event::toString))
+				.map(Event::toString)
+				.toList();
+	}
+}
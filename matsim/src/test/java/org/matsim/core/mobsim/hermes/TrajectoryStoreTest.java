@@ -0,0 +1,134 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.hermes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.handler.LinkEnterEventHandler;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.scenario.ScenarioUtils;
+
+public class TrajectoryStoreTest {
+
+	@BeforeEach
+	public void prepareTest() {
+		Id.resetCaches();
+		ScenarioImporter.flush();
+		HermesConfigGroup.SIM_STEPS = 30 * 60 * 60;
+	}
+
+	@Test
+	void testStoreRecords() {
+		TrajectoryStore store = new TrajectoryStore();
+		for (int i = 0; i < 100_000; i++) {
+			store.add(i, i % 7, i / 10);
+		}
+		Event event = new LinkEnterEvent(10_000, Id.createVehicleId(1), Id.createLinkId(1));
+		store.add(event, 10_000);
+		Assertions.assertEquals(100_001, store.size());
+		Assertions.assertEquals(70_000, store.agent(70_000));
+		Assertions.assertEquals(70_000 % 7, store.eventIndex(70_000));
+		Assertions.assertEquals(7_000, store.time(70_000));
+		Assertions.assertEquals(TrajectoryStore.NO_AGENT, store.agent(100_000));
+		Assertions.assertSame(event, store.otherEvent(100_000));
+
+		store.removeLast();
+		store.removeLast();
+		Assertions.assertEquals(99_999, store.size());
+		store.clear();
+		Assertions.assertEquals(0, store.size());
+	}
+
+	@Test
+	void testSameEventsAsEventArrays() {
+		List<String> expected = toStrings(run(loadEquil(1, false)));
+		prepareTest();
+		Assertions.assertEquals(expected, toStrings(run(loadEquil(1, true))));
+
+		prepareTest();
+		List<String> expectedParallel = toStrings(run(loadEquil(3, false)));
+		prepareTest();
+		Assertions.assertEquals(expectedParallel, toStrings(run(loadEquil(3, true))));
+	}
+
+	@Test
+	void testOnlyHandledEventsAreProcessed() {
+		List<Event> all = run(loadEquil(1, false));
+		long linkEnterEvents = all.stream().filter(LinkEnterEvent.class::isInstance).count();
+		Assertions.assertTrue(linkEnterEvents > 0);
+
+		prepareTest();
+		List<Event> processed = new ArrayList<>();
+		EventsManager eventsManager = EventsUtils.createEventsManager();
+		eventsManager.addHandler((LinkEnterEventHandler) processed::add);
+		Assertions.assertFalse(eventsManager.isHandled(UnhandledEvent.class));
+		run(loadEquil(1, true), eventsManager);
+		Assertions.assertEquals(linkEnterEvents, processed.size());
+	}
+
+	// an event class no handler listens to
+	private static final class UnhandledEvent extends Event {
+		UnhandledEvent() {
+			super(0);
+		}
+
+		@Override
+		public String getEventType() {
+			return "unhandled";
+		}
+	}
+
+	private static Scenario loadEquil(int numberOfRealms, boolean storeTrajectories) {
+		Config config = ConfigUtils.loadConfig("test/scenarios/equil/config.xml");
+		config.plans().setInputFile("plans100.xml");
+		config.hermes().setNumberOfRealms(numberOfRealms);
+		config.hermes().setStoreTrajectories(storeTrajectories);
+		return ScenarioUtils.loadScenario(config);
+	}
+
+	private static List<Event> run(Scenario scenario) {
+		List<Event> events = new ArrayList<>();
+		EventsManager eventsManager = EventsUtils.createEventsManager();
+		eventsManager.addHandler((BasicEventHandler) events::add);
+		run(scenario, eventsManager);
+		return events;
+	}
+
+	private static void run(Scenario scenario, EventsManager eventsManager) {
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+		new HermesBuilder().build(scenario, eventsManager).run();
+	}
+
+	private static List<String> toStrings(List<Event> events) {
+		return events.stream().map(Event::toString).toList();
+	}
+}
@@ -0,0 +1,99 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.jdeqsim;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.mobsim.jdeqsim.util.EventLibrary;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.scenario.ScenarioUtils;
+
+public class PartitionedSchedulerTest extends AbstractJDEQSimTest {
+
+	@Test
+	void testEquilPlans100() {
+		Scenario sequential = loadEquil(1);
+		this.runJDEQSim(sequential);
+		double sequentialTravelTime = EventLibrary.getSumTravelTime(this.allEvents);
+		this.allEvents.clear();
+		this.eventsByPerson.clear();
+
+		Scenario scenario = loadEquil(3);
+		this.runJDEQSim(scenario);
+
+		assertEquals(scenario.getPopulation().getPersons().size(), super.eventsByPerson.size());
+		super.checkAscendingTimeStamps();
+		super.checkEventsCorrespondToPlans(scenario.getPopulation());
+		// the gap has to travel back before the space on the road can be used again
+		double travelTime = EventLibrary.getSumTravelTime(this.allEvents);
+		assertTrue(travelTime >= sequentialTravelTime, travelTime + " < " + sequentialTravelTime);
+		assertTrue(travelTime < 1.1 * sequentialTravelTime, travelTime + " >= 1.1 * " + sequentialTravelTime);
+	}
+
+	@Test
+	void testDeterministic() {
+		this.runJDEQSim(loadEquil(4));
+		List<String> first = this.allEvents.stream().map(Event::toString).toList();
+		this.allEvents.clear();
+		this.eventsByPerson.clear();
+
+		this.runJDEQSim(loadEquil(4));
+		assertEquals(first, this.allEvents.stream().map(Event::toString).toList());
+	}
+
+	@Test
+	void testShortLinksAreNotCut() {
+		Network network = NetworkUtils.createNetwork();
+		Node n0 = NetworkUtils.createAndAddNode(network, Id.createNodeId("0"), new Coord(0, 0));
+		Node n1 = NetworkUtils.createAndAddNode(network, Id.createNodeId("1"), new Coord(1000, 0));
+		Node n2 = NetworkUtils.createAndAddNode(network, Id.createNodeId("2"), new Coord(1005, 0));
+		Node n3 = NetworkUtils.createAndAddNode(network, Id.createNodeId("3"), new Coord(2000, 0));
+		addLink(network, "01", n0, n1, 1000);
+		addLink(network, "12", n1, n2, 5);
+		addLink(network, "23", n2, n3, 995);
+
+		int[] nodeProcess = PartitionedScheduler.partition(network, 4, 15.0);
+		assertEquals(nodeProcess[n1.getId().index()], nodeProcess[n2.getId().index()]);
+		assertTrue(nodeProcess[n0.getId().index()] < nodeProcess[n3.getId().index()]);
+	}
+
+	private static void addLink(Network network, String id, Node from, Node to, double length) {
+		NetworkUtils.createAndAddLink(network, Id.createLinkId(id), from, to, length, 20, 3600, 1);
+	}
+
+	private static Scenario loadEquil(int numberOfThreads) {
+		Config config = ConfigUtils.loadConfig("test/scenarios/equil/config.xml");
+		config.plans().setInputFile("plans100.xml");
+		ConfigUtils.addOrGetModule(config, JDEQSimConfigGroup.class).setNumberOfThreads(numberOfThreads);
+		return ScenarioUtils.loadScenario(config);
+	}
+}
@@ -0,0 +1,145 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.qsim;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.controler.Controler;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.testcases.MatsimTestUtils;
+
+public class QSimProfileTest {
+
+	@RegisterExtension
+	private MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	void testNoProfileByDefault() {
+		QSim qsim = createQSim(createConfig(false, 1), new ArrayList<>());
+		qsim.run();
+		Assertions.assertNull(qsim.getProfile());
+	}
+
+	@Test
+	void testProfileSingleThreaded() {
+		runAndCheckProfile(1);
+	}
+
+	@Test
+	void testProfileMultiThreaded() {
+		runAndCheckProfile(2);
+	}
+
+	@Test
+	void testWriterInControler() {
+		Config config = createConfig(true, 1);
+		config.controller().setOutputDirectory(utils.getOutputDirectory());
+		config.controller().setLastIteration(0);
+		new Controler(config).run();
+		Assertions.assertTrue(new File(utils.getOutputDirectory() + "ITERS/it.0/0." + QSimProfileWriter.RUN_TIMES_FILE).exists());
+		Assertions.assertTrue(new File(utils.getOutputDirectory() + "ITERS/it.0/0." + QSimProfileWriter.TIME_BINS_FILE).exists());
+	}
+
+	private void runAndCheckProfile(int threads) {
+		List<String> expectedEvents = new ArrayList<>();
+		createQSim(createConfig(false, threads), expectedEvents).run();
+
+		List<String> events = new ArrayList<>();
+		QSim qsim = createQSim(createConfig(true, threads), events);
+		List<QSimProfile> notified = new ArrayList<>();
+		qsim.addQueueSimulationListeners((QSimProfileListener) notified::add);
+		qsim.run();
+
+		if (threads > 1) {
+			expectedEvents.sort(null);
+			events.sort(null);
+		}
+		Assertions.assertEquals(expectedEvents, events, "profiling must not change the simulation");
+
+		QSimProfile profile = qsim.getProfile();
+		Assertions.assertNotNull(profile);
+		Assertions.assertEquals(List.of(profile), notified);
+
+		long simSteps = profile.getRunTimes("simStep").getCount();
+		Assertions.assertTrue(simSteps > 0);
+		Assertions.assertTrue(profile.getRunTimes().containsKey("ActivityEngineDefaultImpl"));
+		profile.getRunTimes().forEach((component, runTimes) -> {
+			if (!component.startsWith("QNetsimEngineRunner_")) {
+				// the engines and listeners run once per sim step
+				Assertions.assertEquals(simSteps, runTimes.getCount(), component);
+			}
+		});
+		for (int i = 0; i < threads; i++) {
+			RunTimeHistogram nodes = profile.getRunTimes().get("QNetsimEngineRunner_" + i + "_nodes");
+			Assertions.assertNotNull(nodes);
+			Assertions.assertTrue(nodes.getCount() > 0);
+			Assertions.assertTrue(profile.getRunTimes().get("QNetsimEngineRunner_" + i + "_links").getCount() > 0);
+		}
+
+		long binnedSimSteps = 0;
+		long binnedEvents = 0;
+		int maxActiveLinks = 0;
+		for (QSimProfile.TimeBin bin : profile.getTimeBins()) {
+			binnedSimSteps += bin.getSimSteps();
+			binnedEvents += bin.getEvents();
+			maxActiveLinks = Math.max(maxActiveLinks, bin.getMaxActiveLinks());
+		}
+		Assertions.assertEquals(simSteps, binnedSimSteps);
+		Assertions.assertEquals(events.size(), binnedEvents);
+		Assertions.assertTrue(maxActiveLinks > 0);
+
+		RunTimeHistogram simStep = profile.getRunTimes("simStep");
+		Assertions.assertTrue(simStep.getPercentileNanos(0.5) <= simStep.getPercentileNanos(0.99));
+		Assertions.assertTrue(simStep.getPercentileNanos(0.99) <= simStep.getMaxNanos());
+
+		String runTimesFile = utils.getOutputDirectory() + "runTimes.csv";
+		String timeBinsFile = utils.getOutputDirectory() + "timeBins.csv";
+		profile.writeRunTimes(runTimesFile, ";");
+		profile.writeTimeBins(timeBinsFile, ";");
+		Assertions.assertTrue(new File(runTimesFile).length() > 0);
+		Assertions.assertTrue(new File(timeBinsFile).length() > 0);
+	}
+
+	private Config createConfig(boolean profiling, int threads) {
+		Config config = utils.loadConfig("test/scenarios/equil/config.xml");
+		config.plans().setInputFile("plans100.xml");
+		config.qsim().setProfiling(profiling);
+		config.qsim().setNumberOfThreads(threads);
+		return config;
+	}
+
+	private static QSim createQSim(Config config, List<String> events) {
+		Scenario scenario = ScenarioUtils.loadScenario(config);
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+		EventsManager eventsManager = EventsUtils.createEventsManager();
+		eventsManager.addHandler((BasicEventHandler) event -> events.add(event.toString()));
+		return new QSimBuilder(config).useDefaults().build(scenario, eventsManager);
+	}
+}
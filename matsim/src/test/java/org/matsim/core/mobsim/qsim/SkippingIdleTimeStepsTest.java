@@ -0,0 +1,96 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.mobsim.framework.events.MobsimBeforeSimStepEvent;
+import org.matsim.core.mobsim.framework.listeners.MobsimBeforeSimStepListener;
+import org.matsim.core.mobsim.qsim.interfaces.HasNextInterestingTime;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.testcases.MatsimTestUtils;
+
+public class SkippingIdleTimeStepsTest {
+
+	@RegisterExtension
+	private MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	void testSameEventsWithFewerTimeSteps() {
+		StepCounter allSteps = new StepCounter();
+		List<String> expected = run(false, allSteps);
+		StepCounter skippedSteps = new StepCounter();
+		Assertions.assertEquals(expected, run(true, skippedSteps));
+		Assertions.assertTrue(skippedSteps.steps < allSteps.steps / 2,
+				"only " + skippedSteps.steps + " of " + allSteps.steps + " time steps simulated");
+	}
+
+	@Test
+	void testNoSkippingWithUnknownListener() {
+		StepCounter allSteps = new StepCounter();
+		run(false, allSteps);
+		MobsimBeforeSimStepListener unknown = e -> {};
+		StepCounter steps = new StepCounter();
+		run(true, steps, unknown);
+		Assertions.assertEquals(allSteps.steps, steps.steps);
+	}
+
+	private List<String> run(boolean skippingIdleTimeSteps, MobsimBeforeSimStepListener... listeners) {
+		Config config = utils.loadConfig("test/scenarios/equil/config.xml");
+		config.plans().setInputFile("plans100.xml");
+		config.qsim().setSkippingIdleTimeSteps(skippingIdleTimeSteps);
+		Scenario scenario = ScenarioUtils.loadScenario(config);
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+
+		List<String> events = new ArrayList<>();
+		EventsManager eventsManager = EventsUtils.createEventsManager();
+		eventsManager.addHandler((BasicEventHandler) event -> events.add(event.toString()));
+		QSim qsim = new QSimBuilder(config).useDefaults().build(scenario, eventsManager);
+		for (MobsimBeforeSimStepListener listener : listeners) {
+			qsim.addQueueSimulationListeners(listener);
+		}
+		qsim.run();
+		return events;
+	}
+
+	private static class StepCounter implements MobsimBeforeSimStepListener, HasNextInterestingTime {
+		private int steps = 0;
+
+		@Override
+		public void notifyMobsimBeforeSimStep(MobsimBeforeSimStepEvent e) {
+			this.steps++;
+		}
+
+		@Override
+		public double getNextInterestingTime(double now) {
+			return Double.POSITIVE_INFINITY;
+		}
+	}
+}
@@ -0,0 +1,165 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.qsim.agents;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import com.google.inject.Provides;
+import com.google.inject.Singleton;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.mobsim.framework.listeners.MobsimInitializedListener;
+import org.matsim.core.mobsim.qsim.AbstractQSimModule;
+import org.matsim.core.mobsim.qsim.PopulationModule;
+import org.matsim.core.mobsim.qsim.QSim;
+import org.matsim.core.mobsim.qsim.QSimBuilder;
+import org.matsim.core.mobsim.qsim.interfaces.Netsim;
+import org.matsim.core.mobsim.qsim.qnetsimengine.QVehicleFactory;
+import org.matsim.core.mobsim.qsim.qnetsimengine.QVehicleImpl;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.core.utils.timing.TimeInterpretation;
+import org.matsim.testcases.MatsimTestUtils;
+
+public class PopulationAgentSourceTest {
+
+	@RegisterExtension
+	private MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	void testSameEventsWithLazyAgentCreation() {
+		int[] initialAgents = new int[1];
+		List<String> expected = run(0, false, Double.NaN, initialAgents);
+		Assertions.assertEquals(100, initialAgents[0]);
+
+		Assertions.assertEquals(expected, run(300, false, Double.NaN, initialAgents));
+		Assertions.assertTrue(initialAgents[0] < 20, initialAgents[0] + " agents created before the first time step");
+	}
+
+	@Test
+	void testSameEventsWithSkippedTimeSteps() {
+		Assertions.assertEquals(run(0, true, Double.NaN, new int[1]), run(300, true, Double.NaN, new int[1]));
+	}
+
+	@Test
+	void testAgentsNotYetCreatedAreStuck() {
+		List<String> expected = run(0, false, 6.5 * 3600, new int[1]);
+		List<String> actual = run(300, false, 6.5 * 3600, new int[1]);
+		Assertions.assertTrue(expected.stream().anyMatch(event -> event.contains("stuckAndAbort")));
+
+		// agents stuck in their first activity are reported without link and mode by the activity engine, but with them when they
+		// were not created yet
+		List<String> lazilyStuck = actual.stream().filter(event -> event.contains("stuckAndAbort") && !expected.contains(event)).toList();
+		Assertions.assertFalse(lazilyStuck.isEmpty());
+		Assertions.assertTrue(lazilyStuck.stream().allMatch(event -> event.contains("link=\"1\" legMode=\"car\"")), lazilyStuck.toString());
+
+		List<String> expectedWithoutLinkAndMode = new ArrayList<>(expected.stream().map(PopulationAgentSourceTest::withoutLinkAndMode).toList());
+		List<String> actualWithoutLinkAndMode = new ArrayList<>(actual.stream().map(PopulationAgentSourceTest::withoutLinkAndMode).toList());
+		expectedWithoutLinkAndMode.sort(null);
+		actualWithoutLinkAndMode.sort(null);
+		Assertions.assertEquals(expectedWithoutLinkAndMode, actualWithoutLinkAndMode);
+	}
+
+	@Test
+	void testAgentFactoryNotKnownToBeThreadSafe() {
+		Set<Thread> creatingThreads = ConcurrentHashMap.newKeySet();
+		List<String> expected = run(0, false, Double.NaN, new int[1]);
+		List<String> actual = run(300, false, Double.NaN, new int[1], creatingThreads);
+		Assertions.assertEquals(expected, actual);
+		Assertions.assertEquals(Set.of(Thread.currentThread()), creatingThreads);
+	}
+
+	private static String withoutLinkAndMode(String event) {
+		return event.contains("stuckAndAbort") ? event.replaceAll("(link|legMode)=\"[^\"]*\" ", "") : event;
+	}
+
+	private List<String> run(double lazyAgentCreationHorizon, boolean skippingIdleTimeSteps, double endTime, int[] initialAgents) {
+		return run(lazyAgentCreationHorizon, skippingIdleTimeSteps, endTime, initialAgents, null);
+	}
+
+	/**
+	 * @param creatingThreads if not null, agents are created by an agent factory of another class than the core ones, which
+	 *   records the threads it is called on.
+	 */
+	private List<String> run(double lazyAgentCreationHorizon, boolean skippingIdleTimeSteps, double endTime, int[] initialAgents,
+							 Set<Thread> creatingThreads) {
+		Config config = utils.loadConfig("test/scenarios/equil/config.xml");
+		config.plans().setInputFile("plans100.xml");
+		config.qsim().setLazyAgentCreationHorizon(lazyAgentCreationHorizon);
+		config.qsim().setSkippingIdleTimeSteps(skippingIdleTimeSteps);
+		if (!Double.isNaN(endTime)) {
+			config.qsim().setEndTime(endTime);
+		}
+		Scenario scenario = ScenarioUtils.loadScenario(config);
+
+		// spread the departures over more than an hour; the first agent stays for a duration, so it cannot be created lazily
+		int i = 0;
+		for (Person person : scenario.getPopulation().getPersons().values()) {
+			Activity home = (Activity) person.getSelectedPlan().getPlanElements().get(0);
+			if (i == 0) {
+				home.setEndTimeUndefined();
+				home.setMaximumDuration(6 * 3600);
+			} else {
+				home.setEndTime(6 * 3600 + i * 47);
+			}
+			i++;
+		}
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+
+		List<String> events = new ArrayList<>();
+		EventsManager eventsManager = EventsUtils.createEventsManager();
+		eventsManager.addHandler((BasicEventHandler) event -> events.add(event.toString()));
+		QSimBuilder qsimBuilder = new QSimBuilder(config).useDefaults();
+		if (creatingThreads != null) {
+			qsimBuilder.removeModule(PopulationModule.class).addQSimModule(new AbstractQSimModule() {
+				@Override
+				protected void configureQSim() {
+					bind(PopulationAgentSource.class).asEagerSingleton();
+					addQSimComponentBinding(PopulationModule.COMPONENT_NAME).to(PopulationAgentSource.class);
+					bind(QVehicleFactory.class).toProvider(() -> QVehicleImpl::new);
+				}
+
+				@Provides
+				@Singleton
+				AgentFactory provideAgentFactory(Netsim simulation, TimeInterpretation timeInterpretation) {
+					AgentFactory delegate = new DefaultAgentFactory(simulation, timeInterpretation);
+					return person -> {
+						creatingThreads.add(Thread.currentThread());
+						return delegate.createMobsimAgentFromPerson(person);
+					};
+				}
+			});
+		}
+		QSim qsim = qsimBuilder.build(scenario, eventsManager);
+		qsim.addQueueSimulationListeners((MobsimInitializedListener) e -> initialAgents[0] = qsim.getAgents().size());
+		qsim.run();
+		return events;
+	}
+}
@@ -0,0 +1,96 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.handler.LinkLeaveEventHandler;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.groups.QSimConfigGroup.NetsimEngineScheduler;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.mobsim.qsim.QSimBuilder;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.testcases.MatsimTestUtils;
+
+public class QNetsimEngineWithWorkStealingTest {
+
+	@RegisterExtension
+	private MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	void testSameEventsAsThreadpool() {
+		List<String> expected = run(NetsimEngineScheduler.threadpool, 1);
+		Assertions.assertEquals(expected, run(NetsimEngineScheduler.workStealing, 1));
+		// the order of events within a time step depends on the threads, so only compare them sorted
+		List<String> sorted = new ArrayList<>(expected);
+		sorted.sort(null);
+		for (int threads : new int[]{2, 4}) {
+			List<String> actual = run(NetsimEngineScheduler.workStealing, threads);
+			actual.sort(null);
+			Assertions.assertEquals(sorted, actual, "different events with " + threads + " threads");
+		}
+	}
+
+	@Test
+	@Timeout(10)
+	void testHandlesExceptionCorrectly() {
+		Config config = utils.loadConfig("test/scenarios/equil/config_plans1.xml");
+		config.qsim().setNetsimEngineScheduler(NetsimEngineScheduler.workStealing);
+		config.qsim().setNumberOfThreads(2);
+		Scenario scenario = ScenarioUtils.loadScenario(config);
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+
+		EventsManager events = EventsUtils.createEventsManager();
+		events.addHandler((LinkLeaveEventHandler) event -> {
+			throw new RuntimeException("link leave failed");
+		});
+
+		RuntimeException exception = Assertions.assertThrows(RuntimeException.class,
+				() -> new QSimBuilder(config).useDefaults().build(scenario, events).run());
+		Throwable cause = exception;
+		while (cause.getCause() != null) cause = cause.getCause();
+		Assertions.assertEquals("link leave failed", cause.getMessage());
+	}
+
+	private List<String> run(NetsimEngineScheduler scheduler, int numberOfThreads) {
+		Config config = utils.loadConfig("test/scenarios/equil/config.xml");
+		config.plans().setInputFile("plans100.xml");
+		config.qsim().setNetsimEngineScheduler(scheduler);
+		config.qsim().setNumberOfThreads(numberOfThreads);
+		Scenario scenario = ScenarioUtils.loadScenario(config);
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+
+		List<String> events = new ArrayList<>();
+		EventsManager eventsManager = EventsUtils.createEventsManager();
+		eventsManager.addHandler((BasicEventHandler) event -> events.add(event.toString()));
+		new QSimBuilder(config).useDefaults().build(scenario, eventsManager).run();
+		return events;
+	}
+}
@@ -0,0 +1,117 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.controler.AbstractModule;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.gbl.MatsimRandom;
+import org.matsim.core.mobsim.qsim.QSim;
+import org.matsim.core.mobsim.qsim.QSimBuilder;
+import org.matsim.core.mobsim.qsim.interfaces.NetsimNetwork;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.testcases.MatsimTestUtils;
+
+public class QNetworkHolderTest {
+
+	@RegisterExtension
+	private MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	void testSameEventsWithReusedNetwork() {
+		assertSameEventsWithReusedNetwork(1);
+	}
+
+	@Test
+	void testSameEventsWithReusedNetworkMultipleThreads() {
+		assertSameEventsWithReusedNetwork(2);
+	}
+
+	@Test
+	void testNetworkNotReusedByDefault() {
+		Scenario scenario = loadScenario(1, false);
+		QNetworkHolder holder = new QNetworkHolder();
+		List<NetsimNetwork> networks = new ArrayList<>();
+		run(scenario, holder, networks);
+		run(scenario, holder, networks);
+		Assertions.assertNotSame(networks.get(0), networks.get(1));
+	}
+
+	private void assertSameEventsWithReusedNetwork(int numberOfThreads) {
+		// the simulation ends while vehicles are still on the (congested) network, so a reused network has to be cleaned up
+		Scenario scenario = loadScenario(numberOfThreads, false);
+		List<NetsimNetwork> networks = new ArrayList<>();
+		MatsimRandom.reset();
+		run(scenario, new QNetworkHolder(), networks);
+		List<String> expected = run(scenario, new QNetworkHolder(), networks);
+
+		Scenario reusingScenario = loadScenario(numberOfThreads, true);
+		QNetworkHolder holder = new QNetworkHolder();
+		List<NetsimNetwork> reusedNetworks = new ArrayList<>();
+		MatsimRandom.reset();
+		run(reusingScenario, holder, reusedNetworks);
+		List<String> actual = run(reusingScenario, holder, reusedNetworks);
+
+		Assertions.assertSame(reusedNetworks.get(0), reusedNetworks.get(1));
+		if (numberOfThreads > 1) {
+			// the order of events within a time step depends on the threads, so only compare them sorted
+			expected.sort(null);
+			actual.sort(null);
+		}
+		Assertions.assertEquals(expected, actual);
+	}
+
+	private Scenario loadScenario(int numberOfThreads, boolean reusingNetsimNetwork) {
+		Config config = utils.loadConfig("test/scenarios/equil/config.xml");
+		config.plans().setInputFile("plans100.xml");
+		config.qsim().setFlowCapFactor(0.1);
+		config.qsim().setStorageCapFactor(0.1);
+		config.qsim().setEndTime(7 * 3600);
+		config.qsim().setNumberOfThreads(numberOfThreads);
+		config.qsim().setReusingNetsimNetwork(reusingNetsimNetwork);
+		Scenario scenario = ScenarioUtils.loadScenario(config);
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+		return scenario;
+	}
+
+	private static List<String> run(Scenario scenario, QNetworkHolder holder, List<NetsimNetwork> networks) {
+		List<String> events = new ArrayList<>();
+		EventsManager eventsManager = EventsUtils.createEventsManager();
+		eventsManager.addHandler((BasicEventHandler) event -> events.add(event.toString()));
+		QSim qsim = new QSimBuilder(scenario.getConfig()).useDefaults().addOverridingModule(new AbstractModule() {
+			@Override
+			public void install() {
+				bind(QNetworkHolder.class).toInstance(holder);
+			}
+		}).build(scenario, eventsManager);
+		qsim.run();
+		networks.add(qsim.getNetsimNetwork());
+		return events;
+	}
+}
@@ -0,0 +1,127 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine.vehicleq;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.groups.QSimConfigGroup.VehicleQueue;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.mobsim.qsim.QSimBuilder;
+import org.matsim.core.mobsim.qsim.qnetsimengine.QVehicle;
+import org.matsim.core.mobsim.qsim.qnetsimengine.QVehicleImpl;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.testcases.MatsimTestUtils;
+import org.matsim.vehicles.VehicleType;
+import org.matsim.vehicles.VehicleUtils;
+
+public class RingBufferVehicleQTest {
+
+	@RegisterExtension
+	private MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	void testFifoOrderWhileGrowing() {
+		RingBufferVehicleQ queue = new RingBufferVehicleQ();
+		List<QVehicle> expected = new ArrayList<>();
+		// move the head away from index 0 so that growing has to unwrap the ring
+		for (int i = 0; i < 5; i++) {
+			queue.add(createVehicle(i, i));
+			queue.poll();
+		}
+		for (int i = 0; i < 20; i++) {
+			QVehicle veh = createVehicle(i, 100 + i);
+			expected.add(veh);
+			queue.add(veh);
+		}
+		QVehicle first = createVehicle(99, 50);
+		queue.addFirst(first);
+		expected.add(0, first);
+
+		Assertions.assertEquals(21, queue.size());
+		Assertions.assertEquals(expected, new ArrayList<>(queue));
+		Assertions.assertEquals(50, queue.peekEarliestLinkExitTime(), 0);
+		for (QVehicle veh : expected) {
+			Assertions.assertSame(veh, queue.poll());
+		}
+		Assertions.assertNull(queue.poll());
+		Assertions.assertEquals(Double.POSITIVE_INFINITY, queue.peekEarliestLinkExitTime(), 0);
+	}
+
+	@Test
+	void testRemove() {
+		RingBufferVehicleQ queue = new RingBufferVehicleQ();
+		List<QVehicle> vehicles = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			vehicles.add(createVehicle(i, 10 * i));
+			queue.add(vehicles.get(i));
+		}
+		Assertions.assertTrue(queue.remove(vehicles.get(0)));
+		Assertions.assertTrue(queue.remove(vehicles.get(3)));
+		Assertions.assertFalse(queue.remove(vehicles.get(3)));
+		Iterator<QVehicle> it = queue.iterator();
+		it.next();
+		it.remove();
+
+		Assertions.assertEquals(List.of(vehicles.get(2), vehicles.get(4), vehicles.get(5)), new ArrayList<>(queue));
+		Assertions.assertEquals(20, queue.peekEarliestLinkExitTime(), 0);
+		Assertions.assertEquals(1.5, queue.peekSizeInEquivalents(), 0);
+		queue.clear();
+		Assertions.assertTrue(queue.isEmpty());
+		Assertions.assertNull(queue.peek());
+	}
+
+	@Test
+	void testSameEventsAsLinkedList() {
+		Assertions.assertEquals(run(VehicleQueue.linkedList), run(VehicleQueue.ringBuffer));
+	}
+
+	private List<String> run(VehicleQueue vehicleQueue) {
+		Config config = utils.loadConfig("test/scenarios/equil/config.xml");
+		config.plans().setInputFile("plans100.xml");
+		config.qsim().setVehicleQueue(vehicleQueue);
+		Scenario scenario = ScenarioUtils.loadScenario(config);
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+
+		List<String> events = new ArrayList<>();
+		EventsManager eventsManager = EventsUtils.createEventsManager();
+		eventsManager.addHandler((BasicEventHandler) event -> events.add(event.toString()));
+		new QSimBuilder(config).useDefaults().build(scenario, eventsManager).run();
+		return events;
+	}
+
+	private static QVehicle createVehicle(int id, double earliestLinkExitTime) {
+		VehicleType type = VehicleUtils.createVehicleType(Id.create("type", VehicleType.class));
+		type.setPcuEquivalents(1.5);
+		QVehicle veh = new QVehicleImpl(VehicleUtils.createVehicle(Id.createVehicleId(id), type));
+		veh.setEarliestLinkExitTime(earliestLinkExitTime);
+		return veh;
+	}
+}
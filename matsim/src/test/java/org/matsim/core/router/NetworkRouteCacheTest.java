@@ -0,0 +1,156 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.controler.events.IterationStartsEvent;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.vehicles.Vehicle;
+import org.matsim.vehicles.VehicleType;
+import org.matsim.vehicles.VehicleUtils;
+
+import java.util.List;
+
+public class NetworkRouteCacheTest {
+
+	@Test
+	void testCachedPaths() {
+		Fixture f = new Fixture();
+		NetworkRouteCache cache = new NetworkRouteCache(100, 900);
+		LeastCostPathCalculator router = cache.wrap("car", f.delegate);
+
+		LeastCostPathCalculator.Path path1 = router.calcLeastCostPath(f.node1, f.node3, 7 * 3600 + 100, null, null);
+		Assertions.assertEquals(1, f.delegate.calls);
+		Assertions.assertEquals(2, path1.links.size());
+
+		// same time bin
+		LeastCostPathCalculator.Path path2 = router.calcLeastCostPath(f.node1, f.node3, 7 * 3600 + 800, null, null);
+		Assertions.assertEquals(1, f.delegate.calls);
+		Assertions.assertSame(path1, path2);
+
+		// next time bin
+		router.calcLeastCostPath(f.node1, f.node3, 7 * 3600 + 900, null, null);
+		Assertions.assertEquals(2, f.delegate.calls);
+
+		// other destination
+		router.calcLeastCostPath(f.node1, f.node2, 7 * 3600 + 100, null, null);
+		Assertions.assertEquals(3, f.delegate.calls);
+
+		// other name, e.g. another mode
+		cache.wrap("bike", f.delegate).calcLeastCostPath(f.node1, f.node3, 7 * 3600 + 100, null, null);
+		Assertions.assertEquals(4, f.delegate.calls);
+	}
+
+	@Test
+	void testVehicleTypes() {
+		Fixture f = new Fixture();
+		NetworkRouteCache cache = new NetworkRouteCache(100, 900);
+		LeastCostPathCalculator router = cache.wrap("car", f.delegate);
+
+		VehicleType carType = VehicleUtils.createVehicleType(Id.create("car", VehicleType.class));
+		VehicleType truckType = VehicleUtils.createVehicleType(Id.create("truck", VehicleType.class));
+		Vehicle car1 = VehicleUtils.createVehicle(Id.create("car1", Vehicle.class), carType);
+		Vehicle car2 = VehicleUtils.createVehicle(Id.create("car2", Vehicle.class), carType);
+		Vehicle truck = VehicleUtils.createVehicle(Id.create("truck", Vehicle.class), truckType);
+
+		router.calcLeastCostPath(f.node1, f.node3, 8 * 3600, null, car1);
+		router.calcLeastCostPath(f.node1, f.node3, 8 * 3600, null, car2);
+		Assertions.assertEquals(1, f.delegate.calls);
+
+		router.calcLeastCostPath(f.node1, f.node3, 8 * 3600, null, truck);
+		Assertions.assertEquals(2, f.delegate.calls);
+	}
+
+	@Test
+	void testClearedAtIterationStart() {
+		Fixture f = new Fixture();
+		NetworkRouteCache cache = new NetworkRouteCache(100, 900);
+		LeastCostPathCalculator router = cache.wrap("car", f.delegate);
+
+		router.calcLeastCostPath(f.node1, f.node3, 8 * 3600, null, null);
+		router.calcLeastCostPath(f.node1, f.node3, 8 * 3600, null, null);
+		Assertions.assertEquals(1, f.delegate.calls);
+
+		cache.notifyIterationStarts(new IterationStartsEvent(null, 1, false));
+		router.calcLeastCostPath(f.node1, f.node3, 8 * 3600, null, null);
+		Assertions.assertEquals(2, f.delegate.calls);
+	}
+
+	@Test
+	void testLeastRecentlyUsedEviction() {
+		Fixture f = new Fixture();
+		// 16 segments with one entry each
+		NetworkRouteCache cache = new NetworkRouteCache(1, 1);
+		LeastCostPathCalculator router = cache.wrap("car", f.delegate);
+
+		for (int i = 0; i < 1000; i++) {
+			router.calcLeastCostPath(f.node1, f.node3, i, null, null);
+		}
+		Assertions.assertEquals(1000, f.delegate.calls);
+
+		// the earliest paths were evicted
+		router.calcLeastCostPath(f.node1, f.node3, 0, null, null);
+		Assertions.assertEquals(1001, f.delegate.calls);
+	}
+
+	@Test
+	void testDisabled() {
+		Fixture f = new Fixture();
+		NetworkRouteCache cache = new NetworkRouteCache(0, 900);
+		Assertions.assertFalse(cache.isEnabled());
+		Assertions.assertSame(f.delegate, cache.wrap("car", f.delegate));
+	}
+
+	private static class Fixture {
+		final Network network = NetworkUtils.createNetwork();
+		final Node node1 = NetworkUtils.createAndAddNode(this.network, Id.createNodeId(1), new Coord(0, 0));
+		final Node node2 = NetworkUtils.createAndAddNode(this.network, Id.createNodeId(2), new Coord(1000, 0));
+		final Node node3 = NetworkUtils.createAndAddNode(this.network, Id.createNodeId(3), new Coord(2000, 0));
+		final Link link12 = NetworkUtils.createAndAddLink(this.network, Id.createLinkId(12), this.node1, this.node2, 1000, 10, 2000, 1);
+		final Link link23 = NetworkUtils.createAndAddLink(this.network, Id.createLinkId(23), this.node2, this.node3, 1000, 10, 2000, 1);
+		final CountingPathCalculator delegate = new CountingPathCalculator(this);
+	}
+
+	private static class CountingPathCalculator implements LeastCostPathCalculator {
+		private final Fixture f;
+		int calls = 0;
+
+		CountingPathCalculator(Fixture f) {
+			this.f = f;
+		}
+
+		@Override
+		public Path calcLeastCostPath(Node fromNode, Node toNode, double starttime, Person person, Vehicle vehicle) {
+			this.calls++;
+			if (toNode == this.f.node2) {
+				return new Path(List.of(this.f.node1, this.f.node2), List.of(this.f.link12), 100, 100);
+			}
+			return new Path(List.of(this.f.node1, this.f.node2, this.f.node3), List.of(this.f.link12, this.f.link23), 200, 200);
+		}
+	}
+}
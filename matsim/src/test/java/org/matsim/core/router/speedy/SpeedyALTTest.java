@@ -20,17 +20,31 @@
 
 package org.matsim.core.router.speedy;
 
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
 import org.matsim.core.config.groups.ScoringConfigGroup;
+import org.matsim.core.network.NetworkUtils;
 import org.matsim.core.router.AbstractLeastCostPathCalculatorTest;
 import org.matsim.core.router.costcalculators.FreespeedTravelTimeAndDisutility;
 import org.matsim.core.router.util.LeastCostPathCalculator;
 
+import java.io.File;
+import java.util.Objects;
+
 /**
  * @author mrieser
  */
 public class SpeedyALTTest extends AbstractLeastCostPathCalculatorTest {
 
+	@TempDir
+	public File tempFolder;
+
 	@Override
 	protected LeastCostPathCalculator getLeastCostPathCalculator(final Network network) {
 		FreespeedTravelTimeAndDisutility travelTimeCostCalculator = new FreespeedTravelTimeAndDisutility(new ScoringConfigGroup());
@@ -39,4 +53,57 @@ public class SpeedyALTTest extends AbstractLeastCostPathCalculatorTest {
 		return new SpeedyALT(altData, travelTimeCostCalculator, travelTimeCostCalculator);
 	}
 
+	@Test
+	void testCache() {
+		Network network = NetworkUtils.createNetwork();
+		Node[][] nodes = new Node[10][10];
+		for (int x = 0; x < 10; x++) {
+			for (int y = 0; y < 10; y++) {
+				nodes[x][y] = NetworkUtils.createAndAddNode(network, Id.createNodeId(x + "_" + y), new Coord(x * 1000, y * 1000));
+			}
+		}
+		for (int x = 0; x < 10; x++) {
+			for (int y = 0; y < 10; y++) {
+				if (x + 1 < 10) {
+					NetworkUtils.createAndAddLink(network, Id.createLinkId(x + "_" + y + "_x"), nodes[x][y], nodes[x + 1][y], 1000, 10 + (x * y) % 7, 1000, 1);
+				}
+				if (y + 1 < 10) {
+					NetworkUtils.createAndAddLink(network, Id.createLinkId(x + "_" + y + "_y"), nodes[x][y + 1], nodes[x][y], 1000, 10 + (x + y) % 5, 1000, 1);
+				}
+			}
+		}
+		// a dead end
+		Node deadEnd = NetworkUtils.createAndAddNode(network, Id.createNodeId("deadEnd"), new Coord(-1000, 0));
+		NetworkUtils.createAndAddLink(network, Id.createLinkId("in"), nodes[0][0], deadEnd, 1000, 10, 1000, 1);
+		NetworkUtils.createAndAddLink(network, Id.createLinkId("out"), deadEnd, nodes[0][0], 1000, 10, 1000, 1);
+
+		FreespeedTravelTimeAndDisutility tc = new FreespeedTravelTimeAndDisutility(new ScoringConfigGroup());
+		SpeedyGraph graph = new SpeedyGraph(network);
+		String cacheDirectory = this.tempFolder.getAbsolutePath();
+
+		SpeedyALTData calculated = new SpeedyALTData(graph, 8, tc, cacheDirectory);
+		Assertions.assertEquals(1, Objects.requireNonNull(this.tempFolder.listFiles()).length, "the landmarks should be written to the cache");
+		SpeedyALTData cached = new SpeedyALTData(graph, 8, tc, cacheDirectory);
+		Assertions.assertEquals(1, Objects.requireNonNull(this.tempFolder.listFiles()).length, "the cached landmarks should be reused");
+		assertSameData(calculated, cached, graph);
+		assertSameData(new SpeedyALTData(graph, 8, tc), cached, graph);
+
+		// different travel disutilities need different landmarks
+		Link link = network.getLinks().get(Id.createLinkId("0_0_x"));
+		link.setFreespeed(link.getFreespeed() * 2);
+		new SpeedyALTData(graph, 8, tc, cacheDirectory);
+		Assertions.assertEquals(2, Objects.requireNonNull(this.tempFolder.listFiles()).length, "changed travel disutilities should not use the cache");
+	}
+
+	private static void assertSameData(SpeedyALTData expected, SpeedyALTData actual, SpeedyGraph graph) {
+		Assertions.assertEquals(expected.getLandmarksCount(), actual.getLandmarksCount());
+		Assertions.assertEquals(expected.getMinTravelCostPerLength(), actual.getMinTravelCostPerLength());
+		for (int nodeIdx = 0; nodeIdx < graph.nodeCount; nodeIdx++) {
+			Assertions.assertEquals(expected.getNodeDeadend(nodeIdx), actual.getNodeDeadend(nodeIdx));
+			for (int landmarkIdx = 0; landmarkIdx < expected.getLandmarksCount(); landmarkIdx++) {
+				Assertions.assertEquals(expected.getTravelCostFromLandmark(nodeIdx, landmarkIdx), actual.getTravelCostFromLandmark(nodeIdx, landmarkIdx));
+				Assertions.assertEquals(expected.getTravelCostToLandmark(nodeIdx, landmarkIdx), actual.getTravelCostToLandmark(nodeIdx, landmarkIdx));
+			}
+		}
+	}
 }
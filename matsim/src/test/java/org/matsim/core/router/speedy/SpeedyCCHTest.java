@@ -0,0 +1,352 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router.speedy;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.config.groups.ControllerConfigGroup;
+import org.matsim.core.config.groups.ScoringConfigGroup;
+import org.matsim.core.controler.AbstractModule;
+import org.matsim.core.controler.Injector;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.population.PopulationUtils;
+import org.matsim.core.router.AbstractLeastCostPathCalculatorTest;
+import org.matsim.core.router.TripRouter;
+import org.matsim.core.router.TripRouterModule;
+import org.matsim.core.router.costcalculators.FreespeedTravelTimeAndDisutility;
+import org.matsim.core.router.costcalculators.TravelDisutilityFactory;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculator.Path;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.core.scenario.ScenarioByInstanceModule;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.core.utils.timing.TimeInterpretationModule;
+import org.matsim.facilities.FacilitiesUtils;
+import org.matsim.utils.objectattributes.attributable.AttributesImpl;
+import org.matsim.vehicles.Vehicle;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SpeedyCCHTest extends AbstractLeastCostPathCalculatorTest {
+
+	@Override
+	protected LeastCostPathCalculator getLeastCostPathCalculator(final Network network) {
+		FreespeedTravelTimeAndDisutility travelTimeCostCalculator = new FreespeedTravelTimeAndDisutility(new ScoringConfigGroup());
+		return new SpeedyCCHFactory().createPathCalculator(network, travelTimeCostCalculator, travelTimeCostCalculator);
+	}
+
+	@Test
+	void testSameCostsAsDijkstra() {
+		Network network = createGrid(12, new Random(20240601));
+		FreespeedTravelTimeAndDisutility tc = new FreespeedTravelTimeAndDisutility(new ScoringConfigGroup());
+		LeastCostPathCalculator cch = new SpeedyCCHFactory().createPathCalculator(network, tc, tc);
+		LeastCostPathCalculator dijkstra = new SpeedyDijkstra(new SpeedyGraph(network), tc, tc);
+
+		List<Node> nodes = new ArrayList<>(network.getNodes().values());
+		for (Node from : nodes) {
+			for (Node to : nodes) {
+				Path expected = dijkstra.calcLeastCostPath(from, to, 7 * 3600, null, null);
+				Path actual = cch.calcLeastCostPath(from, to, 7 * 3600, null, null);
+				if (expected == null) {
+					Assertions.assertNull(actual, "path from " + from.getId() + " to " + to.getId());
+					continue;
+				}
+				Assertions.assertEquals(expected.travelCost, actual.travelCost, 1e-5 * Math.max(1, expected.travelCost), "path from " + from.getId() + " to " + to.getId());
+				Assertions.assertEquals(expected.travelTime, actual.travelTime, 1e-5 * Math.max(1, expected.travelTime), "path from " + from.getId() + " to " + to.getId());
+				assertConnected(actual, from, to);
+			}
+		}
+	}
+
+	@Test
+	void testUpdateMetrics() {
+		// two routes from 1 to 3: via 2 (link 12 and 23) or directly (link 13)
+		Network network = NetworkUtils.createNetwork();
+		Node n1 = NetworkUtils.createAndAddNode(network, Id.createNodeId("1"), new Coord(0, 0));
+		Node n2 = NetworkUtils.createAndAddNode(network, Id.createNodeId("2"), new Coord(500, 500));
+		Node n3 = NetworkUtils.createAndAddNode(network, Id.createNodeId("3"), new Coord(1000, 0));
+		Link l12 = NetworkUtils.createAndAddLink(network, Id.createLinkId("12"), n1, n2, 700, 10, 1000, 1);
+		Link l23 = NetworkUtils.createAndAddLink(network, Id.createLinkId("23"), n2, n3, 700, 10, 1000, 1);
+		Link l13 = NetworkUtils.createAndAddLink(network, Id.createLinkId("13"), n1, n3, 1000, 10, 1000, 1);
+
+		Map<Link, Double> travelTimes = new HashMap<>();
+		TravelTime tt = (link, time, person, vehicle) -> travelTimes.getOrDefault(link, link.getLength() / link.getFreespeed());
+		TravelDisutility td = new TravelDisutility() {
+			@Override
+			public double getLinkTravelDisutility(Link link, double time, Person person, Vehicle vehicle) {
+				return tt.getLinkTravelTime(link, time, person, vehicle);
+			}
+
+			@Override
+			public double getLinkMinimumTravelDisutility(Link link) {
+				return link.getLength() / link.getFreespeed();
+			}
+		};
+
+		SpeedyCCHFactory factory = new SpeedyCCHFactory();
+		LeastCostPathCalculator cch = factory.createPathCalculator(network, td, tt);
+		Path path = cch.calcLeastCostPath(n1, n3, 8 * 3600, null, null);
+		Assertions.assertEquals(List.of(l13), path.links);
+
+		travelTimes.put(l13, 500.0);
+		path = cch.calcLeastCostPath(n1, n3, 8 * 3600, null, null);
+		Assertions.assertEquals(List.of(l13), path.links, "the metric should only change after updateMetrics()");
+		Assertions.assertEquals(500.0, path.travelTime, 1e-8, "the travel time should always be calculated with the current travel times");
+
+		factory.updateMetrics();
+		path = cch.calcLeastCostPath(n1, n3, 8 * 3600, null, null);
+		Assertions.assertEquals(List.of(l12, l23), path.links);
+		Assertions.assertEquals(140.0, path.travelTime, 1e-8);
+	}
+
+	@Test
+	void testTimeBuckets() {
+		Network network = NetworkUtils.createNetwork();
+		Node n1 = NetworkUtils.createAndAddNode(network, Id.createNodeId("1"), new Coord(0, 0));
+		Node n2 = NetworkUtils.createAndAddNode(network, Id.createNodeId("2"), new Coord(500, 500));
+		Node n3 = NetworkUtils.createAndAddNode(network, Id.createNodeId("3"), new Coord(1000, 0));
+		Link l12 = NetworkUtils.createAndAddLink(network, Id.createLinkId("12"), n1, n2, 700, 10, 1000, 1);
+		Link l23 = NetworkUtils.createAndAddLink(network, Id.createLinkId("23"), n2, n3, 700, 10, 1000, 1);
+		Link l13 = NetworkUtils.createAndAddLink(network, Id.createLinkId("13"), n1, n3, 1000, 10, 1000, 1);
+
+		// the direct link is congested during the morning peak
+		TravelTime tt = (link, time, person, vehicle) -> (link == l13 && time >= 7 * 3600 && time < 9 * 3600) ? 500 : link.getLength() / link.getFreespeed();
+		TravelDisutility td = new TravelDisutility() {
+			@Override
+			public double getLinkTravelDisutility(Link link, double time, Person person, Vehicle vehicle) {
+				return tt.getLinkTravelTime(link, time, person, vehicle);
+			}
+
+			@Override
+			public double getLinkMinimumTravelDisutility(Link link) {
+				return link.getLength() / link.getFreespeed();
+			}
+		};
+
+		LeastCostPathCalculator cch = new SpeedyCCHFactory(3600, 24 * 3600, 2).createPathCalculator(network, td, tt);
+		Assertions.assertEquals(List.of(l13), cch.calcLeastCostPath(n1, n3, 6 * 3600, null, null).links);
+		Assertions.assertEquals(List.of(l12, l23), cch.calcLeastCostPath(n1, n3, 8 * 3600, null, null).links);
+		Assertions.assertEquals(List.of(l13), cch.calcLeastCostPath(n1, n3, 10 * 3600, null, null).links);
+		Assertions.assertEquals(List.of(l13), cch.calcLeastCostPath(n1, n3, 30 * 3600, null, null).links, "late departures should use the last bucket");
+	}
+
+	@Test
+	void testTwoDisutilities() {
+		Network network = NetworkUtils.createNetwork();
+		Node n1 = NetworkUtils.createAndAddNode(network, Id.createNodeId("1"), new Coord(0, 0));
+		Node n2 = NetworkUtils.createAndAddNode(network, Id.createNodeId("2"), new Coord(500, 500));
+		Node n3 = NetworkUtils.createAndAddNode(network, Id.createNodeId("3"), new Coord(1000, 0));
+		Link l12 = NetworkUtils.createAndAddLink(network, Id.createLinkId("12"), n1, n2, 700, 10, 1000, 1);
+		Link l23 = NetworkUtils.createAndAddLink(network, Id.createLinkId("23"), n2, n3, 700, 10, 1000, 1);
+		Link l13 = NetworkUtils.createAndAddLink(network, Id.createLinkId("13"), n1, n3, 1000, 10, 1000, 1);
+
+		TravelTime tt = (link, time, person, vehicle) -> link.getLength() / link.getFreespeed();
+		TravelDisutility byTime = new TravelDisutility() {
+			@Override
+			public double getLinkTravelDisutility(Link link, double time, Person person, Vehicle vehicle) {
+				return tt.getLinkTravelTime(link, time, person, vehicle);
+			}
+
+			@Override
+			public double getLinkMinimumTravelDisutility(Link link) {
+				return link.getLength() / link.getFreespeed();
+			}
+		};
+		// the direct link is tolled
+		TravelDisutility withToll = new TravelDisutility() {
+			@Override
+			public double getLinkTravelDisutility(Link link, double time, Person person, Vehicle vehicle) {
+				return tt.getLinkTravelTime(link, time, person, vehicle) + (link == l13 ? 1000 : 0);
+			}
+
+			@Override
+			public double getLinkMinimumTravelDisutility(Link link) {
+				return link.getLength() / link.getFreespeed();
+			}
+		};
+
+		SpeedyCCHFactory factory = new SpeedyCCHFactory();
+		LeastCostPathCalculator fastest = factory.createPathCalculator(network, byTime, tt);
+		LeastCostPathCalculator cheapest = factory.createPathCalculator(network, withToll, tt);
+		Assertions.assertEquals(List.of(l13), fastest.calcLeastCostPath(n1, n3, 8 * 3600, null, null).links);
+		Assertions.assertEquals(List.of(l12, l23), cheapest.calcLeastCostPath(n1, n3, 8 * 3600, null, null).links);
+
+		// also after the metrics were customized again
+		factory.updateMetrics();
+		cheapest = factory.createPathCalculator(network, withToll, tt);
+		fastest = factory.createPathCalculator(network, byTime, tt);
+		Assertions.assertEquals(List.of(l12, l23), cheapest.calcLeastCostPath(n1, n3, 8 * 3600, null, null).links);
+		Assertions.assertEquals(List.of(l13), fastest.calcLeastCostPath(n1, n3, 8 * 3600, null, null).links);
+	}
+
+	@Test
+	void testSharedByRoutingModules() {
+		Config config = ConfigUtils.createConfig();
+		config.controller().setRoutingAlgorithmType(ControllerConfigGroup.RoutingAlgorithmType.SpeedyCCH);
+		Scenario scenario = ScenarioUtils.createScenario(config);
+		Network network = scenario.getNetwork();
+		Node n1 = NetworkUtils.createAndAddNode(network, Id.createNodeId("1"), new Coord(0, 0));
+		Node n2 = NetworkUtils.createAndAddNode(network, Id.createNodeId("2"), new Coord(1000, 0));
+		Node n3 = NetworkUtils.createAndAddNode(network, Id.createNodeId("3"), new Coord(2000, 0));
+		Link l12 = NetworkUtils.createAndAddLink(network, Id.createLinkId("12"), n1, n2, 1000, 10, 1000, 1);
+		Link l23 = NetworkUtils.createAndAddLink(network, Id.createLinkId("23"), n2, n3, 1000, 10, 1000, 1);
+
+		// counts how often the links are customized, every routing module gets its own travel disutility
+		AtomicInteger customizations = new AtomicInteger();
+		TravelDisutilityFactory disutilityFactory = travelTime -> new TravelDisutility() {
+			@Override
+			public double getLinkTravelDisutility(Link link, double time, Person person, Vehicle vehicle) {
+				if (person != null && person.getId().toString().equals("speedyCCH_customization")) {
+					customizations.incrementAndGet();
+				}
+				return travelTime.getLinkTravelTime(link, time, person, vehicle);
+			}
+
+			@Override
+			public double getLinkMinimumTravelDisutility(Link link) {
+				return link.getLength() / link.getFreespeed();
+			}
+		};
+		com.google.inject.Injector injector = Injector.createInjector(config, new AbstractModule() {
+			@Override
+			public void install() {
+				install(new ScenarioByInstanceModule(scenario));
+				install(new TimeInterpretationModule());
+				install(AbstractModule.override(List.of(new TripRouterModule()), new AbstractModule() {
+					@Override
+					public void install() {
+						addTravelTimeBinding(TransportMode.car).toInstance(new FreespeedTravelTimeAndDisutility(config.scoring()));
+						addTravelDisutilityFactoryBinding(TransportMode.car).toInstance(disutilityFactory);
+					}
+				}));
+			}
+		});
+
+		// like two replanning threads
+		TripRouter router1 = injector.getInstance(TripRouter.class);
+		TripRouter router2 = injector.getInstance(TripRouter.class);
+		Person person = PopulationUtils.getFactory().createPerson(Id.createPersonId("1"));
+		router1.calcRoute(TransportMode.car, FacilitiesUtils.wrapLink(l12), FacilitiesUtils.wrapLink(l23), 8 * 3600, person, new AttributesImpl());
+		int customized = customizations.get();
+		Assertions.assertTrue(customized > 0);
+		router2.calcRoute(TransportMode.car, FacilitiesUtils.wrapLink(l12), FacilitiesUtils.wrapLink(l23), 8 * 3600, person, new AttributesImpl());
+		Assertions.assertEquals(customized, customizations.get(), "the second routing module should reuse the customized metric");
+	}
+
+	@Test
+	void testSameMetricForSameTravelDisutilityFactory() {
+		Network network = createGrid(3, new Random(20240601));
+		FreespeedTravelTimeAndDisutility tc = new FreespeedTravelTimeAndDisutility(new ScoringConfigGroup());
+		TravelDisutilityFactory factory1 = travelTime -> tc;
+		TravelDisutilityFactory factory2 = travelTime -> tc;
+
+		SpeedyCCHFactory factory = new SpeedyCCHFactory();
+		SpeedyCCH cch1 = (SpeedyCCH) factory.createPathCalculator(network, factory1, tc);
+		SpeedyCCH cch2 = (SpeedyCCH) factory.createPathCalculator(network, factory1, tc);
+		SpeedyCCH cch3 = (SpeedyCCH) factory.createPathCalculator(network, factory2, tc);
+		Assertions.assertSame(cch1.metric, cch2.metric);
+		Assertions.assertNotSame(cch1.metric, cch3.metric);
+	}
+
+	@Test
+	void testNoRoute() {
+		Network network = NetworkUtils.createNetwork();
+		Node n1 = NetworkUtils.createAndAddNode(network, Id.createNodeId("1"), new Coord(0, 0));
+		Node n2 = NetworkUtils.createAndAddNode(network, Id.createNodeId("2"), new Coord(1000, 0));
+		NetworkUtils.createAndAddLink(network, Id.createLinkId("12"), n1, n2, 1000, 10, 1000, 1);
+
+		FreespeedTravelTimeAndDisutility tc = new FreespeedTravelTimeAndDisutility(new ScoringConfigGroup());
+		LeastCostPathCalculator cch = new SpeedyCCHFactory().createPathCalculator(network, tc, tc);
+		Assertions.assertNotNull(cch.calcLeastCostPath(n1, n2, 0, null, null));
+		Assertions.assertNull(cch.calcLeastCostPath(n2, n1, 0, null, null));
+	}
+
+	private static void assertConnected(Path path, Node from, Node to) {
+		Assertions.assertEquals(from, path.nodes.get(0));
+		Assertions.assertEquals(to, path.nodes.get(path.nodes.size() - 1));
+		Assertions.assertEquals(path.nodes.size(), path.links.size() + 1);
+		for (int i = 0; i < path.links.size(); i++) {
+			Assertions.assertEquals(path.nodes.get(i), path.links.get(i).getFromNode());
+			Assertions.assertEquals(path.nodes.get(i + 1), path.links.get(i).getToNode());
+		}
+	}
+
+	/**
+	 * A grid with some missing and one-way links, some parallel links, and random lengths and speeds.
+	 */
+	private static Network createGrid(int size, Random random) {
+		Network network = NetworkUtils.createNetwork();
+		Node[][] nodes = new Node[size][size];
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				nodes[x][y] = NetworkUtils.createAndAddNode(network, Id.createNodeId(x + "_" + y), new Coord(x * 1000 + random.nextInt(300), y * 1000 + random.nextInt(300)));
+			}
+		}
+		int linkId = 0;
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				if (x + 1 < size) {
+					linkId = addLinks(network, nodes[x][y], nodes[x + 1][y], linkId, random);
+				}
+				if (y + 1 < size) {
+					linkId = addLinks(network, nodes[x][y], nodes[x][y + 1], linkId, random);
+				}
+			}
+		}
+		return network;
+	}
+
+	private static int addLinks(Network network, Node a, Node b, int linkId, Random random) {
+		double r = random.nextDouble();
+		if (r < 0.1) {
+			return linkId;
+		}
+		addLink(network, a, b, linkId++, random);
+		if (r > 0.2) {
+			addLink(network, b, a, linkId++, random);
+		}
+		if (r > 0.95) {
+			addLink(network, a, b, linkId++, random);
+		}
+		return linkId;
+	}
+
+	private static void addLink(Network network, Node from, Node to, int linkId, Random random) {
+		double length = NetworkUtils.getEuclideanDistance(from.getCoord(), to.getCoord()) * (1 + random.nextDouble());
+		double freespeed = 5 + random.nextInt(30);
+		NetworkUtils.createAndAddLink(network, Id.createLinkId("l" + linkId), from, to, length, freespeed, 1000, 1);
+	}
+}
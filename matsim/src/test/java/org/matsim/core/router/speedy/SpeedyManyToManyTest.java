@@ -0,0 +1,153 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2024 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router.speedy;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.core.trafficmonitoring.FreeSpeedTravelTime;
+import org.matsim.core.utils.misc.OptionalTime;
+import org.matsim.vehicles.Vehicle;
+
+import java.util.Random;
+
+public class SpeedyManyToManyTest {
+
+	@Test
+	void testSameTravelTimesAsLeastCostPathTree() {
+		Random random = new Random(20240602);
+		int size = 15;
+		Network network = NetworkUtils.createNetwork();
+		Node[][] grid = new Node[size][size];
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				grid[x][y] = NetworkUtils.createAndAddNode(network, Id.createNodeId(x + "_" + y), new Coord(x * 1000 + random.nextInt(300), y * 1000 + random.nextInt(300)));
+			}
+		}
+		int linkId = 0;
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				if (x + 1 < size && random.nextDouble() > 0.1) {
+					addLink(network, grid[x][y], grid[x + 1][y], linkId++, random);
+					addLink(network, grid[x + 1][y], grid[x][y], linkId++, random);
+				}
+				if (y + 1 < size && random.nextDouble() > 0.1) {
+					addLink(network, grid[x][y], grid[x][y + 1], linkId++, random);
+					if (random.nextDouble() > 0.2) {
+						addLink(network, grid[x][y + 1], grid[x][y], linkId++, random);
+					}
+				}
+			}
+		}
+
+		// 13 origins, so the last sweep is not full
+		Node[] fromNodes = new Node[13];
+		for (int i = 0; i < fromNodes.length; i++) {
+			fromNodes[i] = grid[random.nextInt(size)][random.nextInt(size)];
+		}
+		Node[] toNodes = new Node[20];
+		for (int i = 0; i < toNodes.length; i++) {
+			toNodes[i] = grid[random.nextInt(size)][random.nextInt(size)];
+		}
+		toNodes[0] = fromNodes[0];
+
+		TravelTime tt = new FreeSpeedTravelTime();
+		SpeedyGraph graph = new SpeedyGraph(network);
+		float[] matrix = new SpeedyCCHFactory(3600, 30 * 3600, 3).createManyToMany(network, tt).calcTravelTimes(fromNodes, toNodes, 8 * 3600);
+
+		LeastCostPathTree tree = new LeastCostPathTree(graph, tt, new TravelTimeDisutility(tt));
+		for (int i = 0; i < fromNodes.length; i++) {
+			tree.calculate(fromNodes[i].getId().index(), 8 * 3600, null, null);
+			for (int j = 0; j < toNodes.length; j++) {
+				OptionalTime time = tree.getTime(toNodes[j].getId().index());
+				float actual = matrix[i * toNodes.length + j];
+				if (time.isUndefined()) {
+					Assertions.assertEquals(Float.POSITIVE_INFINITY, actual);
+				} else {
+					Assertions.assertEquals(time.seconds() - 8 * 3600, actual, 1e-2, "from " + fromNodes[i].getId() + " to " + toNodes[j].getId());
+				}
+			}
+		}
+		Assertions.assertEquals(0, matrix[0]);
+	}
+
+	@Test
+	void testTimeBins() {
+		Network network = NetworkUtils.createNetwork();
+		Node n1 = NetworkUtils.createAndAddNode(network, Id.createNodeId("1"), new Coord(0, 0));
+		Node n2 = NetworkUtils.createAndAddNode(network, Id.createNodeId("2"), new Coord(500, 500));
+		Node n3 = NetworkUtils.createAndAddNode(network, Id.createNodeId("3"), new Coord(1000, 0));
+		NetworkUtils.createAndAddLink(network, Id.createLinkId("12"), n1, n2, 700, 10, 1000, 1);
+		NetworkUtils.createAndAddLink(network, Id.createLinkId("23"), n2, n3, 700, 10, 1000, 1);
+		Link l13 = NetworkUtils.createAndAddLink(network, Id.createLinkId("13"), n1, n3, 1000, 10, 1000, 1);
+
+		// the direct link is congested during the morning peak
+		TravelTime tt = (link, time, person, vehicle) -> (link == l13 && time >= 7 * 3600 && time < 9 * 3600) ? 500 : link.getLength() / link.getFreespeed();
+		SpeedyManyToMany manyToMany = new SpeedyCCHFactory(3600, 24 * 3600, 1).createManyToMany(network, tt);
+		Node[] nodes = {n1, n2, n3};
+
+		float[] night = manyToMany.calcTravelTimes(nodes, nodes, 3 * 3600);
+		float[] peak = manyToMany.calcTravelTimes(nodes, nodes, 8 * 3600);
+		Assertions.assertArrayEquals(new float[] {0, 70, 100, Float.POSITIVE_INFINITY, 0, 70, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, 0}, night);
+		Assertions.assertArrayEquals(new float[] {0, 70, 140, Float.POSITIVE_INFINITY, 0, 70, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, 0}, peak);
+	}
+
+	@Test
+	void testSharedContraction() {
+		Network network = NetworkUtils.createNetwork();
+		Node n1 = NetworkUtils.createAndAddNode(network, Id.createNodeId("1"), new Coord(0, 0));
+		Node n2 = NetworkUtils.createAndAddNode(network, Id.createNodeId("2"), new Coord(1000, 0));
+		NetworkUtils.createAndAddLink(network, Id.createLinkId("12"), n1, n2, 1000, 10, 1000, 1);
+		TravelTime tt = new FreeSpeedTravelTime();
+
+		SpeedyCCHFactory factory = new SpeedyCCHFactory();
+		SpeedyCCH cch = (SpeedyCCH) factory.createPathCalculator(network, new TravelTimeDisutility(tt), tt);
+		SpeedyManyToMany manyToMany1 = factory.createManyToMany(network, tt);
+		SpeedyManyToMany manyToMany2 = factory.createManyToMany(network, tt);
+		Assertions.assertSame(cch.metric.data, manyToMany1.data);
+		Assertions.assertSame(cch.metric.data, manyToMany2.data);
+	}
+
+	private static void addLink(Network network, Node from, Node to, int linkId, Random random) {
+		double length = NetworkUtils.getEuclideanDistance(from.getCoord(), to.getCoord()) * (1 + random.nextDouble());
+		double freespeed = 5 + random.nextInt(30);
+		NetworkUtils.createAndAddLink(network, Id.createLinkId("l" + linkId), from, to, length, freespeed, 1000, 1);
+	}
+
+	private record TravelTimeDisutility(TravelTime tt) implements TravelDisutility {
+		@Override
+		public double getLinkTravelDisutility(Link link, double time, Person person, Vehicle vehicle) {
+			return this.tt.getLinkTravelTime(link, time, person, vehicle);
+		}
+
+		@Override
+		public double getLinkMinimumTravelDisutility(Link link) {
+			return link.getLength() / link.getFreespeed();
+		}
+	}
+}
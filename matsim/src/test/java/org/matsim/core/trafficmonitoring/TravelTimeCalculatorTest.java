@@ -27,6 +27,10 @@ import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
 
 import javax.xml.parsers.ParserConfigurationException;
 
@@ -43,6 +47,7 @@ import org.matsim.api.core.v01.events.Event;
 import org.matsim.api.core.v01.events.LinkEnterEvent;
 import org.matsim.api.core.v01.events.LinkLeaveEvent;
 import org.matsim.api.core.v01.events.VehicleEntersTrafficEvent;
+import org.matsim.api.core.v01.events.VehicleLeavesTrafficEvent;
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.network.Network;
 import org.matsim.api.core.v01.network.Node;
@@ -55,7 +60,9 @@ import org.matsim.core.config.groups.TravelTimeCalculatorConfigGroup;
 import org.matsim.core.events.EventsUtils;
 import org.matsim.core.events.MatsimEventsReader;
 import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.network.algorithms.TransportModeNetworkFilter;
 import org.matsim.core.network.io.MatsimNetworkReader;
+import org.matsim.core.router.util.TravelTime;
 import org.matsim.core.scenario.MutableScenario;
 import org.matsim.core.scenario.ScenarioUtils;
 import org.matsim.core.utils.io.IOUtils;
@@ -314,6 +321,166 @@ public class TravelTimeCalculatorTest {
 		assertEquals(linkTravelTime2, ttcalc.getLinkTravelTimes().getLinkTravelTime(link1, firstTimeBinStart + 2.5*timeBinSize, null, null), MatsimTestUtils.EPSILON);
 	}
 
+	@Test
+	void testSnapshot() {
+		for (String getterType : new String[] {"average", "linearinterpolation"}) {
+			TravelTimeCalculatorConfigGroup config = new TravelTimeCalculatorConfigGroup();
+			config.setTravelTimeGetterType(getterType);
+			config.setTraveltimeBinSize(15*60);
+			config.setMaxTime(12*3600);
+
+			Network network = NetworkUtils.createNetwork();
+			Node n1 = NetworkUtils.createAndAddNode(network, Id.create("1", Node.class), new Coord(0, 0));
+			Node n2 = NetworkUtils.createAndAddNode(network, Id.create("2", Node.class), new Coord(1000, 0));
+			Node n3 = NetworkUtils.createAndAddNode(network, Id.create("3", Node.class), new Coord(2000, 0));
+			Link link1 = NetworkUtils.createAndAddLink(network, Id.create("1", Link.class), n1, n2, 1000.0, 10.0, 3600.0, 1.0);
+			Link link2 = NetworkUtils.createAndAddLink(network, Id.create("2", Link.class), n2, n3, 1000.0, 10.0, 3600.0, 1.0);
+			Link link3 = NetworkUtils.createAndAddLink(network, Id.create("3", Link.class), n3, n1, 2000.0, 20.0, 3600.0, 1.0);
+			Id<Vehicle> vehId = Id.create("1", Vehicle.class);
+
+			TravelTimeCalculator ttcalc = TravelTimeCalculator.create(network, config);
+			ttcalc.handleEvent(new LinkEnterEvent(7*3600, vehId, link1.getId()));
+			ttcalc.handleEvent(new LinkLeaveEvent(7*3600 + 50*60, vehId, link1.getId()));
+			ttcalc.handleEvent(new LinkEnterEvent(7*3600 + 50*60, vehId, link2.getId()));
+			ttcalc.handleEvent(new LinkLeaveEvent(7*3600 + 52*60 + 0.5, vehId, link2.getId()));
+			ttcalc.handleEvent(new LinkEnterEvent(8*3600, vehId, link1.getId()));
+			ttcalc.handleEvent(new LinkLeaveEvent(8*3600 + 20*60, vehId, link1.getId()));
+
+			TravelTimeSnapshot snapshot = ttcalc.getLinkTravelTimesSnapshot();
+			Assertions.assertSame(snapshot, ttcalc.getLinkTravelTimesSnapshot(), "the snapshot should be reused as long as the travel times do not change");
+			Assertions.assertEquals(2, snapshot.getObservedLinksCount());
+			TravelTime travelTimes = ttcalc.getLinkTravelTimes();
+			for (Link link : new Link[] {link1, link2, link3}) {
+				for (double time = 0; time < 14*3600; time += 60) {
+					double expected = travelTimes.getLinkTravelTime(link, time, null, null);
+					Assertions.assertEquals(expected, snapshot.getLinkTravelTime(link, time, null, null), 1e-3, getterType + ": link " + link.getId() + " at " + time);
+					Assertions.assertEquals(expected, snapshot.getLinkTravelTime(link.getId().index(), time), 1e-3, getterType + ": link " + link.getId() + " at " + time);
+				}
+			}
+
+			ttcalc.handleEvent(new LinkEnterEvent(9*3600, vehId, link3.getId()));
+			ttcalc.handleEvent(new LinkLeaveEvent(9*3600 + 300, vehId, link3.getId()));
+			TravelTimeSnapshot newSnapshot = ttcalc.getLinkTravelTimesSnapshot();
+			Assertions.assertNotSame(snapshot, newSnapshot, "the snapshot must not be reused after the travel times changed");
+			Assertions.assertEquals(300.0, newSnapshot.getLinkTravelTime(link3, 9*3600 + 450, null, null), 1e-3);
+			Assertions.assertEquals(100.0, snapshot.getLinkTravelTime(link3, 9*3600 + 450, null, null), 1e-3, "the old snapshot should not change");
+		}
+	}
+
+	@Test
+	void testSnapshotWithFilteredNetwork() {
+		TravelTimeCalculatorConfigGroup config = new TravelTimeCalculatorConfigGroup();
+		config.setTraveltimeBinSize(15*60);
+
+		Network network = NetworkUtils.createNetwork();
+		Node n1 = NetworkUtils.createAndAddNode(network, Id.create("1", Node.class), new Coord(0, 0));
+		Node n2 = NetworkUtils.createAndAddNode(network, Id.create("2", Node.class), new Coord(1000, 0));
+		Link link1 = NetworkUtils.createAndAddLink(network, Id.create("1", Link.class), n1, n2, 1000.0, 10.0, 3600.0, 1.0);
+		Id<Vehicle> vehId = Id.create("1", Vehicle.class);
+
+		TravelTimeCalculator ttcalc = TravelTimeCalculator.create(network, config);
+		ttcalc.handleEvent(new LinkEnterEvent(7*3600, vehId, link1.getId()));
+		ttcalc.handleEvent(new LinkLeaveEvent(7*3600 + 300, vehId, link1.getId()));
+		TravelTimeSnapshot snapshot = ttcalc.getLinkTravelTimesSnapshot();
+
+		// like the network routing modules, which route on a network filtered by mode
+		Network carNetwork = NetworkUtils.createNetwork();
+		new TransportModeNetworkFilter(network).filter(carNetwork, Set.of(TransportMode.car));
+		Link carLink1 = carNetwork.getLinks().get(link1.getId());
+		Assertions.assertNotSame(link1, carLink1);
+		Assertions.assertEquals(300.0, snapshot.getLinkTravelTime(carLink1, 7*3600 + 60, null, null), 1e-3);
+		Assertions.assertEquals(100.0, snapshot.getLinkTravelTime(carLink1, 9*3600, null, null), 1e-3);
+	}
+
+	@Test
+	void testConcurrentEventHandling() throws InterruptedException {
+		TravelTimeCalculatorConfigGroup config = new TravelTimeCalculatorConfigGroup();
+		config.setTraveltimeBinSize(15*60);
+		config.setMaxTime(12*3600);
+		config.setFilterModes(true);
+		config.setAnalyzedModesAsString(TransportMode.car);
+
+		Network network = NetworkUtils.createNetwork();
+		int nodesCount = 10;
+		Node[] nodes = new Node[nodesCount];
+		for (int i = 0; i < nodesCount; i++) {
+			nodes[i] = NetworkUtils.createAndAddNode(network, Id.create("n" + i, Node.class), new Coord(i * 1000, 0));
+		}
+		Link[] links = new Link[nodesCount];
+		for (int i = 0; i < nodesCount; i++) {
+			links[i] = NetworkUtils.createAndAddLink(network, Id.create("l" + i, Link.class), nodes[i], nodes[(i + 1) % nodesCount], 1000.0, 10.0, 3600.0, 1.0);
+		}
+
+		// every vehicle drives some links in a circle, every fifth vehicle is a bike and must be ignored
+		int vehiclesCount = 3000;
+		List<List<Event>> eventsPerVehicle = new ArrayList<>();
+		Random random = new Random(20240605);
+		for (int v = 0; v < vehiclesCount; v++) {
+			List<Event> events = new ArrayList<>();
+			Id<Vehicle> vehId = Id.create("v" + v, Vehicle.class);
+			double time = 5*3600 + random.nextInt(6*3600);
+			int linkIndex = random.nextInt(nodesCount);
+			String mode = v % 5 == 0 ? TransportMode.bike : TransportMode.car;
+			events.add(new VehicleEntersTrafficEvent(time, Id.create(v, Person.class), links[linkIndex].getId(), vehId, mode, 1.0));
+			for (int i = random.nextInt(10); i >= 0; i--) {
+				events.add(new LinkLeaveEvent(time, vehId, links[linkIndex].getId()));
+				linkIndex = (linkIndex + 1) % nodesCount;
+				events.add(new LinkEnterEvent(time, vehId, links[linkIndex].getId()));
+				time += 100 + random.nextInt(400);
+			}
+			events.add(new VehicleLeavesTrafficEvent(time, Id.create(v, Person.class), links[linkIndex].getId(), vehId, mode, 1.0));
+			eventsPerVehicle.add(events);
+		}
+
+		TravelTimeCalculator sequential = TravelTimeCalculator.create(network, config);
+		for (List<Event> events : eventsPerVehicle) {
+			for (Event event : events) {
+				handleEvent(sequential, event);
+			}
+		}
+
+		TravelTimeCalculator concurrent = TravelTimeCalculator.create(network, config);
+		int threadsCount = 4;
+		Thread[] threads = new Thread[threadsCount];
+		for (int t = 0; t < threadsCount; t++) {
+			int firstVehicle = t;
+			threads[t] = new Thread(() -> {
+				for (int v = firstVehicle; v < vehiclesCount; v += threadsCount) {
+					for (Event event : eventsPerVehicle.get(v)) {
+						handleEvent(concurrent, event);
+					}
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		boolean congested = false;
+		for (Link link : links) {
+			for (double time = 0; time < 12*3600; time += 15*60) {
+				double expected = sequential.getLinkTravelTimes().getLinkTravelTime(link, time, null, null);
+				// the averages are rounded to milliseconds after each added travel time, so the order matters a bit
+				Assertions.assertEquals(expected, concurrent.getLinkTravelTimes().getLinkTravelTime(link, time, null, null), 1e-2, "link " + link.getId() + " at " + time);
+				congested |= expected > 200;
+			}
+		}
+		Assertions.assertTrue(congested);
+	}
+
+	private static void handleEvent(TravelTimeCalculator ttc, Event event) {
+		if (event instanceof LinkEnterEvent e) {
+			ttc.handleEvent(e);
+		} else if (event instanceof LinkLeaveEvent e) {
+			ttc.handleEvent(e);
+		} else if (event instanceof VehicleEntersTrafficEvent e) {
+			ttc.handleEvent(e);
+		} else if (event instanceof VehicleLeavesTrafficEvent e) {
+			ttc.handleEvent(e);
+		}
+	}
+
 	/**
 	 * Tests that calculating LinkTravelTimes works also without reading in a complete scenario including population.
 	 *
@@ -295,6 +295,76 @@ public class IOUtilsTest {
 		Assertions.assertEquals(28, file.length(), "compressed file should be equal 28 bytes, but is " + file.length());
 	}
 
+	@Test
+	void testGetBufferedWriter_blockCompressed() throws IOException {
+		// several blocks, compressed in parallel into independent gzip members and zstd frames
+		for (String extension : new String[] {".gz", ".zst"}) {
+			String filename = this.utils.getOutputDirectory() + "test.txt" + extension;
+			try (BufferedWriter writer = getBlockCompressedWriter(filename)) {
+				for (int i = 0; i < 400000; i++) {
+					writer.write("line " + i + " äöü " + (i * 7919 % 1000) + "\n");
+				}
+			}
+			try (BufferedReader reader = IOUtils.getBufferedReader(filename)) {
+				for (int i = 0; i < 400000; i++) {
+					Assertions.assertEquals("line " + i + " äöü " + (i * 7919 % 1000), reader.readLine(), extension);
+				}
+				Assertions.assertNull(reader.readLine(), extension);
+			}
+		}
+	}
+
+	@Test
+	void testGetBufferedWriter_blockCompressedFlush() throws IOException {
+		for (String extension : new String[] {".gz", ".zst"}) {
+			String filename = this.utils.getOutputDirectory() + "flushed.txt" + extension;
+			try (BufferedWriter writer = getBlockCompressedWriter(filename)) {
+				writer.write("first\n");
+				writer.flush();
+				Assertions.assertEquals("first", readFirstLines(filename, 1), extension);
+
+				// more than a block, so the background threads are started
+				for (int i = 0; i < 200000; i++) {
+					writer.write("line " + i + "\n");
+				}
+				writer.write("last\n");
+				writer.flush();
+				Assertions.assertEquals("last", readFirstLines(filename, 200002), extension);
+			}
+		}
+	}
+
+	private static BufferedWriter getBlockCompressedWriter(String filename) {
+		OutputStream stream = IOUtils.getOutputStream(IOUtils.getFileUrl(filename), false, 2);
+		return new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * @return the last of the first <code>n</code> lines of a file that may still be written to
+	 */
+	private static String readFirstLines(String filename, int n) throws IOException {
+		try (BufferedReader reader = IOUtils.getBufferedReader(filename)) {
+			String line = null;
+			for (int i = 0; i < n; i++) {
+				line = reader.readLine();
+			}
+			return line;
+		}
+	}
+
+	@Test
+	void testParallelCompressionOutputStream_failure() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		OutputStream stream = new ParallelCompressionOutputStream(bytes, (data, length) -> {
+			throw new IOException("compression failed");
+		}, 2);
+		IOException e = Assertions.assertThrows(IOException.class, () -> {
+			stream.write(new byte[3 * ParallelCompressionOutputStream.BLOCK_SIZE]);
+			stream.close();
+		});
+		Assertions.assertEquals("compression failed", e.getMessage());
+	}
+
 	@Test
 	void testGetInputStream_UTFwithoutBOM() throws IOException {
 		String filename = utils.getOutputDirectory() + "test.txt";